@@ -0,0 +1,257 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jmh.mbr.core.model.BenchmarkFixture;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.IterationType;
+import org.openjdk.jmh.util.ListStatistics;
+
+/**
+ * Tracks measurement {@link IterationResult iteration results} per benchmark fixture to decide whether the confidence
+ * interval of a fixture has converged to the {@link BenchmarkConfiguration#getMeasurementTargetError() target relative
+ * error}. Adaptive measurement runs benchmarks in rounds of a single fork and schedules further rounds only for
+ * benchmark fixtures that have neither converged nor reached {@link BenchmarkConfiguration#getMeasurementMaxIterations()
+ * the iteration cap}.
+ */
+public class AdaptiveMeasurement {
+
+	/**
+	 * Confidence level used to compute the score error, aligned with JMH's reported score error.
+	 */
+	static final double CONFIDENCE = 0.999;
+
+	private final double targetError;
+	private final int maxIterations;
+	private final Map<String, ListStatistics> scores = new ConcurrentHashMap<>();
+	private final Map<String, String> fixtureToBenchmark = new ConcurrentHashMap<>();
+	private final Map<String, BenchmarkFixture> fixtures = new ConcurrentHashMap<>();
+	private final Set<String> failed = ConcurrentHashMap.newKeySet();
+	private final Map<String, List<BenchmarkResult>> forks = new LinkedHashMap<>();
+	private final Map<String, BenchmarkParams> params = new LinkedHashMap<>();
+
+	AdaptiveMeasurement(double targetError, int maxIterations) {
+		this.targetError = targetError;
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * Create a {@link AdaptiveMeasurement} from {@link BenchmarkConfiguration}.
+	 *
+	 * @param configuration must not be {@literal null}.
+	 * @return the {@link AdaptiveMeasurement} or {@literal null} if adaptive measurement is not enabled. A non-positive
+	 *         iteration cap falls back to {@link BenchmarkConfigProperties#MEASUREMENT_MAX_ITERATIONS the default cap}
+	 *         so that fixtures that never converge still complete.
+	 */
+	public static AdaptiveMeasurement from(BenchmarkConfiguration configuration) {
+
+		double targetError = configuration.getMeasurementTargetError();
+
+		if (targetError <= 0) {
+			return null;
+		}
+
+		int maxIterations = configuration.getMeasurementMaxIterations();
+
+		if (maxIterations <= 0) {
+			maxIterations = BenchmarkConfigProperties.MEASUREMENT_MAX_ITERATIONS.defaultValue();
+		}
+
+		return new AdaptiveMeasurement(targetError, maxIterations);
+	}
+
+	/**
+	 * Record a measurement {@link IterationResult}. Warmup iterations are ignored.
+	 *
+	 * @param benchmarkParams the benchmark.
+	 * @param iterationParams the iteration.
+	 * @param result the iteration result.
+	 */
+	public void record(BenchmarkParams benchmarkParams, IterationParams iterationParams, IterationResult result) {
+
+		if (iterationParams.getType() != IterationType.MEASUREMENT) {
+			return;
+		}
+
+		String key = getFixtureKey(benchmarkParams);
+		ListStatistics statistics = scores.computeIfAbsent(key, it -> new ListStatistics());
+		fixtureToBenchmark.put(key, benchmarkParams.getBenchmark());
+		fixtures.computeIfAbsent(key, it -> BenchmarkFixture.from(benchmarkParams));
+
+		synchronized (statistics) {
+			statistics.addValue(result.getPrimaryResult().getScore());
+		}
+	}
+
+	/**
+	 * Mark a benchmark as failed. Failed benchmarks are not scheduled for further rounds.
+	 *
+	 * @param benchmarkParams the benchmark.
+	 */
+	public void markFailed(BenchmarkParams benchmarkParams) {
+		failed.add(benchmarkParams.getBenchmark());
+	}
+
+	/**
+	 * Check whether measurement for the benchmark fixture is complete, either because it converged, reached the
+	 * iteration cap, or failed.
+	 *
+	 * @param benchmarkParams the benchmark fixture.
+	 * @return {@literal true} if no further rounds are required.
+	 */
+	public boolean isComplete(BenchmarkParams benchmarkParams) {
+		return failed.contains(benchmarkParams.getBenchmark()) || isComplete(getFixtureKey(benchmarkParams));
+	}
+
+	/**
+	 * Select the benchmark fixtures that require another measurement round, grouped by benchmark name. A fixture requires
+	 * another round if it is not {@link #isComplete(BenchmarkParams) complete}. Fixtures that did not produce any
+	 * measurements are not considered for another round.
+	 *
+	 * @return incomplete fixtures by benchmark name, ordered by benchmark name.
+	 */
+	public Map<String, List<BenchmarkFixture>> getIncomplete() {
+
+		Map<String, List<BenchmarkFixture>> incomplete = new TreeMap<>();
+
+		for (Map.Entry<String, String> entry : new TreeMap<>(fixtureToBenchmark).entrySet()) {
+
+			if (failed.contains(entry.getValue()) || isComplete(entry.getKey())) {
+				continue;
+			}
+
+			incomplete.computeIfAbsent(entry.getValue(), it -> new ArrayList<>()).add(fixtures.get(entry.getKey()));
+		}
+
+		return incomplete;
+	}
+
+	/**
+	 * Collect the {@link RunResult run results} of a measurement round.
+	 *
+	 * @param runResults results of the round.
+	 */
+	public synchronized void collect(Collection<RunResult> runResults) {
+
+		for (RunResult runResult : runResults) {
+
+			if (runResult.getParams() == null) {
+				continue;
+			}
+
+			String key = getFixtureKey(runResult.getParams());
+			params.putIfAbsent(key, runResult.getParams());
+			forks.computeIfAbsent(key, it -> new ArrayList<>()).addAll(runResult.getBenchmarkResults());
+		}
+	}
+
+	/**
+	 * @return {@link RunResult run results} combining the forks of all rounds per benchmark fixture.
+	 */
+	public synchronized List<RunResult> getRunResults() {
+
+		List<RunResult> results = new ArrayList<>(forks.size());
+		forks.forEach((key, benchmarkResults) -> results.add(new RunResult(params.get(key), benchmarkResults)));
+
+		return results;
+	}
+
+	/**
+	 * Return one {@link BenchmarkResult} per benchmark fixture holding the measurement iterations of all rounds, e.g. to
+	 * verify fixtures against a {@link RegressionGate} once all rounds completed.
+	 *
+	 * @return the combined results in the order fixtures were first collected.
+	 */
+	public synchronized List<BenchmarkResult> getBenchmarkResults() {
+
+		List<BenchmarkResult> results = new ArrayList<>(forks.size());
+		forks.forEach((key, benchmarkResults) -> {
+
+			List<IterationResult> iterations = new ArrayList<>();
+			for (BenchmarkResult result : benchmarkResults) {
+				iterations.addAll(result.getIterationResults());
+			}
+
+			results.add(new BenchmarkResult(params.get(key), iterations));
+		});
+
+		return results;
+	}
+
+	/**
+	 * Return the relative error (half-width of the confidence interval divided by the mean) of the benchmark fixture.
+	 *
+	 * @param benchmarkParams the benchmark fixture.
+	 * @return the relative error or {@link Double#NaN} if not enough iterations were recorded.
+	 */
+	public double getRelativeError(BenchmarkParams benchmarkParams) {
+		return getRelativeError(getFixtureKey(benchmarkParams));
+	}
+
+	private boolean isComplete(String fixtureKey) {
+
+		ListStatistics statistics = scores.get(fixtureKey);
+
+		if (statistics == null) {
+			return false;
+		}
+
+		synchronized (statistics) {
+			if (statistics.getN() >= maxIterations) {
+				return true;
+			}
+		}
+
+		double error = getRelativeError(fixtureKey);
+		return !Double.isNaN(error) && error <= targetError;
+	}
+
+	private double getRelativeError(String fixtureKey) {
+
+		ListStatistics statistics = scores.get(fixtureKey);
+
+		if (statistics == null) {
+			return Double.NaN;
+		}
+
+		synchronized (statistics) {
+
+			double mean = statistics.getMean();
+			if (mean == 0) {
+				return Double.NaN;
+			}
+
+			return statistics.getMeanErrorAt(CONFIDENCE) / Math.abs(mean);
+		}
+	}
+
+	private static String getFixtureKey(BenchmarkParams benchmarkParams) {
+
+		Map<String, String> fixture = new TreeMap<>();
+		for (String key : benchmarkParams.getParamsKeys()) {
+			fixture.put(key, benchmarkParams.getParam(key));
+		}
+
+		return benchmarkParams.getBenchmark() + fixture;
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.Result;
+
+/**
+ * Verifies the allocation per operation of benchmarks against their {@link MaxAllocation} limit. Allocation is reported
+ * by JMH's GC profiler as {@link #ALLOC_RATE_NORM}. Scores are rounded to whole bytes before comparison as the profiler
+ * reports small fractional allocations of the measurement infrastructure for allocation-free benchmarks.
+ */
+public class AllocationGate {
+
+	/**
+	 * Label of the secondary result holding bytes allocated per operation.
+	 */
+	public static final String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+
+	private final Map<String, Long> limits;
+
+	AllocationGate(Map<String, Long> limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * Create an {@link AllocationGate} from the {@link MaxAllocation} limits of benchmark methods.
+	 *
+	 * @param methods the benchmark methods.
+	 * @return the {@link AllocationGate} or {@literal null} if no benchmark method declares a limit.
+	 */
+	public static AllocationGate from(Collection<Method> methods) {
+
+		Map<String, Long> limits = new HashMap<>();
+
+		for (Method method : methods) {
+
+			MaxAllocation limit = method.getAnnotation(MaxAllocation.class);
+			if (limit == null) {
+				limit = method.getDeclaringClass().getAnnotation(MaxAllocation.class);
+			}
+
+			if (limit != null) {
+				limits.put(getBenchmarkName(method), limit.value());
+			}
+		}
+
+		return limits.isEmpty() ? null : new AllocationGate(limits);
+	}
+
+	/**
+	 * Obtain the allocation per operation from secondary results.
+	 *
+	 * @param secondaryResults secondary results of a benchmark, may be {@literal null}.
+	 * @return the {@link Result} of {@link #ALLOC_RATE_NORM} or {@literal null} if the GC profiler was not enabled.
+	 */
+	public static Result<?> getAllocation(Map<String, Result> secondaryResults) {
+		return secondaryResults != null ? secondaryResults.get(ALLOC_RATE_NORM) : null;
+	}
+
+	/**
+	 * Compare the allocation per operation of {@link BenchmarkResult} against its limit.
+	 *
+	 * @param result the aggregated result of a benchmark fixture, must not be {@literal null}.
+	 * @return the {@link Violation} or {@literal null} if the benchmark declares no limit or allocates within its limit.
+	 */
+	public Violation verify(BenchmarkResult result) {
+
+		String benchmark = result.getParams().getBenchmark();
+		Long limit = limits.get(benchmark);
+
+		if (limit == null) {
+			return null;
+		}
+
+		Result<?> allocation = getAllocation(result.getSecondaryResults());
+
+		if (allocation == null) {
+			return new Violation(String.format("%s declares @MaxAllocation(%d) but reported no %s", benchmark, limit,
+					ALLOC_RATE_NORM));
+		}
+
+		if (Math.round(allocation.getScore()) <= limit) {
+			return null;
+		}
+
+		return new Violation(String.format("%s allocated %.1f %s exceeding @MaxAllocation(%d)", benchmark,
+				allocation.getScore(), allocation.getScoreUnit(), limit));
+	}
+
+	private static String getBenchmarkName(Method method) {
+		return method.getDeclaringClass().getName().replace('$', '.') + "." + method.getName();
+	}
+
+	/**
+	 * Allocation of a benchmark exceeding its {@link MaxAllocation} limit.
+	 */
+	public static class Violation {
+
+		private final String message;
+
+		Violation(String message) {
+			this.message = message;
+		}
+
+		/**
+		 * @return an {@link AssertionError} describing the violation.
+		 */
+		public AssertionError toError() {
+			return new AssertionError(message);
+		}
+
+		@Override
+		public String toString() {
+			return message;
+		}
+	}
+}
@@ -26,22 +26,54 @@ public interface BenchmarkConfigProperties {
 	ConfigProperty<String> PROJECT = new ConfigProperty<>(null, PREFIX + "project");
 	ConfigProperty<String> VERSION = new ConfigProperty<>(null, PREFIX + "project.version");
 	ConfigProperty<String> PUBLISH_URI = new ConfigProperty<>(null, PREFIX + "report.publishTo");
+	ConfigProperty<Duration> PUBLISH_TIMEOUT = new ConfigProperty<>(Duration.ofMinutes(1), PREFIX + "report.publishTimeout");
 	ConfigProperty<String> BENCHMARK_REPORT_DIR = new ConfigProperty<>(null, PREFIX + "report.dir");
 
 	ConfigProperty<Integer> WARMUP_ITERATIONS = new ConfigProperty<>(-1, PREFIX + "warmup.iterations", "wi");
 	ConfigProperty<Integer> WARMUP_BATCH_SIZE = new ConfigProperty<>(-1, PREFIX + "warmup.batchSize", "wbs");
 	ConfigProperty<Duration> WARMUP_TIME = new ConfigProperty<>(Duration.ZERO, PREFIX + "warmup.time", "w");
 	ConfigProperty<String> WARMUP_MODE = new ConfigProperty<>(null, PREFIX + "warmup.mode", "wm");
+	ConfigProperty<Boolean> WARMUP_AUTO = new ConfigProperty<>(false, PREFIX + "warmup.auto");
+	ConfigProperty<Integer> WARMUP_MAX_ITERATIONS = new ConfigProperty<>(20, PREFIX + "warmup.maxIterations");
 
 	ConfigProperty<Integer> MEASUREMENT_ITERATIONS = new ConfigProperty<>(-1, PREFIX + "measurement.iterations", "i");
 	ConfigProperty<Integer> MEASUREMENT_BATCH_SIZE = new ConfigProperty<>(-1, PREFIX + "measurement.batchSize", "bs");
 	ConfigProperty<Duration> MEASUREMENT_TIME = new ConfigProperty<>(Duration.ZERO, PREFIX + "measurement.time", "r");
+	ConfigProperty<Double> MEASUREMENT_TARGET_ERROR = new ConfigProperty<>(-1d, PREFIX + "measurement.targetError");
+	ConfigProperty<Integer> MEASUREMENT_MAX_ITERATIONS = new ConfigProperty<>(100, PREFIX + "measurement.maxIterations");
 
 	ConfigProperty<String> MODE = new ConfigProperty<>(null, PREFIX + "mode", "bm");
 	ConfigProperty<Duration> TIMEOUT = new ConfigProperty<>(Duration.ZERO, PREFIX + "timeout", "to");
 
 	ConfigProperty<Integer> FORKS = new ConfigProperty<>(-1, PREFIX + "forks", "f");
 
+	ConfigProperty<Integer> PARALLELISM = new ConfigProperty<>(-1, PREFIX + "parallelism");
+
+	ConfigProperty<String> FIXTURE_SAMPLING = new ConfigProperty<>(null, PREFIX + "fixtures.sampling");
+	ConfigProperty<Integer> FIXTURE_SAMPLE_SIZE = new ConfigProperty<>(-1, PREFIX + "fixtures.sampleSize");
+	ConfigProperty<Long> FIXTURE_SAMPLING_SEED = new ConfigProperty<>(0L, PREFIX + "fixtures.seed");
+	ConfigProperty<String> THREAD_SWEEP = new ConfigProperty<>(null, PREFIX + "threads.sweep");
+	ConfigProperty<String> COMPLEXITY_PARAMETER = new ConfigProperty<>(null, PREFIX + "complexity.param");
+
+	ConfigProperty<Integer> SHARD_INDEX = new ConfigProperty<>(0, PREFIX + "shard.index");
+	ConfigProperty<Integer> SHARD_COUNT = new ConfigProperty<>(-1, PREFIX + "shard.count");
+	ConfigProperty<String> SHARD_DURATIONS = new ConfigProperty<>(null, PREFIX + "shard.durations");
+
+	ConfigProperty<Duration> BUDGET = new ConfigProperty<>(Duration.ZERO, PREFIX + "budget");
+	ConfigProperty<String> BUDGET_HISTORY = new ConfigProperty<>(null, PREFIX + "budget.history");
+
+	ConfigProperty<String> REGRESSION_BASELINE = new ConfigProperty<>(null, PREFIX + "regression.baseline");
+	ConfigProperty<Double> REGRESSION_THRESHOLD = new ConfigProperty<>(0.1d, PREFIX + "regression.threshold");
+	ConfigProperty<Double> REGRESSION_ALPHA = new ConfigProperty<>(0.01d, PREFIX + "regression.alpha");
+	ConfigProperty<Boolean> REGRESSION_UPDATE_BASELINE = new ConfigProperty<>(false, PREFIX + "regression.updateBaseline");
+	ConfigProperty<Boolean> CDS_ENABLED = new ConfigProperty<>(false, PREFIX + "cds.enabled");
+	ConfigProperty<String> CDS_DIRECTORY = new ConfigProperty<>(null, PREFIX + "cds.directory");
+	ConfigProperty<String> PROFILE = new ConfigProperty<>(null, PREFIX + "profile");
+	ConfigProperty<String> PROFILE_DIRECTORY = new ConfigProperty<>(null, PREFIX + "profile.directory");
+	ConfigProperty<Integer> PROFILE_TOP_METHODS = new ConfigProperty<>(10, PREFIX + "profile.topMethods");
+	ConfigProperty<Boolean> PROFILE_GC = new ConfigProperty<>(false, PREFIX + "profile.gc");
+	ConfigProperty<Boolean> RESUME = new ConfigProperty<>(false, PREFIX + "resume");
+
 	/**
 	 * Return a {@link Iterator} over all {@link ConfigProperty properties}.
 	 *
@@ -58,7 +90,7 @@ public interface BenchmarkConfigProperties {
 	 */
 	static List<ConfigProperty<?>> asList() {
 		return Arrays
-				.asList(ENABLED, PROJECT, VERSION, PUBLISH_URI, BENCHMARK_REPORT_DIR, WARMUP_ITERATIONS, WARMUP_BATCH_SIZE, WARMUP_TIME, WARMUP_MODE, MEASUREMENT_ITERATIONS, MEASUREMENT_TIME, MEASUREMENT_BATCH_SIZE, MODE, TIMEOUT, FORKS);
+				.asList(ENABLED, PROJECT, VERSION, PUBLISH_URI, PUBLISH_TIMEOUT, BENCHMARK_REPORT_DIR, WARMUP_ITERATIONS, WARMUP_BATCH_SIZE, WARMUP_TIME, WARMUP_MODE, WARMUP_AUTO, WARMUP_MAX_ITERATIONS, MEASUREMENT_ITERATIONS, MEASUREMENT_TIME, MEASUREMENT_BATCH_SIZE, MEASUREMENT_TARGET_ERROR, MEASUREMENT_MAX_ITERATIONS, MODE, TIMEOUT, FORKS, PARALLELISM, FIXTURE_SAMPLING, FIXTURE_SAMPLE_SIZE, FIXTURE_SAMPLING_SEED, THREAD_SWEEP, COMPLEXITY_PARAMETER, SHARD_INDEX, SHARD_COUNT, SHARD_DURATIONS, BUDGET, BUDGET_HISTORY, REGRESSION_BASELINE, REGRESSION_THRESHOLD, REGRESSION_ALPHA, REGRESSION_UPDATE_BASELINE, CDS_ENABLED, CDS_DIRECTORY, PROFILE, PROFILE_DIRECTORY, PROFILE_TOP_METHODS, PROFILE_GC, RESUME);
 	}
 
 	class ConfigProperty<T> {
@@ -41,6 +41,16 @@ public interface BenchmarkConfiguration {
 		return null;
 	}
 
+	/**
+	 * Read {@code publishTimeout} property from {@link jmh.mbr.core.Environment}. Time each {@link ResultsWriter} is
+	 * given to write the results of a run.
+	 *
+	 * @return one minute if not set.
+	 */
+	default Duration getPublishTimeout() {
+		return BenchmarkConfigProperties.PUBLISH_TIMEOUT.defaultValue();
+	}
+
 	/**
 	 * Read {@code warmupIterations} property from {@link jmh.mbr.core.Environment}.
 	 *
@@ -55,6 +65,26 @@ public interface BenchmarkConfiguration {
 	 */
 	String getWarmupMode();
 
+	/**
+	 * Read {@code warmupAuto} property from {@link jmh.mbr.core.Environment}. Enables {@link WarmupDetection steady-state
+	 * warmup detection} that replaces the configured number of warmup iterations with the detected warmup length.
+	 *
+	 * @return false if not set.
+	 */
+	default boolean isWarmupAuto() {
+		return BenchmarkConfigProperties.WARMUP_AUTO.defaultValue();
+	}
+
+	/**
+	 * Read {@code warmupMaxIterations} property from {@link jmh.mbr.core.Environment}. Number of iterations of the
+	 * calibration run used by {@link WarmupDetection}.
+	 *
+	 * @return 20 if not set.
+	 */
+	default int getWarmupMaxIterations() {
+		return BenchmarkConfigProperties.WARMUP_MAX_ITERATIONS.defaultValue();
+	}
+
 	/**
 	 * Read {@code measurementIterations} property from {@link jmh.mbr.core.Environment}.
 	 *
@@ -64,6 +94,27 @@ public interface BenchmarkConfiguration {
 
 	int getMeasurementBatchSize();
 
+	/**
+	 * Read {@code measurementTargetError} property from {@link jmh.mbr.core.Environment}. A positive value enables
+	 * {@link AdaptiveMeasurement adaptive measurement} that stops measuring a benchmark once the relative half-width of
+	 * its confidence interval is below the target.
+	 *
+	 * @return -1 if not set.
+	 */
+	default double getMeasurementTargetError() {
+		return BenchmarkConfigProperties.MEASUREMENT_TARGET_ERROR.defaultValue();
+	}
+
+	/**
+	 * Read {@code measurementMaxIterations} property from {@link jmh.mbr.core.Environment}. Caps the number of
+	 * measurement iterations during {@link AdaptiveMeasurement adaptive measurement}.
+	 *
+	 * @return 100 if not set.
+	 */
+	default int getMeasurementMaxIterations() {
+		return BenchmarkConfigProperties.MEASUREMENT_MAX_ITERATIONS.defaultValue();
+	}
+
 	Duration getTimeout();
 
 	/**
@@ -73,6 +124,222 @@ public interface BenchmarkConfiguration {
 	 */
 	int getForksCount();
 
+	/**
+	 * Read {@code parallelism} property from {@link jmh.mbr.core.Environment}. A value greater than one runs benchmarks
+	 * in that many concurrent forks, each pinned to a disjoint {@link CpuSet}.
+	 *
+	 * @return -1 if not set.
+	 */
+	default int getParallelism() {
+		return BenchmarkConfigProperties.PARALLELISM.defaultValue();
+	}
+
+	/**
+	 * Read {@code fixtureSampling} property from {@link jmh.mbr.core.Environment}. Selects the {@link FixtureSampling
+	 * fixture sampling strategy} for benchmark classes that are not annotated with {@link FixtureSampling}.
+	 *
+	 * @return {@literal null} if not set.
+	 */
+	default String getFixtureSampling() {
+		return BenchmarkConfigProperties.FIXTURE_SAMPLING.defaultValue();
+	}
+
+	/**
+	 * Read {@code fixtureSampleSize} property from {@link jmh.mbr.core.Environment}.
+	 *
+	 * @return -1 if not set.
+	 */
+	default int getFixtureSampleSize() {
+		return BenchmarkConfigProperties.FIXTURE_SAMPLE_SIZE.defaultValue();
+	}
+
+	/**
+	 * Read {@code fixtureSamplingSeed} property from {@link jmh.mbr.core.Environment}.
+	 *
+	 * @return 0 if not set.
+	 */
+	default long getFixtureSamplingSeed() {
+		return BenchmarkConfigProperties.FIXTURE_SAMPLING_SEED.defaultValue();
+	}
+
+	/**
+	 * Read {@code threadSweep} property from {@link jmh.mbr.core.Environment}. Comma-separated thread counts to run each
+	 * benchmark with.
+	 *
+	 * @return {@literal null} if not set.
+	 */
+	default String getThreadSweep() {
+		return BenchmarkConfigProperties.THREAD_SWEEP.defaultValue();
+	}
+
+	/**
+	 * Read {@code complexityParameter} property from {@link jmh.mbr.core.Environment}. Comma-separated names of numeric
+	 * size parameters to estimate the {@link jmh.mbr.core.model.ComplexityEstimate complexity} of benchmarks over.
+	 *
+	 * @return {@literal null} if not set.
+	 */
+	default String getComplexityParameter() {
+		return BenchmarkConfigProperties.COMPLEXITY_PARAMETER.defaultValue();
+	}
+
+	/**
+	 * Read {@code shardIndex} property from {@link jmh.mbr.core.Environment}. Zero-based index of the
+	 * {@link BenchmarkSharding shard} to run.
+	 *
+	 * @return 0 if not set.
+	 */
+	default int getShardIndex() {
+		return BenchmarkConfigProperties.SHARD_INDEX.defaultValue();
+	}
+
+	/**
+	 * Read {@code shardCount} property from {@link jmh.mbr.core.Environment}. A value greater than one partitions
+	 * benchmarks and fixtures into that many {@link BenchmarkSharding shards}.
+	 *
+	 * @return -1 if not set.
+	 */
+	default int getShardCount() {
+		return BenchmarkConfigProperties.SHARD_COUNT.defaultValue();
+	}
+
+	/**
+	 * Read {@code shardDurations} property from {@link jmh.mbr.core.Environment}. Path to a properties file with
+	 * historical benchmark durations used to balance {@link BenchmarkSharding shards}.
+	 *
+	 * @return {@literal null} if not set.
+	 */
+	default String getShardDurations() {
+		return BenchmarkConfigProperties.SHARD_DURATIONS.defaultValue();
+	}
+
+	/**
+	 * Read {@code budget} property from {@link jmh.mbr.core.Environment}. A positive value distributes the wall-clock
+	 * time {@link TimeBudget budget} across benchmarks instead of using fixed iteration times.
+	 *
+	 * @return {@link Duration#ZERO} if not set.
+	 */
+	default Duration getBudget() {
+		return BenchmarkConfigProperties.BUDGET.defaultValue();
+	}
+
+	/**
+	 * Read {@code budgetHistory} property from {@link jmh.mbr.core.Environment}. Path to a properties file with the
+	 * historical score variation of benchmarks used to weight {@link TimeBudget budget} allocations.
+	 *
+	 * @return {@literal null} if not set.
+	 */
+	default String getBudgetHistory() {
+		return BenchmarkConfigProperties.BUDGET_HISTORY.defaultValue();
+	}
+
+	/**
+	 * Read {@code regressionBaseline} property from {@link jmh.mbr.core.Environment}. Path to a properties file with
+	 * baseline iteration scores that enables the {@link RegressionGate}.
+	 *
+	 * @return {@literal null} if not set.
+	 */
+	default String getRegressionBaseline() {
+		return BenchmarkConfigProperties.REGRESSION_BASELINE.defaultValue();
+	}
+
+	/**
+	 * Read {@code regressionThreshold} property from {@link jmh.mbr.core.Environment}. Relative slowdown of the median
+	 * score above which a significant difference fails the benchmark.
+	 *
+	 * @return 0.1 if not set.
+	 */
+	default double getRegressionThreshold() {
+		return BenchmarkConfigProperties.REGRESSION_THRESHOLD.defaultValue();
+	}
+
+	/**
+	 * Read {@code regressionAlpha} property from {@link jmh.mbr.core.Environment}. Significance level of the regression
+	 * test.
+	 *
+	 * @return 0.01 if not set.
+	 */
+	default double getRegressionAlpha() {
+		return BenchmarkConfigProperties.REGRESSION_ALPHA.defaultValue();
+	}
+
+	/**
+	 * Read {@code regressionUpdateBaseline} property from {@link jmh.mbr.core.Environment}. Whether to replace the
+	 * baseline with the scores of the current run.
+	 *
+	 * @return {@literal false} if not set.
+	 */
+	default boolean isRegressionUpdateBaseline() {
+		return BenchmarkConfigProperties.REGRESSION_UPDATE_BASELINE.defaultValue();
+	}
+
+	/**
+	 * Read {@code cdsEnabled} property from {@link jmh.mbr.core.Environment}. Whether to start forks from a class data
+	 * sharing archive.
+	 *
+	 * @return {@literal false} if not set.
+	 */
+	default boolean isCdsEnabled() {
+		return BenchmarkConfigProperties.CDS_ENABLED.defaultValue();
+	}
+
+	/**
+	 * Read {@code cdsDirectory} property from {@link jmh.mbr.core.Environment}. Directory holding class data sharing
+	 * archives.
+	 *
+	 * @return {@literal null} if not set.
+	 */
+	default String getCdsDirectory() {
+		return BenchmarkConfigProperties.CDS_DIRECTORY.defaultValue();
+	}
+
+	/**
+	 * Read {@code profile} property from {@link jmh.mbr.core.Environment}. Profiler to record forks with, {@code jfr} for
+	 * Java Flight Recorder.
+	 *
+	 * @return {@literal null} if not set.
+	 */
+	default String getProfile() {
+		return BenchmarkConfigProperties.PROFILE.defaultValue();
+	}
+
+	/**
+	 * Read {@code profileDirectory} property from {@link jmh.mbr.core.Environment}. Directory holding profiler recordings.
+	 *
+	 * @return {@literal null} if not set.
+	 */
+	default String getProfileDirectory() {
+		return BenchmarkConfigProperties.PROFILE_DIRECTORY.defaultValue();
+	}
+
+	/**
+	 * Read {@code profileTopMethods} property from {@link jmh.mbr.core.Environment}. Number of hot methods to report.
+	 *
+	 * @return 10 if not set.
+	 */
+	default int getProfileTopMethods() {
+		return BenchmarkConfigProperties.PROFILE_TOP_METHODS.defaultValue();
+	}
+
+	/**
+	 * Read {@code profileGc} property from {@link jmh.mbr.core.Environment}. Enables JMH's GC profiler to report
+	 * allocation per operation.
+	 *
+	 * @return false if not set.
+	 */
+	default boolean isProfileGc() {
+		return BenchmarkConfigProperties.PROFILE_GC.defaultValue();
+	}
+
+	/**
+	 * Read {@code resume} property from {@link jmh.mbr.core.Environment}. Resumes an interrupted run from the
+	 * {@link RunJournal} in the report directory.
+	 *
+	 * @return false if not set.
+	 */
+	default boolean isResume() {
+		return BenchmarkConfigProperties.RESUME.defaultValue();
+	}
+
 	/**
 	 * Read {@code benchmarkReportDir} property from {@link jmh.mbr.core.Environment}.
 	 *
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.util.List;
+import java.util.ServiceLoader;
+
+import jmh.mbr.core.model.LatencyHistogram;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Results recorded by previous runs. A history can replace the baseline file of the {@link RegressionGate} and the
+ * history file of the {@link TimeBudget} by setting {@code jmh.mbr.regression.baseline} or
+ * {@code jmh.mbr.budget.history} to a URI that is accepted by a {@link BenchmarkHistoryFactory}. Results are recorded
+ * per {@link #getKey(BenchmarkParams, boolean) benchmark fixture, mode and JVM}.
+ *
+ * @see BenchmarkHistoryFactory
+ */
+public interface BenchmarkHistory {
+
+	/**
+	 * Return the key under which results of a benchmark run with {@link BenchmarkParams} are recorded.
+	 *
+	 * @param params the benchmark parameters.
+	 * @param threadSweep whether the run {@link BenchmarkSharding#isThreadSweep(BenchmarkConfiguration) sweeps thread
+	 *          counts}.
+	 * @return the key consisting of the {@link BenchmarkSharding#getKey(BenchmarkParams, boolean) fixture key}, the
+	 *         benchmark mode and the JVM.
+	 */
+	static String getKey(BenchmarkParams params, boolean threadSweep) {
+		return BenchmarkSharding.getKey(params, threadSweep) + " " + params.getMode().shortLabel() + " @ "
+				+ params.getVmName() + " " + params.getVmVersion();
+	}
+
+	/**
+	 * Return the most recent records of {@code key}.
+	 *
+	 * @param key the {@link #getKey(BenchmarkParams, boolean) key}.
+	 * @param limit maximum number of records.
+	 * @return the records ordered from oldest to newest. Empty if nothing was recorded for {@code key}.
+	 */
+	List<Record> getRecords(String key, int limit);
+
+	/**
+	 * @return the most recent record of each key.
+	 */
+	List<Record> getLatestRecords();
+
+	/**
+	 * Open the {@link BenchmarkHistory} at {@code uri} using the {@link BenchmarkHistoryFactory factories} visible to
+	 * the context class loader.
+	 *
+	 * @param uri location of the recorded results.
+	 * @return the {@link BenchmarkHistory} or {@literal null} if no factory is applicable to {@code uri}.
+	 */
+	static BenchmarkHistory forUri(String uri) {
+
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+		for (BenchmarkHistoryFactory factory : ServiceLoader.load(BenchmarkHistoryFactory.class, classLoader)) {
+
+			BenchmarkHistory history = factory.forUri(uri);
+			if (history != null) {
+				return history;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * A recorded result: the iteration scores of a benchmark fixture.
+	 */
+	class Record {
+
+		private final String key;
+		private final String benchmark;
+		private final long timestamp;
+		private final String unit;
+		private final double score;
+		private final double[] scores;
+		private final LatencyHistogram histogram;
+
+		public Record(String key, String benchmark, long timestamp, String unit, double score, double[] scores) {
+			this(key, benchmark, timestamp, unit, score, scores, null);
+		}
+
+		public Record(String key, String benchmark, long timestamp, String unit, double score, double[] scores,
+				LatencyHistogram histogram) {
+			this.key = key;
+			this.benchmark = benchmark;
+			this.timestamp = timestamp;
+			this.unit = unit;
+			this.score = score;
+			this.scores = scores;
+			this.histogram = histogram;
+		}
+
+		/**
+		 * @return the {@link BenchmarkHistory#getKey(BenchmarkParams, boolean) key}.
+		 */
+		public String getKey() {
+			return key;
+		}
+
+		/**
+		 * @return the benchmark name ({@code fqcn.method}).
+		 */
+		public String getBenchmark() {
+			return benchmark;
+		}
+
+		/**
+		 * @return time of recording in milliseconds since the epoch.
+		 */
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		/**
+		 * @return the score unit.
+		 */
+		public String getUnit() {
+			return unit;
+		}
+
+		/**
+		 * @return the primary score.
+		 */
+		public double getScore() {
+			return score;
+		}
+
+		/**
+		 * @return the primary score of each measurement iteration.
+		 */
+		public double[] getScores() {
+			return scores;
+		}
+
+		/**
+		 * @return the latency histogram of sample time benchmarks, {@literal null} for other modes. Histograms of
+		 *         several records can be {@link LatencyHistogram#add(LatencyHistogram) merged}.
+		 */
+		public LatencyHistogram getHistogram() {
+			return histogram;
+		}
+	}
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+/**
+ * SPI for {@link BenchmarkHistory} plugins. Uses an opaque {@code uri} to specify the location of recorded results.
+ *
+ * @see java.util.ServiceLoader
+ */
+public interface BenchmarkHistoryFactory {
+
+	/**
+	 * Open the {@link BenchmarkHistory} at {@code uri} for reading. Implementations may return {@literal null} if the
+	 * {@code uri} is not supported.
+	 *
+	 * @param uri location of the recorded results (may be null or empty).
+	 * @return the {@link BenchmarkHistory} or {@literal null} if the {@code uri} is not supported.
+	 */
+	BenchmarkHistory forUri(String uri);
+}
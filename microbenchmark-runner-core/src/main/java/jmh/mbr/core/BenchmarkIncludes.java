@@ -0,0 +1,187 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+
+/**
+ * Include patterns selecting benchmarks for a JMH run. Benchmark methods are included through exact patterns that
+ * match the JMH benchmark name ({@code fqcn.method} with nested classes separated by {@code .}) only. JMH matches each
+ * include pattern against each entry of its benchmark list, therefore exact patterns are {@link #include(ChainedOptionsBuilder, Collection)
+ * combined} into a single pattern shaped like a trie of the name segments, so that name prefixes shared by included
+ * benchmarks (package, class) are matched once per benchmark name instead of once per included benchmark.
+ */
+public class BenchmarkIncludes {
+
+	private static final String EXACT_PREFIX = "^\\Q";
+	private static final String EXACT_SUFFIX = "\\E$";
+
+	/**
+	 * Return the JMH benchmark name of a benchmark method.
+	 *
+	 * @param method the benchmark method.
+	 * @return the benchmark name, e.g. {@code com.example.Outer.Nested.method}.
+	 */
+	public static String getBenchmarkName(Method method) {
+		return method.getDeclaringClass().getName().replace('$', '.') + "." + method.getName();
+	}
+
+	/**
+	 * Return the exact include pattern of a benchmark method.
+	 *
+	 * @param method the benchmark method.
+	 * @return the include pattern matching the benchmark method only.
+	 */
+	public static String getIncludePattern(Method method) {
+		return getIncludePattern(getBenchmarkName(method));
+	}
+
+	/**
+	 * Return the exact include pattern of a benchmark name.
+	 *
+	 * @param benchmarkName the JMH benchmark name.
+	 * @return the include pattern matching {@code benchmarkName} only.
+	 */
+	public static String getIncludePattern(String benchmarkName) {
+		return "^" + Pattern.quote(benchmarkName) + "$";
+	}
+
+	/**
+	 * Add {@code includePatterns} to {@code optionsBuilder}. Exact patterns are combined into a single pattern, other
+	 * patterns are added as they are.
+	 *
+	 * @param optionsBuilder the options to add the includes to.
+	 * @param includePatterns the include patterns.
+	 * @return {@code optionsBuilder}.
+	 */
+	public static ChainedOptionsBuilder include(ChainedOptionsBuilder optionsBuilder, Collection<String> includePatterns) {
+
+		compile(includePatterns).forEach(optionsBuilder::include);
+		return optionsBuilder;
+	}
+
+	/**
+	 * Combine exact {@code includePatterns} into a single pattern.
+	 *
+	 * @param includePatterns the include patterns.
+	 * @return the combined pattern followed by the patterns that are not exact.
+	 */
+	static List<String> compile(Collection<String> includePatterns) {
+
+		Node root = new Node();
+		List<String> patterns = new ArrayList<>();
+		int exact = 0;
+
+		for (String includePattern : includePatterns) {
+
+			String benchmarkName = getBenchmarkName(includePattern);
+
+			if (benchmarkName == null) {
+				patterns.add(includePattern);
+				continue;
+			}
+
+			Node node = root;
+			for (String segment : benchmarkName.split("\\.", -1)) {
+				node = node.children.computeIfAbsent(segment, it -> new Node());
+			}
+
+			node.terminal = true;
+			exact++;
+		}
+
+		if (exact == 1) {
+			patterns.add(0, includePatterns.stream().filter(it -> getBenchmarkName(it) != null).findFirst().get());
+		} else if (exact > 1) {
+
+			StringBuilder pattern = new StringBuilder("^");
+			root.appendChildren(pattern);
+			patterns.add(0, pattern.append("$").toString());
+		}
+
+		return patterns;
+	}
+
+	/**
+	 * Return the benchmark name of an exact include pattern.
+	 *
+	 * @param includePattern the include pattern.
+	 * @return the benchmark name or {@literal null} if the pattern is not {@link #getIncludePattern(String) exact}.
+	 */
+	public static String getBenchmarkName(String includePattern) {
+
+		if (includePattern.length() < EXACT_PREFIX.length() + EXACT_SUFFIX.length()
+				|| !includePattern.startsWith(EXACT_PREFIX) || !includePattern.endsWith(EXACT_SUFFIX)) {
+			return null;
+		}
+
+		String name = includePattern.substring(EXACT_PREFIX.length(), includePattern.length() - EXACT_SUFFIX.length());
+		return name.contains("\\E") ? null : name;
+	}
+
+	private static void escape(String segment, StringBuilder pattern) {
+
+		for (int i = 0; i < segment.length(); i++) {
+
+			char c = segment.charAt(i);
+			if (!Character.isLetterOrDigit(c) && c != '_') {
+				pattern.append('\\');
+			}
+			pattern.append(c);
+		}
+	}
+
+	/**
+	 * Trie node for a name segment.
+	 */
+	private static class Node {
+
+		final Map<String, Node> children = new TreeMap<>();
+		boolean terminal;
+
+		void appendChildren(StringBuilder pattern) {
+
+			if (children.size() > 1) {
+				pattern.append("(?:");
+			}
+
+			boolean first = true;
+			for (Map.Entry<String, Node> entry : children.entrySet()) {
+
+				if (!first) {
+					pattern.append('|');
+				}
+				first = false;
+
+				escape(entry.getKey(), pattern);
+				Node child = entry.getValue();
+
+				if (!child.children.isEmpty()) {
+
+					pattern.append("(?:\\.");
+					child.appendChildren(pattern);
+					pattern.append(child.terminal ? ")?" : ")");
+				}
+			}
+
+			if (children.size() > 1) {
+				pattern.append(")");
+			}
+		}
+	}
+}
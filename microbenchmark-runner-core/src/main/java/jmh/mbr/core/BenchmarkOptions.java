@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@code @BenchmarkOptions} configures run options of the annotated benchmark class or method. Options take precedence
+ * over pattern-based {@code jmh.mbr.override.<regex>.<option>} properties, which in turn take precedence over the
+ * global configuration. Method-level options take precedence over class-level options. Unset attributes retain the
+ * value of the next lower level.
+ *
+ * @see BenchmarkOverrides
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Documented
+public @interface BenchmarkOptions {
+
+	/**
+	 * @return number of forks. Unset if negative.
+	 */
+	int forks() default -1;
+
+	/**
+	 * @return number of warmup iterations. Unset if negative.
+	 */
+	int warmupIterations() default -1;
+
+	/**
+	 * @return warmup iteration time such as {@code 500ms}. Unset if empty.
+	 */
+	String warmupTime() default "";
+
+	/**
+	 * @return number of measurement iterations. Unset if negative.
+	 */
+	int measurementIterations() default -1;
+
+	/**
+	 * @return measurement iteration time such as {@code 2s}. Unset if empty.
+	 */
+	String measurementTime() default "";
+
+	/**
+	 * @return iteration timeout such as {@code 10m}. Unset if empty.
+	 */
+	String timeout() default "";
+
+	/**
+	 * @return benchmark mode name such as {@code AverageTime}. Unset if empty.
+	 */
+	String mode() default "";
+}
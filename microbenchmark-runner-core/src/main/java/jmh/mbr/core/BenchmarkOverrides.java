@@ -0,0 +1,326 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import jmh.mbr.core.model.BenchmarkFixture;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+
+/**
+ * Resolves run options per benchmark method and fixture. Options are resolved with the following precedence (lowest
+ * first):
+ * <ol>
+ * <li>Global {@link BenchmarkConfiguration}.</li>
+ * <li>Pattern overrides {@code jmh.mbr.override.<regex>.<option>} whose regex is found in the benchmark name
+ * ({@code fqcn.method}) or the fixture name ({@code fqcn.method{param=value, ...}}). Longer patterns take precedence
+ * over shorter ones.</li>
+ * <li>{@link BenchmarkOptions @BenchmarkOptions} on the benchmark class, then on the benchmark method.</li>
+ * </ol>
+ * Supported options are {@code forks}, {@code warmupIterations}, {@code warmupTime}, {@code measurementIterations},
+ * {@code measurementTime}, {@code timeout} and {@code mode}. Benchmarks with different effective {@link Options} must
+ * be run in separate JMH invocations.
+ */
+public class BenchmarkOverrides {
+
+	/**
+	 * Prefix of pattern override properties.
+	 */
+	public static final String PREFIX = BenchmarkConfigProperties.PREFIX + "override.";
+
+	private final List<PatternOptions> patterns;
+
+	BenchmarkOverrides(Map<String, ?> properties) {
+
+		Map<String, Options> byPattern = new TreeMap<>();
+
+		for (Map.Entry<String, ?> entry : properties.entrySet()) {
+
+			String key = entry.getKey();
+			int separator = key.lastIndexOf('.');
+
+			if (!key.startsWith(PREFIX) || separator < PREFIX.length() || entry.getValue() == null) {
+				continue;
+			}
+
+			String regex = key.substring(PREFIX.length(), separator);
+			Options options = Options.of(key.substring(separator + 1), entry.getValue().toString());
+			byPattern.merge(regex, options, Options::with);
+		}
+
+		List<PatternOptions> patterns = new ArrayList<>();
+		byPattern.forEach((regex, options) -> patterns.add(new PatternOptions(Pattern.compile(regex), options)));
+		patterns.sort(Comparator.comparingInt(it -> it.pattern.pattern().length()));
+
+		this.patterns = patterns;
+	}
+
+	/**
+	 * Create {@link BenchmarkOverrides} from the {@link BenchmarkConfiguration#asMap() properties} of
+	 * {@link BenchmarkConfiguration}.
+	 *
+	 * @param configuration must not be {@literal null}.
+	 * @return the {@link BenchmarkOverrides}.
+	 * @throws IllegalArgumentException if an override uses an unknown option or a malformed value.
+	 */
+	public static BenchmarkOverrides from(BenchmarkConfiguration configuration) {
+		return new BenchmarkOverrides(configuration.asMap());
+	}
+
+	/**
+	 * Check whether overrides are configured for any of the benchmark methods, either as pattern overrides or as
+	 * {@link BenchmarkOptions @BenchmarkOptions}.
+	 *
+	 * @param methods the benchmark methods.
+	 * @return {@literal true} if pattern overrides are configured or any method resolves to non-empty {@link Options}.
+	 */
+	public boolean isConfigured(Collection<Method> methods) {
+		return !patterns.isEmpty() || methods.stream().anyMatch(it -> !forMethod(it).isEmpty());
+	}
+
+	/**
+	 * Resolve the {@link Options} of a benchmark method.
+	 *
+	 * @param method the benchmark method.
+	 * @return the resolved {@link Options}, {@link Options#isEmpty() empty} if the global configuration applies.
+	 */
+	public Options forMethod(Method method) {
+		return resolve(method, getBenchmarkName(method));
+	}
+
+	/**
+	 * Resolve the {@link Options} of a benchmark fixture.
+	 *
+	 * @param method the benchmark method.
+	 * @param fixture the fixture.
+	 * @return the resolved {@link Options}, {@link Options#isEmpty() empty} if the global configuration applies.
+	 */
+	public Options forFixture(Method method, BenchmarkFixture fixture) {
+		return resolve(method, getBenchmarkName(method) + new TreeMap<>(fixture.getFixture()));
+	}
+
+	private Options resolve(Method method, String name) {
+
+		Options options = Options.NONE;
+
+		for (PatternOptions pattern : patterns) {
+			if (pattern.pattern.matcher(name).find()) {
+				options = options.with(pattern.options);
+			}
+		}
+
+		options = options.with(Options.from(method.getDeclaringClass().getAnnotation(BenchmarkOptions.class)));
+		return options.with(Options.from(method.getAnnotation(BenchmarkOptions.class)));
+	}
+
+	private static String getBenchmarkName(Method method) {
+		return method.getDeclaringClass().getName().replace('$', '.') + "." + method.getName();
+	}
+
+	private static class PatternOptions {
+
+		private final Pattern pattern;
+		private final Options options;
+
+		PatternOptions(Pattern pattern, Options options) {
+			this.pattern = pattern;
+			this.options = options;
+		}
+	}
+
+	/**
+	 * Value object for run options. Unset values are represented by {@literal -1} respectively {@literal null}.
+	 */
+	public static class Options {
+
+		/**
+		 * {@link Options} without any option set.
+		 */
+		public static final Options NONE = new Options(-1, -1, null, -1, null, null, null);
+
+		private final int forks;
+		private final int warmupIterations;
+		private final Duration warmupTime;
+		private final int measurementIterations;
+		private final Duration measurementTime;
+		private final Duration timeout;
+		private final Mode mode;
+
+		Options(int forks, int warmupIterations, Duration warmupTime, int measurementIterations,
+				Duration measurementTime, Duration timeout, Mode mode) {
+			this.forks = forks;
+			this.warmupIterations = warmupIterations;
+			this.warmupTime = warmupTime;
+			this.measurementIterations = measurementIterations;
+			this.measurementTime = measurementTime;
+			this.timeout = timeout;
+			this.mode = mode;
+		}
+
+		static Options from(BenchmarkOptions annotation) {
+
+			if (annotation == null) {
+				return NONE;
+			}
+
+			return new Options(annotation.forks(), annotation.warmupIterations(), parseDuration(annotation.warmupTime()),
+					annotation.measurementIterations(), parseDuration(annotation.measurementTime()),
+					parseDuration(annotation.timeout()), parseMode(annotation.mode()));
+		}
+
+		static Options of(String option, String value) {
+
+			switch (option) {
+				case "forks":
+					return new Options(Integer.parseInt(value.trim()), -1, null, -1, null, null, null);
+				case "warmupIterations":
+					return new Options(-1, Integer.parseInt(value.trim()), null, -1, null, null, null);
+				case "warmupTime":
+					return new Options(-1, -1, parseDuration(value), -1, null, null, null);
+				case "measurementIterations":
+					return new Options(-1, -1, null, Integer.parseInt(value.trim()), null, null, null);
+				case "measurementTime":
+					return new Options(-1, -1, null, -1, parseDuration(value), null, null);
+				case "timeout":
+					return new Options(-1, -1, null, -1, null, parseDuration(value), null);
+				case "mode":
+					return new Options(-1, -1, null, -1, null, null, parseMode(value));
+			}
+
+			throw new IllegalArgumentException(String.format("Unknown override option '%s'", option));
+		}
+
+		private static Duration parseDuration(String value) {
+			return StringUtils.hasText(value) ? Environment.parseDuration(value) : null;
+		}
+
+		private static Mode parseMode(String value) {
+			return StringUtils.hasText(value) ? Mode.valueOf(value.trim()) : null;
+		}
+
+		/**
+		 * Combine these options with {@code other}. Options set in {@code other} take precedence.
+		 *
+		 * @param other must not be {@literal null}.
+		 * @return the combined {@link Options}.
+		 */
+		public Options with(Options other) {
+
+			return new Options(other.forks >= 0 ? other.forks : forks,
+					other.warmupIterations >= 0 ? other.warmupIterations : warmupIterations,
+					other.warmupTime != null ? other.warmupTime : warmupTime,
+					other.measurementIterations >= 0 ? other.measurementIterations : measurementIterations,
+					other.measurementTime != null ? other.measurementTime : measurementTime,
+					other.timeout != null ? other.timeout : timeout, other.mode != null ? other.mode : mode);
+		}
+
+		/**
+		 * @return {@literal true} if no option is set.
+		 */
+		public boolean isEmpty() {
+			return equals(NONE);
+		}
+
+		/**
+		 * Apply options that are set to {@link ChainedOptionsBuilder}.
+		 *
+		 * @param optionsBuilder must not be {@literal null}.
+		 * @return {@link ChainedOptionsBuilder} with options applied.
+		 */
+		public ChainedOptionsBuilder apply(ChainedOptionsBuilder optionsBuilder) {
+
+			if (forks >= 0) {
+				optionsBuilder.forks(forks);
+			}
+
+			if (warmupIterations >= 0) {
+				optionsBuilder.warmupIterations(warmupIterations);
+			}
+
+			if (warmupTime != null) {
+				optionsBuilder.warmupTime(JmhSupport.toTimeValue(warmupTime));
+			}
+
+			if (measurementIterations >= 0) {
+				optionsBuilder.measurementIterations(measurementIterations);
+			}
+
+			if (measurementTime != null) {
+				optionsBuilder.measurementTime(JmhSupport.toTimeValue(measurementTime));
+			}
+
+			if (timeout != null) {
+				optionsBuilder.timeout(JmhSupport.toTimeValue(timeout));
+			}
+
+			if (mode != null) {
+				optionsBuilder.mode(mode);
+			}
+
+			return optionsBuilder;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+
+			if (this == o) {
+				return true;
+			}
+
+			if (!(o instanceof Options)) {
+				return false;
+			}
+
+			Options that = (Options) o;
+			return forks == that.forks && warmupIterations == that.warmupIterations
+					&& measurementIterations == that.measurementIterations && Objects.equals(warmupTime, that.warmupTime)
+					&& Objects.equals(measurementTime, that.measurementTime) && Objects.equals(timeout, that.timeout)
+					&& mode == that.mode;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(forks, warmupIterations, warmupTime, measurementIterations, measurementTime, timeout,
+					mode);
+		}
+
+		@Override
+		public String toString() {
+
+			StringBuilder sb = new StringBuilder();
+			append(sb, "forks", forks >= 0 ? forks : null);
+			append(sb, "warmupIterations", warmupIterations >= 0 ? warmupIterations : null);
+			append(sb, "warmupTime", warmupTime);
+			append(sb, "measurementIterations", measurementIterations >= 0 ? measurementIterations : null);
+			append(sb, "measurementTime", measurementTime);
+			append(sb, "timeout", timeout);
+			append(sb, "mode", mode);
+
+			return sb.length() == 0 ? "defaults" : sb.toString();
+		}
+
+		private static void append(StringBuilder sb, String name, Object value) {
+
+			if (value != null) {
+				sb.append(sb.length() == 0 ? "" : ", ").append(name).append('=').append(value);
+			}
+		}
+	}
+}
@@ -0,0 +1,546 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import jmh.mbr.core.model.BenchmarkFixture;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * Deterministic partitioning of benchmarks and fixtures into {@link BenchmarkConfiguration#getShardCount() shards}.
+ * Units are assigned to shards using the longest-processing-time-first rule: units are ordered by descending cost and
+ * each unit is assigned to the shard with the lowest total cost. Costs are taken from a
+ * {@link BenchmarkConfiguration#getShardDurations() durations file} with historical durations in milliseconds. Units
+ * without historical duration are assumed to take the median of known durations. All shards must use the same
+ * durations file to obtain disjoint partitions, so the durations file is only read. Each shard writes its measured
+ * durations to a {@link #getShardDurationsFile() shard durations file} that is {@link #mergeDurations(File, Collection)
+ * merged} into the durations file before the next run. Runners that partition each test class on its own
+ * {@link #select(String, List, Function) select within a scope} so that ties are not always resolved to the first
+ * shard.
+ */
+public class BenchmarkSharding {
+
+	/**
+	 * Shard durations files written by this JVM. The first write replaces durations of previous runs, subsequent writes
+	 * (e.g. of further JUnit 4 test classes) add to them.
+	 */
+	private static final Set<File> WRITTEN = ConcurrentHashMap.newKeySet();
+
+	private final int index;
+	private final int count;
+	private final File durationsFile;
+	private final Map<String, Long> durations;
+	private final boolean threadSweep;
+	private final Map<String, Long> measured = new ConcurrentHashMap<>();
+
+	BenchmarkSharding(int index, int count, File durationsFile, Map<String, Long> durations) {
+		this(index, count, durationsFile, durations, false);
+	}
+
+	BenchmarkSharding(int index, int count, File durationsFile, Map<String, Long> durations, boolean threadSweep) {
+		this.index = index;
+		this.count = count;
+		this.durationsFile = durationsFile;
+		this.durations = durations;
+		this.threadSweep = threadSweep;
+	}
+
+	/**
+	 * Create a {@link BenchmarkSharding} from {@link BenchmarkConfiguration}.
+	 *
+	 * @param configuration must not be {@literal null}.
+	 * @return the {@link BenchmarkSharding} or {@literal null} if sharding is not enabled.
+	 * @throws IllegalArgumentException if the shard index is not within {@code [0, count)}.
+	 * @throws IllegalStateException if the durations file cannot be read.
+	 */
+	public static BenchmarkSharding from(BenchmarkConfiguration configuration) {
+
+		int count = configuration.getShardCount();
+
+		if (count <= 1) {
+			return null;
+		}
+
+		int index = configuration.getShardIndex();
+		if (index < 0 || index >= count) {
+			throw new IllegalArgumentException(
+					String.format("Shard index %d must be between 0 and %d (exclusive)", index, count));
+		}
+
+		String durations = configuration.getShardDurations();
+		File durationsFile = StringUtils.hasText(durations) ? new File(durations) : null;
+
+		try {
+			return new BenchmarkSharding(index, count, durationsFile, readDurations(durationsFile),
+					isThreadSweep(configuration));
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read benchmark durations from " + durationsFile, e);
+		}
+	}
+
+	/**
+	 * Return the key identifying a benchmark method.
+	 *
+	 * @param benchmark the benchmark name ({@code fqcn.method}).
+	 * @return the key.
+	 */
+	public static String getKey(String benchmark) {
+		return benchmark;
+	}
+
+	/**
+	 * Return the key identifying a benchmark fixture.
+	 *
+	 * @param benchmark the benchmark name ({@code fqcn.method}).
+	 * @param fixture the fixture.
+	 * @return the key.
+	 */
+	public static String getKey(String benchmark, BenchmarkFixture fixture) {
+		return benchmark + new TreeMap<>(fixture.getFixture());
+	}
+
+	/**
+	 * Return the key identifying the benchmark method or fixture that was run with {@link BenchmarkParams}. If thread
+	 * counts are swept, the number of benchmark threads is part of the key as {@link BenchmarkFixture#THREADS threads}
+	 * parameter, matching the {@link #getKey(String, BenchmarkFixture) key} of the swept fixture.
+	 *
+	 * @param params the benchmark parameters.
+	 * @param threadSweep whether the run {@link #isThreadSweep(BenchmarkConfiguration) sweeps thread counts}.
+	 * @return the key.
+	 */
+	public static String getKey(BenchmarkParams params, boolean threadSweep) {
+
+		Map<String, String> fixture = getFixture(params, threadSweep);
+		return fixture.isEmpty() ? getKey(params.getBenchmark()) : params.getBenchmark() + fixture;
+	}
+
+	/**
+	 * Return the parameter values of a benchmark fixture that was run with {@link BenchmarkParams}, including the
+	 * {@link BenchmarkFixture#THREADS threads} parameter if thread counts are swept.
+	 *
+	 * @param params the benchmark parameters.
+	 * @param threadSweep whether the run sweeps thread counts.
+	 * @return parameter values ordered by name.
+	 */
+	static Map<String, String> getFixture(BenchmarkParams params, boolean threadSweep) {
+
+		Map<String, String> fixture = new TreeMap<>();
+		for (String key : params.getParamsKeys()) {
+			fixture.put(key, params.getParam(key));
+		}
+
+		if (threadSweep) {
+			fixture.put(BenchmarkFixture.THREADS, Integer.toString(params.getThreads()));
+		}
+
+		return fixture;
+	}
+
+	/**
+	 * @param configuration must not be {@literal null}.
+	 * @return {@literal true} if {@link BenchmarkConfiguration#getThreadSweep() thread counts are swept} so that
+	 *         benchmarks are keyed by their number of threads.
+	 */
+	public static boolean isThreadSweep(BenchmarkConfiguration configuration) {
+		return StringUtils.hasText(configuration.getThreadSweep());
+	}
+
+	/**
+	 * @param metaData must not be {@literal null}.
+	 * @return {@literal true} if the results described by {@link MetaData} were obtained while sweeping thread counts.
+	 * @see #isThreadSweep(BenchmarkConfiguration)
+	 */
+	public static boolean isThreadSweep(MetaData metaData) {
+
+		Object threadSweep = metaData.getAdditionalParameters()
+				.get(BenchmarkConfigProperties.THREAD_SWEEP.propertyName());
+		return threadSweep != null && StringUtils.hasText(threadSweep.toString());
+	}
+
+	/**
+	 * Select the units assigned to this shard. The selection retains the order of {@code units}.
+	 *
+	 * @param units all units, in any order.
+	 * @param keyFunction function to obtain the {@link #getKey(String) key} of a unit.
+	 * @return the units of this shard.
+	 */
+	public <T> List<T> select(List<T> units, Function<T, String> keyFunction) {
+		return select(units, keyFunction, 0);
+	}
+
+	/**
+	 * Select the units of {@code scope} assigned to this shard. Runners that partition units per test class would
+	 * assign every class with fewer units than shards to the first shards, so ties between shards with the same load are
+	 * resolved starting at a shard derived from {@code scope}. The starting shard only depends on {@code scope}, so all
+	 * shards compute the same partition. The selection retains the order of {@code units}.
+	 *
+	 * @param scope name of the unit group, e.g. the test class name.
+	 * @param units all units of {@code scope}, in any order.
+	 * @param keyFunction function to obtain the {@link #getKey(String) key} of a unit.
+	 * @return the units of this shard.
+	 */
+	public <T> List<T> select(String scope, List<T> units, Function<T, String> keyFunction) {
+		return select(units, keyFunction, Math.floorMod(scope.hashCode(), count));
+	}
+
+	private <T> List<T> select(List<T> units, Function<T, String> keyFunction, int first) {
+
+		List<String> keys = new ArrayList<>(units.size());
+		for (T unit : units) {
+			keys.add(keyFunction.apply(unit));
+		}
+
+		long defaultCost = getDefaultCost(durations);
+		long[] costs = new long[units.size()];
+		for (int i = 0; i < units.size(); i++) {
+			costs[i] = durations.getOrDefault(keys.get(i), defaultCost);
+		}
+
+		int[] shards = assign(keys, costs, count, first);
+
+		List<T> result = new ArrayList<>();
+		for (int i = 0; i < units.size(); i++) {
+			if (shards[i] == index) {
+				result.add(units.get(i));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Partition benchmark methods into {@code count} partitions of similar total duration using the
+	 * longest-processing-time-first rule. The cost of a benchmark method is the sum of the durations of the method and
+	 * its fixtures in the {@link BenchmarkConfiguration#getShardDurations() durations file}, sharding does not need to be
+	 * enabled. Benchmark methods without historical duration are assumed to take the median of known durations. Each
+	 * partition retains the order of {@code units}.
+	 *
+	 * @param configuration must not be {@literal null}.
+	 * @param units the units to partition, in any order.
+	 * @param benchmarkFunction function to obtain the benchmark name ({@code fqcn.method}) of a unit.
+	 * @param count number of partitions.
+	 * @return {@code count} partitions, some of which may be empty.
+	 * @throws IllegalStateException if the durations file cannot be read.
+	 */
+	public static <T> List<List<T>> partition(BenchmarkConfiguration configuration, List<T> units,
+			Function<T, String> benchmarkFunction, int count) {
+
+		String durationsFile = configuration.getShardDurations();
+		File file = StringUtils.hasText(durationsFile) ? new File(durationsFile) : null;
+		Map<String, Long> durations;
+
+		try {
+			durations = readDurations(file);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read benchmark durations from " + file, e);
+		}
+
+		List<String> benchmarks = new ArrayList<>(units.size());
+		for (T unit : units) {
+			benchmarks.add(benchmarkFunction.apply(unit));
+		}
+
+		long defaultCost = getDefaultCost(durations);
+		long[] costs = new long[units.size()];
+		for (int i = 0; i < units.size(); i++) {
+			costs[i] = getCost(durations, benchmarks.get(i), defaultCost);
+		}
+
+		int[] partitions = assign(benchmarks, costs, count, 0);
+
+		List<List<T>> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			result.add(new ArrayList<>());
+		}
+
+		for (int i = 0; i < units.size(); i++) {
+			result.get(partitions[i]).add(units.get(i));
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return the durations of {@code benchmark} and its fixtures or {@code defaultCost} if there are none.
+	 */
+	private static long getCost(Map<String, Long> durations, String benchmark, long defaultCost) {
+
+		String fixturePrefix = benchmark + "{";
+		long cost = 0;
+		boolean known = false;
+
+		for (Map.Entry<String, Long> entry : durations.entrySet()) {
+			if (entry.getKey().equals(getKey(benchmark)) || entry.getKey().startsWith(fixturePrefix)) {
+				cost += entry.getValue();
+				known = true;
+			}
+		}
+
+		return known ? cost : defaultCost;
+	}
+
+	/**
+	 * Assign units to {@code count} bins using the longest-processing-time-first rule. Units of equal cost are assigned
+	 * in the order of their keys and ties between bins of equal load are resolved starting at {@code first}.
+	 *
+	 * @return the bin of each unit.
+	 */
+	private static int[] assign(List<String> keys, long[] costs, int count, int first) {
+
+		List<Integer> order = new ArrayList<>(keys.size());
+		for (int i = 0; i < keys.size(); i++) {
+			order.add(i);
+		}
+
+		Comparator<Integer> byCost = Comparator.comparingLong(i -> costs[i]);
+		order.sort(byCost.reversed().thenComparing(keys::get));
+
+		long[] load = new long[count];
+		int[] bins = new int[keys.size()];
+
+		for (int unit : order) {
+
+			int bin = first;
+			for (int offset = 1; offset < count; offset++) {
+
+				int candidate = (first + offset) % count;
+				if (load[candidate] < load[bin]) {
+					bin = candidate;
+				}
+			}
+
+			load[bin] += costs[unit];
+			bins[unit] = bin;
+		}
+
+		return bins;
+	}
+
+	/**
+	 * Decorate {@link OutputFormat} to measure the duration of each benchmark fixture.
+	 *
+	 * @param delegate the actual {@link OutputFormat}.
+	 * @return the measuring {@link OutputFormat}.
+	 */
+	public OutputFormat decorate(OutputFormat delegate) {
+		return new DurationRecordingOutputFormat(delegate, measured, threadSweep);
+	}
+
+	/**
+	 * Write measured durations to the {@link #getShardDurationsFile() shard durations file}, if a durations file is
+	 * configured. The durations file is left unchanged.
+	 *
+	 * @throws IOException if the shard durations file cannot be written.
+	 */
+	public void saveDurations() throws IOException {
+
+		File shardFile = getShardDurationsFile();
+
+		if (shardFile == null || measured.isEmpty()) {
+			return;
+		}
+
+		Map<String, Long> merged = new TreeMap<>();
+		if (!WRITTEN.add(shardFile.getAbsoluteFile())) {
+			merged.putAll(readDurations(shardFile));
+		}
+		merged.putAll(measured);
+
+		writeDurations(shardFile, merged);
+	}
+
+	/**
+	 * Return the file receiving the durations measured by this shard. Its name is the name of the durations file with a
+	 * {@code _shard-<index>-of-<count>} suffix before the file extension, e.g. {@code durations_shard-0-of-4.properties}.
+	 *
+	 * @return the shard durations file or {@literal null} if no durations file is configured.
+	 */
+	public File getShardDurationsFile() {
+		return durationsFile != null ? getShardFile(durationsFile, index, count) : null;
+	}
+
+	/**
+	 * Return the per-shard variant of {@code file} with a {@code _shard-<index>-of-<count>} suffix before the file
+	 * extension, e.g. {@code results_shard-0-of-4.json} for {@code results.json}.
+	 *
+	 * @param file the file shared by all shards.
+	 * @param index zero-based index of the shard.
+	 * @param count number of shards.
+	 * @return the per-shard file.
+	 */
+	public static File getShardFile(File file, int index, int count) {
+
+		String name = file.getName();
+		int extension = name.lastIndexOf('.');
+		String suffix = "_shard-" + index + "-of-" + count;
+
+		return new File(file.getParentFile(), extension > 0
+				? name.substring(0, extension) + suffix + name.substring(extension) : name + suffix);
+	}
+
+	/**
+	 * Find the shard durations files written next to {@code durationsFile}.
+	 *
+	 * @param durationsFile the durations file.
+	 * @return the shard durations files ordered by name.
+	 */
+	public static List<File> findShardDurationsFiles(File durationsFile) {
+
+		String name = durationsFile.getName();
+		int extension = name.lastIndexOf('.');
+		Pattern pattern = Pattern.compile(Pattern.quote(extension > 0 ? name.substring(0, extension) : name)
+				+ "_shard-\\d+-of-\\d+" + Pattern.quote(extension > 0 ? name.substring(extension) : ""));
+
+		File directory = durationsFile.getAbsoluteFile().getParentFile();
+		File[] files = directory != null ? directory.listFiles((dir, it) -> pattern.matcher(it).matches()) : null;
+
+		if (files == null) {
+			return Collections.emptyList();
+		}
+
+		Arrays.sort(files);
+		return Arrays.asList(files);
+	}
+
+	/**
+	 * Merge shard durations files into the durations file. Durations measured by a shard replace existing durations,
+	 * durations of benchmarks that were not run are retained.
+	 *
+	 * @param durationsFile the durations file.
+	 * @param shardFiles the shard durations files.
+	 * @throws IOException if a file cannot be read or written.
+	 */
+	public static void mergeDurations(File durationsFile, Collection<File> shardFiles) throws IOException {
+
+		Map<String, Long> merged = new TreeMap<>(readDurations(durationsFile));
+
+		for (File shardFile : shardFiles) {
+			merged.putAll(readDurations(shardFile));
+		}
+
+		writeDurations(durationsFile, merged);
+	}
+
+	private static void writeDurations(File file, Map<String, Long> durations) throws IOException {
+
+		Properties properties = new Properties();
+		durations.forEach((key, value) -> properties.setProperty(key, Long.toString(value)));
+
+		if (file.getAbsoluteFile().getParentFile() != null) {
+			file.getAbsoluteFile().getParentFile().mkdirs();
+		}
+
+		try (OutputStream out = Files.newOutputStream(file.toPath())) {
+			properties.store(out, "Benchmark durations in milliseconds");
+		}
+	}
+
+	private static long getDefaultCost(Map<String, Long> durations) {
+
+		if (durations.isEmpty()) {
+			return 1;
+		}
+
+		long[] values = durations.values().stream().mapToLong(Long::longValue).toArray();
+		Arrays.sort(values);
+		return Math.max(1, values[values.length / 2]);
+	}
+
+	private static Map<String, Long> readDurations(File durationsFile) throws IOException {
+
+		if (durationsFile == null || !durationsFile.isFile()) {
+			return Collections.emptyMap();
+		}
+
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(durationsFile.toPath())) {
+			properties.load(in);
+		}
+
+		Map<String, Long> durations = new TreeMap<>();
+		for (String key : properties.stringPropertyNames()) {
+			try {
+				durations.put(key, Long.parseLong(properties.getProperty(key).trim()));
+			} catch (NumberFormatException e) {
+				// ignore malformed entries
+			}
+		}
+
+		return durations;
+	}
+
+	/**
+	 * @return the shard in the form of {@code index/count}.
+	 */
+	@Override
+	public String toString() {
+		return index + "/" + count;
+	}
+
+	/**
+	 * {@link OutputFormat} measuring the wall-clock duration between benchmark start and end.
+	 */
+	private static class DurationRecordingOutputFormat extends DelegatingOutputFormat {
+
+		private final Map<String, Long> measured;
+		private final boolean threadSweep;
+
+		private volatile BenchmarkParams current;
+		private volatile long startTime;
+
+		DurationRecordingOutputFormat(OutputFormat delegate, Map<String, Long> measured, boolean threadSweep) {
+			super(delegate);
+			this.measured = measured;
+			this.threadSweep = threadSweep;
+		}
+
+		@Override
+		public void startBenchmark(BenchmarkParams benchParams) {
+
+			current = benchParams;
+			startTime = System.nanoTime();
+			super.startBenchmark(benchParams);
+		}
+
+		@Override
+		public void endBenchmark(BenchmarkResult result) {
+
+			BenchmarkParams params = result != null ? result.getParams() : current;
+
+			if (params != null) {
+				measured.put(getKey(params, threadSweep), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+			}
+
+			super.endBenchmark(result);
+		}
+	}
+}
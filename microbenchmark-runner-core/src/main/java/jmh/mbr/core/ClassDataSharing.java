@@ -0,0 +1,501 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.util.Utils;
+
+/**
+ * Application class data sharing (AppCDS) for forked JVMs. A training fork runs a single benchmark with
+ * {@code -XX:ArchiveClassesAtExit} to dump the loaded classes into an archive. Subsequent forks are started with
+ * {@code -XX:SharedArchiveFile} to map these classes instead of loading and verifying them again. Archives are keyed by
+ * a hash of the JVM and the class path contents so that a changed class path creates a new archive and removes stale
+ * ones.
+ * <p>
+ * The JVM refuses to create archives if the class path contains non-empty directories. Class path directories are
+ * therefore packaged into jar files next to the archive and forks are started through a launcher script that replaces
+ * the {@code -cp} argument with the packaged class path.
+ * <p>
+ * The startup time of each fork (launch until its first iteration) is recorded to report the startup time with and
+ * without archive. Dynamic archives require Java 13 or newer and a POSIX shell.
+ */
+public class ClassDataSharing {
+
+	/**
+	 * Minimum Java version supporting dynamic class data sharing archives.
+	 */
+	static final int MIN_JAVA_VERSION = 13;
+
+	static final String ARCHIVE_PREFIX = "jmh-mbr-";
+
+	private static final String ARCHIVE_SUFFIX = ".jsa";
+	private static final String LAUNCHER_SUFFIX = ".sh";
+	private static final String STARTUP_SUFFIX = ".properties";
+	private static final String STARTUP_KEY = "startup.withoutArchive";
+	private static final TimeValue TRAINING_TIME = TimeValue.milliseconds(100);
+
+	private final boolean supported;
+	private final File directory;
+	private final List<File> classpath;
+	private final String classpathHash;
+	private final LongSummaryStatistics withoutArchive = new LongSummaryStatistics();
+	private final LongSummaryStatistics withArchive = new LongSummaryStatistics();
+
+	private volatile boolean active;
+
+	ClassDataSharing(boolean supported, File directory, List<File> classpath, String classpathHash) {
+		this.supported = supported;
+		this.directory = directory;
+		this.classpath = classpath;
+		this.classpathHash = classpathHash;
+	}
+
+	/**
+	 * Create {@link ClassDataSharing} from {@link BenchmarkConfiguration}.
+	 *
+	 * @param configuration must not be {@literal null}.
+	 * @return the {@link ClassDataSharing} or {@literal null} if class data sharing is not enabled.
+	 */
+	public static ClassDataSharing from(BenchmarkConfiguration configuration) {
+
+		if (!configuration.isCdsEnabled()) {
+			return null;
+		}
+
+		String directory = configuration.getCdsDirectory();
+		File archiveDirectory = new File(StringUtils.hasText(directory) ? directory : "target/jmh-mbr-cds");
+
+		boolean supported = getJavaVersion(System.getProperty("java.specification.version")) >= MIN_JAVA_VERSION
+				&& !Environment.getOsName().toLowerCase().contains("windows");
+		List<File> classpath = new ArrayList<>();
+
+		for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+			if (StringUtils.hasText(entry)) {
+				classpath.add(new File(entry).getAbsoluteFile());
+			}
+		}
+
+		return new ClassDataSharing(supported, archiveDirectory, classpath,
+				hash(Utils.getCurrentJvm(), System.getProperty("java.vm.version"), classpath));
+	}
+
+	/**
+	 * Parse the major Java version from {@code java.specification.version}.
+	 *
+	 * @param specificationVersion version such as {@code 1.8} or {@code 17}.
+	 * @return the major version or {@literal -1} if the version cannot be parsed.
+	 */
+	static int getJavaVersion(String specificationVersion) {
+
+		if (!StringUtils.hasText(specificationVersion)) {
+			return -1;
+		}
+
+		String version = specificationVersion.startsWith("1.") ? specificationVersion.substring(2) : specificationVersion;
+		int separator = version.indexOf('.');
+
+		try {
+			return Integer.parseInt(separator == -1 ? version : version.substring(0, separator));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Compute a hash identifying the JVM and the class path. Jar files contribute their size and modification time as
+	 * the JVM rejects archives whose jar files were modified. Directories contribute size and modification time of each
+	 * contained file as these are packaged into jar files.
+	 *
+	 * @param jvm the JVM executable.
+	 * @param vmVersion the JVM version.
+	 * @param classpath the class path entries.
+	 * @return hexadecimal hash.
+	 */
+	static String hash(String jvm, String vmVersion, List<File> classpath) {
+
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+
+		StringBuilder sb = new StringBuilder().append(jvm).append('\n').append(vmVersion).append('\n');
+
+		for (File entry : classpath) {
+
+			sb.append(entry.getAbsolutePath()).append('\n');
+
+			if (entry.isFile()) {
+				sb.append(entry.length()).append(';').append(entry.lastModified()).append('\n');
+			}
+
+			if (entry.isDirectory()) {
+				for (Path file : listFiles(entry.toPath())) {
+					File f = file.toFile();
+					sb.append(entry.toPath().relativize(file)).append(';').append(f.length()).append(';')
+							.append(f.lastModified()).append('\n');
+				}
+			}
+		}
+
+		byte[] hash = digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+
+		StringBuilder hex = new StringBuilder();
+		for (int i = 0; i < 8; i++) {
+			hex.append(String.format("%02x", hash[i]));
+		}
+
+		return hex.toString();
+	}
+
+	private static List<Path> listFiles(Path directory) {
+
+		try (Stream<Path> files = Files.walk(directory)) {
+			return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @return the archive file for the current class path.
+	 */
+	File getArchive() {
+		return new File(directory, ARCHIVE_PREFIX + classpathHash + ARCHIVE_SUFFIX);
+	}
+
+	/**
+	 * @return the launcher script for the current class path.
+	 */
+	File getLauncher() {
+		return new File(directory, ARCHIVE_PREFIX + classpathHash + LAUNCHER_SUFFIX);
+	}
+
+	private File getStartupFile() {
+		return new File(directory, ARCHIVE_PREFIX + classpathHash + STARTUP_SUFFIX);
+	}
+
+	/**
+	 * @return {@literal true} if forks are started from the archive.
+	 */
+	public boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * Start forks from the archive by using the {@link #getLauncher() launcher} and prepending
+	 * {@code -XX:SharedArchiveFile} to the JVM arguments. Note that JVM arguments prepended through
+	 * {@link org.openjdk.jmh.annotations.Fork#jvmArgsPrepend()} are overridden. Leaves
+	 * {@link ChainedOptionsBuilder} unchanged as long as the archive is not {@link #prepare(ChainedOptionsBuilder,
+	 * OutputFormat) prepared}.
+	 *
+	 * @param optionsBuilder must not be {@literal null}.
+	 * @return {@link ChainedOptionsBuilder} with options applied.
+	 */
+	public ChainedOptionsBuilder apply(ChainedOptionsBuilder optionsBuilder) {
+
+		if (active) {
+			optionsBuilder.jvm(getLauncher().getAbsolutePath())
+					.jvmArgsPrepend("-XX:SharedArchiveFile=" + getArchive().getAbsolutePath());
+		}
+
+		return optionsBuilder;
+	}
+
+	/**
+	 * Prepare the archive. Reuses an archive for the current class path or creates a new one by running the benchmarks
+	 * of {@code training} in a single short training fork. Failures are reported to {@link OutputFormat} and leave class
+	 * data sharing disabled.
+	 *
+	 * @param training options selecting the training benchmark, must not be {@literal null}.
+	 * @param output the output to run the training fork with.
+	 */
+	public void prepare(ChainedOptionsBuilder training, OutputFormat output) {
+
+		if (active) {
+			return;
+		}
+
+		if (!supported) {
+			output.println(String.format("# WARNING: Class data sharing requires Java %d or newer and a POSIX shell",
+					MIN_JAVA_VERSION));
+			return;
+		}
+
+		File archive = getArchive();
+		File launcher = getLauncher();
+
+		if (archive.isFile() && launcher.canExecute()) {
+			output.println("# CDS: Using archive " + archive);
+			active = true;
+			return;
+		}
+
+		directory.mkdirs();
+		deleteStaleArchives();
+
+		try {
+			createLauncher(training.build().getJvm().orElse(Utils.getCurrentJvm()));
+		} catch (IOException | UncheckedIOException e) {
+			output.println("# WARNING: Cannot create class data sharing launcher: " + e);
+			return;
+		}
+
+		File dump = new File(directory, archive.getName() + ".tmp");
+		output.println("# CDS: Creating archive " + archive + " in a training fork");
+
+		try {
+			training.jvm(launcher.getAbsolutePath()).forks(1).warmupForks(0).warmupIterations(0).measurementIterations(1)
+					.measurementTime(TRAINING_TIME)
+					.jvmArgsPrepend("-XX:ArchiveClassesAtExit=" + dump.getAbsolutePath(), "-Xlog:cds=error");
+
+			new Runner(training.build(), output).run();
+		} catch (RunnerException e) {
+			output.println("# WARNING: Class data sharing training fork failed: " + e);
+			return;
+		}
+
+		if (!dump.isFile()) {
+			output.println("# WARNING: Training fork did not create class data sharing archive " + dump);
+			return;
+		}
+
+		try {
+			Files.move(dump.toPath(), archive.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			saveStartupBaseline();
+		} catch (IOException e) {
+			output.println("# WARNING: Cannot save class data sharing archive: " + e);
+			return;
+		}
+
+		active = true;
+	}
+
+	/**
+	 * Decorate {@link OutputFormat} to record the startup time of forks.
+	 *
+	 * @param delegate the actual {@link OutputFormat}.
+	 * @return the recording {@link OutputFormat}.
+	 */
+	public OutputFormat decorate(OutputFormat delegate) {
+		return new StartupRecordingOutputFormat(delegate, this);
+	}
+
+	/**
+	 * Record the startup time of a fork.
+	 *
+	 * @param archived whether the fork was started from the archive.
+	 * @param nanos the time between fork launch and its first iteration.
+	 */
+	synchronized void record(boolean archived, long nanos) {
+		(archived ? withArchive : withoutArchive).accept(TimeUnit.NANOSECONDS.toMillis(nanos));
+	}
+
+	/**
+	 * Report the average fork startup time with and without archive. The startup time without archive falls back to the
+	 * time recorded when the archive was created if all forks of this run were started from the archive.
+	 *
+	 * @param output the output to report to.
+	 */
+	public void report(OutputFormat output) {
+
+		double archived;
+		double baseline;
+		long forks;
+
+		synchronized (this) {
+
+			if (withArchive.getCount() == 0) {
+				return;
+			}
+
+			archived = withArchive.getAverage();
+			forks = withArchive.getCount();
+			baseline = withoutArchive.getCount() > 0 ? withoutArchive.getAverage() : readStartupBaseline();
+		}
+
+		if (baseline < 0) {
+			output.println(String.format("# CDS: Fork startup %.0f ms with archive (%d forks)", archived, forks));
+		} else {
+			output.println(String.format("# CDS: Fork startup %.0f ms with archive (%d forks), %.0f ms without archive",
+					archived, forks, baseline));
+		}
+	}
+
+	/**
+	 * Package class path directories into jar files and create a launcher script that starts {@code jvm} with the
+	 * packaged class path.
+	 *
+	 * @param jvm the actual JVM executable.
+	 * @throws IOException if the jar files or the launcher cannot be written.
+	 */
+	void createLauncher(String jvm) throws IOException {
+
+		List<String> packaged = new ArrayList<>();
+
+		for (File entry : classpath) {
+
+			if (!entry.isDirectory() || listFiles(entry.toPath()).isEmpty()) {
+				packaged.add(entry.getAbsolutePath());
+				continue;
+			}
+
+			File jar = new File(directory, ARCHIVE_PREFIX + classpathHash + "-" + packaged.size() + ".jar");
+			createJar(entry.toPath(), jar);
+			packaged.add(jar.getAbsolutePath());
+		}
+
+		String script = "#!/bin/sh" + System.lineSeparator() //
+				+ "# replace the class path argument with the packaged class path" + System.lineSeparator() //
+				+ "for arg do" + System.lineSeparator() //
+				+ "  shift" + System.lineSeparator() //
+				+ "  if [ -n \"$cp\" ]; then arg=" + quote(String.join(File.pathSeparator, packaged)) + "; cp=; "
+				+ "elif [ \"$arg\" = \"-cp\" ]; then cp=1; fi" + System.lineSeparator() //
+				+ "  set -- \"$@\" \"$arg\"" + System.lineSeparator() //
+				+ "done" + System.lineSeparator() //
+				+ "exec " + quote(jvm) + " \"$@\"" + System.lineSeparator();
+
+		File launcher = getLauncher();
+		Files.write(launcher.toPath(), script.getBytes(StandardCharsets.UTF_8));
+
+		if (!launcher.setExecutable(true)) {
+			throw new IOException("Cannot make " + launcher + " executable");
+		}
+	}
+
+	private static void createJar(Path directory, File jar) throws IOException {
+
+		try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+
+			for (Path file : listFiles(directory)) {
+
+				out.putNextEntry(new JarEntry(directory.relativize(file).toString().replace(File.separatorChar, '/')));
+				Files.copy(file, out);
+				out.closeEntry();
+			}
+		}
+	}
+
+	private static String quote(String value) {
+		return "'" + value.replace("'", "'\\''") + "'";
+	}
+
+	private void deleteStaleArchives() {
+
+		File[] files = directory.listFiles((dir, name) -> name.startsWith(ARCHIVE_PREFIX));
+
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+	}
+
+	private void saveStartupBaseline() throws IOException {
+
+		double baseline;
+		synchronized (this) {
+			if (withoutArchive.getCount() == 0) {
+				return;
+			}
+			baseline = withoutArchive.getAverage();
+		}
+
+		Properties properties = new Properties();
+		properties.setProperty(STARTUP_KEY, Long.toString(Math.round(baseline)));
+
+		try (OutputStream out = Files.newOutputStream(getStartupFile().toPath())) {
+			properties.store(out, "Fork startup time in milliseconds");
+		}
+	}
+
+	private double readStartupBaseline() {
+
+		File file = getStartupFile();
+		if (!file.isFile()) {
+			return -1;
+		}
+
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(file.toPath())) {
+			properties.load(in);
+			return Long.parseLong(properties.getProperty(STARTUP_KEY, "-1").trim());
+		} catch (IOException | NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * {@link OutputFormat} measuring the time between a fork launch announcement and the first iteration of that fork.
+	 */
+	private static class StartupRecordingOutputFormat extends DelegatingOutputFormat {
+
+		private final ClassDataSharing sharing;
+
+		private volatile long forkStart;
+		private volatile boolean archived;
+
+		StartupRecordingOutputFormat(OutputFormat delegate, ClassDataSharing sharing) {
+			super(delegate);
+			this.sharing = sharing;
+		}
+
+		@Override
+		public void println(String s) {
+
+			if (s.startsWith("# Fork:") || s.startsWith("# Warmup Fork:")) {
+				archived = sharing.isActive();
+				forkStart = System.nanoTime();
+			}
+
+			super.println(s);
+		}
+
+		@Override
+		public void iteration(BenchmarkParams benchParams, IterationParams params, int iteration) {
+
+			long start = forkStart;
+			if (start != 0) {
+				forkStart = 0;
+				sharing.record(archived, System.nanoTime() - start);
+			}
+
+			super.iteration(benchParams, params, iteration);
+		}
+	}
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@code @ComplexityParameter} names the numeric {@code @Param} the cost of the annotated benchmark method (or all
+ * benchmark methods of the annotated class) grows with. Scores of fixtures that differ only in this parameter are
+ * fitted to complexity classes and the best fit is reported along with its goodness-of-fit. Method-level declarations
+ * take precedence over class-level declarations and the {@code jmh.mbr.complexity.param} configuration.
+ *
+ * @see ComplexityParameters
+ * @see jmh.mbr.core.model.ComplexityEstimate
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Documented
+public @interface ComplexityParameter {
+
+	/**
+	 * @return name of the size parameter.
+	 */
+	String value();
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jmh.mbr.core.model.BenchmarkResults;
+import jmh.mbr.core.model.ComplexityEstimate;
+
+/**
+ * Resolves the size parameter of benchmarks for {@link ComplexityEstimate complexity estimation} from their
+ * {@link ComplexityParameter} declaration and the {@link BenchmarkConfiguration#getComplexityParameter() configuration}
+ * and records it in the {@link jmh.mbr.core.model.BenchmarkResults.MetaData} of their results so that results writers
+ * can fit the results of each size curve.
+ */
+public class ComplexityParameters {
+
+	private final Map<String, String> parameters;
+	private final String defaultParameter;
+
+	ComplexityParameters(Map<String, String> parameters, String defaultParameter) {
+		this.parameters = parameters;
+		this.defaultParameter = defaultParameter;
+	}
+
+	/**
+	 * Create {@link ComplexityParameters} from the {@link ComplexityParameter} declarations of benchmark methods.
+	 *
+	 * @param configuration the configuration providing the default size parameter.
+	 * @param methods the benchmark methods.
+	 * @return the {@link ComplexityParameters} or {@literal null} if neither configured nor declared by any benchmark
+	 *         method.
+	 */
+	public static ComplexityParameters from(BenchmarkConfiguration configuration, Collection<Method> methods) {
+
+		Map<String, String> parameters = new HashMap<>();
+
+		for (Method method : methods) {
+
+			ComplexityParameter parameter = method.getAnnotation(ComplexityParameter.class);
+			if (parameter == null) {
+				parameter = method.getDeclaringClass().getAnnotation(ComplexityParameter.class);
+			}
+
+			if (parameter != null) {
+				parameters.put(BenchmarkIncludes.getBenchmarkName(method), parameter.value());
+			}
+		}
+
+		String defaultParameter = StringUtils.hasText(configuration.getComplexityParameter())
+				? configuration.getComplexityParameter()
+				: null;
+
+		return parameters.isEmpty() && defaultParameter == null ? null
+				: new ComplexityParameters(parameters, defaultParameter);
+	}
+
+	/**
+	 * @param benchmark the benchmark name.
+	 * @return the comma-separated candidate names of the size parameter or {@literal null} if the benchmark has none.
+	 */
+	public String getParameter(String benchmark) {
+		return parameters.getOrDefault(benchmark, defaultParameter);
+	}
+
+	/**
+	 * Record the size parameter of each result in its {@link jmh.mbr.core.model.BenchmarkResults.MetaData} under
+	 * {@link ComplexityEstimate#PARAMETER_KEY}. Results without size parameter are retained as-is.
+	 *
+	 * @param results the benchmark results.
+	 * @return {@link BenchmarkResults} with size parameters attached.
+	 */
+	public BenchmarkResults attach(BenchmarkResults results) {
+
+		List<BenchmarkResults> attached = new ArrayList<>();
+
+		for (BenchmarkResults.BenchmarkResult result : results) {
+			attached.add(result.map((metaData, runResult) -> {
+
+				String parameter = runResult.getParams() != null ? getParameter(runResult.getParams().getBenchmark())
+						: null;
+				return new BenchmarkResults(parameter == null ? metaData
+						: metaData.withAdditionalParameters(
+								Collections.singletonMap(ComplexityEstimate.PARAMETER_KEY, parameter)),
+						Collections.singletonList(runResult));
+			}));
+		}
+
+		return BenchmarkResults.merge(results.getMetaData(), attached);
+	}
+}
@@ -9,29 +9,245 @@
  */
 package jmh.mbr.core;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jmh.mbr.core.model.BenchmarkResults;
 import org.openjdk.jmh.runner.format.OutputFormat;
 
 /**
- * Composite {@link ResultsWriter}.
+ * Composite {@link ResultsWriter}. Results are written to all writers in parallel so that a slow writer does not hold
+ * back the others. Each writer is given {@link BenchmarkConfiguration#getPublishTimeout() a timeout} to complete and a
+ * failing or timed out writer does not affect the other writers. The latency and outcome of each writer are reported to
+ * the {@link OutputFormat} once all writers have completed, stack traces of failed writers are reported as verbose
+ * output. Timed out writers are cancelled and given {@link #TERMINATION_TIMEOUT} to stop. Writers that are still
+ * running afterwards are reported by {@link #getRunningWriters()}, skipped by subsequent writes and must not be flushed
+ * or closed.
+ * <p>
+ * Writes share a single executor with one thread per writer that is created on the first write and released by
+ * {@link #close()} or {@link #shutdown()}.
  */
 class CompositeResultsWriter implements ResultsWriter {
 
+	/**
+	 * Time to wait for cancelled writers to stop.
+	 */
+	static final Duration TERMINATION_TIMEOUT = Duration.ofSeconds(1);
+
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
 	private final List<ResultsWriter> writers;
+	private final Duration timeout;
+	private final Set<ResultsWriter> running = ConcurrentHashMap.newKeySet();
+
+	private ExecutorService executor;
 
 	CompositeResultsWriter(List<ResultsWriter> writers) {
+		this(writers, BenchmarkConfigProperties.PUBLISH_TIMEOUT.defaultValue());
+	}
+
+	CompositeResultsWriter(List<ResultsWriter> writers, Duration timeout) {
 		this.writers = writers;
+		this.timeout = timeout;
+	}
+
+	@Override
+	public void open(OutputFormat output) {
+		for (ResultsWriter writer : writers) {
+			writer.open(output);
+		}
 	}
 
 	@Override
 	public void write(OutputFormat output, BenchmarkResults results) {
+
+		if (writers.isEmpty()) {
+			return;
+		}
+
+		ExecutorService executor = getExecutor();
+		long start = System.nanoTime();
+		long[] latencies = new long[writers.size()];
+		CountDownLatch stopped = new CountDownLatch(writers.size());
+		List<Future<?>> futures = new ArrayList<>(writers.size());
+
+		for (int i = 0; i < writers.size(); i++) {
+
+			int index = i;
+			ResultsWriter writer = writers.get(index);
+
+			// a writer that ignored the cancellation of a previous write still occupies its thread
+			if (!running.add(writer)) {
+				futures.add(null);
+				stopped.countDown();
+				continue;
+			}
+
+			futures.add(executor.submit(() -> {
+
+				try {
+					writer.write(output, results);
+				} finally {
+					latencies[index] = System.nanoTime() - start;
+					running.remove(writer);
+					stopped.countDown();
+				}
+			}));
+		}
+
+		long deadline = start + timeout.toNanos();
+		List<String> summary = new ArrayList<>(writers.size());
+		List<Throwable> failures = new ArrayList<>();
+
+		for (int i = 0; i < writers.size(); i++) {
+
+			Future<?> future = futures.get(i);
+			summary.add(getName(writers.get(i)) + " "
+					+ (future != null ? await(future, latencies, i, deadline, failures) : "still running"));
+		}
+
+		awaitStopped(stopped);
+
+		output.println("# Results written: " + String.join(", ", summary));
+
+		for (Throwable failure : failures) {
+
+			StringWriter stackTrace = new StringWriter();
+			failure.printStackTrace(new PrintWriter(stackTrace));
+			output.verbosePrintln(stackTrace.toString());
+		}
+	}
+
+	/**
+	 * Give cancelled writers {@link #TERMINATION_TIMEOUT} to stop.
+	 */
+	private static void awaitStopped(CountDownLatch stopped) {
+
+		try {
+			stopped.await(TERMINATION_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private synchronized ExecutorService getExecutor() {
+
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(writers.size(), runnable -> {
+
+				Thread thread = new Thread(runnable, "jmh-mbr-results-writer-" + THREAD_COUNTER.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		return executor;
+	}
+
+	/**
+	 * Cancel pending writes and release the executor, giving running writers {@link #TERMINATION_TIMEOUT} to stop.
+	 * Writers themselves are not closed.
+	 */
+	void shutdown() {
+
+		ExecutorService executor;
+		synchronized (this) {
+			executor = this.executor;
+			this.executor = null;
+		}
+
+		if (executor == null) {
+			return;
+		}
+
+		executor.shutdownNow();
+
+		try {
+			executor.awaitTermination(TERMINATION_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return the writers that were still running when {@link #write(OutputFormat, BenchmarkResults)} returned.
+	 */
+	Set<ResultsWriter> getRunningWriters() {
+		return new LinkedHashSet<>(running);
+	}
+
+	private String await(Future<?> future, long[] latencies, int index, long deadline, List<Throwable> failures) {
+
+		try {
+
+			future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			return formatMillis(latencies[index]);
+		} catch (TimeoutException e) {
+
+			future.cancel(true);
+			return "timed out after " + formatMillis(timeout.toNanos());
+		} catch (ExecutionException e) {
+
+			failures.add(e.getCause());
+			return "failed after " + formatMillis(latencies[index]) + " (" + e.getCause() + ")";
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+			return "interrupted";
+		}
+	}
+
+	private static String formatMillis(long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos) + " ms";
+	}
+
+	private static String getName(ResultsWriter writer) {
+
+		String name = writer.getClass().getSimpleName();
+		return name.isEmpty() ? writer.getClass().getName() : name;
+	}
+
+	@Override
+	public void flush(OutputFormat output) {
 		for (ResultsWriter writer : writers) {
-			writer.write(output, results);
+			writer.flush(output);
 		}
 	}
 
+	/**
+	 * {@link #shutdown() Shut down} the executor and close all writers that are not {@link #getRunningWriters() running}.
+	 */
+	@Override
+	public void close() {
+
+		shutdown();
+
+		for (ResultsWriter writer : writers) {
+			if (!running.contains(writer)) {
+				writer.close();
+			}
+		}
+	}
+
+	List<ResultsWriter> getWriters() {
+		return writers;
+	}
+
 	public void add(ResultsWriter writer) {
 		if (writer != null) {
 			this.writers.add(writer);
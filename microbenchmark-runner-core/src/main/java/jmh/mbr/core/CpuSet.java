@@ -0,0 +1,296 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Utils;
+
+/**
+ * Value object representing a set of logical CPUs that a benchmark fork is pinned to. Pinning is applied by launching
+ * the forked JVM through {@code taskset} and is therefore only available on Linux.
+ */
+public class CpuSet {
+
+	/**
+	 * {@link jmh.mbr.core.model.BenchmarkResults.MetaData} key under which the {@link CpuSet} of a result is recorded.
+	 */
+	public static final String METADATA_KEY = BenchmarkConfigProperties.PREFIX + "cpuset";
+
+	private static final String[] TASKSET_LOCATIONS = { "/usr/bin/taskset", "/bin/taskset" };
+
+	private static final String PROC_STATUS = "/proc/self/status";
+
+	private static final String CPUS_ALLOWED_LIST = "Cpus_allowed_list:";
+
+	private final int[] cpus;
+
+	private CpuSet(int[] cpus) {
+		this.cpus = cpus;
+	}
+
+	/**
+	 * Create a {@link CpuSet} for the given CPU ids.
+	 *
+	 * @param cpus CPU ids, must not be empty.
+	 * @return the {@link CpuSet}.
+	 */
+	public static CpuSet of(int... cpus) {
+
+		if (cpus.length == 0) {
+			throw new IllegalArgumentException("CPU set must not be empty!");
+		}
+
+		int[] sorted = cpus.clone();
+		Arrays.sort(sorted);
+		return new CpuSet(sorted);
+	}
+
+	/**
+	 * Split {@code availableCpus} into {@code partitions} disjoint, contiguous {@link CpuSet CPU sets}. The number of
+	 * partitions is capped to the number of available CPUs. Remaining CPUs are spread across the leading partitions.
+	 *
+	 * @param availableCpus number of logical CPUs.
+	 * @param partitions desired number of partitions.
+	 * @return the {@link CpuSet CPU sets}.
+	 */
+	public static List<CpuSet> partition(int availableCpus, int partitions) {
+
+		int[] cpus = new int[Math.max(availableCpus, 0)];
+		for (int i = 0; i < cpus.length; i++) {
+			cpus[i] = i;
+		}
+
+		return partition(cpus, partitions);
+	}
+
+	/**
+	 * Split the given CPU ids into {@code partitions} disjoint {@link CpuSet CPU sets} of consecutive ids. The number of
+	 * partitions is capped to the number of CPUs. Remaining CPUs are spread across the leading partitions.
+	 *
+	 * @param availableCpus the CPU ids, e.g. {@link #getAllowedCpus()}.
+	 * @param partitions desired number of partitions.
+	 * @return the {@link CpuSet CPU sets}.
+	 */
+	public static List<CpuSet> partition(int[] availableCpus, int partitions) {
+
+		if (availableCpus.length < 1 || partitions < 1) {
+			return Collections.emptyList();
+		}
+
+		int[] sorted = availableCpus.clone();
+		Arrays.sort(sorted);
+
+		int count = Math.min(sorted.length, partitions);
+		int size = sorted.length / count;
+		int remainder = sorted.length % count;
+
+		List<CpuSet> result = new ArrayList<>(count);
+		int next = 0;
+
+		for (int i = 0; i < count; i++) {
+
+			int[] cpus = new int[size + (i < remainder ? 1 : 0)];
+			for (int j = 0; j < cpus.length; j++) {
+				cpus[j] = sorted[next++];
+			}
+			result.add(new CpuSet(cpus));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Determine the CPUs this process may run on. On Linux, the {@code Cpus_allowed_list} of {@code /proc/self/status}
+	 * reflects both the affinity mask and the cgroup cpuset. Other systems, or a status that cannot be read, fall back
+	 * to CPUs {@code 0} to {@link Runtime#availableProcessors()}{@code - 1}.
+	 *
+	 * @return the allowed CPU ids in ascending order.
+	 */
+	public static int[] getAllowedCpus() {
+
+		File status = new File(PROC_STATUS);
+
+		if (status.canRead()) {
+			try {
+				for (String line : Files.readAllLines(status.toPath(), StandardCharsets.UTF_8)) {
+					if (line.startsWith(CPUS_ALLOWED_LIST)) {
+
+						int[] cpus = parseCpuList(line.substring(CPUS_ALLOWED_LIST.length()));
+						if (cpus.length > 0) {
+							return cpus;
+						}
+					}
+				}
+			}
+			catch (IOException | IllegalArgumentException e) {
+				// fall back to the processor count
+			}
+		}
+
+		int[] cpus = new int[Runtime.getRuntime().availableProcessors()];
+		for (int i = 0; i < cpus.length; i++) {
+			cpus[i] = i;
+		}
+		return cpus;
+	}
+
+	/**
+	 * Parse a CPU list such as {@code 0-3,8,10-11} as used by {@code taskset -c} and {@code /proc}.
+	 *
+	 * @param cpuList the CPU list.
+	 * @return the CPU ids in ascending order.
+	 * @throws IllegalArgumentException if the list is malformed.
+	 */
+	static int[] parseCpuList(String cpuList) {
+
+		List<Integer> cpus = new ArrayList<>();
+
+		for (String range : cpuList.trim().split(",")) {
+
+			if (range.trim().isEmpty()) {
+				continue;
+			}
+
+			try {
+				String[] bounds = range.trim().split("-");
+				int from = Integer.parseInt(bounds[0].trim());
+				int to = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : from;
+
+				if (bounds.length > 2 || from < 0 || to < from) {
+					throw new IllegalArgumentException("Cannot parse CPU list '" + cpuList + "'");
+				}
+
+				for (int cpu = from; cpu <= to; cpu++) {
+					cpus.add(cpu);
+				}
+			}
+			catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Cannot parse CPU list '" + cpuList + "'", e);
+			}
+		}
+
+		return cpus.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+	}
+
+	/**
+	 * @return {@literal true} if forked JVMs can be pinned to a {@link CpuSet} on this machine.
+	 */
+	public static boolean isPinningSupported() {
+		return findTaskset() != null;
+	}
+
+	/**
+	 * @return number of CPUs in this set.
+	 */
+	public int size() {
+		return cpus.length;
+	}
+
+	/**
+	 * Apply this {@link CpuSet} to {@link Options} by routing forked JVMs through a {@code taskset} launcher. Returns
+	 * {@code options} unchanged if pinning is not supported.
+	 *
+	 * @param options the run options.
+	 * @return {@link Options} that launch forks pinned to this {@link CpuSet}.
+	 * @throws IOException if the launcher cannot be created.
+	 */
+	public Options pin(Options options) throws IOException {
+
+		String taskset = findTaskset();
+		if (taskset == null) {
+			return options;
+		}
+
+		String jvm = options.getJvm().orElse(Utils.getCurrentJvm());
+
+		File launcher = File.createTempFile("jmh-mbr-cpuset-", ".sh");
+		launcher.deleteOnExit();
+
+		String script = "#!/bin/sh" + System.lineSeparator() + "exec " + taskset + " -c " + toCpuList() + " "
+				+ quote(jvm) + " \"$@\"" + System.lineSeparator();
+		Files.write(launcher.toPath(), script.getBytes(StandardCharsets.UTF_8));
+
+		if (!launcher.setExecutable(true)) {
+			throw new IOException("Cannot make " + launcher + " executable");
+		}
+
+		return new OptionsBuilder().parent(options).jvm(launcher.getAbsolutePath()).build();
+	}
+
+	/**
+	 * @return comma-separated list of CPU ids as accepted by {@code taskset -c}.
+	 */
+	String toCpuList() {
+
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < cpus.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(cpus[i]);
+		}
+		return sb.toString();
+	}
+
+	private static String findTaskset() {
+
+		if (!Environment.getOsName().toLowerCase().contains("linux")) {
+			return null;
+		}
+
+		for (String location : TASKSET_LOCATIONS) {
+			if (new File(location).canExecute()) {
+				return location;
+			}
+		}
+
+		return null;
+	}
+
+	private static String quote(String value) {
+		return "'" + value.replace("'", "'\\''") + "'";
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+
+		return Arrays.equals(cpus, ((CpuSet) o).cpus);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(cpus);
+	}
+
+	/**
+	 * @return compact representation such as {@code 0-3} for contiguous sets or {@code 0,2,4} otherwise.
+	 */
+	@Override
+	public String toString() {
+
+		if (cpus.length > 1 && cpus[cpus.length - 1] - cpus[0] == cpus.length - 1) {
+			return cpus[0] + "-" + cpus[cpus.length - 1];
+		}
+
+		return toCpuList();
+	}
+}
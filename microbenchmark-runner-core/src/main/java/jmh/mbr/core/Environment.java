@@ -10,11 +10,16 @@
 package jmh.mbr.core;
 
 import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import jmh.mbr.core.BenchmarkConfigProperties.ConfigProperty;
@@ -24,6 +29,8 @@ import jmh.mbr.core.BenchmarkConfigProperties.ConfigProperty;
  */
 public abstract class Environment {
 
+	private static final Pattern DURATION_PATTERN = Pattern.compile("(-?\\d+)\\s*(ns|us|ms|s|min|m|h|)", Pattern.CASE_INSENSITIVE);
+
 	private static final Predicate<Entry<?, ?>> CONFIG_PROPERTY_FILTER = it -> it.getKey()
 			.toString().startsWith(BenchmarkConfigProperties.PREFIX);
 
@@ -62,6 +69,52 @@ public abstract class Environment {
 		return obtainPropertyValue(new ConfigProperty<>(null, propertyName));
 	}
 
+	/**
+	 * Parse a {@link Duration}. Plain numbers are interpreted as seconds. Values may use a unit suffix ({@code ns},
+	 * {@code us}, {@code ms}, {@code s}, {@code m}, {@code h}, e.g. {@code 500ms} or {@code 45m}) or the ISO-8601 format
+	 * (e.g. {@code PT1.5S}). Negative values such as {@code -1} are accepted to express an unset duration.
+	 *
+	 * @param value must not be {@literal null}.
+	 * @return the parsed {@link Duration}.
+	 * @throws IllegalArgumentException if the value cannot be parsed.
+	 */
+	public static Duration parseDuration(String value) {
+
+		Objects.requireNonNull(value, "Value must not be null!");
+
+		String trimmed = value.trim();
+		Matcher matcher = DURATION_PATTERN.matcher(trimmed);
+
+		if (matcher.matches()) {
+
+			long amount = Long.parseLong(matcher.group(1));
+			String unit = matcher.group(2).toLowerCase(Locale.ROOT);
+
+			switch (unit) {
+				case "ns":
+					return Duration.ofNanos(amount);
+				case "us":
+					return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(amount));
+				case "ms":
+					return Duration.ofMillis(amount);
+				case "":
+				case "s":
+					return Duration.ofSeconds(amount);
+				case "m":
+				case "min":
+					return Duration.ofMinutes(amount);
+				case "h":
+					return Duration.ofHours(amount);
+			}
+		}
+
+		try {
+			return Duration.parse(trimmed);
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException(String.format("Cannot parse duration '%s'", value), e);
+		}
+	}
+
 	/**
 	 * Get the value of the given {@link ConfigProperty} or its {@link ConfigProperty#defaultValue() default value}.
 	 *
@@ -86,12 +139,20 @@ public abstract class Environment {
 			return targetType.cast(Boolean.valueOf(value));
 		}
 
+		if (Integer.class.isAssignableFrom(targetType)) {
+			return targetType.cast(Integer.parseInt(value));
+		}
+
 		if (Long.class.isAssignableFrom(targetType)) {
 			return targetType.cast(Long.parseLong(value));
 		}
 
+		if (Double.class.isAssignableFrom(targetType)) {
+			return targetType.cast(Double.parseDouble(value));
+		}
+
 		if (Duration.class.isAssignableFrom(targetType)) {
-			return targetType.cast(Duration.ofSeconds(Long.parseLong(value)));
+			return targetType.cast(parseDuration(value));
 		}
 
 		return targetType.cast(value);
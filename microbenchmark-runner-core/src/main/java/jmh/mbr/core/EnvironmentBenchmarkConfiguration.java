@@ -58,6 +58,18 @@ enum EnvironmentBenchmarkConfiguration implements BenchmarkConfiguration {
 				.getPropertyOrDefault(BenchmarkConfigProperties.WARMUP_MODE);
 	}
 
+	@Override
+	public boolean isWarmupAuto() {
+		return Environment
+				.getPropertyOrDefault(BenchmarkConfigProperties.WARMUP_AUTO);
+	}
+
+	@Override
+	public int getWarmupMaxIterations() {
+		return Environment
+				.getPropertyOrDefault(BenchmarkConfigProperties.WARMUP_MAX_ITERATIONS);
+	}
+
 	/**
 	 * Read {@code measurementIterations} property from {@link Environment}.
 	 *
@@ -74,6 +86,18 @@ enum EnvironmentBenchmarkConfiguration implements BenchmarkConfiguration {
 				.getPropertyOrDefault(BenchmarkConfigProperties.MEASUREMENT_ITERATIONS);
 	}
 
+	@Override
+	public double getMeasurementTargetError() {
+		return Environment
+				.getPropertyOrDefault(BenchmarkConfigProperties.MEASUREMENT_TARGET_ERROR);
+	}
+
+	@Override
+	public int getMeasurementMaxIterations() {
+		return Environment
+				.getPropertyOrDefault(BenchmarkConfigProperties.MEASUREMENT_MAX_ITERATIONS);
+	}
+
 	@Override
 	public Duration getTimeout() {
 		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.TIMEOUT);
@@ -88,6 +112,120 @@ enum EnvironmentBenchmarkConfiguration implements BenchmarkConfiguration {
 		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.FORKS);
 	}
 
+	/**
+	 * Read {@code parallelism} property from {@link Environment}.
+	 *
+	 * @return -1 if not set.
+	 */
+	public int getParallelism() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.PARALLELISM);
+	}
+
+	@Override
+	public String getFixtureSampling() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.FIXTURE_SAMPLING);
+	}
+
+	@Override
+	public int getFixtureSampleSize() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.FIXTURE_SAMPLE_SIZE);
+	}
+
+	@Override
+	public long getFixtureSamplingSeed() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.FIXTURE_SAMPLING_SEED);
+	}
+
+	@Override
+	public String getThreadSweep() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.THREAD_SWEEP);
+	}
+
+	@Override
+	public String getComplexityParameter() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.COMPLEXITY_PARAMETER);
+	}
+
+	@Override
+	public int getShardIndex() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.SHARD_INDEX);
+	}
+
+	@Override
+	public int getShardCount() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.SHARD_COUNT);
+	}
+
+	@Override
+	public String getShardDurations() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.SHARD_DURATIONS);
+	}
+
+	@Override
+	public Duration getBudget() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.BUDGET);
+	}
+
+	@Override
+	public String getBudgetHistory() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.BUDGET_HISTORY);
+	}
+
+	@Override
+	public String getRegressionBaseline() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.REGRESSION_BASELINE);
+	}
+
+	@Override
+	public double getRegressionThreshold() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.REGRESSION_THRESHOLD);
+	}
+
+	@Override
+	public double getRegressionAlpha() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.REGRESSION_ALPHA);
+	}
+
+	@Override
+	public boolean isRegressionUpdateBaseline() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.REGRESSION_UPDATE_BASELINE);
+	}
+
+	@Override
+	public boolean isCdsEnabled() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.CDS_ENABLED);
+	}
+
+	@Override
+	public String getCdsDirectory() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.CDS_DIRECTORY);
+	}
+
+	@Override
+	public String getProfile() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.PROFILE);
+	}
+
+	@Override
+	public String getProfileDirectory() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.PROFILE_DIRECTORY);
+	}
+
+	@Override
+	public int getProfileTopMethods() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.PROFILE_TOP_METHODS);
+	}
+
+	@Override
+	public boolean isProfileGc() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.PROFILE_GC);
+	}
+
+	@Override
+	public boolean isResume() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.RESUME);
+	}
+
 	/**
 	 * Read {@code benchmarkReportDir} property from {@link Environment}.
 	 *
@@ -124,6 +262,11 @@ enum EnvironmentBenchmarkConfiguration implements BenchmarkConfiguration {
 				.getPropertyOrDefault(BenchmarkConfigProperties.PUBLISH_URI);
 	}
 
+	@Override
+	public Duration getPublishTimeout() {
+		return Environment.getPropertyOrDefault(BenchmarkConfigProperties.PUBLISH_TIMEOUT);
+	}
+
 	@Override
 	public Map<String, Object> asMap() {
 
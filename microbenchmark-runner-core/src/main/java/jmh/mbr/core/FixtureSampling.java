@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@code @FixtureSampling} selects the strategy used to derive benchmark fixtures from {@code @Param} values of the
+ * annotated benchmark class. Sampling reduces the cartesian product of all parameter values to a smaller set of
+ * fixtures. The annotation takes precedence over the globally configured {@code jmh.mbr.fixtures.sampling} strategy.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface FixtureSampling {
+
+	/**
+	 * @return the sampling strategy.
+	 */
+	Strategy value() default Strategy.PAIRWISE;
+
+	/**
+	 * @return number of fixtures to select for {@link Strategy#RANDOM}. Uses the full cartesian product if not positive.
+	 */
+	int size() default -1;
+
+	/**
+	 * @return seed for strategies using randomization.
+	 */
+	long seed() default 0;
+
+	/**
+	 * Fixture sampling strategies.
+	 */
+	enum Strategy {
+
+		/**
+		 * Full cartesian product of all parameter values.
+		 */
+		FULL,
+
+		/**
+		 * Pairwise covering array: every combination of values for any two parameters appears in at least one fixture.
+		 */
+		PAIRWISE,
+
+		/**
+		 * Seeded random subset of the cartesian product.
+		 */
+		RANDOM
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Reflective access to the {@code jdk.jfr} API. The runner targets Java 8, which does not necessarily ship Java Flight
+ * Recorder, so {@code jdk.jfr} types are only resolved once {@link JfrProfiling JFR profiling} is enabled.
+ * Members are resolved by name and by the runtime types of their arguments.
+ */
+final class Jfr {
+
+	static final String CONFIGURATION = "jdk.jfr.Configuration";
+
+	static final String RECORDING = "jdk.jfr.Recording";
+
+	static final String RECORDING_FILE = "jdk.jfr.consumer.RecordingFile";
+
+	private Jfr() {}
+
+	/**
+	 * @return {@literal true} if the running JVM ships the {@code jdk.jfr} API.
+	 */
+	static boolean isAvailable() {
+
+		try {
+			Class.forName(RECORDING);
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Create an instance of {@code type}.
+	 *
+	 * @param type the fully qualified {@code jdk.jfr} type name.
+	 * @param args constructor arguments, must not be {@literal null}.
+	 * @return the new instance.
+	 * @throws ReflectiveOperationException if the type or constructor cannot be resolved or the constructor fails.
+	 */
+	static Object newInstance(String type, Object... args) throws ReflectiveOperationException {
+
+		for (Constructor<?> constructor : Class.forName(type).getConstructors()) {
+			if (accepts(constructor, args)) {
+				return unwrap(() -> constructor.newInstance(args));
+			}
+		}
+
+		throw new NoSuchMethodException(type + ".<init>");
+	}
+
+	/**
+	 * Invoke a static method of {@code type}.
+	 *
+	 * @param type the fully qualified {@code jdk.jfr} type name.
+	 * @param method the method name.
+	 * @param args method arguments, must not be {@literal null}.
+	 * @return the return value.
+	 * @throws ReflectiveOperationException if the method cannot be resolved or fails.
+	 */
+	static Object invokeStatic(String type, String method, Object... args) throws ReflectiveOperationException {
+		return invoke(Class.forName(type), null, method, args);
+	}
+
+	/**
+	 * Invoke a public method on {@code target}.
+	 *
+	 * @param target the {@code jdk.jfr} object, can be {@literal null}.
+	 * @param method the method name.
+	 * @param args method arguments, must not be {@literal null}.
+	 * @return the return value or {@literal null} if {@code target} is {@literal null}.
+	 * @throws ReflectiveOperationException if the method cannot be resolved or fails.
+	 */
+	static Object invoke(Object target, String method, Object... args) throws ReflectiveOperationException {
+		return target != null ? invoke(target.getClass(), target, method, args) : null;
+	}
+
+	private static Object invoke(Class<?> type, Object target, String name, Object[] args)
+			throws ReflectiveOperationException {
+
+		for (Method method : type.getMethods()) {
+			if (method.getName().equals(name) && accepts(method, args)) {
+				return unwrap(() -> method.invoke(target, args));
+			}
+		}
+
+		throw new NoSuchMethodException(type.getName() + "." + name);
+	}
+
+	private static boolean accepts(Executable executable, Object[] args) {
+
+		Class<?>[] parameterTypes = executable.getParameterTypes();
+
+		if (parameterTypes.length != args.length) {
+			return false;
+		}
+
+		for (int i = 0; i < args.length; i++) {
+			if (!parameterTypes[i].isInstance(args[i])) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static Object unwrap(Invocation invocation) throws ReflectiveOperationException {
+
+		try {
+			return invocation.invoke();
+		} catch (InvocationTargetException e) {
+
+			if (e.getCause() instanceof Exception) {
+				throw new ReflectiveOperationException(e.getCause().getMessage(), e.getCause());
+			}
+
+			throw e;
+		}
+	}
+
+	private interface Invocation {
+
+		Object invoke() throws ReflectiveOperationException;
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.ExternalProfiler;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.runner.IterationType;
+
+/**
+ * JMH profiler recording the measurement iterations of each fork with Java Flight Recorder. Recordings are written to
+ * {@code <directory>/<benchmark id>/fork-<pid>.jfr}. Unlike JMH's {@code jfr} profiler, the recording is controlled
+ * through the {@code jdk.jfr} API from within the fork and does not require {@code jcmd}, so it works with custom JVM
+ * launchers. Requires a JVM that ships {@code jdk.jfr}, which is accessed reflectively so the runner still loads on
+ * Java 8 runtimes without Java Flight Recorder.
+ * <p>
+ * The init line is the recording directory.
+ *
+ * @see JfrProfiling
+ */
+public class JfrProfiler implements InternalProfiler, ExternalProfiler {
+
+	private final File directory;
+
+	private Object recording;
+	private int measurementIterations;
+
+	public JfrProfiler(String initLine) {
+		this.directory = new File(initLine);
+	}
+
+	/**
+	 * @param directory the recording directory.
+	 * @param params the benchmark.
+	 * @return the directory holding recordings of the benchmark.
+	 */
+	static File getRecordingDirectory(File directory, BenchmarkParams params) {
+		return new File(directory, params.id());
+	}
+
+	@Override
+	public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+
+		if (iterationParams.getType() != IterationType.MEASUREMENT || recording != null) {
+			return;
+		}
+
+		try {
+			recording = Jfr.newInstance(Jfr.RECORDING, Jfr.invokeStatic(Jfr.CONFIGURATION, "getConfiguration", "profile"));
+			Jfr.invoke(recording, "setName", benchmarkParams.id());
+			Jfr.invoke(recording, "start");
+		} catch (ReflectiveOperationException e) {
+			recording = null;
+			throw new IllegalStateException("Cannot start JFR recording", e);
+		}
+	}
+
+	@Override
+	public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+			IterationResult result) {
+
+		if (iterationParams.getType() != IterationType.MEASUREMENT || recording == null
+				|| ++measurementIterations < iterationParams.getCount()) {
+			return Collections.emptyList();
+		}
+
+		File recordingDirectory = getRecordingDirectory(directory, benchmarkParams);
+		recordingDirectory.mkdirs();
+
+		// the process name has the form of pid@hostname
+		String pid = ManagementFactory.getRuntimeMXBean().getName().split("@")[0];
+
+		try {
+			Jfr.invoke(recording, "stop");
+			Jfr.invoke(recording, "dump", new File(recordingDirectory, "fork-" + pid + ".jfr").toPath());
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot write JFR recording", e);
+		} finally {
+			close();
+		}
+
+		return Collections.emptyList();
+	}
+
+	private void close() {
+
+		try {
+			Jfr.invoke(recording, "close");
+		} catch (ReflectiveOperationException e) {
+			// recording is discarded anyway
+		} finally {
+			recording = null;
+		}
+	}
+
+	@Override
+	public Collection<String> addJVMInvokeOptions(BenchmarkParams params) {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public Collection<String> addJVMOptions(BenchmarkParams params) {
+		// sample at arbitrary instructions instead of safepoints only
+		return Arrays.asList("-XX:+UnlockDiagnosticVMOptions", "-XX:+DebugNonSafepoints");
+	}
+
+	@Override
+	public void beforeTrial(BenchmarkParams benchmarkParams) {}
+
+	@Override
+	public Collection<? extends Result> afterTrial(BenchmarkResult br, long pid, File stdOut, File stdErr) {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public boolean allowPrintOut() {
+		return true;
+	}
+
+	@Override
+	public boolean allowPrintErr() {
+		return true;
+	}
+
+	@Override
+	public String getDescription() {
+		return "Java Flight Recorder profiler recording measurement iterations";
+	}
+}
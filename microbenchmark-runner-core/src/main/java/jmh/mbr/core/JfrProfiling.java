@@ -0,0 +1,203 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jmh.mbr.core.model.BenchmarkResults;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+
+/**
+ * Profiles benchmark forks with Java Flight Recorder ({@code jmh.mbr.profile=jfr}). Each fork records its measurement
+ * iterations using {@link JfrProfiler}. After the run, the execution samples of all forks of a benchmark fixture are
+ * summarized: the hottest methods by self samples are attached as {@link #HOT_METHODS_KEY} and a collapsed stack file
+ * for flame graph tools is written next to the recordings and attached as {@link #FLAMEGRAPH_KEY} to the
+ * {@link MetaData} of the fixture result.
+ */
+public class JfrProfiling {
+
+	/**
+	 * {@link MetaData} key under which the hottest methods are recorded as {@code method share%; method share%; ...}.
+	 */
+	public static final String HOT_METHODS_KEY = BenchmarkConfigProperties.PREFIX + "profile.hotMethods";
+
+	/**
+	 * {@link MetaData} key under which the path of the collapsed stack file is recorded.
+	 */
+	public static final String FLAMEGRAPH_KEY = BenchmarkConfigProperties.PREFIX + "profile.flamegraph";
+
+	static final String COLLAPSED_STACKS_FILE = "collapsed-stacks.txt";
+
+	private final File directory;
+	private final int topMethods;
+
+	JfrProfiling(File directory, int topMethods) {
+		this.directory = directory;
+		this.topMethods = topMethods;
+	}
+
+	/**
+	 * Create {@link JfrProfiling} from {@link BenchmarkConfiguration}.
+	 *
+	 * @param configuration must not be {@literal null}.
+	 * @return the {@link JfrProfiling} or {@literal null} if profiling is not enabled.
+	 * @throws IllegalArgumentException if the profile mode is not supported.
+	 * @throws IllegalStateException if the running JVM does not ship Java Flight Recorder.
+	 */
+	public static JfrProfiling from(BenchmarkConfiguration configuration) {
+
+		String profile = configuration.getProfile();
+
+		if (!StringUtils.hasText(profile)) {
+			return null;
+		}
+
+		if (!"jfr".equalsIgnoreCase(profile.trim())) {
+			throw new IllegalArgumentException(String.format("Unsupported profile '%s', supported profiles: jfr", profile));
+		}
+
+		if (!Jfr.isAvailable()) {
+			throw new IllegalStateException(String.format("Profile '%s' requires a JVM that ships Java Flight Recorder (jdk.jfr)", profile));
+		}
+
+		String directory = configuration.getProfileDirectory();
+		return new JfrProfiling(
+				new File(StringUtils.hasText(directory) ? directory : "target/jmh-mbr-profile").getAbsoluteFile(),
+				configuration.getProfileTopMethods());
+	}
+
+	/**
+	 * Add {@link JfrProfiler} to {@link ChainedOptionsBuilder}.
+	 *
+	 * @param optionsBuilder must not be {@literal null}.
+	 * @return {@link ChainedOptionsBuilder} with options applied.
+	 */
+	public ChainedOptionsBuilder apply(ChainedOptionsBuilder optionsBuilder) {
+		return optionsBuilder.addProfiler(JfrProfiler.class, directory.getAbsolutePath());
+	}
+
+	/**
+	 * Decorate {@link OutputFormat} to remove recordings of previous runs when a benchmark starts.
+	 *
+	 * @param delegate the actual {@link OutputFormat}.
+	 * @return the decorated {@link OutputFormat}.
+	 */
+	public OutputFormat decorate(OutputFormat delegate) {
+
+		return new DelegatingOutputFormat(delegate) {
+
+			@Override
+			public void startBenchmark(BenchmarkParams benchParams) {
+
+				for (Path recording : getRecordings(benchParams)) {
+					recording.toFile().delete();
+				}
+
+				super.startBenchmark(benchParams);
+			}
+		};
+	}
+
+	/**
+	 * Summarize the recordings of each result and attach the summary to its {@link MetaData}. Results without recordings
+	 * are retained as-is.
+	 *
+	 * @param results the benchmark results.
+	 * @param output the output to report failures to.
+	 * @return {@link BenchmarkResults} with profile summaries attached.
+	 */
+	public BenchmarkResults attach(BenchmarkResults results, OutputFormat output) {
+
+		List<BenchmarkResults> profiled = new ArrayList<>();
+
+		for (BenchmarkResults.BenchmarkResult result : results) {
+			profiled.add(result.map((metaData, runResult) -> {
+
+				Map<String, Object> summary = summarize(runResult.getParams(), output);
+				return new BenchmarkResults(summary.isEmpty() ? metaData : metaData.withAdditionalParameters(summary),
+						Collections.singletonList(runResult));
+			}));
+		}
+
+		return BenchmarkResults.merge(results.getMetaData(), profiled);
+	}
+
+	private Map<String, Object> summarize(BenchmarkParams params, OutputFormat output) {
+
+		Map<String, Object> summary = new LinkedHashMap<>();
+		List<Path> recordings = getRecordings(params);
+
+		if (recordings.isEmpty()) {
+			return summary;
+		}
+
+		try {
+
+			JfrRecordingSummary recordingSummary = JfrRecordingSummary.read(recordings);
+
+			if (recordingSummary.getSamples() == 0) {
+				return summary;
+			}
+
+			File collapsedStacks = new File(JfrProfiler.getRecordingDirectory(directory, params), COLLAPSED_STACKS_FILE);
+			Files.write(collapsedStacks.toPath(), recordingSummary.getCollapsedStacks(), StandardCharsets.UTF_8);
+
+			summary.put(HOT_METHODS_KEY, formatHotMethods(recordingSummary.getHotMethods(topMethods)));
+			summary.put(FLAMEGRAPH_KEY, collapsedStacks.getAbsolutePath());
+		} catch (IOException | RuntimeException | LinkageError e) {
+			output.println("# WARNING: Cannot summarize JFR recordings of " + params.id() + ": " + e);
+		}
+
+		return summary;
+	}
+
+	/**
+	 * Format hot methods as {@code method share%; method share%; ...}.
+	 *
+	 * @param hotMethods method names mapped to their share of samples.
+	 * @return the formatted hot methods.
+	 */
+	static String formatHotMethods(Map<String, Double> hotMethods) {
+
+		return hotMethods.entrySet().stream()
+				.map(it -> String.format(Locale.US, "%s %.1f%%", it.getKey(), it.getValue() * 100))
+				.collect(Collectors.joining("; "));
+	}
+
+	private List<Path> getRecordings(BenchmarkParams params) {
+
+		File recordingDirectory = JfrProfiler.getRecordingDirectory(directory, params);
+
+		if (!recordingDirectory.isDirectory()) {
+			return new ArrayList<>();
+		}
+
+		try (Stream<Path> files = Files.list(recordingDirectory.toPath())) {
+			return files.filter(it -> it.getFileName().toString().endsWith(".jfr")).sorted().collect(Collectors.toList());
+		} catch (IOException e) {
+			return new ArrayList<>();
+		}
+	}
+}
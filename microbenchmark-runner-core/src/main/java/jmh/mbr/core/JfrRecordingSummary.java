@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summary of the execution samples of JFR recordings: self samples per method and sample counts per distinct stack.
+ * Only samples of JMH worker threads are considered. Recordings are read reflectively through {@link Jfr}.
+ */
+class JfrRecordingSummary {
+
+	static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+
+	private static final String WORKER_THREAD = "jmh-worker";
+
+	private final Map<String, Long> selfSamples = new HashMap<>();
+	private final Map<String, Long> stacks = new TreeMap<>();
+	private long samples;
+
+	/**
+	 * Read the execution samples of {@code recordings}.
+	 *
+	 * @param recordings JFR recording files.
+	 * @return the summary.
+	 * @throws IOException if a recording cannot be read.
+	 */
+	static JfrRecordingSummary read(Collection<Path> recordings) throws IOException {
+
+		JfrRecordingSummary summary = new JfrRecordingSummary();
+
+		for (Path recording : recordings) {
+
+			try {
+				Object file = Jfr.newInstance(Jfr.RECORDING_FILE, recording);
+				try {
+					while (Boolean.TRUE.equals(Jfr.invoke(file, "hasMoreEvents"))) {
+						summary.add(Jfr.invoke(file, "readEvent"));
+					}
+				} finally {
+					Jfr.invoke(file, "close");
+				}
+			} catch (ReflectiveOperationException e) {
+
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+
+				throw new IOException("Cannot read JFR recording " + recording, e);
+			}
+		}
+
+		return summary;
+	}
+
+	private void add(Object event) throws ReflectiveOperationException {
+
+		if (!EXECUTION_SAMPLE.equals(Jfr.invoke(Jfr.invoke(event, "getEventType"), "getName"))) {
+			return;
+		}
+
+		Object threadName = Jfr.invoke(Jfr.invoke(event, "getThread", "sampledThread"), "getJavaName");
+		Object stackTrace = Jfr.invoke(event, "getStackTrace");
+
+		if (threadName == null || !threadName.toString().contains(WORKER_THREAD) || stackTrace == null) {
+			return;
+		}
+
+		List<String> frames = new ArrayList<>();
+		for (Object frame : (List<?>) Jfr.invoke(stackTrace, "getFrames")) {
+
+			Object method = Jfr.invoke(frame, "getMethod");
+			if (method != null) {
+				frames.add(Jfr.invoke(Jfr.invoke(method, "getType"), "getName") + "." + Jfr.invoke(method, "getName"));
+			}
+		}
+
+		add(frames);
+	}
+
+	/**
+	 * Add a sample.
+	 *
+	 * @param frames method names of the sampled stack, innermost frame first.
+	 */
+	void add(List<String> frames) {
+
+		if (frames.isEmpty()) {
+			return;
+		}
+
+		samples++;
+		selfSamples.merge(frames.get(0), 1L, Long::sum);
+
+		StringBuilder stack = new StringBuilder();
+		for (int i = frames.size() - 1; i >= 0; i--) {
+			stack.append(frames.get(i).replace(';', ':').replace(' ', '_'));
+			if (i > 0) {
+				stack.append(';');
+			}
+		}
+
+		stacks.merge(stack.toString(), 1L, Long::sum);
+	}
+
+	/**
+	 * @return the number of samples.
+	 */
+	long getSamples() {
+		return samples;
+	}
+
+	/**
+	 * Return the methods with the most self samples.
+	 *
+	 * @param limit maximum number of methods.
+	 * @return method names mapped to their share of samples ({@code 0..1}), ordered by descending share.
+	 */
+	Map<String, Double> getHotMethods(int limit) {
+
+		List<Map.Entry<String, Long>> entries = new ArrayList<>(selfSamples.entrySet());
+		entries.sort(Map.Entry.<String, Long> comparingByValue(Comparator.reverseOrder())
+				.thenComparing(Map.Entry.comparingByKey()));
+
+		Map<String, Double> hotMethods = new LinkedHashMap<>();
+		for (Map.Entry<String, Long> entry : entries.subList(0, Math.min(limit, entries.size()))) {
+			hotMethods.put(entry.getKey(), entry.getValue() / (double) samples);
+		}
+
+		return hotMethods;
+	}
+
+	/**
+	 * Render the stacks in the collapsed format ({@code root;...;leaf count} per line) as consumed by
+	 * {@code flamegraph.pl} and similar flame graph tools.
+	 *
+	 * @return the collapsed stacks.
+	 */
+	List<String> getCollapsedStacks() {
+
+		List<String> lines = new ArrayList<>(stacks.size());
+		stacks.forEach((stack, count) -> lines.add(stack + " " + count));
+		return lines;
+	}
+}
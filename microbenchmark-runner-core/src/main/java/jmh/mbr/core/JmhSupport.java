@@ -14,12 +14,25 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
 import java.text.SimpleDateFormat;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
-
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jmh.mbr.core.model.BenchmarkFixture;
+import jmh.mbr.core.model.FixtureRestriction;
 import jmh.mbr.core.model.BenchmarkResults;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.results.format.ResultFormatType;
 import org.openjdk.jmh.runner.Defaults;
 import org.openjdk.jmh.runner.Runner;
@@ -39,9 +52,19 @@ import org.openjdk.jmh.util.Utils;
 public class JmhSupport {
 
 	private final BenchmarkConfiguration jmhOptions;
+	private final ClassDataSharing classDataSharing;
+	private final JfrProfiling jfrProfiling;
+	private volatile boolean profileGc;
+	private volatile ComplexityParameters complexityParameters;
+	private Map<ResultsWriter, String> resultsWriters;
+	private ResultsStream resultsStream;
+	private RunJournal runJournal;
 
 	public JmhSupport(BenchmarkConfiguration jmhOptions) {
 		this.jmhOptions = jmhOptions;
+		this.classDataSharing = ClassDataSharing.from(jmhOptions);
+		this.jfrProfiling = JfrProfiling.from(jmhOptions);
+		this.profileGc = jmhOptions.isProfileGc();
 	}
 
 	/**
@@ -72,8 +95,7 @@ public class JmhSupport {
 
 		Duration timeout = jmhOptions.getTimeout();
 		if (!timeout.isZero() && !timeout.isNegative()) {
-			optionsBuilder = optionsBuilder
-					.timeout(TimeValue.seconds(timeout.getSeconds()));
+			optionsBuilder = optionsBuilder.timeout(toTimeValue(timeout));
 		}
 
 		String mode = jmhOptions.getMode();
@@ -81,9 +103,92 @@ public class JmhSupport {
 			optionsBuilder = optionsBuilder.mode(Mode.valueOf(mode));
 		}
 
+		if (classDataSharing != null) {
+			optionsBuilder = classDataSharing.apply(optionsBuilder);
+		}
+
+		if (jfrProfiling != null) {
+			optionsBuilder = jfrProfiling.apply(optionsBuilder);
+		}
+
+		if (profileGc) {
+			optionsBuilder = optionsBuilder.addProfiler(GCProfiler.class);
+		}
+
+		return optionsBuilder;
+	}
+
+	/**
+	 * Enable JMH's {@link GCProfiler} for subsequently created {@link #options() options}, e.g. to verify
+	 * {@link MaxAllocation} limits.
+	 */
+	public void enableGcProfiler() {
+		this.profileGc = true;
+	}
+
+	/**
+	 * Record the {@link ComplexityParameter size parameter} of benchmark methods in the metadata of subsequently
+	 * published results to enable {@link jmh.mbr.core.model.ComplexityEstimate complexity estimation}.
+	 *
+	 * @param methods the benchmark methods.
+	 */
+	public void estimateComplexity(Collection<Method> methods) {
+		this.complexityParameters = ComplexityParameters.from(jmhOptions, methods);
+	}
+
+	/**
+	 * Collect all options for the {@link Runner} restricted to the parameter values of a {@link BenchmarkFixture}.
+	 *
+	 * @param fixture the fixture to run.
+	 * @return never {@literal null}.
+	 */
+	public ChainedOptionsBuilder options(BenchmarkFixture fixture) {
+
+		ChainedOptionsBuilder optionsBuilder = options();
+		fixture.getFixture().forEach((name, value) -> optionsBuilder.param(name, String.valueOf(value)));
+
 		return optionsBuilder;
 	}
 
+	/**
+	 * Collect all options for the {@link Runner} restricted to the parameter values of a {@link FixtureRestriction}.
+	 *
+	 * @param restriction the fixtures to run.
+	 * @return never {@literal null}.
+	 */
+	public ChainedOptionsBuilder options(FixtureRestriction restriction) {
+		return restriction.apply(options());
+	}
+
+	/**
+	 * Prepare the {@link ClassDataSharing} archive, if enabled, using {@code includePattern} as training benchmark.
+	 * Subsequent {@link #options() options} start forks from the archive.
+	 *
+	 * @param includePattern the training benchmark.
+	 * @param fixture the fixture to restrict the training benchmark to, can be {@literal null}.
+	 */
+	public void prepareClassDataSharing(String includePattern, BenchmarkFixture fixture) {
+
+		if (classDataSharing == null || classDataSharing.isActive()) {
+			return;
+		}
+
+		ChainedOptionsBuilder training = (fixture != null ? options(fixture) : options()).include(includePattern);
+		classDataSharing.prepare(training, createOutputFormat(training.build()));
+	}
+
+	/**
+	 * Report the fork startup time with and without {@link ClassDataSharing} archive, if enabled.
+	 *
+	 * @param output the output to report to.
+	 */
+	public void reportClassDataSharing(OutputFormat output) {
+
+		if (classDataSharing != null) {
+			classDataSharing.report(output);
+		}
+	}
+
 	/**
 	 * Read {@code benchmarksEnabled} property from {@link jmh.mbr.core.Environment}.
 	 *
@@ -97,7 +202,8 @@ public class JmhSupport {
 	 * Returns the report file name for {@link Class class under benchmark}.
 	 *
 	 * @param jmhTestClass class under benchmark.
-	 * @return the report file name such as {@code project.version_yyyy-MM-dd_ClassName.json} eg.
+	 * @return the report file name such as {@code project.version_yyyy-MM-dd_ClassName.json} (suffixed with
+	 * {@code _shard-index-of-count} when sharding is enabled) eg.
 	 * {@literal 1.11.0.BUILD-SNAPSHOT_2017-03-07_MappingMongoConverterBenchmark.json}
 	 */
 	private String reportFilename(Class<?> jmhTestClass) {
@@ -113,6 +219,11 @@ public class JmhSupport {
 		sb.append(new SimpleDateFormat("yyyy-MM-dd").format(new Date()));
 		sb.append("_");
 		sb.append(jmhTestClass.getSimpleName());
+
+		if (jmhOptions.getShardCount() > 1) {
+			sb.append("_shard-").append(jmhOptions.getShardIndex()).append("-of-").append(jmhOptions.getShardCount());
+		}
+
 		sb.append(".json");
 		return sb.toString();
 	}
@@ -133,10 +244,10 @@ public class JmhSupport {
 					.measurementIterations(measurementIterations);
 		}
 
-		long measurementTime = jmhOptions.getMeasurementTime().getSeconds();
-		if (measurementTime > 0) {
+		Duration measurementTime = jmhOptions.getMeasurementTime();
+		if (!measurementTime.isZero() && !measurementTime.isNegative()) {
 			optionsBuilder = optionsBuilder
-					.measurementTime(TimeValue.seconds(measurementTime));
+					.measurementTime(toTimeValue(measurementTime));
 		}
 
 		int measurementBatchSize = jmhOptions.getMeasurementBatchSize();
@@ -169,9 +280,9 @@ public class JmhSupport {
 			optionsBuilder = optionsBuilder.warmupIterations(warmupIterations);
 		}
 
-		long warmupTime = jmhOptions.getWarmupTime().getSeconds();
-		if (warmupTime > 0) {
-			optionsBuilder = optionsBuilder.warmupTime(TimeValue.seconds(warmupTime));
+		Duration warmupTime = jmhOptions.getWarmupTime();
+		if (!warmupTime.isZero() && !warmupTime.isNegative()) {
+			optionsBuilder = optionsBuilder.warmupTime(toTimeValue(warmupTime));
 		}
 
 		int warmupBatchSize = jmhOptions.getWarmupBatchSize();
@@ -182,6 +293,30 @@ public class JmhSupport {
 		return optionsBuilder;
 	}
 
+	/**
+	 * Convert a {@link Duration} to a {@link TimeValue} using the coarsest unit that represents the duration without
+	 * truncation.
+	 *
+	 * @param duration must not be {@literal null}.
+	 * @return the {@link TimeValue}.
+	 */
+	static TimeValue toTimeValue(Duration duration) {
+
+		if (duration.getNano() == 0) {
+			return TimeValue.seconds(duration.getSeconds());
+		}
+
+		if (duration.getNano() % 1_000_000 == 0) {
+			return TimeValue.milliseconds(duration.toMillis());
+		}
+
+		if (duration.getNano() % 1_000 == 0) {
+			return TimeValue.microseconds(duration.toNanos() / 1_000);
+		}
+
+		return TimeValue.nanoseconds(duration.toNanos());
+	}
+
 	/**
 	 * Apply forks option to {@link ChainedOptionsBuilder}.
 	 *
@@ -237,12 +372,194 @@ public class JmhSupport {
 	}
 
 	/**
-	 * Publish results to an external system.
+	 * Open the {@link RunJournal} in the report directory. Results published through the
+	 * {@link #openResultsStream(OutputFormat) results stream} are journaled until the results are
+	 * {@link #publishResults(OutputFormat, BenchmarkResults) published}.
+	 *
+	 * @param name the journal name, e.g. the class under benchmark.
+	 * @return the {@link RunJournal} or {@literal null} if no report directory is configured.
+	 * @see BenchmarkConfiguration#isResume()
+	 */
+	public synchronized RunJournal openJournal(String name) {
+
+		if (runJournal == null) {
+			runJournal = RunJournal.from(jmhOptions, name);
+		}
+
+		return runJournal;
+	}
+
+	/**
+	 * Open a {@link ResultsStream} that publishes results to {@link StreamingResultsWriter streaming writers} and the
+	 * {@link #openJournal(String) run journal} as each benchmark finishes. Subsequent calls return the same stream until
+	 * it is closed by {@link #publishResults(OutputFormat, BenchmarkResults)}.
+	 *
+	 * @param output the {@link OutputFormat} to report failures to.
+	 * @return the {@link ResultsStream} or {@literal null} if neither a streaming writer nor a journal is configured.
+	 */
+	public synchronized ResultsStream openResultsStream(OutputFormat output) {
+
+		if (resultsStream == null) {
+
+			List<StreamingResultsWriter> writers = new ArrayList<>();
+			for (ResultsWriter writer : getResultsWriters(output).keySet()) {
+				if (writer instanceof StreamingResultsWriter) {
+					writers.add((StreamingResultsWriter) writer);
+				}
+			}
+
+			if (writers.isEmpty() && runJournal == null) {
+				return null;
+			}
+
+			resultsStream = new ResultsStream(writers, runJournal, MetaData.from(jmhOptions.asMap()), output, ResultsStream.CAPACITY,
+					results -> attach(results, output));
+		}
+
+		return resultsStream;
+	}
+
+	/**
+	 * Publish results to an external system. Streaming writers receive results that were not published through the
+	 * {@link #openResultsStream(OutputFormat) results stream} yet. Writers run in parallel, each within the
+	 * {@link BenchmarkConfiguration#getPublishTimeout() publish timeout}. {@link ResultsWriter}s are
+	 * {@link #closeResultsWriters(OutputFormat) closed} and the {@link #openJournal(String) run journal} is removed
+	 * afterwards.
 	 *
 	 * @param results must not be {@literal null}.
 	 */
 	public void publishResults(OutputFormat output, BenchmarkResults results) {
 
+		results = attach(results, output);
+
+		Map<ResultsWriter, String> writers = getResultsWriters(output);
+
+		ResultsStream stream;
+		synchronized (this) {
+			stream = resultsStream;
+			resultsStream = null;
+		}
+
+		if (stream != null) {
+			stream.close(results);
+		}
+
+		List<ResultsWriter> pending = new ArrayList<>();
+		for (ResultsWriter writer : writers.keySet()) {
+			if (stream == null || !(writer instanceof StreamingResultsWriter)) {
+				pending.add(writer);
+			}
+		}
+
+		CompositeResultsWriter writer = new CompositeResultsWriter(pending, jmhOptions.getPublishTimeout());
+		try {
+			writer.write(output, results);
+		} finally {
+			writer.shutdown();
+		}
+
+		closeResultsWriters(output, writer.getRunningWriters());
+
+		RunJournal journal;
+		synchronized (this) {
+			journal = runJournal;
+			runJournal = null;
+		}
+
+		if (journal != null) {
+			try {
+				journal.complete();
+			} catch (IOException e) {
+				output.println("# WARNING: Cannot remove run journal: " + e);
+			}
+		}
+	}
+
+	/**
+	 * Attach profile summaries and size parameters to the {@link MetaData} of results.
+	 */
+	private BenchmarkResults attach(BenchmarkResults results, OutputFormat output) {
+
+		if (jfrProfiling != null) {
+			results = jfrProfiling.attach(results, output);
+		}
+
+		ComplexityParameters complexityParameters = this.complexityParameters;
+		return complexityParameters != null ? complexityParameters.attach(results) : results;
+	}
+
+	/**
+	 * Flush and close the {@link ResultsWriter}s of the current run. An open {@link ResultsStream} is closed without
+	 * publishing further results, e.g. because the run failed. Subsequent runs open new writers.
+	 *
+	 * @param output the {@link OutputFormat} to report failures to.
+	 */
+	public void closeResultsWriters(OutputFormat output) {
+		closeResultsWriters(output, Collections.emptySet());
+	}
+
+	/**
+	 * Flush and close the {@link ResultsWriter}s of the current run except for {@code running} writers that did not stop
+	 * after their write timed out.
+	 */
+	private void closeResultsWriters(OutputFormat output, Set<ResultsWriter> running) {
+
+		ResultsStream stream;
+		Map<ResultsWriter, String> writers;
+		synchronized (this) {
+			stream = resultsStream;
+			writers = resultsWriters;
+			resultsStream = null;
+			resultsWriters = null;
+		}
+
+		if (stream != null) {
+			stream.close(null);
+		}
+
+		if (writers == null) {
+			return;
+		}
+
+		for (Map.Entry<ResultsWriter, String> entry : writers.entrySet()) {
+
+			if (running.contains(entry.getKey())) {
+				output.println(String.format("# WARNING: Results writer for '%s' is still running, not closing it",
+						entry.getValue()));
+				continue;
+			}
+
+			try {
+				entry.getKey().flush(output);
+			}
+			catch (Exception e) {
+				output.println(String.format("# WARNING: Cannot flush benchmark results to '%s': %s",
+						entry.getValue(), e));
+			}
+
+			try {
+				entry.getKey().close();
+			}
+			catch (Exception e) {
+				output.println(String.format("# WARNING: Cannot close results writer for '%s': %s",
+						entry.getValue(), e));
+			}
+		}
+	}
+
+	/**
+	 * Resolve and {@link ResultsWriter#open(OutputFormat) open} the {@link ResultsWriter}s for the configured URIs once
+	 * per run.
+	 *
+	 * @param output the {@link OutputFormat} to report failures to.
+	 * @return writers mapped to the URI they were created for.
+	 */
+	private synchronized Map<ResultsWriter, String> getResultsWriters(OutputFormat output) {
+
+		if (resultsWriters != null) {
+			return resultsWriters;
+		}
+
 		String uris = jmhOptions.publishUri();
 
 		String[] split;
@@ -253,19 +570,38 @@ public class JmhSupport {
 			// If not specified we pass in null so the result writer has a chance
 			split = new String[] {""};
 		}
+
+		Map<ResultsWriter, String> writers = new LinkedHashMap<>();
 		for (String uri : split) {
 			try {
 				ResultsWriter writer = ResultsWriter.forUri(uri.trim());
-				if (writer != null) {
-					writer.write(output, results);
+				if (writer instanceof CompositeResultsWriter) {
+					((CompositeResultsWriter) writer).getWriters().forEach(it -> writers.put(it, uri));
+				} else if (writer != null) {
+					writers.put(writer, uri);
 				}
 			}
 			catch (Exception e) {
-				System.err.println(String
-						.format("Cannot save benchmark results to '%s'. Error was %s.", uri, e));
-				e.printStackTrace();
+				output.println(String.format("# WARNING: Cannot save benchmark results to '%s': %s",
+						uri, e));
 			}
 		}
+
+		for (Iterator<Map.Entry<ResultsWriter, String>> iterator = writers.entrySet().iterator(); iterator.hasNext(); ) {
+
+			Map.Entry<ResultsWriter, String> entry = iterator.next();
+
+			try {
+				entry.getKey().open(output);
+			}
+			catch (Exception e) {
+				iterator.remove();
+				output.println(String.format("# WARNING: Cannot open results writer for '%s': %s",
+						entry.getValue(), e));
+			}
+		}
+
+		return resultsWriters = writers;
 	}
 
 	public OutputFormat createOutputFormat(Options options) {
@@ -296,7 +632,12 @@ public class JmhSupport {
 			}
 		}
 
-		return OutputFormatFactory.createFormatInstance(out, options.verbosity()
+		OutputFormat outputFormat = OutputFormatFactory.createFormatInstance(out, options.verbosity()
 				.orElse(Defaults.VERBOSITY));
+		if (jfrProfiling != null) {
+			outputFormat = jfrProfiling.decorate(outputFormat);
+		}
+
+		return classDataSharing != null ? classDataSharing.decorate(outputFormat) : outputFormat;
 	}
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@code @MaxAllocation} limits the number of bytes the annotated benchmark method (or all benchmark methods of the
+ * annotated class) may allocate per operation as reported by JMH's GC profiler ({@code gc.alloc.rate.norm}). Benchmarks
+ * exceeding the limit are reported as failed. Method-level limits take precedence over class-level limits. Declaring a
+ * limit enables the GC profiler.
+ *
+ * @see AllocationGate
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Documented
+public @interface MaxAllocation {
+
+	/**
+	 * @return maximum number of bytes allocated per operation, {@code 0} for allocation-free benchmarks.
+	 */
+	long value();
+}
@@ -0,0 +1,434 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+
+/**
+ * Compares benchmark results against a {@link BenchmarkConfiguration#getRegressionBaseline() baseline} of iteration
+ * scores to detect performance regressions. A benchmark fixture regresses if the one-sided Mann-Whitney U test
+ * considers its iteration scores worse than the baseline scores at the {@link BenchmarkConfiguration#getRegressionAlpha()
+ * significance level} and the median slowdown exceeds the {@link BenchmarkConfiguration#getRegressionThreshold()
+ * threshold}. Scores are worse if they are lower in {@link Mode#Throughput throughput mode} and higher in all other
+ * modes.
+ * <p>
+ * Fixtures without baseline are added to the baseline after the run. The baseline is replaced with the current scores if
+ * {@link BenchmarkConfiguration#isRegressionUpdateBaseline() updating is enabled}.
+ * <p>
+ * If the baseline refers to a {@link BenchmarkHistory}, the most recent scores recorded before this run serve as
+ * baseline. The history is maintained by its results writer; the baseline is not saved.
+ */
+public class RegressionGate {
+
+	/**
+	 * Minimum number of iteration scores per sample required to test for regressions.
+	 */
+	static final int MIN_SAMPLES = 3;
+
+	/**
+	 * Number of recorded results to consider when looking up the result of the previous run in a
+	 * {@link BenchmarkHistory}. Results recorded by this run are skipped.
+	 */
+	static final int HISTORY_LOOKBACK = 4;
+
+	private final double threshold;
+	private final double alpha;
+	private final boolean updateBaseline;
+	private final File baselineFile;
+	private final Map<String, Sample> baseline;
+	private final BenchmarkHistory history;
+	private final long since;
+	private final boolean threadSweep;
+	private final Map<String, Sample> measured = new ConcurrentHashMap<>();
+
+	RegressionGate(double threshold, double alpha, boolean updateBaseline, File baselineFile,
+			Map<String, Sample> baseline) {
+		this(threshold, alpha, updateBaseline, baselineFile, baseline, null, 0, false);
+	}
+
+	RegressionGate(double threshold, double alpha, BenchmarkHistory history, long since) {
+		this(threshold, alpha, false, null, Collections.emptyMap(), history, since, false);
+	}
+
+	RegressionGate(double threshold, double alpha, boolean updateBaseline, File baselineFile,
+			Map<String, Sample> baseline, BenchmarkHistory history, long since, boolean threadSweep) {
+		this.threshold = threshold;
+		this.alpha = alpha;
+		this.updateBaseline = updateBaseline;
+		this.baselineFile = baselineFile;
+		this.baseline = baseline;
+		this.history = history;
+		this.since = since;
+		this.threadSweep = threadSweep;
+	}
+
+	/**
+	 * Create a {@link RegressionGate} from {@link BenchmarkConfiguration}.
+	 *
+	 * @param configuration must not be {@literal null}.
+	 * @return the {@link RegressionGate} or {@literal null} if no baseline is configured.
+	 * @throws IllegalStateException if the baseline file cannot be read.
+	 */
+	public static RegressionGate from(BenchmarkConfiguration configuration) {
+
+		String baseline = configuration.getRegressionBaseline();
+
+		if (!StringUtils.hasText(baseline)) {
+			return null;
+		}
+
+		BenchmarkHistory history = BenchmarkHistory.forUri(baseline);
+
+		boolean threadSweep = BenchmarkSharding.isThreadSweep(configuration);
+
+		if (history != null) {
+			return new RegressionGate(configuration.getRegressionThreshold(), configuration.getRegressionAlpha(), false,
+					null, Collections.emptyMap(), history, System.currentTimeMillis(), threadSweep);
+		}
+
+		File baselineFile = new File(baseline);
+
+		try {
+			return new RegressionGate(configuration.getRegressionThreshold(), configuration.getRegressionAlpha(),
+					configuration.isRegressionUpdateBaseline(), baselineFile, readBaseline(baselineFile), null, 0,
+					threadSweep);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read benchmark baseline from " + baselineFile, e);
+		}
+	}
+
+	/**
+	 * Record the iteration scores of {@link BenchmarkResult} and compare these against the baseline.
+	 *
+	 * @param result the aggregated result of a benchmark fixture, must not be {@literal null}.
+	 * @return the {@link Regression} or {@literal null} if the fixture did not regress.
+	 */
+	public Regression verify(BenchmarkResult result) {
+
+		BenchmarkParams params = result.getParams();
+		List<Double> scores = new ArrayList<>();
+
+		for (IterationResult iteration : result.getIterationResults()) {
+			scores.add(iteration.getPrimaryResult().getScore());
+		}
+
+		Sample current = new Sample(result.getPrimaryResult().getScoreUnit(), toArray(scores));
+		String key = getKey(params);
+		measured.put(key, current);
+
+		Sample previous = history != null ? getRecordedSample(params) : baseline.get(key);
+
+		if (previous == null || !previous.unit.equals(current.unit) || previous.scores.length < MIN_SAMPLES
+				|| current.scores.length < MIN_SAMPLES) {
+			return null;
+		}
+
+		boolean higherIsBetter = params.getMode() == Mode.Throughput;
+
+		double baselineMedian = median(previous.scores);
+		double currentMedian = median(current.scores);
+		double slowdown = higherIsBetter ? baselineMedian / currentMedian - 1 : currentMedian / baselineMedian - 1;
+
+		if (Double.isNaN(slowdown) || slowdown <= threshold) {
+			return null;
+		}
+
+		double pValue = higherIsBetter ? mannWhitneyPValue(current.scores, previous.scores)
+				: mannWhitneyPValue(previous.scores, current.scores);
+
+		if (pValue >= alpha) {
+			return null;
+		}
+
+		return new Regression(params.getBenchmark(), slowdown, pValue, baselineMedian, currentMedian, current.unit);
+	}
+
+	/**
+	 * Write the baseline file. Recorded scores of fixtures without baseline are added. All recorded scores replace the
+	 * baseline if updating the baseline is enabled.
+	 *
+	 * @throws IOException if the baseline file cannot be written.
+	 */
+	public void saveBaseline() throws IOException {
+
+		if (baselineFile == null) {
+			return;
+		}
+
+		Map<String, Sample> merged = new TreeMap<>(readBaseline(baselineFile));
+		boolean modified = false;
+
+		for (Map.Entry<String, Sample> entry : measured.entrySet()) {
+			if (updateBaseline || !merged.containsKey(entry.getKey())) {
+				merged.put(entry.getKey(), entry.getValue());
+				modified = true;
+			}
+		}
+
+		if (!modified) {
+			return;
+		}
+
+		Properties properties = new Properties();
+		merged.forEach((key, value) -> properties.setProperty(key, value.toString()));
+
+		if (baselineFile.getParentFile() != null) {
+			baselineFile.getParentFile().mkdirs();
+		}
+
+		try (OutputStream out = Files.newOutputStream(baselineFile.toPath())) {
+			properties.store(out, "Benchmark baseline iteration scores");
+		}
+	}
+
+	/**
+	 * Compute the one-sided p-value of the Mann-Whitney U test for the alternative hypothesis that values of {@code y}
+	 * tend to be greater than values of {@code x}. Uses the normal approximation with tie and continuity correction.
+	 *
+	 * @param x the first sample.
+	 * @param y the second sample.
+	 * @return the p-value.
+	 */
+	static double mannWhitneyPValue(double[] x, double[] y) {
+
+		int n1 = x.length;
+		int n2 = y.length;
+		int n = n1 + n2;
+
+		double[][] combined = new double[n][];
+		for (int i = 0; i < n1; i++) {
+			combined[i] = new double[] { x[i], 0 };
+		}
+		for (int i = 0; i < n2; i++) {
+			combined[n1 + i] = new double[] { y[i], 1 };
+		}
+		Arrays.sort(combined, (a, b) -> Double.compare(a[0], b[0]));
+
+		double rankSumY = 0;
+		double tieCorrection = 0;
+
+		for (int i = 0; i < n;) {
+
+			int j = i;
+			while (j + 1 < n && combined[j + 1][0] == combined[i][0]) {
+				j++;
+			}
+
+			double rank = (i + j + 2) / 2d;
+			int ties = j - i + 1;
+			tieCorrection += (double) ties * ties * ties - ties;
+
+			for (int k = i; k <= j; k++) {
+				if (combined[k][1] == 1) {
+					rankSumY += rank;
+				}
+			}
+
+			i = j + 1;
+		}
+
+		double u = rankSumY - n2 * (n2 + 1) / 2d;
+		double mean = n1 * n2 / 2d;
+		double variance = n1 * n2 / 12d * ((n + 1) - tieCorrection / ((double) n * (n - 1)));
+
+		if (variance <= 0) {
+			return u > mean ? 0 : 1;
+		}
+
+		double z = (u - mean - 0.5) / Math.sqrt(variance);
+		return 1 - normalCdf(z);
+	}
+
+	/**
+	 * Standard normal cumulative distribution function based on the complementary error function approximation by
+	 * Numerical Recipes (fractional error below {@code 1.2e-7}).
+	 */
+	static double normalCdf(double z) {
+
+		double x = Math.abs(z) / Math.sqrt(2);
+		double t = 1 / (1 + 0.5 * x);
+		double erfc = t * Math.exp(-x * x - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+				+ t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+						+ t * (-0.82215223 + t * 0.17087277)))))))));
+
+		return z >= 0 ? 1 - erfc / 2 : erfc / 2;
+	}
+
+	private static double median(double[] values) {
+
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+
+		int middle = sorted.length / 2;
+		return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+	}
+
+	private static double[] toArray(List<Double> values) {
+		return values.stream().mapToDouble(Double::doubleValue).toArray();
+	}
+
+	/**
+	 * Return the most recent sample recorded in the {@link BenchmarkHistory} before this run.
+	 */
+	private Sample getRecordedSample(BenchmarkParams params) {
+
+		List<BenchmarkHistory.Record> records = history.getRecords(BenchmarkHistory.getKey(params, threadSweep),
+				HISTORY_LOOKBACK);
+
+		for (int i = records.size() - 1; i >= 0; i--) {
+			if (records.get(i).getTimestamp() < since) {
+				return new Sample(records.get(i).getUnit(), records.get(i).getScores());
+			}
+		}
+
+		return null;
+	}
+
+	private String getKey(BenchmarkParams params) {
+		return params.getBenchmark() + BenchmarkSharding.getFixture(params, threadSweep);
+	}
+
+	private static Map<String, Sample> readBaseline(File baselineFile) throws IOException {
+
+		if (!baselineFile.isFile()) {
+			return Collections.emptyMap();
+		}
+
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(baselineFile.toPath())) {
+			properties.load(in);
+		}
+
+		Map<String, Sample> baseline = new TreeMap<>();
+		for (String key : properties.stringPropertyNames()) {
+
+			Sample sample = Sample.parse(properties.getProperty(key));
+			if (sample != null) {
+				baseline.put(key, sample);
+			}
+		}
+
+		return baseline;
+	}
+
+	/**
+	 * Iteration scores of a benchmark fixture along with their unit.
+	 */
+	static class Sample {
+
+		private final String unit;
+		private final double[] scores;
+
+		Sample(String unit, double[] scores) {
+			this.unit = unit;
+			this.scores = scores;
+		}
+
+		/**
+		 * Parse a sample from its {@link #toString() string representation} {@code unit;score,score,...}.
+		 *
+		 * @return the {@link Sample} or {@literal null} if malformed.
+		 */
+		static Sample parse(String value) {
+
+			int separator = value.lastIndexOf(';');
+			if (separator == -1) {
+				return null;
+			}
+
+			String[] values = value.substring(separator + 1).split(",");
+			double[] scores = new double[values.length];
+
+			try {
+				for (int i = 0; i < values.length; i++) {
+					scores[i] = Double.parseDouble(values[i].trim());
+				}
+			} catch (NumberFormatException e) {
+				return null;
+			}
+
+			return new Sample(value.substring(0, separator), scores);
+		}
+
+		@Override
+		public String toString() {
+
+			StringBuilder sb = new StringBuilder(unit).append(';');
+			for (int i = 0; i < scores.length; i++) {
+				sb.append(i == 0 ? "" : ",").append(scores[i]);
+			}
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * Significant slowdown of a benchmark fixture compared to its baseline.
+	 */
+	public static class Regression {
+
+		private final String benchmark;
+		private final double slowdown;
+		private final double pValue;
+		private final double baselineMedian;
+		private final double currentMedian;
+		private final String unit;
+
+		Regression(String benchmark, double slowdown, double pValue, double baselineMedian, double currentMedian,
+				String unit) {
+			this.benchmark = benchmark;
+			this.slowdown = slowdown;
+			this.pValue = pValue;
+			this.baselineMedian = baselineMedian;
+			this.currentMedian = currentMedian;
+			this.unit = unit;
+		}
+
+		/**
+		 * @return the relative slowdown of the median score, e.g. {@code 0.3} for 30%.
+		 */
+		public double getSlowdown() {
+			return slowdown;
+		}
+
+		public double getPValue() {
+			return pValue;
+		}
+
+		/**
+		 * @return an {@link AssertionError} describing the regression.
+		 */
+		public AssertionError toError() {
+			return new AssertionError(toString());
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s regressed by %.1f%% (median %.3f %s, baseline %.3f %s, p = %.4f)", benchmark,
+					slowdown * 100, currentMedian, unit, baselineMedian, unit, pValue);
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import jmh.mbr.core.model.BenchmarkResults;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * Publishes benchmark results to {@link StreamingResultsWriter streaming writers} as each benchmark finishes. Results
+ * are handed over through a bounded queue to a single publishing thread so writers neither delay benchmark execution
+ * nor accumulate a backlog: {@link #publish(BenchmarkResult)} blocks once {@link #CAPACITY} results are pending.
+ * <p>
+ * Results that were not published while the run was in progress are published on {@link #close(BenchmarkResults)}.
+ * If a {@link RunJournal} is given, results are journaled before {@link #publish(BenchmarkResult)} returns.
+ */
+public class ResultsStream {
+
+	/**
+	 * Maximum number of pending results.
+	 */
+	static final int CAPACITY = 64;
+
+	private static final Supplier<BenchmarkResults> END = () -> null;
+
+	private final List<StreamingResultsWriter> writers;
+	private final RunJournal journal;
+	private final MetaData metaData;
+	private final OutputFormat output;
+	private final UnaryOperator<BenchmarkResults> postProcessor;
+	private final BlockingQueue<Supplier<BenchmarkResults>> queue;
+	private final Set<String> published = ConcurrentHashMap.newKeySet();
+	private final Thread publisher;
+
+	private volatile boolean closed;
+
+	ResultsStream(List<StreamingResultsWriter> writers, RunJournal journal, MetaData metaData, OutputFormat output,
+			int capacity, UnaryOperator<BenchmarkResults> postProcessor) {
+
+		this.writers = writers;
+		this.journal = journal;
+		this.metaData = metaData;
+		this.output = output;
+		this.postProcessor = postProcessor;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.publisher = new Thread(this::run, "jmh-mbr-results-stream");
+		this.publisher.setDaemon(true);
+		this.publisher.start();
+	}
+
+	/**
+	 * Publish the result of a finished benchmark fixture. Blocks while the result is journaled and while the queue is
+	 * full.
+	 *
+	 * @param result the aggregated result of a benchmark fixture, must not be {@literal null}.
+	 */
+	public void publish(BenchmarkResult result) {
+
+		if (closed || !published.add(result.getParams().id())) {
+			return;
+		}
+
+		if (journal != null) {
+			try {
+				journal.append(result);
+			} catch (IOException e) {
+				output.println(String.format("# WARNING: Cannot journal result of %s to %s: %s",
+						result.getParams().getBenchmark(), journal, e));
+			}
+		}
+
+		RunResult runResult = new RunResult(result.getParams(), Collections.singletonList(result));
+		enqueue(() -> postProcessor.apply(new BenchmarkResults(metaData, Collections.singletonList(runResult))));
+	}
+
+	/**
+	 * Publish all results of {@code results} that were not published yet and wait until all pending results are written.
+	 *
+	 * @param results the results of the run, can be {@literal null}.
+	 */
+	public void close(BenchmarkResults results) {
+
+		if (closed) {
+			return;
+		}
+
+		if (results != null) {
+			for (BenchmarkResults.BenchmarkResult result : results) {
+				if (result.getParams() == null || published.add(result.getParams().id())) {
+					enqueue(() -> result.map((it, runResult) -> new BenchmarkResults(it,
+							Collections.singletonList(runResult))));
+				}
+			}
+		}
+
+		closed = true;
+		enqueue(END);
+
+		try {
+			publisher.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void enqueue(Supplier<BenchmarkResults> results) {
+
+		try {
+			queue.put(results);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while publishing benchmark results", e);
+		}
+	}
+
+	private void run() {
+
+		while (true) {
+
+			Supplier<BenchmarkResults> next;
+			try {
+				next = queue.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+
+			if (next == END) {
+				return;
+			}
+
+			try {
+
+				BenchmarkResults results = next.get();
+
+				for (StreamingResultsWriter writer : writers) {
+					for (BenchmarkResults.BenchmarkResult result : results) {
+						write(writer, result);
+					}
+				}
+			} catch (RuntimeException e) {
+				output.println("# WARNING: Cannot publish benchmark result: " + e);
+			}
+		}
+	}
+
+	private void write(StreamingResultsWriter writer, BenchmarkResults.BenchmarkResult result) {
+
+		try {
+			writer.write(output, result);
+		} catch (RuntimeException e) {
+			output.println(String.format("# WARNING: Cannot publish result of %s to %s: %s",
+					result.getParams().getBenchmark(), writer.getClass().getSimpleName(), e));
+		}
+	}
+}
@@ -19,11 +19,20 @@ import org.openjdk.jmh.runner.format.OutputFormat;
 
 /**
  * Writes JMH results to an external target. This can be targets such as files, HTTP endpoints, or databases. {@link ResultsWriter} can be contributed through Java's {@link ServiceLoader} plugin mechanism.
+ * <p>
+ * Writers are {@link #open(OutputFormat) opened} once per run, receive one or more {@link #write(OutputFormat, BenchmarkResults) writes}, and are {@link #flush(OutputFormat) flushed} and {@link #close() closed} when the run is complete. Writers may acquire connections or buffers on open and reuse them for all writes of the run.
  *
  * @see ResultsWriterFactory
  */
 public interface ResultsWriter {
 
+	/**
+	 * Prepare the writer for a run, e.g. by acquiring connections.
+	 *
+	 * @param output original {@link OutputFormat} to append further details or failures.
+	 */
+	default void open(OutputFormat output) {}
+
 	/**
 	 * Write the {@link RunResult}s.
 	 *
@@ -32,19 +41,28 @@ public interface ResultsWriter {
 	 */
 	void write(OutputFormat output, BenchmarkResults results);
 
+	/**
+	 * Write buffered results to the target.
+	 *
+	 * @param output original {@link OutputFormat} to append further details or failures that occurred while writing results.
+	 */
+	default void flush(OutputFormat output) {}
+
+	/**
+	 * Release resources acquired by {@link #open(OutputFormat)}.
+	 */
+	default void close() {}
 
 	/**
-	 * Creates a {@link ResultsWriter} given a {@code uri}. This method considers {@link ResultsWriter} plugins provided by {@link ResultsWriterFactory} via Java's {@link ServiceLoader} mechanism. Returns {@literal null} if no applicable {@link ResultsWriter} was found.
+	 * Creates a {@link ResultsWriter} given a {@code uri}. This method considers {@link ResultsWriter} plugins provided by {@link ResultsWriterFactory} via Java's {@link ServiceLoader} mechanism. Factories are loaded once and reused for subsequent calls. Returns {@literal null} if no applicable {@link ResultsWriter} was found.
 	 *
 	 * @param uri
 	 * @return the {@link ResultsWriter} or {@literal null} if none was found or none was applicable to {@code uri}.
 	 */
 	static ResultsWriter forUri(String uri) {
 
-		ServiceLoader<ResultsWriterFactory> loader = ServiceLoader.load(ResultsWriterFactory.class);
-
 		List<ResultsWriter> result = new ArrayList<>();
-		for (ResultsWriterFactory factory : loader) {
+		for (ResultsWriterFactory factory : ResultsWriterFactories.getFactories()) {
 			ResultsWriter writer = factory.forUri(uri);
 			if (writer != null) {
 				result.add(writer);
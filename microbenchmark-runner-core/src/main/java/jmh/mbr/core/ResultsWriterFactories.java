@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of {@link ResultsWriterFactory} implementations discovered through {@link ServiceLoader}. Factories are
+ * loaded once for the context class loader and reused until the context class loader changes.
+ */
+final class ResultsWriterFactories {
+
+	private static volatile Registration registration;
+
+	private ResultsWriterFactories() {}
+
+	/**
+	 * @return the {@link ResultsWriterFactory factories} visible to the context class loader.
+	 */
+	static List<ResultsWriterFactory> getFactories() {
+
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		Registration current = registration;
+
+		if (current == null || !current.isFor(classLoader)) {
+
+			List<ResultsWriterFactory> factories = new ArrayList<>();
+			for (ResultsWriterFactory factory : ServiceLoader.load(ResultsWriterFactory.class, classLoader)) {
+				factories.add(factory);
+			}
+
+			registration = current = new Registration(classLoader, Collections.unmodifiableList(factories));
+		}
+
+		return current.factories;
+	}
+
+	/**
+	 * Factories loaded for a class loader.
+	 */
+	private static class Registration {
+
+		private final ClassLoader classLoader;
+		private final List<ResultsWriterFactory> factories;
+
+		Registration(ClassLoader classLoader, List<ResultsWriterFactory> factories) {
+			this.classLoader = classLoader;
+			this.factories = factories;
+		}
+
+		boolean isFor(ClassLoader classLoader) {
+			return this.classLoader == classLoader;
+		}
+	}
+}
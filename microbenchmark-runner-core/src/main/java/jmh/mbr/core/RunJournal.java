@@ -0,0 +1,272 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Journal of completed benchmarks to resume interrupted runs ({@code jmh.mbr.resume=true}). The result of each
+ * benchmark method or fixture is appended to {@code <report dir>/<name>.journal} and synced to disk before the run
+ * continues. A resumed run skips benchmarks that have a journaled result and merges the journaled results into its own
+ * results. The journal is removed once the results of a run are published.
+ * <p>
+ * Records consist of the length and CRC32 checksum of a serialized JMH {@link BenchmarkResult} followed by its bytes. A
+ * record that was torn by a crash is discarded when reading the journal.
+ *
+ * @see BenchmarkSharding#getKey(org.openjdk.jmh.infra.BenchmarkParams, boolean)
+ */
+public class RunJournal {
+
+	static final String FILE_EXTENSION = ".journal";
+
+	private static final int HEADER_LENGTH = Integer.BYTES + Long.BYTES;
+
+	private final File file;
+	private final Map<String, List<BenchmarkResult>> restored;
+
+	private FileChannel channel;
+
+	RunJournal(File file, Map<String, List<BenchmarkResult>> restored) {
+		this.file = file;
+		this.restored = restored;
+	}
+
+	/**
+	 * Create {@link RunJournal} from {@link BenchmarkConfiguration}. Unless the run is resumed, an existing journal is
+	 * removed.
+	 *
+	 * @param configuration must not be {@literal null}.
+	 * @param name the journal name, e.g. the class under benchmark.
+	 * @return the {@link RunJournal} or {@literal null} if no report directory is configured.
+	 * @throws IllegalArgumentException if the run is resumed without a report directory.
+	 */
+	public static RunJournal from(BenchmarkConfiguration configuration, String name) {
+
+		String reportDir = configuration.getReportDirectory();
+
+		if (!StringUtils.hasText(reportDir)) {
+
+			if (configuration.isResume()) {
+				throw new IllegalArgumentException(String.format("Resuming a run requires %s to be set",
+						BenchmarkConfigProperties.BENCHMARK_REPORT_DIR.propertyName()));
+			}
+
+			return null;
+		}
+
+		StringBuilder filename = new StringBuilder(name);
+		if (configuration.getShardCount() > 1) {
+			filename.append("_shard-").append(configuration.getShardIndex()).append("-of-")
+					.append(configuration.getShardCount());
+		}
+
+		File file = new File(reportDir, filename.append(FILE_EXTENSION).toString()).getAbsoluteFile();
+
+		try {
+
+			if (!configuration.isResume()) {
+				Files.deleteIfExists(file.toPath());
+				return new RunJournal(file, Collections.emptyMap());
+			}
+
+			return new RunJournal(file, read(file, BenchmarkSharding.isThreadSweep(configuration)));
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read run journal " + file, e);
+		}
+	}
+
+	/**
+	 * Read the journaled results and discard a trailing incomplete record.
+	 *
+	 * @param file the journal file.
+	 * @param threadSweep whether the run {@link BenchmarkSharding#isThreadSweep(BenchmarkConfiguration) sweeps thread
+	 *          counts}.
+	 * @return journaled results by {@link BenchmarkSharding#getKey(org.openjdk.jmh.infra.BenchmarkParams, boolean) key}.
+	 * @throws IOException if the journal cannot be read.
+	 */
+	static Map<String, List<BenchmarkResult>> read(File file, boolean threadSweep) throws IOException {
+
+		Map<String, List<BenchmarkResult>> results = new LinkedHashMap<>();
+
+		if (!file.exists()) {
+			return results;
+		}
+
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+
+		while (buffer.remaining() >= HEADER_LENGTH) {
+
+			int position = buffer.position();
+			int length = buffer.getInt();
+			long checksum = buffer.getLong();
+
+			if (length < 0 || buffer.remaining() < length) {
+				((Buffer) buffer).position(position);
+				break;
+			}
+
+			byte[] bytes = new byte[length];
+			buffer.get(bytes);
+
+			BenchmarkResult result = checksum == checksum(bytes) ? deserialize(bytes) : null;
+
+			if (result == null) {
+				((Buffer) buffer).position(position);
+				break;
+			}
+
+			results.computeIfAbsent(BenchmarkSharding.getKey(result.getParams(), threadSweep), it -> new ArrayList<>())
+					.add(result);
+		}
+
+		if (buffer.position() < buffer.capacity()) {
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+				channel.truncate(buffer.position());
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * @return the journal file.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return {@literal true} if results of a previous run were restored.
+	 */
+	public boolean isResumed() {
+		return !restored.isEmpty();
+	}
+
+	/**
+	 * @param key the {@link BenchmarkSharding#getKey(String) key} of a benchmark method or fixture.
+	 * @return {@literal true} if the benchmark has completed in a previous run.
+	 */
+	public boolean contains(String key) {
+		return restored.containsKey(key);
+	}
+
+	/**
+	 * Return the results restored from a previous run.
+	 *
+	 * @param keys the {@link BenchmarkSharding#getKey(String) keys} of the benchmarks to return results for.
+	 * @return the restored results.
+	 */
+	public List<RunResult> getResults(Collection<String> keys) {
+
+		List<RunResult> results = new ArrayList<>();
+
+		for (String key : keys) {
+			for (BenchmarkResult result : restored.getOrDefault(key, Collections.emptyList())) {
+				results.add(new RunResult(result.getParams(), Collections.singletonList(result)));
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * Append the result of a completed benchmark and sync the journal to disk.
+	 *
+	 * @param result the aggregated result of a benchmark method or fixture.
+	 * @throws IOException if the result cannot be journaled.
+	 */
+	public synchronized void append(BenchmarkResult result) throws IOException {
+
+		byte[] bytes = serialize(result);
+		ByteBuffer record = ByteBuffer.allocate(HEADER_LENGTH + bytes.length);
+		record.putInt(bytes.length).putLong(checksum(bytes)).put(bytes);
+		// Buffer methods are covariant on Java 9+ only, cast to link against the Java 8 signatures
+		((Buffer) record).flip();
+
+		if (channel == null) {
+
+			file.getParentFile().mkdirs();
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND);
+		}
+
+		while (record.hasRemaining()) {
+			channel.write(record);
+		}
+
+		channel.force(true);
+	}
+
+	/**
+	 * Close the journal and remove it as the run has completed.
+	 *
+	 * @throws IOException if the journal cannot be removed.
+	 */
+	public synchronized void complete() throws IOException {
+
+		if (channel != null) {
+			channel.close();
+			channel = null;
+		}
+
+		Files.deleteIfExists(file.toPath());
+	}
+
+	private static long checksum(byte[] bytes) {
+
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length);
+		return crc.getValue();
+	}
+
+	private static byte[] serialize(BenchmarkResult result) throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(result);
+		}
+
+		return bytes.toByteArray();
+	}
+
+	private static BenchmarkResult deserialize(byte[] bytes) {
+
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return (BenchmarkResult) in.readObject();
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return file.toString();
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import jmh.mbr.core.model.BenchmarkResults;
+import jmh.mbr.core.model.BenchmarkResults.BenchmarkResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * {@link ResultsWriter} that accepts results incrementally. Streaming writers receive each {@link BenchmarkResult} as
+ * soon as its benchmark has finished through a {@link ResultsStream} instead of the complete {@link BenchmarkResults}
+ * at the end of the run.
+ *
+ * @see ResultsStream
+ */
+public interface StreamingResultsWriter extends ResultsWriter {
+
+	/**
+	 * Write a single {@link BenchmarkResult}.
+	 *
+	 * @param output original {@link OutputFormat} to append further details or failures that occurred while writing results.
+	 * @param result the result of a benchmark fixture.
+	 */
+	void write(OutputFormat output, BenchmarkResult result);
+
+	@Override
+	default void write(OutputFormat output, BenchmarkResults results) {
+
+		if (results != null) {
+			results.forEach(result -> write(output, result));
+		}
+	}
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Defaults;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.util.ListStatistics;
+import org.openjdk.jmh.util.Statistics;
+
+/**
+ * Distributes a wall-clock {@link BenchmarkConfiguration#getBudget() time budget} across benchmarks. The budget is
+ * measured from JVM start so that all benchmarks of a test run share the same deadline. Each benchmark receives a share
+ * of the remaining budget proportional to its number of fixtures and its historical relative variance (the squared
+ * coefficient of variation recorded in the {@link BenchmarkConfiguration#getBudgetHistory() history file}), as the
+ * number of samples required for a given confidence interval grows with the variance. Benchmarks without history are
+ * assumed to have the median variance. Each share is then converted into iteration counts and millisecond iteration
+ * times. Instead of a history file, the most recent results of a {@link BenchmarkHistory} can provide the variance.
+ * <p>
+ * A safety margin and an estimated fork overhead are reserved. Benchmarks whose allocation exceeds the remaining budget
+ * are not run.
+ */
+public class TimeBudget {
+
+	/**
+	 * {@link jmh.mbr.core.model.BenchmarkResults.MetaData} key under which the allocation of a benchmark is recorded.
+	 */
+	public static final String METADATA_KEY = BenchmarkConfigProperties.PREFIX + "budget.allocation";
+
+	/**
+	 * Estimated time to launch and tear down a forked JVM.
+	 */
+	static final Duration FORK_OVERHEAD = Duration.ofSeconds(1);
+
+	/**
+	 * Shortest iteration time. Shorter iterations are dominated by timer and synchronization overhead.
+	 */
+	static final Duration MIN_ITERATION_TIME = Duration.ofMillis(100);
+
+	/**
+	 * Fraction of the remaining budget held back to absorb iteration overrun and setup/teardown time.
+	 */
+	static final double SAFETY_MARGIN = 0.1;
+
+	/**
+	 * Maximum ratio between the variance weight of a benchmark and the median variance weight.
+	 */
+	static final double MAX_WEIGHT_RATIO = 4;
+
+	private final Duration budget;
+	private final long start;
+	private final LongSupplier clock;
+	private final int forks;
+	private final int warmupIterations;
+	private final int measurementIterations;
+	private final File historyFile;
+	private final Map<String, Double> history;
+	private final Map<String, Double> measured = new ConcurrentHashMap<>();
+
+	TimeBudget(Duration budget, long start, LongSupplier clock, int forks, int warmupIterations,
+			int measurementIterations, File historyFile, Map<String, Double> history) {
+		this.budget = budget;
+		this.start = start;
+		this.clock = clock;
+		this.forks = forks;
+		this.warmupIterations = warmupIterations;
+		this.measurementIterations = measurementIterations;
+		this.historyFile = historyFile;
+		this.history = history;
+	}
+
+	/**
+	 * Create a {@link TimeBudget} from {@link BenchmarkConfiguration}. Configured forks and iteration counts are retained
+	 * while iteration times are derived from the budget. Without configuration, a single fork and JMH's default
+	 * iteration counts are used.
+	 *
+	 * @param configuration must not be {@literal null}.
+	 * @return the {@link TimeBudget} or {@literal null} if no budget is configured.
+	 * @throws IllegalStateException if the history file cannot be read.
+	 */
+	public static TimeBudget from(BenchmarkConfiguration configuration) {
+
+		Duration budget = configuration.getBudget();
+
+		if (budget.isZero() || budget.isNegative()) {
+			return null;
+		}
+
+		int forks = configuration.getForksCount() > 0 ? configuration.getForksCount() : 1;
+		int warmupIterations = configuration.getWarmupIterations() >= 0 ? configuration.getWarmupIterations()
+				: Defaults.WARMUP_ITERATIONS;
+		int measurementIterations = configuration.getMeasurementIterations() > 0
+				? configuration.getMeasurementIterations()
+				: Defaults.MEASUREMENT_ITERATIONS;
+
+		String history = configuration.getBudgetHistory();
+		BenchmarkHistory benchmarkHistory = StringUtils.hasText(history) ? BenchmarkHistory.forUri(history) : null;
+
+		if (benchmarkHistory != null) {
+			return new TimeBudget(budget, ManagementFactory.getRuntimeMXBean().getStartTime(),
+					System::currentTimeMillis, forks, warmupIterations, measurementIterations, null,
+					readHistory(benchmarkHistory));
+		}
+
+		File historyFile = StringUtils.hasText(history) ? new File(history) : null;
+
+		try {
+			return new TimeBudget(budget, ManagementFactory.getRuntimeMXBean().getStartTime(),
+					System::currentTimeMillis, forks, warmupIterations, measurementIterations, historyFile,
+					readHistory(historyFile));
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read benchmark history from " + historyFile, e);
+		}
+	}
+
+	/**
+	 * @return the remaining budget. Can be negative if the budget is exceeded.
+	 */
+	public Duration getRemaining() {
+		return budget.minusMillis(clock.getAsLong() - start);
+	}
+
+	/**
+	 * Allocate the remaining budget across benchmarks. Allocations should be recomputed for the remaining benchmarks
+	 * after each run so that deviations from the estimated duration are compensated by subsequent benchmarks.
+	 *
+	 * @param fixtureCounts benchmark include patterns with their number of fixtures, in execution order.
+	 * @return allocations by include pattern, in the order of {@code fixtureCounts}.
+	 */
+	public Map<String, Allocation> allocate(Map<String, Integer> fixtureCounts) {
+
+		List<String> includePatterns = new ArrayList<>(fixtureCounts.keySet());
+		double[] variances = getRelativeVariances(includePatterns);
+
+		long totalForks = 0;
+		double totalWeight = 0;
+		double[] weights = new double[includePatterns.size()];
+
+		for (int i = 0; i < weights.length; i++) {
+
+			int fixtures = Math.max(1, fixtureCounts.get(includePatterns.get(i)));
+			totalForks += (long) fixtures * forks;
+			weights[i] = fixtures * variances[i];
+			totalWeight += weights[i];
+		}
+
+		long available = (long) (getRemaining().toMillis() * (1 - SAFETY_MARGIN))
+				- totalForks * FORK_OVERHEAD.toMillis();
+
+		Map<String, Allocation> allocations = new LinkedHashMap<>();
+
+		for (int i = 0; i < weights.length; i++) {
+
+			String includePattern = includePatterns.get(i);
+			int fixtures = Math.max(1, fixtureCounts.get(includePattern));
+			long share = totalWeight > 0 ? (long) (Math.max(0, available) * weights[i] / totalWeight) : 0;
+
+			allocations.put(includePattern, allocate(share / ((long) fixtures * forks), fixtures));
+		}
+
+		return allocations;
+	}
+
+	/**
+	 * Check whether the {@link Allocation} fits into the remaining budget.
+	 *
+	 * @param allocation must not be {@literal null}.
+	 * @return {@literal true} if the allocation can be run without exceeding the budget.
+	 */
+	public boolean fits(Allocation allocation) {
+		return allocation.getDuration().compareTo(getRemaining()) <= 0;
+	}
+
+	/**
+	 * Record the score variation of benchmark runs for future allocations.
+	 *
+	 * @param runResults the results.
+	 */
+	public void record(Collection<RunResult> runResults) {
+
+		for (RunResult runResult : runResults) {
+
+			if (runResult.getParams() == null || runResult.getPrimaryResult() == null) {
+				continue;
+			}
+
+			Statistics statistics = runResult.getPrimaryResult().getStatistics();
+
+			if (statistics.getN() < 2 || statistics.getMean() == 0) {
+				continue;
+			}
+
+			double variation = statistics.getStandardDeviation() / Math.abs(statistics.getMean());
+			measured.merge(runResult.getParams().getBenchmark(), variation, Math::max);
+		}
+	}
+
+	/**
+	 * Write recorded score variations to the history file, if configured. Existing entries for other benchmarks are
+	 * retained.
+	 *
+	 * @throws IOException if the history file cannot be written.
+	 */
+	public void saveHistory() throws IOException {
+
+		if (historyFile == null || measured.isEmpty()) {
+			return;
+		}
+
+		Map<String, Double> merged = new TreeMap<>(readHistory(historyFile));
+		merged.putAll(measured);
+
+		Properties properties = new Properties();
+		merged.forEach((key, value) -> properties.setProperty(key, Double.toString(value)));
+
+		if (historyFile.getParentFile() != null) {
+			historyFile.getParentFile().mkdirs();
+		}
+
+		try (OutputStream out = Files.newOutputStream(historyFile.toPath())) {
+			properties.store(out, "Benchmark score coefficient of variation");
+		}
+	}
+
+	private Allocation allocate(long millisPerFork, int fixtures) {
+
+		int warmup = warmupIterations;
+		int measurement = measurementIterations;
+		long iterationTime = millisPerFork / (warmup + measurement);
+		long minIterationTime = MIN_ITERATION_TIME.toMillis();
+
+		if (iterationTime < minIterationTime) {
+
+			int affordable = (int) Math.max(1, millisPerFork / minIterationTime);
+			measurement = (int) Math.max(1,
+					Math.round((double) affordable * measurementIterations / (warmupIterations + measurementIterations)));
+			warmup = Math.min(warmupIterations, Math.max(0, affordable - measurement));
+			iterationTime = Math.max(minIterationTime, millisPerFork / (warmup + measurement));
+		}
+
+		return new Allocation(forks, fixtures, warmup, measurement, Duration.ofMillis(iterationTime));
+	}
+
+	private double[] getRelativeVariances(List<String> includePatterns) {
+
+		double[] variances = new double[includePatterns.size()];
+		List<Double> known = new ArrayList<>();
+
+		for (int i = 0; i < variances.length; i++) {
+
+			Pattern pattern = Pattern.compile(includePatterns.get(i));
+			double variation = Double.NaN;
+
+			for (Map.Entry<String, Double> entry : history.entrySet()) {
+				if (pattern.matcher(entry.getKey()).find()) {
+					variation = Double.isNaN(variation) ? entry.getValue() : Math.max(variation, entry.getValue());
+				}
+			}
+
+			variances[i] = variation * variation;
+			if (!Double.isNaN(variation)) {
+				known.add(variances[i]);
+			}
+		}
+
+		Collections.sort(known);
+		double median = known.isEmpty() ? 1 : known.get(known.size() / 2);
+
+		for (int i = 0; i < variances.length; i++) {
+
+			if (Double.isNaN(variances[i]) || median <= 0) {
+				variances[i] = median > 0 ? median : 1;
+			} else {
+				variances[i] = Math.min(median * MAX_WEIGHT_RATIO, Math.max(median / MAX_WEIGHT_RATIO, variances[i]));
+			}
+		}
+
+		return variances;
+	}
+
+	/**
+	 * Read the coefficient of variation of the most recent iteration scores of each benchmark from
+	 * {@link BenchmarkHistory}.
+	 */
+	static Map<String, Double> readHistory(BenchmarkHistory benchmarkHistory) {
+
+		Map<String, Double> history = new TreeMap<>();
+
+		for (BenchmarkHistory.Record record : benchmarkHistory.getLatestRecords()) {
+
+			if (record.getScores().length < 2) {
+				continue;
+			}
+
+			ListStatistics statistics = new ListStatistics(record.getScores());
+			double variation = statistics.getStandardDeviation() / Math.abs(statistics.getMean());
+
+			if (!Double.isNaN(variation) && !Double.isInfinite(variation)) {
+				history.merge(record.getBenchmark(), variation, Math::max);
+			}
+		}
+
+		return history;
+	}
+
+	private static Map<String, Double> readHistory(File historyFile) throws IOException {
+
+		if (historyFile == null || !historyFile.isFile()) {
+			return Collections.emptyMap();
+		}
+
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(historyFile.toPath())) {
+			properties.load(in);
+		}
+
+		Map<String, Double> history = new TreeMap<>();
+		for (String key : properties.stringPropertyNames()) {
+			try {
+				history.put(key, Double.parseDouble(properties.getProperty(key).trim()));
+			} catch (NumberFormatException e) {
+				// ignore malformed entries
+			}
+		}
+
+		return history;
+	}
+
+	/**
+	 * Time allocated to a benchmark: the number of forks and iterations per fixture and the time of each iteration.
+	 */
+	public static class Allocation {
+
+		private final int forks;
+		private final int fixtures;
+		private final int warmupIterations;
+		private final int measurementIterations;
+		private final Duration iterationTime;
+
+		Allocation(int forks, int fixtures, int warmupIterations, int measurementIterations, Duration iterationTime) {
+			this.forks = forks;
+			this.fixtures = fixtures;
+			this.warmupIterations = warmupIterations;
+			this.measurementIterations = measurementIterations;
+			this.iterationTime = iterationTime;
+		}
+
+		public int getForks() {
+			return forks;
+		}
+
+		public int getWarmupIterations() {
+			return warmupIterations;
+		}
+
+		public int getMeasurementIterations() {
+			return measurementIterations;
+		}
+
+		public Duration getIterationTime() {
+			return iterationTime;
+		}
+
+		/**
+		 * @return the estimated duration of running all fixtures including fork overhead.
+		 */
+		public Duration getDuration() {
+			return iterationTime.multipliedBy(warmupIterations + measurementIterations).plus(FORK_OVERHEAD)
+					.multipliedBy((long) fixtures * forks);
+		}
+
+		/**
+		 * Apply the allocation to {@link ChainedOptionsBuilder}. The iteration timeout is aligned with the iteration
+		 * time to bound overrun of long-running invocations.
+		 *
+		 * @param optionsBuilder must not be {@literal null}.
+		 * @return {@link ChainedOptionsBuilder} with options applied.
+		 */
+		public ChainedOptionsBuilder apply(ChainedOptionsBuilder optionsBuilder) {
+
+			optionsBuilder.forks(forks).warmupIterations(warmupIterations)
+					.measurementIterations(measurementIterations)
+					.measurementTime(JmhSupport.toTimeValue(iterationTime))
+					.timeout(JmhSupport.toTimeValue(iterationTime.compareTo(Duration.ofSeconds(1)) < 0
+							? Duration.ofSeconds(1)
+							: iterationTime));
+
+			if (warmupIterations > 0) {
+				optionsBuilder.warmupTime(JmhSupport.toTimeValue(iterationTime));
+			}
+
+			return optionsBuilder;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d fork(s), %d warmup and %d measurement iterations of %d ms", forks,
+					warmupIterations, measurementIterations, iterationTime.toMillis());
+		}
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * Detects the number of warmup iterations required to reach steady state. A calibration run records the scores of
+ * successive iterations of an unwarmed fork. The steady state is detected by applying the Marginal Standard Error Rule
+ * (MSER) that selects the truncation point minimizing the standard error of the remaining iterations. Benchmarks are
+ * then run with the detected warmup length, which is reported as {@link #METADATA_KEY} in the results.
+ */
+public class WarmupDetection {
+
+	/**
+	 * {@link jmh.mbr.core.model.BenchmarkResults.MetaData} key under which the detected warmup length is recorded.
+	 */
+	public static final String METADATA_KEY = BenchmarkConfigProperties.PREFIX + "warmup.detectedIterations";
+
+	private final int maxIterations;
+	private final Map<String, List<Double>> scores = new ConcurrentHashMap<>();
+	private final Map<String, String> fixtureToBenchmark = new ConcurrentHashMap<>();
+
+	WarmupDetection(int maxIterations) {
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * Create a {@link WarmupDetection} from {@link BenchmarkConfiguration}.
+	 *
+	 * @param configuration must not be {@literal null}.
+	 * @return the {@link WarmupDetection} or {@literal null} if automatic warmup is not enabled.
+	 */
+	public static WarmupDetection from(BenchmarkConfiguration configuration) {
+
+		if (!configuration.isWarmupAuto()) {
+			return null;
+		}
+
+		return new WarmupDetection(configuration.getWarmupMaxIterations());
+	}
+
+	/**
+	 * @return number of iterations of the calibration run.
+	 */
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+
+	/**
+	 * Decorate {@link OutputFormat} to record iteration scores of the calibration run.
+	 *
+	 * @param delegate the actual {@link OutputFormat}.
+	 * @return the recording {@link OutputFormat}.
+	 */
+	public OutputFormat decorate(OutputFormat delegate) {
+		return new RecordingOutputFormat(delegate, this);
+	}
+
+	/**
+	 * Record an iteration score of the calibration run.
+	 *
+	 * @param benchmarkParams the benchmark.
+	 * @param result the iteration result.
+	 */
+	void record(BenchmarkParams benchmarkParams, IterationResult result) {
+
+		String key = getFixtureKey(benchmarkParams);
+		List<Double> series = scores.computeIfAbsent(key, it -> new ArrayList<>());
+		fixtureToBenchmark.put(key, benchmarkParams.getBenchmark());
+
+		synchronized (series) {
+			series.add(result.getPrimaryResult().getScore());
+		}
+	}
+
+	/**
+	 * Group {@code includePatterns} by their detected warmup length. The warmup length of a pattern is the longest
+	 * warmup detected across its benchmark fixtures. Patterns without calibration data are grouped under {@literal -1},
+	 * indicating that the configured warmup applies.
+	 *
+	 * @param includePatterns benchmark include patterns.
+	 * @return include patterns grouped by detected warmup iterations.
+	 */
+	public Map<Integer, List<String>> groupByWarmupIterations(Collection<String> includePatterns) {
+
+		Map<Integer, List<String>> groups = new LinkedHashMap<>();
+
+		for (String includePattern : includePatterns) {
+
+			Pattern pattern = Pattern.compile(includePattern);
+			int warmup = -1;
+
+			for (Map.Entry<String, String> entry : fixtureToBenchmark.entrySet()) {
+				if (pattern.matcher(entry.getValue()).find()) {
+					warmup = Math.max(warmup, getWarmupIterations(scores.get(entry.getKey())));
+				}
+			}
+
+			groups.computeIfAbsent(warmup, it -> new ArrayList<>()).add(includePattern);
+		}
+
+		return groups;
+	}
+
+	private int getWarmupIterations(List<Double> series) {
+
+		synchronized (series) {
+
+			double[] values = new double[series.size()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = series.get(i);
+			}
+
+			return detectSteadyState(values);
+		}
+	}
+
+	private static String getFixtureKey(BenchmarkParams benchmarkParams) {
+
+		Map<String, String> fixture = new TreeMap<>();
+		for (String key : benchmarkParams.getParamsKeys()) {
+			fixture.put(key, benchmarkParams.getParam(key));
+		}
+
+		return benchmarkParams.getBenchmark() + fixture;
+	}
+
+	/**
+	 * Detect the steady state of a series of iteration scores using MSER. The truncation point {@code k} minimizes
+	 * {@code sum((x[i] - mean(x[k..n]))^2) / (n - k)^2} for {@code k <= n / 2}. If the series does not settle within
+	 * its first half, the full series length is returned.
+	 *
+	 * @param scores iteration scores in execution order.
+	 * @return the number of leading iterations to discard as warmup.
+	 */
+	static int detectSteadyState(double[] scores) {
+
+		int n = scores.length;
+
+		if (n < 4) {
+			return n;
+		}
+
+		int best = 0;
+		double bestStatistic = Double.MAX_VALUE;
+
+		double sum = 0;
+		double sumOfSquares = 0;
+
+		// accumulate from the tail to compute each truncated series statistic in O(1)
+		double[] statistics = new double[n / 2 + 1];
+		for (int k = n - 1; k >= 0; k--) {
+
+			sum += scores[k];
+			sumOfSquares += scores[k] * scores[k];
+
+			if (k <= n / 2) {
+
+				int remaining = n - k;
+				double mean = sum / remaining;
+				double squaredDeviations = Math.max(0, sumOfSquares - remaining * mean * mean);
+				statistics[k] = squaredDeviations / ((double) remaining * remaining);
+			}
+		}
+
+		for (int k = 0; k <= n / 2; k++) {
+			if (statistics[k] < bestStatistic) {
+				bestStatistic = statistics[k];
+				best = k;
+			}
+		}
+
+		return best == n / 2 ? n : best;
+	}
+
+	/**
+	 * {@link OutputFormat} recording iteration results before delegating.
+	 */
+	private static class RecordingOutputFormat extends DelegatingOutputFormat {
+
+		private final WarmupDetection detection;
+
+		RecordingOutputFormat(OutputFormat delegate, WarmupDetection detection) {
+			super(delegate);
+			this.detection = detection;
+		}
+
+		@Override
+		public void iterationResult(BenchmarkParams benchParams, IterationParams params, int iteration,
+				IterationResult data) {
+
+			detection.record(benchParams, data);
+			super.iterationResult(benchParams, params, iteration, data);
+		}
+	}
+}
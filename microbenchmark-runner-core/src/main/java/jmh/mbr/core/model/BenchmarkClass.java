@@ -9,10 +9,14 @@
  */
 package jmh.mbr.core.model;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * {@link BenchmarkDescriptor} for a single {@link Class benchmark class} along its children.
@@ -22,8 +26,17 @@ import java.util.Objects;
  */
 public class BenchmarkClass extends HierarchicalBenchmarkDescriptor {
 
+	private final Map<Method, BenchmarkDescriptor> methods = new HashMap<>();
+
 	private BenchmarkClass(ClassDescriptor descriptor, List<BenchmarkDescriptor> children) {
+
 		super(descriptor, children);
+
+		for (BenchmarkDescriptor child : children) {
+			if (child instanceof MethodAware) {
+				methods.putIfAbsent(((MethodAware) child).getMethod(), child);
+			}
+		}
 	}
 
 	/**
@@ -41,6 +54,17 @@ public class BenchmarkClass extends HierarchicalBenchmarkDescriptor {
 		return new BenchmarkClass(new ClassDescriptor(benchmarkClass), new ArrayList<>(children));
 	}
 
+	/**
+	 * Look up the child descriptor of a benchmark method.
+	 *
+	 * @param method the benchmark method.
+	 * @return the {@link MethodAware} child descriptor of {@code method} or {@link Optional#empty()} if {@code method}
+	 *         is not a benchmark method of this class.
+	 */
+	public Optional<BenchmarkDescriptor> getChild(Method method) {
+		return Optional.ofNullable(methods.get(method));
+	}
+
 	public Class<?> getJavaClass() {
 		return ((ClassDescriptor) getDescriptor()).benchmarkClass;
 	}
@@ -9,6 +9,8 @@
  */
 package jmh.mbr.core.model;
 
+import jmh.mbr.core.BenchmarkConfiguration;
+import jmh.mbr.core.FixtureSampling.Strategy;
 import jmh.mbr.core.model.BenchmarkParameters.BenchmarkArgument;
 
 import java.lang.reflect.Method;
@@ -32,17 +34,53 @@ import org.openjdk.jmh.annotations.Benchmark;
  */
 public class BenchmarkDescriptorFactory {
 
+	/**
+	 * Public and declared methods per class, introspected once.
+	 */
+	private static final ClassValue<List<Method>> METHODS = new ClassValue<List<Method>>() {
+
+		@Override
+		protected List<Method> computeValue(Class<?> type) {
+			return Collections.unmodifiableList(Stream
+					.concat(Arrays.stream(type.getMethods()), Arrays.stream(type.getDeclaredMethods())) //
+					.distinct() //
+					.collect(Collectors.toList()));
+		}
+	};
+
 	private final Class<?> benchmarkClass;
+	private final FixtureSampler fixtureSampler;
 
-	private BenchmarkDescriptorFactory(Class<?> benchmarkClass) {
+	private BenchmarkDescriptorFactory(Class<?> benchmarkClass, FixtureSampler fixtureSampler) {
 		this.benchmarkClass = benchmarkClass;
+		this.fixtureSampler = fixtureSampler.forClass(benchmarkClass);
 	}
 
+	/**
+	 * Create a {@link BenchmarkDescriptorFactory} using the {@link FixtureSampler} configured through the
+	 * {@link jmh.mbr.core.Environment}.
+	 *
+	 * @param benchmarkClass the benchmark class.
+	 * @return the {@link BenchmarkDescriptorFactory}.
+	 */
 	public static BenchmarkDescriptorFactory create(Class<?> benchmarkClass) {
+		return create(benchmarkClass, FixtureSampler.from(BenchmarkConfiguration.defaultOptions()));
+	}
+
+	/**
+	 * Create a {@link BenchmarkDescriptorFactory}.
+	 *
+	 * @param benchmarkClass the benchmark class.
+	 * @param fixtureSampler the default {@link FixtureSampler}, overridden by {@link jmh.mbr.core.FixtureSampling} on
+	 *          the benchmark class.
+	 * @return the {@link BenchmarkDescriptorFactory}.
+	 */
+	public static BenchmarkDescriptorFactory create(Class<?> benchmarkClass, FixtureSampler fixtureSampler) {
 
 		Objects.requireNonNull(benchmarkClass, "Benchmark class must not be null");
+		Objects.requireNonNull(fixtureSampler, "FixtureSampler must not be null");
 
-		return new BenchmarkDescriptorFactory(benchmarkClass);
+		return new BenchmarkDescriptorFactory(benchmarkClass, fixtureSampler);
 	}
 
 	/**
@@ -52,7 +90,7 @@ public class BenchmarkDescriptorFactory {
 
 		List<BenchmarkDescriptor> children = getBenchmarkMethods(it -> it.isAnnotationPresent(Benchmark.class)).map(it -> {
 
-			if (it.isParametrized()) {
+			if (it.isParametrized() || fixtureSampler.isThreadSweep()) {
 
 				List<BenchmarkFixture> fixtures = createFixtures(it);
 
@@ -66,7 +104,9 @@ public class BenchmarkDescriptorFactory {
 	}
 
 	/**
-	 * Creates {@link BenchmarkFixture} for a parametrized {@link BenchmarkMethod}.
+	 * Creates {@link BenchmarkFixture} for a parametrized {@link BenchmarkMethod}. Fixtures are either the cartesian
+	 * product of all parameter values or a sample thereof, depending on the {@link FixtureSampler}. A thread sweep adds
+	 * the {@link BenchmarkFixture#THREADS threads} parameter unless the benchmark declares a parameter of that name.
 	 *
 	 * @param method the {@link BenchmarkMethod} to inspect.
 	 * @return list of fixtures if parameterized. Empty list if the method is not parametrized.
@@ -88,9 +128,22 @@ public class BenchmarkDescriptorFactory {
 		stateClasses.addAll(argumentStateClasses);
 
 		Collection<BenchmarkArgument> arguments = BenchmarkParameters.discover(stateClasses);
-		Iterator<BenchmarkArgument> iterator = arguments.iterator();
 
-		return iterator.hasNext() ? createFixtures(iterator.next(), iterator) : Collections.emptyList();
+		List<BenchmarkFixture> fixtures;
+
+		if (fixtureSampler.getStrategy() != Strategy.FULL) {
+			fixtures = fixtureSampler.sample(new ArrayList<>(arguments));
+		} else {
+
+			Iterator<BenchmarkArgument> iterator = arguments.iterator();
+			fixtures = iterator.hasNext() ? createFixtures(iterator.next(), iterator) : Collections.emptyList();
+		}
+
+		if (arguments.stream().anyMatch(it -> it.getName().equals(BenchmarkFixture.THREADS))) {
+			return fixtures;
+		}
+
+		return fixtureSampler.sweep(fixtures);
 	}
 
 	private List<BenchmarkFixture> createFixtures(BenchmarkArgument argument, Iterator<BenchmarkArgument> iterator) {
@@ -136,9 +189,8 @@ public class BenchmarkDescriptorFactory {
 
 	private Stream<BenchmarkMethod> getBenchmarkMethods(Predicate<Method> filter) {
 
-		return Stream.concat(Arrays.stream(benchmarkClass.getMethods()), Arrays.stream(benchmarkClass.getDeclaredMethods())) //
+		return METHODS.get(benchmarkClass).stream() //
 				.filter(filter) //
-				.distinct() //
 				.map(BenchmarkMethod::new);
 	}
 }
@@ -11,18 +11,32 @@ package jmh.mbr.core.model;
 
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.openjdk.jmh.infra.BenchmarkParams;
+
 /**
  * Represents a parametrized fixture.
  */
 public class BenchmarkFixture implements BenchmarkDescriptor {
 
+	/**
+	 * Name of the fixture parameter selecting the number of benchmark threads when sweeping thread counts. The value is
+	 * applied through {@link org.openjdk.jmh.runner.options.ChainedOptionsBuilder#threads(int)} instead of
+	 * {@code param()}.
+	 *
+	 * @see FixtureSampler#withThreadSweep(int...)
+	 */
+	public static final String THREADS = "threads";
+
 	private final Map<String, Object> fixture;
+	private final int threads;
 
-	private BenchmarkFixture(Map<String, Object> fixture) {
+	private BenchmarkFixture(Map<String, Object> fixture, int threads) {
 		this.fixture = fixture;
+		this.threads = threads;
 	}
 
 	/**
@@ -34,7 +48,34 @@ public class BenchmarkFixture implements BenchmarkDescriptor {
 	 * @see org.openjdk.jmh.annotations.Param
 	 */
 	public static BenchmarkFixture create(String name, String parameter) {
-		return new BenchmarkFixture(Collections.singletonMap(name, parameter));
+		return new BenchmarkFixture(Collections.singletonMap(name, parameter), 0);
+	}
+
+	/**
+	 * Create a {@link BenchmarkFixture} of a thread sweep without parameters.
+	 *
+	 * @param threads number of benchmark threads.
+	 * @return the {@link BenchmarkFixture}.
+	 */
+	public static BenchmarkFixture threads(int threads) {
+		return new BenchmarkFixture(Collections.singletonMap(THREADS, Integer.toString(threads)), threads);
+	}
+
+	/**
+	 * Create a {@link BenchmarkFixture} from the parameter values of {@link BenchmarkParams}. Benchmarks without
+	 * parameters result in an empty fixture.
+	 *
+	 * @param params the benchmark parameters.
+	 * @return the {@link BenchmarkFixture}.
+	 */
+	public static BenchmarkFixture from(BenchmarkParams params) {
+
+		Map<String, Object> fixture = new LinkedHashMap<>();
+		for (String key : params.getParamsKeys()) {
+			fixture.put(key, params.getParam(key));
+		}
+
+		return new BenchmarkFixture(fixture, 0);
 	}
 
 	/**
@@ -50,13 +91,64 @@ public class BenchmarkFixture implements BenchmarkDescriptor {
 		fixture.putAll(this.fixture);
 		fixture.put(name, parameter);
 
-		return new BenchmarkFixture(fixture);
+		return new BenchmarkFixture(fixture, threads);
+	}
+
+	/**
+	 * Create an enhanced {@link BenchmarkFixture} that contains all parameter values and runs with {@code threads}
+	 * benchmark threads.
+	 *
+	 * @param threads number of benchmark threads.
+	 * @return the {@link BenchmarkFixture}.
+	 */
+	public BenchmarkFixture withThreads(int threads) {
+
+		Map<String, Object> fixture = new LinkedHashMap<>(this.fixture.size() + 1);
+		fixture.putAll(this.fixture);
+		fixture.put(THREADS, Integer.toString(threads));
+
+		return new BenchmarkFixture(fixture, threads);
 	}
 
 	public Map<String, Object> getFixture() {
 		return fixture;
 	}
 
+	/**
+	 * Return whether this fixture was run with {@link BenchmarkParams}. The {@link #THREADS threads} of a thread sweep
+	 * are matched against the number of benchmark threads.
+	 *
+	 * @param params the benchmark parameters.
+	 * @return {@literal true} if the parameter values of {@code params} select this fixture.
+	 */
+	public boolean matches(BenchmarkParams params) {
+
+		Map<String, Object> lookup = new HashMap<>();
+		for (String key : params.getParamsKeys()) {
+			lookup.put(key, params.getParam(key));
+		}
+
+		if (isThreadSwept()) {
+			lookup.put(THREADS, Integer.toString(params.getThreads()));
+		}
+
+		return fixture.equals(lookup);
+	}
+
+	/**
+	 * @return {@literal true} if this fixture is part of a thread sweep.
+	 */
+	public boolean isThreadSwept() {
+		return threads > 0;
+	}
+
+	/**
+	 * @return number of benchmark threads of a thread sweep, {@code 0} if this fixture is not part of a thread sweep.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
 	public String getDisplayName() {
 
 		String name = fixture.toString();
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.openjdk.jmh.runner.BenchmarkList;
+import org.openjdk.jmh.runner.BenchmarkListEntry;
+
+/**
+ * Index of the benchmarks listed in {@code META-INF/BenchmarkList} files generated by the JMH annotation processor.
+ * The lists visible to a {@link ClassLoader} are read once and indexed by the class path entry (directory or jar) that
+ * contains them. A list is authoritative for the classes of its class path entry: a class of such an entry that is not
+ * listed has no benchmark methods, which avoids reflective introspection of classes during discovery. Classes of class
+ * path entries without list are not covered by the index.
+ */
+public class BenchmarkIndex {
+
+	private static final String RESOURCE = BenchmarkList.BENCHMARK_LIST.substring(1);
+
+	private static final BenchmarkIndex EMPTY = new BenchmarkIndex(Collections.emptyMap());
+
+	private static final Map<ClassLoader, BenchmarkIndex> INDEXES = new WeakHashMap<>();
+
+	// class path entry -> benchmark class (qualified name) -> benchmark method names
+	private final Map<String, Map<String, Set<String>>> benchmarks;
+
+	BenchmarkIndex(Map<String, Map<String, Set<String>>> benchmarks) {
+		this.benchmarks = benchmarks;
+	}
+
+	/**
+	 * Return the {@link BenchmarkIndex} of {@code classLoader}. The index is created on first access and cached for the
+	 * lifetime of the {@link ClassLoader}.
+	 *
+	 * @param classLoader the class loader, may be {@literal null} for the bootstrap class loader.
+	 * @return the {@link BenchmarkIndex}.
+	 */
+	public static BenchmarkIndex of(ClassLoader classLoader) {
+
+		if (classLoader == null) {
+			return EMPTY;
+		}
+
+		synchronized (INDEXES) {
+			return INDEXES.computeIfAbsent(classLoader, BenchmarkIndex::read);
+		}
+	}
+
+	/**
+	 * Return the names of the benchmark methods of {@code benchmarkClass} as listed by JMH.
+	 *
+	 * @param benchmarkClass the class to look up.
+	 * @return the method names or {@link Optional#empty()} if the class is not covered by the index. An empty set if the
+	 *         class is covered but has no benchmark methods.
+	 */
+	public Optional<Set<String>> getBenchmarkMethods(Class<?> benchmarkClass) {
+
+		String location = getLocation(benchmarkClass);
+		Map<String, Set<String>> classes = location != null ? benchmarks.get(location) : null;
+
+		if (classes == null) {
+			return Optional.empty();
+		}
+
+		return Optional.of(classes.getOrDefault(getQualifiedName(benchmarkClass), Collections.emptySet()));
+	}
+
+	/**
+	 * @param benchmarkClass the class to look up.
+	 * @return {@link Optional} holding whether the class has benchmark methods or {@link Optional#empty()} if the class
+	 *         is not covered by the index.
+	 */
+	public Optional<Boolean> isBenchmarkClass(Class<?> benchmarkClass) {
+		return getBenchmarkMethods(benchmarkClass).map(it -> !it.isEmpty());
+	}
+
+	/**
+	 * Return the qualified name of a class as used by JMH, with nested classes separated by {@code .}.
+	 *
+	 * @param type the class.
+	 * @return the qualified name.
+	 */
+	static String getQualifiedName(Class<?> type) {
+		return type.getName().replace('$', '.');
+	}
+
+	private static BenchmarkIndex read(ClassLoader classLoader) {
+
+		Map<String, Map<String, Set<String>>> benchmarks = new HashMap<>();
+
+		try {
+
+			Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+
+			while (resources.hasMoreElements()) {
+
+				URL resource = resources.nextElement();
+				String location = getLocation(resource);
+
+				if (location == null) {
+					continue;
+				}
+
+				Map<String, Set<String>> classes = benchmarks.computeIfAbsent(location, it -> new HashMap<>());
+
+				try (InputStream stream = resource.openStream()) {
+					for (BenchmarkListEntry entry : BenchmarkList.readBenchmarkList(stream)) {
+
+						String username = entry.getUsername();
+						String method = username.substring(username.lastIndexOf('.') + 1);
+
+						classes.computeIfAbsent(entry.getUserClassQName(), it -> new LinkedHashSet<>()).add(method);
+					}
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			// unreadable lists must not break discovery, fall back to introspection
+			return EMPTY;
+		}
+
+		for (Entry<String, Map<String, Set<String>>> entry : benchmarks.entrySet()) {
+			entry.setValue(Collections.unmodifiableMap(entry.getValue()));
+		}
+
+		return new BenchmarkIndex(benchmarks);
+	}
+
+	/**
+	 * @return the class path entry of a {@code META-INF/BenchmarkList} resource, e.g. {@code file:/target/classes/} or
+	 *         {@code file:/lib/benchmarks.jar}.
+	 */
+	static String getLocation(URL resource) {
+
+		String url = resource.toExternalForm();
+
+		if (!url.endsWith(RESOURCE)) {
+			return null;
+		}
+
+		String location = url.substring(0, url.length() - RESOURCE.length());
+
+		if (location.startsWith("jar:") && location.endsWith("!/")) {
+			return location.substring("jar:".length(), location.length() - 2);
+		}
+
+		return location;
+	}
+
+	private static String getLocation(Class<?> type) {
+
+		CodeSource codeSource;
+		try {
+			codeSource = type.getProtectionDomain().getCodeSource();
+		} catch (SecurityException e) {
+			return null;
+		}
+
+		URL location = codeSource != null ? codeSource.getLocation() : null;
+		return location != null ? location.toExternalForm() : null;
+	}
+}
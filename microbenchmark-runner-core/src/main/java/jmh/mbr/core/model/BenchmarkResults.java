@@ -32,12 +32,46 @@ import org.openjdk.jmh.results.RunResult;
 public class BenchmarkResults implements Iterable<BenchmarkResult> {
 
 	private final List<RunResult> runResults;
+	private final List<BenchmarkResult> results;
 	private final MetaData metaData;
 
 	public BenchmarkResults(MetaData metaData, Collection<RunResult> runResults) {
 
 		this.runResults = new ArrayList<>(runResults);
+		this.results = new ArrayList<>(runResults.size());
 		this.metaData = metaData;
+
+		for (RunResult runResult : this.runResults) {
+			this.results.add(new BenchmarkResult(metaData, runResult));
+		}
+	}
+
+	private BenchmarkResults(MetaData metaData, List<RunResult> runResults, List<BenchmarkResult> results) {
+
+		this.runResults = runResults;
+		this.results = results;
+		this.metaData = metaData;
+	}
+
+	/**
+	 * Merge multiple {@link BenchmarkResults} into a single one. Each {@link BenchmarkResult} retains the {@link MetaData}
+	 * of the {@link BenchmarkResults} it originates from while the merged result uses {@code metaData}.
+	 *
+	 * @param metaData the {@link MetaData} for the merged result.
+	 * @param results the results to merge.
+	 * @return the merged {@link BenchmarkResults}.
+	 */
+	public static BenchmarkResults merge(MetaData metaData, Collection<BenchmarkResults> results) {
+
+		List<RunResult> runResults = new ArrayList<>();
+		List<BenchmarkResult> benchmarkResults = new ArrayList<>();
+
+		for (BenchmarkResults result : results) {
+			runResults.addAll(result.runResults);
+			benchmarkResults.addAll(result.results);
+		}
+
+		return new BenchmarkResults(metaData, runResults, benchmarkResults);
 	}
 
 	/**
@@ -46,7 +80,7 @@ public class BenchmarkResults implements Iterable<BenchmarkResult> {
 	 * @return a {@link Stream} of {@link BenchmarkResult}.
 	 */
 	public Stream<BenchmarkResult> stream() {
-		return runResults.stream().map(it -> new BenchmarkResult(metaData, it));
+		return results.stream();
 	}
 
 	public MetaData getMetaData() {
@@ -62,8 +96,7 @@ public class BenchmarkResults implements Iterable<BenchmarkResult> {
 
 	@Override
 	public Iterator<BenchmarkResult> iterator() {
-		return runResults.stream().map(it -> new BenchmarkResult(metaData, it))
-				.iterator();
+		return results.iterator();
 	}
 
 	/**
@@ -73,6 +106,8 @@ public class BenchmarkResults implements Iterable<BenchmarkResult> {
 
 		private final MetaData metaData;
 		private final RunResult runResult;
+		private LatencyHistogram histogram;
+		private boolean histogramCreated;
 
 		public BenchmarkResult(MetaData metaData, RunResult runResult) {
 
@@ -107,6 +142,22 @@ public class BenchmarkResults implements Iterable<BenchmarkResult> {
 		public BenchmarkParams getParams() {
 			return runResult.getParams();
 		}
+
+		/**
+		 * Return the {@link LatencyHistogram} of a {@link org.openjdk.jmh.annotations.Mode#SampleTime sample time}
+		 * benchmark merged across all forks. The histogram is created on first access and must not be modified.
+		 *
+		 * @return the {@link LatencyHistogram} or {@literal null} if the benchmark was not run in sample time mode.
+		 */
+		public synchronized LatencyHistogram getHistogram() {
+
+			if (!histogramCreated) {
+				histogram = LatencyHistogram.from(runResult);
+				histogramCreated = true;
+			}
+
+			return histogram;
+		}
 	}
 
 	public static class MetaData {
@@ -155,6 +206,22 @@ public class BenchmarkResults implements Iterable<BenchmarkResult> {
 			return !additionalParameters.isEmpty();
 		}
 
+		/**
+		 * Create a copy of this {@link MetaData} with additional parameters.
+		 *
+		 * @param parameters the parameters to add, overriding existing parameters with the same key.
+		 * @return the new {@link MetaData}.
+		 */
+		public MetaData withAdditionalParameters(Map<String, Object> parameters) {
+
+			MetaData target = new MetaData(project, version);
+			target.time = time;
+			target.os = os;
+			target.additionalParameters.putAll(additionalParameters);
+			target.additionalParameters.putAll(parameters);
+			return target;
+		}
+
 		public static MetaData from(Map<String, Object> metadata) {
 
 			MetaData target = new MetaData();
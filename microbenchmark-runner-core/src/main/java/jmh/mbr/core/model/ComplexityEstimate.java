@@ -0,0 +1,467 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+
+import jmh.mbr.core.BenchmarkConfigProperties;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Empirical estimate of the {@link ComplexityClass complexity class} of a benchmark over a numeric size parameter. The
+ * cost per operation of each size is fitted to {@code cost(n) = a + b * f(n)} for each complexity class {@code f}
+ * through least squares. Coefficients are constrained to non-negative values, the intercept {@code a} captures the
+ * fixed cost of an operation. The class with the smallest residual standard error is selected, which accounts for the
+ * constant class fitting one coefficient less. Ties are resolved in favor of the lower complexity class.
+ * <p>
+ * Estimates require at least three distinct sizes. The size parameter of a result is declared through the
+ * {@link #PARAMETER_KEY} entry of its {@link MetaData}.
+ *
+ * @see jmh.mbr.core.ComplexityParameter
+ */
+public class ComplexityEstimate {
+
+	/**
+	 * {@link MetaData} key under which the comma-separated candidate names of the size parameter are recorded.
+	 */
+	public static final String PARAMETER_KEY = BenchmarkConfigProperties.COMPLEXITY_PARAMETER.propertyName();
+
+	/**
+	 * Minimum number of distinct sizes to estimate the complexity class.
+	 */
+	static final int MIN_SIZES = 3;
+
+	private final String parameter;
+	private final ComplexityClass complexityClass;
+	private final double intercept;
+	private final double slope;
+	private final double rSquared;
+	private final double relativeError;
+	private final double[] sizes;
+	private final double[] costs;
+
+	private ComplexityEstimate(String parameter, Candidate candidate, double[] sizes, double[] costs) {
+
+		this.parameter = parameter;
+		this.complexityClass = candidate.complexityClass;
+		this.intercept = candidate.intercept;
+		this.slope = candidate.slope;
+		this.sizes = sizes;
+		this.costs = costs;
+
+		double mean = Arrays.stream(costs).average().orElse(0);
+		double total = 0;
+		for (double cost : costs) {
+			total += Math.pow(cost - mean, 2);
+		}
+
+		this.rSquared = total == 0 ? 1 : 1 - candidate.residual / total;
+		this.relativeError = mean == 0 ? 0 : candidate.getStandardError(costs.length) / mean;
+	}
+
+	/**
+	 * Estimate the complexity class of costs measured for different sizes.
+	 *
+	 * @param parameter name of the size parameter.
+	 * @param sizes the sizes.
+	 * @param costs the cost per operation for each size.
+	 * @return the estimate or {@literal null} if the measurements cover less than three distinct positive sizes.
+	 */
+	public static ComplexityEstimate fit(String parameter, double[] sizes, double[] costs) {
+
+		if (sizes.length != costs.length) {
+			throw new IllegalArgumentException("Sizes and costs must have the same length");
+		}
+
+		List<Integer> order = new ArrayList<>(sizes.length);
+		for (int i = 0; i < sizes.length; i++) {
+			if (sizes[i] > 0 && costs[i] > 0) {
+				order.add(i);
+			}
+		}
+		Collections.sort(order, (left, right) -> Double.compare(sizes[left], sizes[right]));
+
+		double[] n = new double[order.size()];
+		double[] y = new double[order.size()];
+		for (int i = 0; i < order.size(); i++) {
+			n[i] = sizes[order.get(i)];
+			y[i] = costs[order.get(i)];
+		}
+
+		if (Arrays.stream(n).distinct().count() < MIN_SIZES) {
+			return null;
+		}
+
+		Candidate best = null;
+		for (ComplexityClass complexityClass : ComplexityClass.values()) {
+
+			Candidate candidate = Candidate.fit(complexityClass, n, y);
+			if (candidate != null
+					&& (best == null || candidate.getStandardError(n.length) < best.getStandardError(n.length))) {
+				best = candidate;
+			}
+		}
+
+		return new ComplexityEstimate(parameter, best, n, y);
+	}
+
+	/**
+	 * Estimate the complexity of the size curves contained in {@code results}. Results are grouped into curves by
+	 * benchmark, mode, thread count and all parameters except the size parameter. Curves covering at least three
+	 * distinct sizes are fitted.
+	 *
+	 * @param results the results, may contain results without size parameter.
+	 * @param parameter function resolving the name of the size parameter of a result, returning {@literal null} if the
+	 *          result has no size parameter.
+	 * @return the estimate of the curve each result is part of, keyed by result identity. Results of curves that cannot
+	 *         be fitted are not contained.
+	 * @see #getParameter(MetaData, BenchmarkParams)
+	 */
+	public static Map<RunResult, ComplexityEstimate> fit(Collection<RunResult> results,
+			Function<RunResult, String> parameter) {
+
+		Map<String, List<RunResult>> curves = new LinkedHashMap<>();
+		Map<String, String> parameters = new LinkedHashMap<>();
+
+		for (RunResult result : results) {
+
+			if (result.getParams() == null || getCost(result) <= 0) {
+				continue;
+			}
+
+			String name = parameter.apply(result);
+			if (name == null || Double.isNaN(getSize(result.getParams(), name))) {
+				continue;
+			}
+
+			String key = getCurveKey(result.getParams(), name);
+			curves.computeIfAbsent(key, it -> new ArrayList<>()).add(result);
+			parameters.put(key, name);
+		}
+
+		Map<RunResult, ComplexityEstimate> estimates = new IdentityHashMap<>();
+		for (Map.Entry<String, List<RunResult>> curve : curves.entrySet()) {
+
+			String name = parameters.get(curve.getKey());
+			double[] sizes = new double[curve.getValue().size()];
+			double[] costs = new double[curve.getValue().size()];
+			int i = 0;
+
+			for (RunResult result : curve.getValue()) {
+				sizes[i] = getSize(result.getParams(), name);
+				costs[i++] = getCost(result);
+			}
+
+			ComplexityEstimate estimate = fit(name, sizes, costs);
+			if (estimate != null) {
+				curve.getValue().forEach(it -> estimates.put(it, estimate));
+			}
+		}
+
+		return estimates;
+	}
+
+	/**
+	 * Estimate the complexity of the size curves contained in {@code results} using the size parameter declared in the
+	 * {@link MetaData} of each result.
+	 *
+	 * @param results the results.
+	 * @return the estimate of the curve each result is part of, keyed by result identity.
+	 * @see #fit(Collection, Function)
+	 */
+	public static Map<RunResult, ComplexityEstimate> fit(BenchmarkResults results) {
+
+		Map<RunResult, String> parameters = new IdentityHashMap<>();
+		for (BenchmarkResults.BenchmarkResult result : results) {
+			result.map((metaData, runResult) -> parameters.put(runResult,
+					runResult.getParams() != null ? getParameter(metaData, runResult.getParams()) : null));
+		}
+
+		return fit(results.getRawResults(), parameters::get);
+	}
+
+	/**
+	 * Resolve the size parameter of a result. The first of the comma-separated candidate names recorded under
+	 * {@link #PARAMETER_KEY} that is a parameter of the benchmark is the size parameter.
+	 *
+	 * @param metaData the {@link MetaData} of the result, may be {@literal null}.
+	 * @param params the benchmark parameters.
+	 * @return name of the size parameter or {@literal null} if none of the candidates is a parameter of the benchmark.
+	 */
+	public static String getParameter(MetaData metaData, BenchmarkParams params) {
+
+		Object candidates = metaData != null ? metaData.getAdditionalParameters().get(PARAMETER_KEY) : null;
+		if (candidates == null) {
+			return null;
+		}
+
+		for (String candidate : candidates.toString().split(",")) {
+			if (params.getParamsKeys().contains(candidate.trim())) {
+				return candidate.trim();
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Return the key of the size curve a result with {@link BenchmarkParams} is part of. Results of the same benchmark,
+	 * mode, thread count and parameters that only differ in their size share the key.
+	 *
+	 * @param params the benchmark parameters.
+	 * @param parameter name of the size parameter.
+	 * @return the curve key.
+	 */
+	public static String getCurveKey(BenchmarkParams params, String parameter) {
+
+		Map<String, String> fixture = new TreeMap<>();
+		for (String key : params.getParamsKeys()) {
+			if (!key.equals(parameter)) {
+				fixture.put(key, params.getParam(key));
+			}
+		}
+
+		return params.getBenchmark() + " " + params.getMode().shortLabel() + " " + params.getThreads() + " "
+				+ parameter + " " + fixture;
+	}
+
+	/**
+	 * @param params the benchmark parameters.
+	 * @param parameter name of the size parameter.
+	 * @return the numeric value of the size parameter or {@link Double#NaN} if the value is not numeric.
+	 */
+	public static double getSize(BenchmarkParams params, String parameter) {
+
+		String value = params.getParam(parameter);
+		if (value == null) {
+			return Double.NaN;
+		}
+
+		try {
+			return Double.parseDouble(value.trim());
+		}
+		catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+
+	/**
+	 * Return the cost per operation of a result. Results of time-based modes are used as they are, throughput results
+	 * are converted to time per operation.
+	 *
+	 * @param result the result.
+	 * @return the cost in time units of the score, {@code 0} if the result has no score.
+	 */
+	public static double getCost(RunResult result) {
+
+		if (result.getPrimaryResult() == null) {
+			return 0;
+		}
+
+		double score = result.getPrimaryResult().getScore();
+
+		if (result.getParams().getMode() == Mode.Throughput) {
+			return score > 0 ? 1 / score : 0;
+		}
+
+		return score;
+	}
+
+	/**
+	 * @return name of the size parameter.
+	 */
+	public String getParameter() {
+		return parameter;
+	}
+
+	/**
+	 * @return the best fitting complexity class.
+	 */
+	public ComplexityClass getComplexityClass() {
+		return complexityClass;
+	}
+
+	/**
+	 * @return fixed cost per operation {@code a}.
+	 */
+	public double getIntercept() {
+		return intercept;
+	}
+
+	/**
+	 * @return cost per unit of the complexity function {@code b}, {@code 0} for {@link ComplexityClass#CONSTANT}.
+	 */
+	public double getSlope() {
+		return slope;
+	}
+
+	/**
+	 * @return coefficient of determination of the modelled cost.
+	 */
+	public double getRSquared() {
+		return rSquared;
+	}
+
+	/**
+	 * @return residual standard error relative to the mean cost.
+	 */
+	public double getRelativeError() {
+		return relativeError;
+	}
+
+	/**
+	 * @param size the size.
+	 * @return the modelled cost per operation for {@code size}.
+	 */
+	public double getCost(double size) {
+		return intercept + slope * complexityClass.apply(size);
+	}
+
+	/**
+	 * @return the fitted sizes in ascending order.
+	 */
+	public double[] getSizes() {
+		return sizes.clone();
+	}
+
+	/**
+	 * @return the measured cost for each of the {@link #getSizes() sizes}.
+	 */
+	public double[] getMeasuredCosts() {
+		return costs.clone();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[%s, a=%s, b=%s, rSquared=%s]", complexityClass.getLabel(), parameter, intercept, slope,
+				rSquared);
+	}
+
+	/**
+	 * Candidate complexity classes in ascending order.
+	 */
+	public enum ComplexityClass {
+
+		CONSTANT("O(1)", n -> 0), //
+		LOGARITHMIC("O(log n)", Math::log), //
+		LINEAR("O(n)", n -> n), //
+		LINEARITHMIC("O(n log n)", n -> n * Math.log(n)), //
+		QUADRATIC("O(n^2)", n -> n * n);
+
+		private final String label;
+		private final DoubleUnaryOperator function;
+
+		ComplexityClass(String label, DoubleUnaryOperator function) {
+			this.label = label;
+			this.function = function;
+		}
+
+		/**
+		 * @return the label in big O notation.
+		 */
+		public String getLabel() {
+			return label;
+		}
+
+		double apply(double size) {
+			return function.applyAsDouble(size);
+		}
+	}
+
+	/**
+	 * Least squares fit of a single complexity class.
+	 */
+	private static class Candidate {
+
+		final ComplexityClass complexityClass;
+		final double intercept;
+		final double slope;
+		final double residual;
+
+		Candidate(ComplexityClass complexityClass, double intercept, double slope, double[] n, double[] y) {
+
+			this.complexityClass = complexityClass;
+			this.intercept = intercept;
+			this.slope = slope;
+
+			double residual = 0;
+			for (int i = 0; i < n.length; i++) {
+				residual += Math.pow(y[i] - intercept - slope * complexityClass.apply(n[i]), 2);
+			}
+			this.residual = residual;
+		}
+
+		/**
+		 * @return the fit or {@literal null} if the cost does not grow with the complexity function.
+		 */
+		static Candidate fit(ComplexityClass complexityClass, double[] n, double[] y) {
+
+			double meanY = Arrays.stream(y).average().orElse(0);
+
+			if (complexityClass == ComplexityClass.CONSTANT) {
+				return new Candidate(complexityClass, meanY, 0, n, y);
+			}
+
+			double[] x = new double[n.length];
+			for (int i = 0; i < n.length; i++) {
+				x[i] = complexityClass.apply(n[i]);
+			}
+
+			double meanX = Arrays.stream(x).average().orElse(0);
+			double sxx = 0;
+			double sxy = 0;
+			for (int i = 0; i < n.length; i++) {
+				sxx += (x[i] - meanX) * (x[i] - meanX);
+				sxy += (x[i] - meanX) * (y[i] - meanY);
+			}
+
+			if (sxx == 0 || sxy <= 0) {
+				return null;
+			}
+
+			double slope = sxy / sxx;
+			double intercept = meanY - slope * meanX;
+
+			if (intercept >= 0) {
+				return new Candidate(complexityClass, intercept, slope, n, y);
+			}
+
+			// negative fixed cost, fit through the origin instead
+			double xx = 0;
+			double xy = 0;
+			for (int i = 0; i < n.length; i++) {
+				xx += x[i] * x[i];
+				xy += x[i] * y[i];
+			}
+
+			return new Candidate(complexityClass, 0, xy / xx, n, y);
+		}
+
+		/**
+		 * @return residual standard error of the fit over {@code count} measurements.
+		 */
+		double getStandardError(int count) {
+			return Math.sqrt(residual / (count - (complexityClass == ComplexityClass.CONSTANT ? 1 : 2)));
+		}
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+
+/**
+ * Restriction of the {@code param()} values of a JMH run to a set of {@link BenchmarkFixture fixtures}. JMH runs the
+ * cartesian product of all {@code param()} values, so a restriction covers exactly the fixtures of that product.
+ * Arbitrary fixture selections are {@link #from(Collection) partitioned} into as few restrictions as possible, each
+ * requiring its own JMH invocation. Fixtures of a {@link BenchmarkFixture#isThreadSwept() thread sweep} are restricted
+ * to their number of benchmark threads, so fixtures with different thread counts never share a restriction.
+ */
+public class FixtureRestriction {
+
+	private final Map<String, Set<String>> parameters;
+	private final List<BenchmarkFixture> fixtures;
+	private final int threads;
+
+	private FixtureRestriction(Map<String, Set<String>> parameters, List<BenchmarkFixture> fixtures, int threads) {
+		this.parameters = parameters;
+		this.fixtures = fixtures;
+		this.threads = threads;
+	}
+
+	/**
+	 * Partition {@code fixtures} into {@link FixtureRestriction restrictions} whose cartesian products are disjoint and
+	 * together contain exactly the given fixtures. Restrictions that differ in the values of a single parameter only
+	 * are merged until no further merge is possible, so that the full product of a parametrized benchmark and slices
+	 * along any parameter result in a single restriction.
+	 *
+	 * @param fixtures the fixtures to run.
+	 * @return the restrictions in the order of the fixtures, grouped by thread count.
+	 */
+	public static List<FixtureRestriction> from(Collection<BenchmarkFixture> fixtures) {
+
+		Map<Integer, List<BenchmarkFixture>> byThreads = new LinkedHashMap<>();
+		for (BenchmarkFixture fixture : new LinkedHashSet<>(fixtures)) {
+			byThreads.computeIfAbsent(fixture.getThreads(), it -> new ArrayList<>()).add(fixture);
+		}
+
+		List<FixtureRestriction> restrictions = new ArrayList<>(fixtures.size());
+		byThreads.forEach((threads, group) -> restrictions.addAll(from(group, threads)));
+
+		return restrictions;
+	}
+
+	private static List<FixtureRestriction> from(List<BenchmarkFixture> fixtures, int threads) {
+
+		List<FixtureRestriction> restrictions = new ArrayList<>(fixtures.size());
+		Set<String> names = new LinkedHashSet<>();
+
+		for (BenchmarkFixture fixture : fixtures) {
+
+			Map<String, Set<String>> parameters = new LinkedHashMap<>();
+			fixture.getFixture().forEach((name, value) -> {
+
+				if (fixture.isThreadSwept() && name.equals(BenchmarkFixture.THREADS)) {
+					return;
+				}
+
+				parameters.put(name, Collections.singleton(String.valueOf(value)));
+				names.add(name);
+			});
+
+			restrictions.add(new FixtureRestriction(parameters, Collections.singletonList(fixture), threads));
+		}
+
+		boolean merged = true;
+		while (merged) {
+
+			merged = false;
+			for (String name : names) {
+
+				List<FixtureRestriction> result = mergeAlong(name, restrictions);
+				merged |= result.size() < restrictions.size();
+				restrictions = result;
+			}
+		}
+
+		return restrictions;
+	}
+
+	/**
+	 * Merge restrictions that share the values of all parameters but {@code name}.
+	 */
+	private static List<FixtureRestriction> mergeAlong(String name, List<FixtureRestriction> restrictions) {
+
+		Map<Map<String, Set<String>>, FixtureRestriction> merged = new LinkedHashMap<>();
+
+		for (FixtureRestriction restriction : restrictions) {
+
+			if (!restriction.parameters.containsKey(name)) {
+				merged.put(restriction.parameters, restriction);
+				continue;
+			}
+
+			Map<String, Set<String>> key = new LinkedHashMap<>(restriction.parameters);
+			key.put(name, null);
+
+			merged.merge(key, restriction, FixtureRestriction::merge);
+		}
+
+		return new ArrayList<>(merged.values());
+	}
+
+	private static FixtureRestriction merge(FixtureRestriction left, FixtureRestriction right) {
+
+		Map<String, Set<String>> parameters = new LinkedHashMap<>();
+		left.parameters.forEach((name, values) -> {
+
+			Set<String> union = new LinkedHashSet<>(values);
+			union.addAll(right.parameters.get(name));
+			parameters.put(name, union);
+		});
+
+		List<BenchmarkFixture> fixtures = new ArrayList<>(left.fixtures.size() + right.fixtures.size());
+		fixtures.addAll(left.fixtures);
+		fixtures.addAll(right.fixtures);
+
+		return new FixtureRestriction(parameters, fixtures, left.threads);
+	}
+
+	/**
+	 * @return the {@code param()} values by parameter name.
+	 */
+	public Map<String, Set<String>> getParameters() {
+		return Collections.unmodifiableMap(parameters);
+	}
+
+	/**
+	 * @return the fixtures covered by this restriction.
+	 */
+	public List<BenchmarkFixture> getFixtures() {
+		return Collections.unmodifiableList(fixtures);
+	}
+
+	/**
+	 * @return number of benchmark threads of a thread sweep, {@code 0} if the fixtures are not part of a thread sweep.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Apply the {@code param()} values and the number of benchmark threads to {@code optionsBuilder}.
+	 *
+	 * @param optionsBuilder the options to restrict.
+	 * @return {@code optionsBuilder}.
+	 */
+	public ChainedOptionsBuilder apply(ChainedOptionsBuilder optionsBuilder) {
+
+		parameters.forEach((name, values) -> optionsBuilder.param(name, values.toArray(new String[0])));
+
+		if (threads > 0) {
+			optionsBuilder.threads(threads);
+		}
+
+		return optionsBuilder;
+	}
+
+	@Override
+	public String toString() {
+		return threads > 0 ? parameters + " threads=" + threads : parameters.toString();
+	}
+}
@@ -0,0 +1,457 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import jmh.mbr.core.BenchmarkConfiguration;
+import jmh.mbr.core.FixtureSampling;
+import jmh.mbr.core.FixtureSampling.Strategy;
+import jmh.mbr.core.StringUtils;
+import jmh.mbr.core.model.BenchmarkParameters.BenchmarkArgument;
+
+/**
+ * Derives {@link BenchmarkFixture fixtures} from {@link BenchmarkArgument benchmark arguments} according to a
+ * {@link Strategy sampling strategy}.
+ *
+ * @see FixtureSampling
+ */
+public class FixtureSampler {
+
+	/**
+	 * Number of candidate fixtures to construct per selected pairwise fixture.
+	 */
+	private static final int PAIRWISE_CANDIDATES = 32;
+
+	private static final int[] NO_THREADS = new int[0];
+
+	private static final FixtureSampler FULL = new FixtureSampler(Strategy.FULL, -1, 0, NO_THREADS);
+
+	private final Strategy strategy;
+	private final int size;
+	private final long seed;
+	private final int[] threads;
+
+	private FixtureSampler(Strategy strategy, int size, long seed, int[] threads) {
+		this.strategy = strategy;
+		this.size = size;
+		this.seed = seed;
+		this.threads = threads;
+	}
+
+	/**
+	 * @return a {@link FixtureSampler} creating the full cartesian product.
+	 */
+	public static FixtureSampler full() {
+		return FULL;
+	}
+
+	/**
+	 * Create a {@link FixtureSampler}.
+	 *
+	 * @param strategy the sampling strategy.
+	 * @param size number of fixtures for {@link Strategy#RANDOM}.
+	 * @param seed seed for randomized strategies.
+	 * @return the {@link FixtureSampler}.
+	 */
+	public static FixtureSampler of(Strategy strategy, int size, long seed) {
+		return strategy == Strategy.FULL ? FULL : new FixtureSampler(strategy, size, seed, NO_THREADS);
+	}
+
+	/**
+	 * Create a {@link FixtureSampler} from a strategy name.
+	 *
+	 * @param strategy name of the {@link Strategy}, case-insensitive. Defaults to {@link Strategy#FULL} if empty.
+	 * @param size number of fixtures for {@link Strategy#RANDOM}.
+	 * @param seed seed for randomized strategies.
+	 * @return the {@link FixtureSampler}.
+	 */
+	public static FixtureSampler of(String strategy, int size, long seed) {
+
+		if (!StringUtils.hasText(strategy)) {
+			return FULL;
+		}
+
+		return of(Strategy.valueOf(strategy.trim().toUpperCase(Locale.ROOT)), size, seed);
+	}
+
+	/**
+	 * Create a {@link FixtureSampler} from {@link BenchmarkConfiguration}.
+	 *
+	 * @param configuration must not be {@literal null}.
+	 * @return the {@link FixtureSampler}.
+	 */
+	public static FixtureSampler from(BenchmarkConfiguration configuration) {
+		return of(configuration.getFixtureSampling(), configuration.getFixtureSampleSize(),
+				configuration.getFixtureSamplingSeed()).withThreadSweep(configuration.getThreadSweep());
+	}
+
+	/**
+	 * Create a {@link FixtureSampler} that runs each fixture once per thread count. Thread counts are added as
+	 * {@link BenchmarkFixture#THREADS threads} parameter to the sampled fixtures. Benchmark methods without parameters
+	 * become parametrized by the thread count.
+	 *
+	 * @param threads the thread counts, must be positive.
+	 * @return the {@link FixtureSampler}.
+	 */
+	public FixtureSampler withThreadSweep(int... threads) {
+
+		for (int count : threads) {
+			if (count < 1) {
+				throw new IllegalArgumentException(String.format("Thread count must be positive, was %d", count));
+			}
+		}
+
+		return new FixtureSampler(strategy, size, seed, Arrays.stream(threads).distinct().toArray());
+	}
+
+	/**
+	 * Create a {@link FixtureSampler} that runs each fixture once per thread count.
+	 *
+	 * @param threads comma-separated thread counts. No thread sweep if empty.
+	 * @return the {@link FixtureSampler}.
+	 * @see #withThreadSweep(int...)
+	 */
+	public FixtureSampler withThreadSweep(String threads) {
+
+		if (!StringUtils.hasText(threads)) {
+			return this;
+		}
+
+		return withThreadSweep(Arrays.stream(threads.split(",")) //
+				.map(String::trim) //
+				.filter(StringUtils::hasText) //
+				.mapToInt(Integer::parseInt) //
+				.toArray());
+	}
+
+	/**
+	 * Return the {@link FixtureSampler} to use for {@code benchmarkClass}. A {@link FixtureSampling} annotation on the
+	 * class takes precedence over this sampler.
+	 *
+	 * @param benchmarkClass the benchmark class.
+	 * @return the {@link FixtureSampler} for the class.
+	 */
+	public FixtureSampler forClass(Class<?> benchmarkClass) {
+
+		FixtureSampling sampling = benchmarkClass.getAnnotation(FixtureSampling.class);
+
+		if (sampling == null) {
+			return this;
+		}
+
+		FixtureSampler sampler = of(sampling.value(), sampling.size(), sampling.seed());
+		return isThreadSweep() ? sampler.withThreadSweep(threads) : sampler;
+	}
+
+	public Strategy getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * @return {@literal true} if fixtures are run once per thread count.
+	 */
+	public boolean isThreadSweep() {
+		return threads.length != 0;
+	}
+
+	/**
+	 * Add the {@link BenchmarkFixture#THREADS threads} parameter to {@code fixtures}. Thread counts change fastest. If
+	 * {@code fixtures} is empty, one fixture per thread count is created.
+	 *
+	 * @param fixtures the sampled fixtures.
+	 * @return the fixtures for each thread count or {@code fixtures} if this sampler does not sweep thread counts.
+	 */
+	List<BenchmarkFixture> sweep(List<BenchmarkFixture> fixtures) {
+
+		if (!isThreadSweep()) {
+			return fixtures;
+		}
+
+		List<BenchmarkFixture> swept = new ArrayList<>(Math.max(1, fixtures.size()) * threads.length);
+
+		if (fixtures.isEmpty()) {
+
+			for (int count : threads) {
+				swept.add(BenchmarkFixture.threads(count));
+			}
+
+			return swept;
+		}
+
+		for (BenchmarkFixture fixture : fixtures) {
+			for (int count : threads) {
+				swept.add(fixture.withThreads(count));
+			}
+		}
+
+		return swept;
+	}
+
+	/**
+	 * Sample {@link BenchmarkFixture fixtures} from {@code arguments}.
+	 *
+	 * @param arguments the benchmark arguments.
+	 * @return the sampled fixtures. Empty list if there are no arguments.
+	 */
+	List<BenchmarkFixture> sample(List<BenchmarkArgument> arguments) {
+
+		if (arguments.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		List<List<String>> values = new ArrayList<>(arguments.size());
+		int[] dimensions = new int[arguments.size()];
+
+		for (int i = 0; i < arguments.size(); i++) {
+			values.add(new ArrayList<>(arguments.get(i).getParameters()));
+			dimensions[i] = values.get(i).size();
+		}
+
+		List<int[]> rows;
+		switch (strategy) {
+			case PAIRWISE:
+				rows = pairwise(dimensions, new Random(seed));
+				break;
+			case RANDOM:
+				rows = random(dimensions, size, new Random(seed));
+				break;
+			default:
+				rows = product(dimensions);
+		}
+
+		List<BenchmarkFixture> fixtures = new ArrayList<>(rows.size());
+
+		for (int[] row : rows) {
+
+			BenchmarkFixture fixture = BenchmarkFixture.create(arguments.get(0).getName(), values.get(0).get(row[0]));
+			for (int i = 1; i < row.length; i++) {
+				fixture = fixture.enhance(arguments.get(i).getName(), values.get(i).get(row[i]));
+			}
+
+			fixtures.add(fixture);
+		}
+
+		return fixtures;
+	}
+
+	/**
+	 * @return number of combinations in the cartesian product, capped to {@link Long#MAX_VALUE}.
+	 */
+	static long productSize(int[] dimensions) {
+
+		long total = 1;
+		for (int dimension : dimensions) {
+
+			if (dimension == 0) {
+				return 0;
+			}
+
+			if (total > Long.MAX_VALUE / dimension) {
+				return Long.MAX_VALUE;
+			}
+			total *= dimension;
+		}
+		return total;
+	}
+
+	private static List<int[]> product(int[] dimensions) {
+
+		long total = productSize(dimensions);
+		List<int[]> rows = new ArrayList<>();
+
+		for (long index = 0; index < total; index++) {
+			rows.add(decode(index, dimensions));
+		}
+
+		return rows;
+	}
+
+	/**
+	 * Select a seeded random subset of {@code size} distinct combinations. Selected combinations retain the order of the
+	 * cartesian product.
+	 */
+	private static List<int[]> random(int[] dimensions, int size, Random random) {
+
+		long total = productSize(dimensions);
+
+		if (size <= 0 || size >= total) {
+			return product(dimensions);
+		}
+
+		Set<Long> indexes = new TreeSet<>();
+		while (indexes.size() < size) {
+			indexes.add((long) (random.nextDouble() * total));
+		}
+
+		List<int[]> rows = new ArrayList<>(size);
+		for (Long index : indexes) {
+			rows.add(decode(index, dimensions));
+		}
+
+		return rows;
+	}
+
+	/**
+	 * Greedy construction of a pairwise covering array. Each fixture starts from the first uncovered value pair and
+	 * assigns the remaining parameters in random order to the value covering the most uncovered pairs. Out of
+	 * {@link #PAIRWISE_CANDIDATES} candidates, the one covering the most uncovered pairs is selected until all pairs are
+	 * covered.
+	 */
+	private static List<int[]> pairwise(int[] dimensions, Random random) {
+
+		int n = dimensions.length;
+
+		if (n <= 2) {
+			return product(dimensions);
+		}
+
+		int width = 0;
+		for (int dimension : dimensions) {
+			width = Math.max(width, dimension);
+		}
+
+		Set<Long> uncovered = new LinkedHashSet<>();
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				for (int a = 0; a < dimensions[i]; a++) {
+					for (int b = 0; b < dimensions[j]; b++) {
+						uncovered.add(pair(i, a, j, b, n, width));
+					}
+				}
+			}
+		}
+
+		List<int[]> rows = new ArrayList<>();
+		List<Integer> order = new ArrayList<>(n);
+
+		while (!uncovered.isEmpty()) {
+
+			long seedPair = uncovered.iterator().next();
+			int[] best = null;
+			int bestCoverage = -1;
+
+			for (int candidate = 0; candidate < PAIRWISE_CANDIDATES; candidate++) {
+
+				int[] row = new int[n];
+				Arrays.fill(row, -1);
+				assign(seedPair, row, n, width);
+
+				order.clear();
+				for (int k = 0; k < n; k++) {
+					if (row[k] == -1) {
+						order.add(k);
+					}
+				}
+				Collections.shuffle(order, random);
+
+				for (int k : order) {
+
+					int bestValue = 0;
+					int bestGain = -1;
+					int offset = random.nextInt(dimensions[k]);
+
+					for (int step = 0; step < dimensions[k]; step++) {
+
+						int value = (offset + step) % dimensions[k];
+						int gain = 0;
+
+						for (int other = 0; other < n; other++) {
+							if (other != k && row[other] != -1
+									&& uncovered.contains(pair(k, value, other, row[other], n, width))) {
+								gain++;
+							}
+						}
+
+						if (gain > bestGain) {
+							bestGain = gain;
+							bestValue = value;
+						}
+					}
+
+					row[k] = bestValue;
+				}
+
+				int coverage = coverage(row, uncovered, n, width);
+				if (coverage > bestCoverage) {
+					bestCoverage = coverage;
+					best = row;
+				}
+			}
+
+			for (int i = 0; i < n; i++) {
+				for (int j = i + 1; j < n; j++) {
+					uncovered.remove(pair(i, best[i], j, best[j], n, width));
+				}
+			}
+
+			rows.add(best);
+		}
+
+		return rows;
+	}
+
+	private static int coverage(int[] row, Set<Long> uncovered, int n, int width) {
+
+		int coverage = 0;
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				if (uncovered.contains(pair(i, row[i], j, row[j], n, width))) {
+					coverage++;
+				}
+			}
+		}
+		return coverage;
+	}
+
+	/**
+	 * Encode the value pair {@code (i = a, j = b)} independent of parameter order.
+	 */
+	private static long pair(int i, int a, int j, int b, int n, int width) {
+
+		if (i > j) {
+			return pair(j, b, i, a, n, width);
+		}
+
+		long first = (long) i * width + a;
+		long second = (long) j * width + b;
+		return first * n * width + second;
+	}
+
+	private static void assign(long pair, int[] row, int n, int width) {
+
+		long first = pair / ((long) n * width);
+		long second = pair % ((long) n * width);
+
+		row[(int) (first / width)] = (int) (first % width);
+		row[(int) (second / width)] = (int) (second % width);
+	}
+
+	/**
+	 * Decode a cartesian product index using the last parameter as the fastest-changing one.
+	 */
+	private static int[] decode(long index, int[] dimensions) {
+
+		int[] row = new int[dimensions.length];
+		for (int i = dimensions.length - 1; i >= 0; i--) {
+			row[i] = (int) (index % dimensions[i]);
+			index /= dimensions[i];
+		}
+		return row;
+	}
+}
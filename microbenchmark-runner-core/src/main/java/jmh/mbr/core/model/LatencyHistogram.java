@@ -0,0 +1,388 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.util.Statistics;
+
+/**
+ * Mergeable histogram of latencies in nanoseconds. Values are counted in log-linear buckets: values below
+ * {@code 2^PRECISION_BITS} are counted exactly, larger values in buckets of {@code 2^(PRECISION_BITS - 1)} linear
+ * sub-buckets per power of two. Values are thereby retained with a relative error below {@code 1%}. Minimum and maximum
+ * are tracked exactly.
+ * <p>
+ * Unlike percentiles of a {@link Statistics} summary, histograms of forks, shards or runs can be {@link #add(LatencyHistogram)
+ * merged} without losing precision.
+ */
+public class LatencyHistogram {
+
+	/**
+	 * Percentiles to report along with the maximum.
+	 */
+	public static final double[] REPORTED_PERCENTILES = { 50, 90, 99, 99.9, 99.99 };
+
+	static final int PRECISION_BITS = 8;
+
+	private static final int SUB_BUCKETS = 1 << PRECISION_BITS;
+	private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+	private static final int MAX_BUCKETS = SUB_BUCKETS + (63 - PRECISION_BITS) * HALF_SUB_BUCKETS;
+	private static final int FORMAT_VERSION = 1;
+
+	private long[] counts = new long[SUB_BUCKETS];
+	private long totalCount;
+	private long min = Long.MAX_VALUE;
+	private long max;
+	private double sum;
+
+	/**
+	 * Create a histogram from the raw samples of a {@link Mode#SampleTime sample time} benchmark. Samples of all forks
+	 * and measurement iterations are merged.
+	 *
+	 * @param result the benchmark result.
+	 * @return the histogram or {@literal null} if the benchmark was not run in {@link Mode#SampleTime}.
+	 * @see BenchmarkResults.BenchmarkResult#getHistogram()
+	 */
+	public static LatencyHistogram from(RunResult result) {
+
+		BenchmarkParams params = result.getParams();
+
+		if (params == null || params.getMode() != Mode.SampleTime) {
+			return null;
+		}
+
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		for (org.openjdk.jmh.results.BenchmarkResult fork : result.getBenchmarkResults()) {
+			for (IterationResult iteration : fork.getIterationResults()) {
+				histogram.add(iteration.getPrimaryResult().getStatistics(), params.getTimeUnit());
+			}
+		}
+
+		return histogram;
+	}
+
+	/**
+	 * Record a value.
+	 *
+	 * @param nanos the value in nanoseconds, must not be negative.
+	 */
+	public void record(long nanos) {
+		record(nanos, 1);
+	}
+
+	/**
+	 * Record a value {@code count} times.
+	 *
+	 * @param nanos the value in nanoseconds, must not be negative.
+	 * @param count number of occurrences.
+	 */
+	public void record(long nanos, long count) {
+
+		if (nanos < 0) {
+			throw new IllegalArgumentException("Value must not be negative: " + nanos);
+		}
+
+		if (count <= 0) {
+			return;
+		}
+
+		int index = indexOf(nanos);
+		ensureCapacity(index + 1);
+
+		counts[index] += count;
+		totalCount += count;
+		min = Math.min(min, nanos);
+		max = Math.max(max, nanos);
+		sum += (double) nanos * count;
+	}
+
+	/**
+	 * Record the raw data of {@link Statistics} with values in {@code unit}.
+	 *
+	 * @param statistics the statistics, e.g. of a sample time iteration.
+	 * @param unit the unit of the values.
+	 */
+	public void add(Statistics statistics, TimeUnit unit) {
+
+		double nanosPerUnit = unit.toNanos(1);
+
+		for (Iterator<Entry<Double, Long>> it = statistics.getRawData(); it.hasNext(); ) {
+
+			Entry<Double, Long> sample = it.next();
+			record(Math.max(0, Math.round(sample.getKey() * nanosPerUnit)), sample.getValue());
+		}
+	}
+
+	/**
+	 * Merge the counts of {@code other} into this histogram.
+	 *
+	 * @param other the histogram to merge.
+	 */
+	public void add(LatencyHistogram other) {
+
+		if (other.totalCount == 0) {
+			return;
+		}
+
+		ensureCapacity(other.counts.length);
+		for (int i = 0; i < other.counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+
+		totalCount += other.totalCount;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+		sum += other.sum;
+	}
+
+	/**
+	 * @return the number of recorded values.
+	 */
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * @return the smallest recorded value in nanoseconds or {@code 0} if the histogram is empty.
+	 */
+	public long getMin() {
+		return totalCount == 0 ? 0 : min;
+	}
+
+	/**
+	 * @return the largest recorded value in nanoseconds.
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * @return the mean of the recorded values in nanoseconds or {@link Double#NaN} if the histogram is empty.
+	 */
+	public double getMean() {
+		return totalCount == 0 ? Double.NaN : sum / totalCount;
+	}
+
+	/**
+	 * Return the value at {@code percentile}, i.e. the value that {@code percentile} percent of the recorded values are
+	 * less than or equal to within the precision of the histogram.
+	 *
+	 * @param percentile the percentile between {@code 0} and {@code 100}.
+	 * @return the value in nanoseconds or {@code 0} if the histogram is empty.
+	 */
+	public long getValueAtPercentile(double percentile) {
+
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+		}
+
+		if (totalCount == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+		long seen = 0;
+
+		for (int i = 0; i < counts.length; i++) {
+
+			seen += counts[i];
+			if (seen >= rank) {
+				long mid = lowerBound(i) + (upperBound(i) - lowerBound(i)) / 2;
+				return Math.max(getMin(), Math.min(max, mid));
+			}
+		}
+
+		return max;
+	}
+
+	/**
+	 * Write the histogram in a compact binary format: only non-empty buckets are written as variable-length encoded
+	 * index delta and count.
+	 *
+	 * @param out the output to write to.
+	 * @throws IOException if the output fails.
+	 * @see #read(DataInput)
+	 */
+	public void write(DataOutput out) throws IOException {
+
+		out.writeByte(FORMAT_VERSION);
+		out.writeByte(PRECISION_BITS);
+		writeVarLong(out, getMin());
+		writeVarLong(out, max);
+		out.writeDouble(sum);
+
+		int buckets = 0;
+		for (long count : counts) {
+			if (count != 0) {
+				buckets++;
+			}
+		}
+
+		writeVarLong(out, buckets);
+
+		int previous = 0;
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] != 0) {
+				writeVarLong(out, i - previous);
+				writeVarLong(out, counts[i]);
+				previous = i;
+			}
+		}
+	}
+
+	/**
+	 * Read a histogram written by {@link #write(DataOutput)}.
+	 *
+	 * @param in the input to read from.
+	 * @return the histogram.
+	 * @throws IOException if the input fails or does not contain a histogram.
+	 */
+	public static LatencyHistogram read(DataInput in) throws IOException {
+
+		int version = in.readByte();
+		int precision = in.readByte();
+
+		if (version != FORMAT_VERSION || precision != PRECISION_BITS) {
+			throw new IOException(String.format("Unsupported histogram format %d with precision %d", version, precision));
+		}
+
+		LatencyHistogram histogram = new LatencyHistogram();
+		long min = readVarLong(in);
+		long max = readVarLong(in);
+		double sum = in.readDouble();
+		long buckets = readVarLong(in);
+
+		int index = 0;
+		for (long i = 0; i < buckets; i++) {
+
+			index += (int) readVarLong(in);
+			long count = readVarLong(in);
+
+			if (index < 0 || index >= MAX_BUCKETS || count < 0) {
+				throw new IOException("Corrupt histogram bucket " + index);
+			}
+
+			histogram.ensureCapacity(index + 1);
+			histogram.counts[index] += count;
+			histogram.totalCount += count;
+		}
+
+		if (histogram.totalCount != 0) {
+			histogram.min = min;
+			histogram.max = max;
+			histogram.sum = sum;
+		}
+
+		return histogram;
+	}
+
+	/**
+	 * Convert a value of this histogram to {@code unit}.
+	 *
+	 * @param nanos the value in nanoseconds.
+	 * @param unit the target unit.
+	 * @return the value in {@code unit}.
+	 */
+	public static double convert(long nanos, TimeUnit unit) {
+		return (double) nanos / unit.toNanos(1);
+	}
+
+	/**
+	 * @param percentile the percentile.
+	 * @return the label of the percentile, e.g. {@code p99} or {@code p99.9}.
+	 */
+	public static String getLabel(double percentile) {
+		return percentile == Math.rint(percentile) ? "p" + (long) percentile : "p" + percentile;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("LatencyHistogram{count=%d, min=%d, p50=%d, p99=%d, max=%d}", totalCount, getMin(),
+				getValueAtPercentile(50), getValueAtPercentile(99), max);
+	}
+
+	static int indexOf(long value) {
+
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+
+		int shift = 64 - Long.numberOfLeadingZeros(value) - PRECISION_BITS;
+		int subBucket = (int) (value >>> shift);
+
+		return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (subBucket - HALF_SUB_BUCKETS);
+	}
+
+	static long lowerBound(int index) {
+
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+
+		int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+		long subBucket = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+
+		return subBucket << shift;
+	}
+
+	static long upperBound(int index) {
+
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+
+		int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+		return lowerBound(index) + (1L << shift) - 1;
+	}
+
+	private void ensureCapacity(int length) {
+
+		if (counts.length < length) {
+			counts = Arrays.copyOf(counts, Math.min(MAX_BUCKETS, Math.max(length, counts.length * 2)));
+		}
+	}
+
+	private static void writeVarLong(DataOutput out, long value) throws IOException {
+
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+
+		out.writeByte((int) value);
+	}
+
+	private static long readVarLong(DataInput in) throws IOException {
+
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+
+			int b = in.readByte();
+			value |= (long) (b & 0x7F) << shift;
+
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+
+		throw new IOException("Malformed variable-length number");
+	}
+}
@@ -10,15 +10,27 @@
 package jmh.mbr.core.model;
 
 import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Represents a parametrized benchmark method along with the actual {@link BenchmarkFixture fixtures}.
  */
 public class ParametrizedBenchmarkMethod extends HierarchicalBenchmarkDescriptor implements MethodAware {
 
+	private final Map<String, BenchmarkFixture> fixtures = new HashMap<>();
+
 	ParametrizedBenchmarkMethod(BenchmarkMethod descriptor, List<BenchmarkFixture> children) {
+
 		super(descriptor, children);
+
+		for (BenchmarkFixture fixture : children) {
+			fixtures.putIfAbsent(fixture.getDisplayName(), fixture);
+		}
 	}
 
 	@Override
@@ -31,6 +43,46 @@ public class ParametrizedBenchmarkMethod extends HierarchicalBenchmarkDescriptor
 		return (List) super.getChildren();
 	}
 
+	/**
+	 * Look up a fixture by its {@link BenchmarkFixture#getDisplayName() display name}.
+	 *
+	 * @param displayName the display name, e.g. {@code [size=10]}.
+	 * @return the {@link BenchmarkFixture} or {@link Optional#empty()} if there is no such fixture.
+	 */
+	public Optional<BenchmarkFixture> getFixture(String displayName) {
+		return Optional.ofNullable(fixtures.get(displayName));
+	}
+
+	/**
+	 * @return {@literal true} if the fixtures are a sample and not the full cartesian product of their parameter values.
+	 */
+	public boolean isSampled() {
+
+		Map<String, Set<Object>> values = new HashMap<>();
+
+		for (BenchmarkFixture fixture : getChildren()) {
+			fixture.getFixture().forEach((name, value) -> values.computeIfAbsent(name, it -> new HashSet<>()).add(value));
+		}
+
+		long product = 1;
+		for (Set<Object> parameterValues : values.values()) {
+			product *= parameterValues.size();
+			if (product > getChildren().size()) {
+				return true;
+			}
+		}
+
+		return product > getChildren().size();
+	}
+
+	/**
+	 * @return {@literal true} if the fixtures run with different numbers of benchmark threads.
+	 * @see BenchmarkFixture#isThreadSwept()
+	 */
+	public boolean isThreadSwept() {
+		return getChildren().stream().anyMatch(BenchmarkFixture::isThreadSwept);
+	}
+
 	@Override
 	public Method getMethod() {
 		return getDescriptor().getMethod();
@@ -25,6 +25,21 @@ import org.openjdk.jmh.annotations.State;
  */
 class StateClass {
 
+	/**
+	 * {@link Param} fields per class, introspected once.
+	 */
+	private static final ClassValue<List<Field>> PARAMETRIZED_FIELDS = new ClassValue<List<Field>>() {
+
+		@Override
+		protected List<Field> computeValue(Class<?> type) {
+			return Collections.unmodifiableList(
+					Stream.concat(Arrays.stream(type.getFields()), Arrays.stream(type.getDeclaredFields()))
+							.filter(it -> it.isAnnotationPresent(Param.class)) //
+							.distinct() //
+							.collect(Collectors.toList()));
+		}
+	};
+
 	private final Class<?> stateClass;
 
 	public StateClass(Class<?> stateClass) {
@@ -57,8 +72,7 @@ class StateClass {
 			return false;
 		}
 
-		return Stream.concat(Arrays.stream(stateClass.getFields()), Arrays.stream(stateClass.getDeclaredFields()))
-				.anyMatch(it -> it.isAnnotationPresent(Param.class));
+		return !PARAMETRIZED_FIELDS.get(stateClass).isEmpty();
 	}
 
 	/**
@@ -90,10 +104,7 @@ class StateClass {
 	 */
 	public List<Field> getParametrizedFields() {
 
-		return Stream.concat(Arrays.stream(stateClass.getFields()), Arrays.stream(stateClass.getDeclaredFields()))
-				.filter(it -> it.isAnnotationPresent(Param.class)) //
-				.distinct() //
-				.collect(Collectors.toList());
+		return PARAMETRIZED_FIELDS.get(stateClass);
 	}
 
 	@Override
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Fit of a throughput curve over thread counts to the Universal Scalability Law
+ * {@code X(N) = lambda * N / (1 + sigma * (N - 1) + kappa * N * (N - 1))}. {@code lambda} is the throughput of a
+ * single thread, the contention coefficient {@code sigma} models serialization on shared resources and the coherency
+ * coefficient {@code kappa} models the cost of keeping shared data consistent across threads. Throughput peaks at
+ * {@code N* = sqrt((1 - sigma) / kappa)} threads and declines beyond.
+ * <p>
+ * The model is linear in its coefficients after transformation to
+ * {@code N / X(N) = c0 + c1 * (N - 1) + c2 * (N - 1)^2} with {@code c0 = 1 / lambda},
+ * {@code c1 = (sigma + kappa) / lambda} and {@code c2 = kappa / lambda}, so coefficients are obtained through least
+ * squares. Coefficients are constrained to non-negative values. Curves of two thread counts determine contention only.
+ *
+ * @see FixtureSampler#withThreadSweep(int...)
+ */
+public class UniversalScalabilityLaw {
+
+	/**
+	 * Coefficients below this value are rounding errors of the least squares solution.
+	 */
+	private static final double EPSILON = 1e-12;
+
+	private final double lambda;
+	private final double contention;
+	private final double coherency;
+	private final double rSquared;
+	private final SortedCurve curve;
+
+	private UniversalScalabilityLaw(double lambda, double contention, double coherency, SortedCurve curve) {
+
+		this.lambda = lambda;
+		this.contention = contention < EPSILON ? 0 : contention;
+		this.coherency = coherency < EPSILON ? 0 : coherency;
+		this.curve = curve;
+
+		double mean = 0;
+		for (double throughput : curve.throughput) {
+			mean += throughput;
+		}
+		mean /= curve.size();
+
+		double residual = 0;
+		double total = 0;
+		for (int i = 0; i < curve.size(); i++) {
+			residual += Math.pow(curve.throughput[i] - getThroughput(curve.threads[i]), 2);
+			total += Math.pow(curve.throughput[i] - mean, 2);
+		}
+
+		this.rSquared = total == 0 ? 1 : 1 - residual / total;
+	}
+
+	/**
+	 * Fit throughput measurements to the Universal Scalability Law.
+	 *
+	 * @param threads thread counts.
+	 * @param throughput total throughput for each thread count.
+	 * @return the fit or {@literal null} if the measurements cover less than two distinct thread counts.
+	 */
+	public static UniversalScalabilityLaw fit(int[] threads, double[] throughput) {
+
+		if (threads.length != throughput.length) {
+			throw new IllegalArgumentException("Thread counts and throughput must have the same length");
+		}
+
+		SortedCurve curve = new SortedCurve(threads, throughput);
+		long distinct = curve.distinctThreads();
+
+		if (distinct < 2) {
+			return null;
+		}
+
+		double[] x = new double[curve.size()];
+		double[] y = new double[curve.size()];
+		for (int i = 0; i < curve.size(); i++) {
+			x[i] = curve.threads[i] - 1;
+			y[i] = curve.threads[i] / curve.throughput[i];
+		}
+
+		if (distinct > 2) {
+
+			double[] c = leastSquares(x, y, it -> 1, it -> it, it -> it * it);
+			if (c != null && c[0] > 0 && c[2] >= 0 && c[1] >= c[2]) {
+				return new UniversalScalabilityLaw(1 / c[0], (c[1] - c[2]) / c[0], c[2] / c[0], curve);
+			}
+
+			// sigma = 0: N / X = c0 + c2 * N * (N - 1)
+			double[] coherent = leastSquares(x, y, it -> 1, it -> it * it + it);
+			if (coherent != null && coherent[0] > 0 && coherent[1] > 0) {
+
+				UniversalScalabilityLaw candidate = new UniversalScalabilityLaw(1 / coherent[0], 0,
+						coherent[1] / coherent[0], curve);
+				UniversalScalabilityLaw contended = fitContention(x, y, curve);
+
+				return contended == null || candidate.rSquared > contended.rSquared ? candidate : contended;
+			}
+		}
+
+		UniversalScalabilityLaw contended = fitContention(x, y, curve);
+		return contended != null ? contended : fitLinear(curve);
+	}
+
+	/**
+	 * kappa = 0: N / X = c0 + c1 * (N - 1).
+	 */
+	private static UniversalScalabilityLaw fitContention(double[] x, double[] y, SortedCurve curve) {
+
+		double[] c = leastSquares(x, y, it -> 1, it -> it);
+		if (c != null && c[0] > 0 && c[1] >= 0) {
+			return new UniversalScalabilityLaw(1 / c[0], c[1] / c[0], 0, curve);
+		}
+
+		return null;
+	}
+
+	/**
+	 * sigma = kappa = 0: throughput scales linearly with the thread count.
+	 */
+	private static UniversalScalabilityLaw fitLinear(SortedCurve curve) {
+
+		double threads = 0;
+		double throughput = 0;
+		for (int i = 0; i < curve.size(); i++) {
+			threads += curve.threads[i];
+			throughput += curve.throughput[i];
+		}
+
+		return new UniversalScalabilityLaw(throughput / threads, 0, 0, curve);
+	}
+
+	/**
+	 * Fit the thread sweeps contained in {@code results}. Results are grouped into curves by benchmark, mode and
+	 * parameters. Curves covering at least two distinct thread counts are fitted.
+	 *
+	 * @param results the results, may contain results that are not part of a thread sweep.
+	 * @return the fit of the curve each result is part of, keyed by result identity. Results of curves that cannot be
+	 *         fitted are not contained.
+	 */
+	public static Map<RunResult, UniversalScalabilityLaw> fit(Collection<RunResult> results) {
+
+		Map<String, List<RunResult>> curves = new LinkedHashMap<>();
+		for (RunResult result : results) {
+			if (result.getParams() != null && getThroughput(result) > 0) {
+				curves.computeIfAbsent(getCurveKey(result.getParams()), it -> new ArrayList<>()).add(result);
+			}
+		}
+
+		Map<RunResult, UniversalScalabilityLaw> fits = new IdentityHashMap<>();
+		for (List<RunResult> curve : curves.values()) {
+
+			UniversalScalabilityLaw fit = fitCurve(curve);
+			if (fit != null) {
+				curve.forEach(it -> fits.put(it, fit));
+			}
+		}
+
+		return fits;
+	}
+
+	/**
+	 * Fit the results of a single curve.
+	 *
+	 * @param curve results of the same benchmark, mode and parameters.
+	 * @return the fit or {@literal null} if the results cover less than two distinct thread counts.
+	 * @see #getCurveKey(BenchmarkParams)
+	 */
+	public static UniversalScalabilityLaw fitCurve(Collection<RunResult> curve) {
+
+		int[] threads = new int[curve.size()];
+		double[] throughput = new double[curve.size()];
+		int i = 0;
+
+		for (RunResult result : curve) {
+			threads[i] = result.getParams().getThreads();
+			throughput[i++] = getThroughput(result);
+		}
+
+		return fit(threads, throughput);
+	}
+
+	/**
+	 * Return the key of the curve a result with {@link BenchmarkParams} is part of. Results of the same benchmark,
+	 * mode and parameters that were run with different thread counts share the key.
+	 *
+	 * @param params the benchmark parameters.
+	 * @return the curve key.
+	 */
+	public static String getCurveKey(BenchmarkParams params) {
+
+		Map<String, String> fixture = new TreeMap<>();
+		for (String key : params.getParamsKeys()) {
+			fixture.put(key, params.getParam(key));
+		}
+
+		return params.getBenchmark() + " " + params.getMode().shortLabel() + " " + fixture;
+	}
+
+	/**
+	 * Return the total throughput of a result across all threads. Throughput results are used as they are, results of
+	 * time-based modes are converted from time per operation and thread.
+	 *
+	 * @param result the result.
+	 * @return the throughput in operations per time unit of the score, {@code 0} if the result has no score.
+	 */
+	public static double getThroughput(RunResult result) {
+
+		if (result.getPrimaryResult() == null) {
+			return 0;
+		}
+
+		double score = result.getPrimaryResult().getScore();
+
+		if (result.getParams().getMode() == Mode.Throughput) {
+			return score;
+		}
+
+		return score > 0 ? result.getParams().getThreads() / score : 0;
+	}
+
+	/**
+	 * @return throughput of a single thread.
+	 */
+	public double getLambda() {
+		return lambda;
+	}
+
+	/**
+	 * @return contention coefficient {@code sigma}.
+	 */
+	public double getContention() {
+		return contention;
+	}
+
+	/**
+	 * @return coherency coefficient {@code kappa}.
+	 */
+	public double getCoherency() {
+		return coherency;
+	}
+
+	/**
+	 * @return coefficient of determination of the modelled throughput.
+	 */
+	public double getRSquared() {
+		return rSquared;
+	}
+
+	/**
+	 * @return thread count at which the modelled throughput peaks, {@link Double#POSITIVE_INFINITY} if throughput does
+	 *         not decline with increasing thread counts.
+	 */
+	public double getPeakThreads() {
+		return coherency > 0 ? Math.sqrt(Math.max(0, 1 - contention) / coherency) : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * @param threads the thread count.
+	 * @return the modelled throughput with {@code threads} threads.
+	 */
+	public double getThroughput(double threads) {
+		return lambda * threads / (1 + contention * (threads - 1) + coherency * threads * (threads - 1));
+	}
+
+	/**
+	 * @return the fitted thread counts in ascending order.
+	 */
+	public int[] getThreads() {
+		return curve.threads.clone();
+	}
+
+	/**
+	 * @return the measured throughput for each of the {@link #getThreads() thread counts}.
+	 */
+	public double[] getMeasuredThroughput() {
+		return curve.throughput.clone();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("USL[lambda=%s, sigma=%s, kappa=%s, rSquared=%s]", lambda, contention, coherency, rSquared);
+	}
+
+	/**
+	 * Solve the least squares problem {@code y = sum(c[j] * basis[j](x))} through its normal equations.
+	 *
+	 * @return the coefficients or {@literal null} if the problem is singular.
+	 */
+	private static double[] leastSquares(double[] x, double[] y, Basis... basis) {
+
+		int n = basis.length;
+		double[][] a = new double[n][n + 1];
+
+		for (int i = 0; i < x.length; i++) {
+			for (int j = 0; j < n; j++) {
+
+				double bj = basis[j].apply(x[i]);
+				for (int k = 0; k < n; k++) {
+					a[j][k] += bj * basis[k].apply(x[i]);
+				}
+				a[j][n] += bj * y[i];
+			}
+		}
+
+		for (int column = 0; column < n; column++) {
+
+			int pivot = column;
+			for (int row = column + 1; row < n; row++) {
+				if (Math.abs(a[row][column]) > Math.abs(a[pivot][column])) {
+					pivot = row;
+				}
+			}
+
+			if (Math.abs(a[pivot][column]) < 1e-12 * Math.max(1, Math.abs(a[column][column]))) {
+				return null;
+			}
+
+			double[] swap = a[column];
+			a[column] = a[pivot];
+			a[pivot] = swap;
+
+			for (int row = 0; row < n; row++) {
+
+				if (row == column) {
+					continue;
+				}
+
+				double factor = a[row][column] / a[column][column];
+				for (int k = column; k <= n; k++) {
+					a[row][k] -= factor * a[column][k];
+				}
+			}
+		}
+
+		double[] coefficients = new double[n];
+		for (int i = 0; i < n; i++) {
+			coefficients[i] = a[i][n] / a[i][i];
+		}
+
+		return coefficients;
+	}
+
+	private interface Basis {
+		double apply(double x);
+	}
+
+	/**
+	 * Measurements ordered by thread count.
+	 */
+	private static class SortedCurve {
+
+		final int[] threads;
+		final double[] throughput;
+
+		SortedCurve(int[] threads, double[] throughput) {
+
+			List<Integer> order = new ArrayList<>(threads.length);
+			for (int i = 0; i < threads.length; i++) {
+				if (threads[i] > 0 && throughput[i] > 0) {
+					order.add(i);
+				}
+			}
+			Collections.sort(order, (left, right) -> Integer.compare(threads[left], threads[right]));
+
+			this.threads = new int[order.size()];
+			this.throughput = new double[order.size()];
+			for (int i = 0; i < order.size(); i++) {
+				this.threads[i] = threads[order.get(i)];
+				this.throughput[i] = throughput[order.get(i)];
+			}
+		}
+
+		int size() {
+			return threads.length;
+		}
+
+		long distinctThreads() {
+			return Arrays.stream(threads).distinct().count();
+		}
+	}
+}
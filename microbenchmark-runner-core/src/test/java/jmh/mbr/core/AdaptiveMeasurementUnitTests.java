@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static jmh.mbr.core.RunResultGenerator.*;
+import static org.assertj.core.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+
+import jmh.mbr.core.model.BenchmarkFixture;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+
+/**
+ * Unit tests for {@link AdaptiveMeasurement}.
+ */
+class AdaptiveMeasurementUnitTests {
+
+	@Test
+	void shouldConvergeForStableScores() {
+
+		AdaptiveMeasurement measurement = new AdaptiveMeasurement(0.01, 100);
+		BenchmarkParams params = params("com.example.Foo.stable");
+
+		record(measurement, params, MEASUREMENT, 100, 100.1, 99.9, 100, 100.05);
+
+		assertThat(measurement.isComplete(params)).isTrue();
+		assertThat(measurement.getRelativeError(params)).isLessThan(0.01);
+	}
+
+	@Test
+	void shouldNotConvergeForNoisyScores() {
+
+		AdaptiveMeasurement measurement = new AdaptiveMeasurement(0.01, 100);
+		BenchmarkParams params = params("com.example.Foo.noisy");
+
+		record(measurement, params, MEASUREMENT, 10, 100, 50, 200, 5);
+
+		assertThat(measurement.isComplete(params)).isFalse();
+		assertThat(measurement.getIncomplete()).containsOnlyKeys("com.example.Foo.noisy");
+	}
+
+	@Test
+	void shouldCompleteWhenReachingIterationCap() {
+
+		AdaptiveMeasurement measurement = new AdaptiveMeasurement(0.01, 3);
+		BenchmarkParams params = params("com.example.Foo.noisy");
+
+		record(measurement, params, MEASUREMENT, 10, 100, 50);
+
+		assertThat(measurement.isComplete(params)).isTrue();
+	}
+
+	@Test
+	void shouldCompleteUndefinedErrorWhenReachingIterationCap() {
+
+		AdaptiveMeasurement measurement = new AdaptiveMeasurement(0.01, 3);
+		BenchmarkParams params = params("com.example.Foo.zero");
+
+		record(measurement, params, MEASUREMENT, 0, 0);
+
+		assertThat(measurement.getRelativeError(params)).isNaN();
+		assertThat(measurement.isComplete(params)).isFalse();
+
+		record(measurement, params, MEASUREMENT, 0);
+
+		assertThat(measurement.isComplete(params)).isTrue();
+	}
+
+	@Test
+	void shouldFallBackToDefaultIterationCap() {
+
+		BenchmarkConfiguration configuration = (BenchmarkConfiguration) Proxy.newProxyInstance(
+				getClass().getClassLoader(), new Class<?>[] { BenchmarkConfiguration.class },
+				(proxy, method, args) -> method.getName().equals("getMeasurementTargetError") ? 0.01
+						: method.getName().equals("getMeasurementMaxIterations") ? -1
+								: method.invoke(BenchmarkConfiguration.defaultOptions(), args));
+
+		AdaptiveMeasurement measurement = AdaptiveMeasurement.from(configuration);
+		BenchmarkParams params = params("com.example.Foo.noisy");
+
+		for (int i = 1; i < BenchmarkConfigProperties.MEASUREMENT_MAX_ITERATIONS.defaultValue(); i++) {
+			record(measurement, params, MEASUREMENT, i % 2 == 0 ? 1 : 1000);
+		}
+
+		assertThat(measurement.isComplete(params)).isFalse();
+
+		record(measurement, params, MEASUREMENT, 1);
+
+		assertThat(measurement.isComplete(params)).isTrue();
+	}
+
+	@Test
+	void shouldIgnoreWarmupIterations() {
+
+		AdaptiveMeasurement measurement = new AdaptiveMeasurement(0.01, 100);
+		BenchmarkParams params = params("com.example.Foo.stable");
+
+		record(measurement, params, WARMUP, 100, 100, 100, 100);
+
+		assertThat(measurement.isComplete(params)).isFalse();
+		assertThat(measurement.getIncomplete()).isEmpty();
+	}
+
+	@Test
+	void shouldOnlyScheduleIncompleteFixtures() {
+
+		AdaptiveMeasurement measurement = new AdaptiveMeasurement(0.01, 100);
+
+		record(measurement, params("com.example.Foo.stable"), MEASUREMENT, 100, 100, 100, 100);
+		record(measurement, params("com.example.Foo.noisy", Mode.AverageTime, "size", "1"), MEASUREMENT, 100, 100, 100, 100);
+		record(measurement, params("com.example.Foo.noisy", Mode.AverageTime, "size", "2"), MEASUREMENT, 10, 100, 50, 200);
+
+		Map<String, List<BenchmarkFixture>> incomplete = measurement.getIncomplete();
+
+		assertThat(incomplete).containsOnlyKeys("com.example.Foo.noisy");
+		assertThat(incomplete.get("com.example.Foo.noisy")).containsExactly(BenchmarkFixture.create("size", "2"));
+	}
+
+	private static void record(AdaptiveMeasurement measurement, BenchmarkParams params, IterationParams iteration,
+			double... scores) {
+
+		for (double score : scores) {
+			measurement.record(params, iteration, iteration(params, score));
+		}
+	}
+}
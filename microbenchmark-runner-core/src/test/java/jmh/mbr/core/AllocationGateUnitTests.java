@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * Unit tests for {@link AllocationGate}.
+ */
+class AllocationGateUnitTests {
+
+
+	@Test
+	void shouldNotCreateGateWithoutLimits() throws Exception {
+		assertThat(AllocationGate.from(Collections.singletonList(Unlimited.class.getMethod("benchmark")))).isNull();
+	}
+
+	@Test
+	void shouldPassAllocationWithinLimit() throws Exception {
+
+		AllocationGate gate = AllocationGate.from(methods());
+
+		assertThat(gate.verify(result("allocationFree", 0.0001))).isNull();
+		assertThat(gate.verify(result("allocationFree", 0.4))).isNull();
+		assertThat(gate.verify(result("classLimit", 64))).isNull();
+	}
+
+	@Test
+	void shouldRejectAllocationExceedingLimit() throws Exception {
+
+		AllocationGate gate = AllocationGate.from(methods());
+
+		AllocationGate.Violation violation = gate.verify(result("allocationFree", 24));
+
+		assertThat(violation).isNotNull();
+		assertThat(violation.toString()).contains("allocationFree allocated 24.0 B/op exceeding @MaxAllocation(0)");
+		assertThat(violation.toError()).isInstanceOf(AssertionError.class);
+		assertThat(gate.verify(result("classLimit", 65))).isNotNull();
+	}
+
+	@Test
+	void shouldRejectMissingAllocationMetric() throws Exception {
+
+		AllocationGate gate = AllocationGate.from(methods());
+
+		assertThat(gate.verify(result("allocationFree", null)).toString()).contains("reported no gc.alloc.rate.norm");
+	}
+
+	@Test
+	void shouldIgnoreBenchmarksWithoutLimit() throws Exception {
+
+		AllocationGate gate = AllocationGate.from(methods());
+
+		assertThat(gate.verify(result("unknown", 1024))).isNull();
+	}
+
+	private static List<Method> methods() throws NoSuchMethodException {
+		return Arrays.asList(Limited.class.getMethod("allocationFree"), Limited.class.getMethod("classLimit"));
+	}
+
+	private static BenchmarkResult result(String method, Double bytesPerOp) {
+
+		String benchmark = Limited.class.getName().replace('$', '.') + "." + method;
+		BenchmarkParams params = RunResultGenerator.params(benchmark);
+
+		IterationResult iteration = RunResultGenerator.iteration(params, 1);
+		if (bytesPerOp != null) {
+			iteration.addResult(
+					new ScalarResult(AllocationGate.ALLOC_RATE_NORM, bytesPerOp, "B/op", AggregationPolicy.AVG));
+		}
+
+		return new BenchmarkResult(params, Collections.singletonList(iteration));
+	}
+
+	private static BenchmarkResult result(String method, double bytesPerOp) {
+		return result(method, Double.valueOf(bytesPerOp));
+	}
+
+	@MaxAllocation(64)
+	static class Limited {
+
+		@MaxAllocation(0)
+		public void allocationFree() {}
+
+		public void classLimit() {}
+	}
+
+	static class Unlimited {
+
+		public void benchmark() {}
+	}
+}
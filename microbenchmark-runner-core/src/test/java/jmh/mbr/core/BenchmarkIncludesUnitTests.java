@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Unit tests for {@link BenchmarkIncludes}.
+ */
+class BenchmarkIncludesUnitTests {
+
+	@Test
+	void shouldUseJmhNameOfNestedClasses() throws Exception {
+
+		assertThat(BenchmarkIncludes.getBenchmarkName(Nested.class.getMethod("run")))
+				.isEqualTo("jmh.mbr.core.BenchmarkIncludesUnitTests.Nested.run");
+		assertThat(matches(BenchmarkIncludes.getIncludePattern(Nested.class.getMethod("run")),
+				"jmh.mbr.core.BenchmarkIncludesUnitTests.Nested.run")).isTrue();
+	}
+
+	@Test
+	void shouldMatchExactNamesOnly() {
+
+		String pattern = BenchmarkIncludes.getIncludePattern("a.b.Foo.run");
+
+		assertThat(matches(pattern, "a.b.Foo.run")).isTrue();
+		assertThat(matches(pattern, "x.a.b.Foo.run")).isFalse();
+		assertThat(matches(pattern, "a.b.Foo.runAll")).isFalse();
+		assertThat(matches(pattern, "a.bXFoo.run")).isFalse();
+	}
+
+	@Test
+	void shouldCombineExactPatterns() {
+
+		List<String> names = Arrays.asList("a.b.Foo.run", "a.b.Foo.walk", "a.b.Bar.run", "a.c.Baz.run", "a.b.Foo.run.x");
+		List<String> patterns = BenchmarkIncludes.compile(
+				names.stream().map(BenchmarkIncludes::getIncludePattern).collect(Collectors.toList()));
+
+		assertThat(patterns).hasSize(1);
+
+		String pattern = patterns.get(0);
+		names.forEach(it -> assertThat(matches(pattern, it)).as(it).isTrue());
+
+		assertThat(matches(pattern, "a.b.Foo")).isFalse();
+		assertThat(matches(pattern, "a.b.Foo.runner")).isFalse();
+		assertThat(matches(pattern, "a.b.Bar.walk")).isFalse();
+		assertThat(matches(pattern, "x.a.b.Foo.run")).isFalse();
+		assertThat(matches(pattern, "a.b.Foo.run.y")).isFalse();
+	}
+
+	@Test
+	void shouldRetainOtherPatterns() {
+
+		List<String> patterns = BenchmarkIncludes
+				.compile(Arrays.asList(".*Foo.*", BenchmarkIncludes.getIncludePattern("a.Foo.run")));
+
+		assertThat(patterns).containsExactly(BenchmarkIncludes.getIncludePattern("a.Foo.run"), ".*Foo.*");
+	}
+
+	@Test
+	void shouldAddIncludesToOptions() {
+
+		assertThat(BenchmarkIncludes.include(new OptionsBuilder(), Collections.emptyList()).build().getIncludes())
+				.isEmpty();
+		assertThat(BenchmarkIncludes
+				.include(new OptionsBuilder(), Arrays.asList(BenchmarkIncludes.getIncludePattern("a.Foo.run"),
+						BenchmarkIncludes.getIncludePattern("a.Foo.walk")))
+				.build().getIncludes()).hasSize(1);
+	}
+
+	private static boolean matches(String pattern, String name) {
+		return Pattern.compile(pattern).matcher(name).find();
+	}
+
+	static class Nested {
+
+		public void run() {
+		}
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jmh.mbr.core.BenchmarkOverrides.Options;
+import jmh.mbr.core.model.BenchmarkFixture;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Unit tests for {@link BenchmarkOverrides}.
+ */
+class BenchmarkOverridesUnitTests {
+
+	static final String PREFIX = BenchmarkOverrides.PREFIX;
+
+	@Test
+	void shouldResolveDefaultsWithoutOverrides() throws Exception {
+
+		BenchmarkOverrides overrides = new BenchmarkOverrides(new HashMap<>());
+
+		Options options = overrides.forMethod(Plain.class.getDeclaredMethod("plain"));
+
+		assertThat(options.isEmpty()).isTrue();
+		assertThat(options).hasToString("defaults");
+	}
+
+	@Test
+	void shouldApplyLongerPatternOverShorterPattern() throws Exception {
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put(PREFIX + "Plain.forks", "2");
+		properties.put(PREFIX + "Plain.plain.forks", "3");
+		properties.put(PREFIX + "Plain.warmupIterations", "4");
+
+		BenchmarkOverrides overrides = new BenchmarkOverrides(properties);
+
+		assertThat(overrides.forMethod(Plain.class.getDeclaredMethod("plain"))).isEqualTo(
+				new Options(3, 4, null, -1, null, null, null));
+		assertThat(overrides.forMethod(Plain.class.getDeclaredMethod("other"))).isEqualTo(
+				new Options(2, 4, null, -1, null, null, null));
+	}
+
+	@Test
+	void shouldPreferAnnotationsOverPatterns() throws Exception {
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put(PREFIX + "Annotated.forks", "5");
+		properties.put(PREFIX + "Annotated.timeout", "30s");
+
+		BenchmarkOverrides overrides = new BenchmarkOverrides(properties);
+
+		Options classLevel = overrides.forMethod(Annotated.class.getDeclaredMethod("classLevel"));
+		Options methodLevel = overrides.forMethod(Annotated.class.getDeclaredMethod("methodLevel"));
+
+		assertThat(classLevel).isEqualTo(new Options(1, -1, null, -1, null, Duration.ofSeconds(30), Mode.SingleShotTime));
+		assertThat(methodLevel).isEqualTo(
+				new Options(1, -1, null, 7, Duration.ofMillis(200), Duration.ofSeconds(30), Mode.AverageTime));
+	}
+
+	@Test
+	void shouldMatchFixturePatterns() throws Exception {
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put(PREFIX + "\\{size=large\\}.measurementIterations", "20");
+
+		BenchmarkOverrides overrides = new BenchmarkOverrides(properties);
+		Method method = Plain.class.getDeclaredMethod("plain");
+
+		assertThat(overrides.forMethod(method).isEmpty()).isTrue();
+		assertThat(overrides.forFixture(method, BenchmarkFixture.create("size", "small")).isEmpty()).isTrue();
+		assertThat(overrides.forFixture(method, BenchmarkFixture.create("size", "large"))).isEqualTo(
+				new Options(-1, -1, null, 20, null, null, null));
+	}
+
+	@Test
+	void shouldRejectUnknownOption() {
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put(PREFIX + "Plain.threads", "2");
+
+		assertThatIllegalArgumentException().isThrownBy(() -> new BenchmarkOverrides(properties))
+				.withMessageContaining("threads");
+	}
+
+	@Test
+	void shouldIgnoreUnrelatedProperties() throws Exception {
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put(BenchmarkConfigProperties.PREFIX + "forks", "2");
+		properties.put("override.Plain.forks", "2");
+
+		BenchmarkOverrides overrides = new BenchmarkOverrides(properties);
+
+		assertThat(overrides.forMethod(Plain.class.getDeclaredMethod("plain")).isEmpty()).isTrue();
+	}
+
+	@Test
+	void shouldDetectConfiguredOverrides() throws Exception {
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put(BenchmarkOverrides.PREFIX + "size=1000.forks", "2");
+
+		List<Method> plain = Collections.singletonList(Plain.class.getDeclaredMethod("plain"));
+
+		assertThat(new BenchmarkOverrides(new HashMap<>()).isConfigured(plain)).isFalse();
+		assertThat(new BenchmarkOverrides(properties).isConfigured(plain)).isTrue();
+		assertThat(new BenchmarkOverrides(new HashMap<>())
+				.isConfigured(Collections.singletonList(Annotated.class.getDeclaredMethod("classLevel")))).isTrue();
+	}
+
+	@Test
+	void shouldApplyOptionsToBuilder() {
+
+		Options options = new Options(2, 3, Duration.ofMillis(500), 4, Duration.ofSeconds(2), Duration.ofMinutes(1),
+				Mode.Throughput);
+
+		org.openjdk.jmh.runner.options.Options jmhOptions = options.apply(new OptionsBuilder()).build();
+
+		assertThat(jmhOptions.getForkCount().get()).isEqualTo(2);
+		assertThat(jmhOptions.getWarmupIterations().get()).isEqualTo(3);
+		assertThat(jmhOptions.getWarmupTime().get()).isEqualTo(TimeValue.milliseconds(500));
+		assertThat(jmhOptions.getMeasurementIterations().get()).isEqualTo(4);
+		assertThat(jmhOptions.getMeasurementTime().get()).isEqualTo(TimeValue.seconds(2));
+		assertThat(jmhOptions.getTimeout().get()).isEqualTo(TimeValue.seconds(60));
+		assertThat(jmhOptions.getBenchModes()).containsOnly(Mode.Throughput);
+	}
+
+	@Test
+	void shouldNotApplyUnsetOptions() {
+
+		org.openjdk.jmh.runner.options.Options jmhOptions = Options.NONE.apply(new OptionsBuilder()).build();
+
+		assertThat(jmhOptions.getForkCount().hasValue()).isFalse();
+		assertThat(jmhOptions.getMeasurementTime().hasValue()).isFalse();
+		assertThat(jmhOptions.getBenchModes()).isEmpty();
+	}
+
+	@Test
+	void shouldCombineOptions() {
+
+		Options base = new Options(1, 2, null, -1, null, null, Mode.Throughput);
+		Options other = new Options(-1, 5, Duration.ofSeconds(1), -1, null, null, null);
+
+		assertThat(base.with(other)).isEqualTo(new Options(1, 5, Duration.ofSeconds(1), -1, null, null, Mode.Throughput));
+		assertThat(base.with(other)).hasToString("forks=1, warmupIterations=5, warmupTime=PT1S, mode=Throughput");
+	}
+
+	static class Plain {
+
+		void plain() {}
+
+		void other() {}
+	}
+
+	@BenchmarkOptions(forks = 1, mode = "SingleShotTime")
+	static class Annotated {
+
+		void classLevel() {}
+
+		@BenchmarkOptions(measurementIterations = 7, measurementTime = "200ms", mode = "AverageTime")
+		void methodLevel() {}
+	}
+}
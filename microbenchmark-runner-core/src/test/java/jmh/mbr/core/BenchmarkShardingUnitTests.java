@@ -0,0 +1,258 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Function;
+
+import jmh.mbr.core.model.BenchmarkFixture;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+/**
+ * Unit tests for {@link BenchmarkSharding}.
+ */
+class BenchmarkShardingUnitTests {
+
+	static final List<String> UNITS = Arrays.asList("a", "b", "c", "d", "e", "f", "g");
+
+	@Test
+	void shouldPartitionUnitsDisjointAndComplete() {
+
+		List<String> all = new ArrayList<>();
+
+		for (int index = 0; index < 3; index++) {
+			all.addAll(new BenchmarkSharding(index, 3, null, Collections.emptyMap()).select(UNITS, Function.identity()));
+		}
+
+		assertThat(all).hasSize(UNITS.size()).containsOnlyElementsOf(UNITS).doesNotHaveDuplicates();
+	}
+
+	@Test
+	void shouldSelectDeterministicallyRegardlessOfOrder() {
+
+		List<String> reversed = new ArrayList<>(UNITS);
+		Collections.reverse(reversed);
+
+		BenchmarkSharding sharding = new BenchmarkSharding(1, 3, null, Collections.emptyMap());
+
+		assertThat(sharding.select(reversed, Function.identity())).containsExactlyInAnyOrderElementsOf(
+				sharding.select(UNITS, Function.identity()));
+	}
+
+	@Test
+	void shouldBalanceByHistoricalDuration() {
+
+		Map<String, Long> durations = new HashMap<>();
+		durations.put("a", 100L);
+		durations.put("b", 40L);
+		durations.put("c", 30L);
+		durations.put("d", 30L);
+
+		List<String> units = Arrays.asList("a", "b", "c", "d");
+
+		assertThat(new BenchmarkSharding(0, 2, null, durations).select(units, Function.identity())).containsExactly("a");
+		assertThat(new BenchmarkSharding(1, 2, null, durations).select(units, Function.identity()))
+				.containsExactly("b", "c", "d");
+	}
+
+	@Test
+	void shouldSpreadSingleUnitScopesAcrossShards() {
+
+		int[] selected = new int[4];
+
+		for (int index = 0; index < selected.length; index++) {
+
+			BenchmarkSharding sharding = new BenchmarkSharding(index, selected.length, null, Collections.emptyMap());
+
+			for (int i = 0; i < 8; i++) {
+
+				String scope = "com.example.Benchmark" + i;
+				selected[index] += sharding.select(scope, Collections.singletonList(scope + ".run"), Function.identity())
+						.size();
+			}
+		}
+
+		assertThat(selected).containsExactly(2, 2, 2, 2);
+	}
+
+	@Test
+	void shouldPartitionScopeDisjointAndComplete() {
+
+		List<String> all = new ArrayList<>();
+
+		for (int index = 0; index < 3; index++) {
+			all.addAll(new BenchmarkSharding(index, 3, null, Collections.emptyMap()).select("com.example.Benchmark", UNITS,
+					Function.identity()));
+		}
+
+		assertThat(all).hasSize(UNITS.size()).containsOnlyElementsOf(UNITS).doesNotHaveDuplicates();
+	}
+
+	@Test
+	void shouldWriteDurationsToShardFile(@TempDir Path directory) throws IOException {
+
+		File durationsFile = directory.resolve("durations.properties").toFile();
+		Files.write(durationsFile.toPath(), "a=100\n".getBytes(StandardCharsets.ISO_8859_1));
+
+		BenchmarkSharding sharding = BenchmarkSharding.from(shardConfiguration(1, 2, durationsFile));
+		measure(sharding, "b");
+		sharding.saveDurations();
+
+		assertThat(sharding.getShardDurationsFile()).hasName("durations_shard-1-of-2.properties").exists();
+		assertThat(durationsFile).hasContent("a=100");
+		assertThat(BenchmarkSharding.findShardDurationsFiles(durationsFile))
+				.containsExactly(sharding.getShardDurationsFile());
+	}
+
+	@Test
+	void shouldMergeShardDurations(@TempDir Path directory) throws IOException {
+
+		File durationsFile = directory.resolve("durations.properties").toFile();
+		Files.write(durationsFile.toPath(), "a=100\nb=200\n".getBytes(StandardCharsets.ISO_8859_1));
+		File shard0 = BenchmarkSharding.getShardFile(durationsFile, 0, 2);
+		Files.write(shard0.toPath(), "b=50\n".getBytes(StandardCharsets.ISO_8859_1));
+		File shard1 = BenchmarkSharding.getShardFile(durationsFile, 1, 2);
+		Files.write(shard1.toPath(), "c=10\n".getBytes(StandardCharsets.ISO_8859_1));
+
+		BenchmarkSharding.mergeDurations(durationsFile, BenchmarkSharding.findShardDurationsFiles(durationsFile));
+
+		Properties merged = new Properties();
+		try (InputStream in = Files.newInputStream(durationsFile.toPath())) {
+			merged.load(in);
+		}
+
+		assertThat(merged).containsEntry("a", "100").containsEntry("b", "50").containsEntry("c", "10");
+	}
+
+	@Test
+	void shouldKeySweptDurationsLikeSweptFixtures(@TempDir Path directory) throws IOException {
+
+		File durationsFile = directory.resolve("durations.properties").toFile();
+		BenchmarkSharding sharding = new BenchmarkSharding(0, 2, durationsFile, Collections.emptyMap(), true);
+		measure(sharding, RunResultGenerator.params("b", Mode.Throughput, 1));
+		measure(sharding, RunResultGenerator.params("b", Mode.Throughput, 4));
+		sharding.saveDurations();
+
+		Properties durations = new Properties();
+		try (InputStream in = Files.newInputStream(sharding.getShardDurationsFile().toPath())) {
+			durations.load(in);
+		}
+
+		assertThat(durations.stringPropertyNames()).containsOnly(
+				BenchmarkSharding.getKey("b", BenchmarkFixture.threads(1)),
+				BenchmarkSharding.getKey("b", BenchmarkFixture.threads(4)));
+	}
+
+	@Test
+	void shouldPartitionBenchmarksByDurationOfTheirFixtures(@TempDir Path directory) throws IOException {
+
+		Properties durations = new Properties();
+		durations.setProperty("a", "100");
+		durations.setProperty(BenchmarkSharding.getKey("b", BenchmarkFixture.threads(1)), "40");
+		durations.setProperty(BenchmarkSharding.getKey("b", BenchmarkFixture.threads(2)), "40");
+		durations.setProperty("c", "30");
+
+		File durationsFile = directory.resolve("durations.properties").toFile();
+		try (OutputStream out = Files.newOutputStream(durationsFile.toPath())) {
+			durations.store(out, null);
+		}
+
+		// d has no duration and takes the median of 40
+		List<List<String>> partitions = BenchmarkSharding.partition(shardConfiguration(0, 1, durationsFile),
+				Arrays.asList("a", "b", "c", "d"), Function.identity(), 2);
+
+		assertThat(partitions).containsExactly(Arrays.asList("a", "c"), Arrays.asList("b", "d"));
+	}
+
+	@Test
+	void shouldPartitionWithoutDurations() {
+
+		List<List<String>> partitions = BenchmarkSharding.partition(shardConfiguration(0, 1), UNITS,
+				Function.identity(), 3);
+
+		assertThat(partitions).hasSize(3).allSatisfy(it -> assertThat(it).isNotEmpty());
+		assertThat(partitions.stream().mapToInt(List::size).sum()).isEqualTo(UNITS.size());
+	}
+
+	@Test
+	void shouldRejectInvalidShardIndex() {
+
+		BenchmarkConfiguration configuration = shardConfiguration(2, 2);
+
+		assertThatIllegalArgumentException().isThrownBy(() -> BenchmarkSharding.from(configuration));
+	}
+
+	@Test
+	void shouldNotShardSingleShard() {
+		assertThat(BenchmarkSharding.from(shardConfiguration(0, 1))).isNull();
+	}
+
+	private static void measure(BenchmarkSharding sharding, String benchmark) {
+		measure(sharding, RunResultGenerator.params(benchmark));
+	}
+
+	private static void measure(BenchmarkSharding sharding, BenchmarkParams params) {
+
+		OutputFormat output = sharding.decorate(OutputFormatFactory.createFormatInstance(
+				new PrintStream(new ByteArrayOutputStream()), VerboseMode.SILENT));
+
+		output.startBenchmark(params);
+		output.endBenchmark(null);
+	}
+
+	private static BenchmarkConfiguration shardConfiguration(int index, int count) {
+		return shardConfiguration(index, count, null);
+	}
+
+	private static BenchmarkConfiguration shardConfiguration(int index, int count, File durationsFile) {
+
+		return (BenchmarkConfiguration) Proxy.newProxyInstance(BenchmarkShardingUnitTests.class.getClassLoader(),
+				new Class<?>[] { BenchmarkConfiguration.class }, (proxy, method, args) -> {
+
+					if (method.getName().equals("getShardIndex")) {
+						return index;
+					}
+
+					if (method.getName().equals("getShardCount")) {
+						return count;
+					}
+
+					if (method.getName().equals("getShardDurations") && durationsFile != null) {
+						return durationsFile.getPath();
+					}
+
+					return method.invoke(BenchmarkConfiguration.defaultOptions(), args);
+				});
+	}
+}
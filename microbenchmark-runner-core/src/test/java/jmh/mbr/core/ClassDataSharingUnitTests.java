@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.Assumptions.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+/**
+ * Unit tests for {@link ClassDataSharing}.
+ */
+class ClassDataSharingUnitTests {
+
+	static final IterationParams WARMUP = new IterationParams(IterationType.WARMUP, 1, TimeValue.seconds(1), 1);
+
+	ByteArrayOutputStream console = new ByteArrayOutputStream();
+	OutputFormat output = OutputFormatFactory.createFormatInstance(new PrintStream(console), VerboseMode.NORMAL);
+
+	@Test
+	void shouldParseJavaVersion() {
+
+		assertThat(ClassDataSharing.getJavaVersion("1.8")).isEqualTo(8);
+		assertThat(ClassDataSharing.getJavaVersion("11")).isEqualTo(11);
+		assertThat(ClassDataSharing.getJavaVersion("17.0")).isEqualTo(17);
+		assertThat(ClassDataSharing.getJavaVersion("")).isEqualTo(-1);
+		assertThat(ClassDataSharing.getJavaVersion("foo")).isEqualTo(-1);
+	}
+
+	@Test
+	void shouldChangeHashWithClasspath(@TempDir Path tempDir) throws IOException {
+
+		File jar = tempDir.resolve("app.jar").toFile();
+		File classes = tempDir.resolve("classes").toFile();
+		classes.mkdirs();
+		Files.write(jar.toPath(), new byte[] { 1 });
+		List<File> classpath = Arrays.asList(jar, classes);
+
+		String hash = ClassDataSharing.hash("/jdk", "17", classpath);
+
+		assertThat(hash).hasSize(16).isEqualTo(ClassDataSharing.hash("/jdk", "17", classpath));
+		assertThat(ClassDataSharing.hash("/jdk", "21", classpath)).isNotEqualTo(hash);
+		assertThat(ClassDataSharing.hash("/jdk", "17", Collections.singletonList(classes))).isNotEqualTo(hash);
+
+		Files.write(jar.toPath(), new byte[] { 1, 2 });
+		String modifiedJar = ClassDataSharing.hash("/jdk", "17", classpath);
+
+		assertThat(modifiedJar).isNotEqualTo(hash);
+
+		Files.write(classes.toPath().resolve("Foo.class"), new byte[] { 1 });
+
+		assertThat(ClassDataSharing.hash("/jdk", "17", classpath)).isNotEqualTo(modifiedJar);
+	}
+
+	@Test
+	void shouldCreateLauncherWithPackagedClasspath(@TempDir Path tempDir) throws Exception {
+
+		assumeThat(Environment.getOsName().toLowerCase()).doesNotContain("windows");
+
+		File classes = tempDir.resolve("classes").toFile();
+		new File(classes, "com/example").mkdirs();
+		Files.write(classes.toPath().resolve("com/example/Foo.class"), new byte[] { 1 });
+		File jar = tempDir.resolve("app.jar").toFile();
+		File cds = tempDir.resolve("cds").toFile();
+		cds.mkdirs();
+
+		ClassDataSharing sharing = new ClassDataSharing(true, cds, Arrays.asList(classes, jar), "abc");
+		sharing.createLauncher("echo");
+
+		Process process = new ProcessBuilder(sharing.getLauncher().getAbsolutePath(), "-Xmx1g", "-cp", "original",
+				"Main").start();
+		String commandLine = new BufferedReader(new InputStreamReader(process.getInputStream())).readLine();
+
+		File packaged = new File(cds, "jmh-mbr-abc-0.jar");
+		assertThat(process.waitFor()).isZero();
+		assertThat(commandLine)
+				.isEqualTo("-Xmx1g -cp " + packaged.getAbsolutePath() + File.pathSeparator + jar.getAbsolutePath() + " Main");
+
+		try (JarFile jarFile = new JarFile(packaged)) {
+			assertThat(jarFile.getEntry("com/example/Foo.class")).isNotNull();
+		}
+	}
+
+	@Test
+	void shouldNotApplyArchiveBeforePrepared(@TempDir Path tempDir) {
+
+		ClassDataSharing sharing = new ClassDataSharing(true, tempDir.toFile(), Collections.emptyList(), "abc");
+
+		assertThat(sharing.isActive()).isFalse();
+		assertThat(sharing.apply(new OptionsBuilder()).build().getJvmArgsPrepend().hasValue()).isFalse();
+	}
+
+	@Test
+	void shouldReuseExistingArchive(@TempDir Path tempDir) throws IOException {
+
+		ClassDataSharing sharing = new ClassDataSharing(true, tempDir.toFile(), Collections.emptyList(), "abc");
+		Files.write(sharing.getArchive().toPath(), new byte[] { 1 });
+		sharing.getLauncher().createNewFile();
+		sharing.getLauncher().setExecutable(true);
+
+		sharing.prepare(new OptionsBuilder(), output);
+
+		assertThat(sharing.isActive()).isTrue();
+		Options options = sharing.apply(new OptionsBuilder()).build();
+		assertThat(options.getJvm().get()).isEqualTo(sharing.getLauncher().getAbsolutePath());
+		assertThat(options.getJvmArgsPrepend().get())
+				.containsOnly("-XX:SharedArchiveFile=" + sharing.getArchive().getAbsolutePath());
+		assertThat(console.toString()).contains("Using archive");
+	}
+
+	@Test
+	void shouldRemainInactiveIfUnsupported(@TempDir Path tempDir) {
+
+		ClassDataSharing sharing = new ClassDataSharing(false, tempDir.toFile(), Collections.emptyList(), "abc");
+
+		sharing.prepare(new OptionsBuilder(), output);
+
+		assertThat(sharing.isActive()).isFalse();
+		assertThat(console.toString()).contains("requires Java 13");
+	}
+
+	@Test
+	void shouldRecordForkStartup(@TempDir Path tempDir) {
+
+		ClassDataSharing sharing = new ClassDataSharing(true, tempDir.toFile(), Collections.emptyList(), "abc");
+		OutputFormat decorated = sharing.decorate(output);
+
+		decorated.println("# Fork: 1 of 1");
+		decorated.iteration(null, WARMUP, 1);
+		decorated.iteration(null, WARMUP, 2);
+
+		sharing.report(output);
+		assertThat(console.toString()).doesNotContain("# CDS: Fork startup");
+
+		sharing.record(true, TimeUnit.MILLISECONDS.toNanos(200));
+		sharing.report(output);
+
+		assertThat(console.toString()).contains("# CDS: Fork startup 200 ms with archive (1 forks)")
+				.contains("ms without archive");
+	}
+}
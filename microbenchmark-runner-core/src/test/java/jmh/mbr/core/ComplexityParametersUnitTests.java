@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jmh.mbr.core.model.BenchmarkResults;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import jmh.mbr.core.model.ComplexityEstimate;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Unit tests for {@link ComplexityParameters}.
+ */
+class ComplexityParametersUnitTests {
+
+
+	@Test
+	void shouldNotCreateWithoutDeclaration() throws Exception {
+		assertThat(ComplexityParameters.from(BenchmarkConfiguration.defaultOptions(),
+				Collections.singletonList(Undeclared.class.getMethod("benchmark")))).isNull();
+	}
+
+	@Test
+	void shouldPreferMethodOverClassDeclaration() throws Exception {
+
+		ComplexityParameters parameters = ComplexityParameters.from(BenchmarkConfiguration.defaultOptions(), methods());
+
+		assertThat(parameters.getParameter(getBenchmarkName("length"))).isEqualTo("length");
+		assertThat(parameters.getParameter(getBenchmarkName("size"))).isEqualTo("size");
+		assertThat(parameters.getParameter("Other.benchmark")).isNull();
+	}
+
+	@Test
+	void shouldUseConfiguredParameterForUndeclaredBenchmarks() throws Exception {
+
+		BenchmarkConfiguration configuration = (BenchmarkConfiguration) Proxy.newProxyInstance(
+				getClass().getClassLoader(), new Class<?>[] { BenchmarkConfiguration.class },
+				(proxy, method, args) -> method.getName().equals("getComplexityParameter") ? "n,count"
+						: method.invoke(BenchmarkConfiguration.defaultOptions(), args));
+
+		ComplexityParameters parameters = ComplexityParameters.from(configuration, methods());
+
+		assertThat(parameters.getParameter(getBenchmarkName("length"))).isEqualTo("length");
+		assertThat(parameters.getParameter("Other.benchmark")).isEqualTo("n,count");
+		assertThat(ComplexityParameters.from(configuration, Collections.emptyList())).isNotNull();
+	}
+
+	@Test
+	void shouldAttachParameterToMetaData() throws Exception {
+
+		ComplexityParameters parameters = ComplexityParameters.from(BenchmarkConfiguration.defaultOptions(), methods());
+		MetaData metaData = new MetaData("project", "1.0");
+
+		BenchmarkResults results = parameters.attach(new BenchmarkResults(metaData,
+				Arrays.asList(runResult(getBenchmarkName("length")), runResult("Other.benchmark"))));
+
+		List<MetaData> attached = results.stream().map(BenchmarkResults.BenchmarkResult::getMetaData)
+				.collect(Collectors.toList());
+
+		assertThat(results.getMetaData()).isSameAs(metaData);
+		assertThat(attached.get(0).getAdditionalParameters()).containsEntry(ComplexityEstimate.PARAMETER_KEY, "length");
+		assertThat(attached.get(0).getProject()).isEqualTo("project");
+		assertThat(attached.get(1)).isSameAs(metaData);
+	}
+
+	private static List<Method> methods() throws NoSuchMethodException {
+		return Arrays.asList(Declared.class.getMethod("length"), Declared.class.getMethod("size"));
+	}
+
+	private static String getBenchmarkName(String method) {
+		return Declared.class.getName().replace('$', '.') + "." + method;
+	}
+
+	@ComplexityParameter("size")
+	static class Declared {
+
+		@ComplexityParameter("length")
+		public void length() {}
+
+		public void size() {}
+	}
+
+	static class Undeclared {
+
+		public void benchmark() {}
+	}
+
+	private static RunResult runResult(String benchmark) {
+		return RunResultGenerator.runResult(RunResultGenerator.params(benchmark), 1);
+	}
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jmh.mbr.core.model.BenchmarkResults;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+/**
+ * Unit tests for {@link CompositeResultsWriter}.
+ */
+class CompositeResultsWriterUnitTests {
+
+	ByteArrayOutputStream console = new ByteArrayOutputStream();
+	OutputFormat output = OutputFormatFactory.createFormatInstance(new PrintStream(console), VerboseMode.NORMAL);
+	BenchmarkResults results = new BenchmarkResults(new MetaData("project", "1.0"), Collections.emptyList());
+
+	@Test
+	void shouldWriteInParallel() {
+
+		CountDownLatch latch = new CountDownLatch(2);
+		AwaitingWriter first = new AwaitingWriter(latch);
+		AwaitingWriter second = new AwaitingWriter(latch);
+
+		new CompositeResultsWriter(Arrays.asList(first, second), Duration.ofSeconds(10)).write(output, results);
+
+		assertThat(first.completed).isTrue();
+		assertThat(second.completed).isTrue();
+		assertThat(console.toString()).contains("# Results written: AwaitingWriter ", " ms, AwaitingWriter ");
+	}
+
+	@Test
+	void shouldNotWaitForSlowWriterBeyondTimeout() {
+
+		AwaitingWriter slow = new AwaitingWriter(new CountDownLatch(2));
+		AwaitingWriter fast = new AwaitingWriter(new CountDownLatch(0));
+
+		long start = System.nanoTime();
+		new CompositeResultsWriter(Arrays.asList(slow, fast), Duration.ofMillis(200)).write(output, results);
+
+		assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+		assertThat(slow.completed).isFalse();
+		assertThat(fast.completed).isTrue();
+		assertThat(console.toString()).contains("AwaitingWriter timed out after 200 ms");
+	}
+
+	@Test
+	void shouldReportWritersThatIgnoreCancellation() {
+
+		CountDownLatch release = new CountDownLatch(1);
+		UninterruptibleWriter stuck = new UninterruptibleWriter(release);
+		AwaitingWriter fast = new AwaitingWriter(new CountDownLatch(0));
+
+		CompositeResultsWriter writer = new CompositeResultsWriter(Arrays.asList(stuck, fast), Duration.ofMillis(200));
+		writer.write(output, results);
+
+		try {
+			assertThat(writer.getRunningWriters()).containsOnly(stuck);
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void shouldNotReportCancelledWritersThatStopped() {
+
+		AwaitingWriter slow = new AwaitingWriter(new CountDownLatch(2));
+
+		CompositeResultsWriter writer = new CompositeResultsWriter(Collections.singletonList(slow),
+				Duration.ofMillis(200));
+		writer.write(output, results);
+
+		assertThat(writer.getRunningWriters()).isEmpty();
+	}
+
+	@Test
+	void shouldIsolateFailingWriter() {
+
+		AwaitingWriter writer = new AwaitingWriter(new CountDownLatch(0));
+		ResultsWriter failing = new FailingWriter();
+
+		new CompositeResultsWriter(Arrays.asList(failing, writer), Duration.ofSeconds(10)).write(output, results);
+
+		assertThat(writer.completed).isTrue();
+		assertThat(console.toString()).contains("FailingWriter failed after ",
+				"(java.lang.IllegalStateException: Connection refused)");
+	}
+
+	@Test
+	void shouldReuseExecutorAcrossWrites() throws InterruptedException {
+
+		ThreadRecordingWriter recording = new ThreadRecordingWriter();
+		CompositeResultsWriter writer = new CompositeResultsWriter(Collections.singletonList(recording),
+				Duration.ofSeconds(10));
+
+		writer.write(output, results);
+		writer.write(output, results);
+
+		assertThat(recording.threads).hasSize(2);
+		assertThat(recording.threads.get(0)).isSameAs(recording.threads.get(1));
+
+		writer.close();
+		recording.threads.get(0).join(TimeUnit.SECONDS.toMillis(5));
+
+		assertThat(recording.threads.get(0).isAlive()).isFalse();
+		assertThat(recording.closed).isTrue();
+	}
+
+	@Test
+	void shouldSkipWritersStillRunningFromPreviousWrite() {
+
+		CountDownLatch release = new CountDownLatch(1);
+		UninterruptibleWriter stuck = new UninterruptibleWriter(release);
+
+		CompositeResultsWriter writer = new CompositeResultsWriter(Collections.singletonList(stuck),
+				Duration.ofMillis(200));
+
+		try {
+			writer.write(output, results);
+			writer.write(output, results);
+
+			assertThat(console.toString()).contains("UninterruptibleWriter still running");
+		} finally {
+			release.countDown();
+			writer.shutdown();
+		}
+	}
+
+	static class ThreadRecordingWriter implements ResultsWriter {
+
+		final List<Thread> threads = new CopyOnWriteArrayList<>();
+		volatile boolean closed;
+
+		@Override
+		public void write(OutputFormat output, BenchmarkResults results) {
+			threads.add(Thread.currentThread());
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+	static class AwaitingWriter implements ResultsWriter {
+
+		final CountDownLatch latch;
+		volatile boolean completed;
+
+		AwaitingWriter(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public void write(OutputFormat output, BenchmarkResults results) {
+
+			latch.countDown();
+
+			try {
+				if (latch.await(5, TimeUnit.SECONDS)) {
+					completed = true;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	static class UninterruptibleWriter implements ResultsWriter {
+
+		final CountDownLatch latch;
+
+		UninterruptibleWriter(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public void write(OutputFormat output, BenchmarkResults results) {
+
+			while (latch.getCount() > 0) {
+				try {
+					latch.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					// keep writing
+				}
+			}
+		}
+	}
+
+	static class FailingWriter implements ResultsWriter {
+
+		@Override
+		public void write(OutputFormat output, BenchmarkResults results) {
+			throw new IllegalStateException("Connection refused");
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CpuSet}.
+ */
+class CpuSetUnitTests {
+
+	@Test
+	void shouldPartitionEvenly() {
+
+		List<CpuSet> partitions = CpuSet.partition(8, 4);
+
+		assertThat(partitions).containsExactly(CpuSet.of(0, 1), CpuSet.of(2, 3), CpuSet.of(4, 5), CpuSet.of(6, 7));
+	}
+
+	@Test
+	void shouldSpreadRemainderAcrossLeadingPartitions() {
+
+		List<CpuSet> partitions = CpuSet.partition(7, 3);
+
+		assertThat(partitions).extracting(CpuSet::size).containsExactly(3, 2, 2);
+		assertThat(partitions).extracting(CpuSet::toString).containsExactly("0-2", "3-4", "5-6");
+	}
+
+	@Test
+	void shouldCapPartitionsToAvailableCpus() {
+
+		assertThat(CpuSet.partition(2, 8)).containsExactly(CpuSet.of(0), CpuSet.of(1));
+		assertThat(CpuSet.partition(0, 8)).isEmpty();
+	}
+
+	@Test
+	void shouldPartitionAllowedCpusOnly() {
+
+		assertThat(CpuSet.partition(new int[] { 9, 2, 3, 8 }, 2)).containsExactly(CpuSet.of(2, 3), CpuSet.of(8, 9));
+		assertThat(CpuSet.partition(new int[0], 2)).isEmpty();
+	}
+
+	@Test
+	void shouldParseCpuList() {
+
+		assertThat(CpuSet.parseCpuList("0-3,8,10-11\n")).containsExactly(0, 1, 2, 3, 8, 10, 11);
+		assertThat(CpuSet.parseCpuList(" 5 ")).containsExactly(5);
+		assertThatIllegalArgumentException().isThrownBy(() -> CpuSet.parseCpuList("3-1"));
+		assertThatIllegalArgumentException().isThrownBy(() -> CpuSet.parseCpuList("a"));
+	}
+
+	@Test
+	void shouldDetermineAllowedCpus() {
+		assertThat(CpuSet.getAllowedCpus()).isNotEmpty().isSorted();
+	}
+
+	@Test
+	void shouldRenderNonContiguousSet() {
+
+		CpuSet cpuSet = CpuSet.of(4, 0, 2);
+
+		assertThat(cpuSet).hasToString("0,2,4");
+		assertThat(cpuSet.toCpuList()).isEqualTo("0,2,4");
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Unit tests for {@link Environment}.
+ */
+class EnvironmentUnitTests {
+
+	@Test
+	void shouldParseDurations() {
+
+		assertThat(Environment.parseDuration("10")).isEqualTo(Duration.ofSeconds(10));
+		assertThat(Environment.parseDuration("500ms")).isEqualTo(Duration.ofMillis(500));
+		assertThat(Environment.parseDuration("250 us")).isEqualTo(Duration.ofNanos(250_000));
+		assertThat(Environment.parseDuration("45m")).isEqualTo(Duration.ofMinutes(45));
+		assertThat(Environment.parseDuration("1h")).isEqualTo(Duration.ofHours(1));
+		assertThat(Environment.parseDuration("PT1.5S")).isEqualTo(Duration.ofMillis(1500));
+	}
+
+	@Test
+	void shouldParseNegativeDurationAsUnset() {
+
+		assertThat(Environment.parseDuration("-1")).isEqualTo(Duration.ofSeconds(-1)).isNegative();
+		assertThat(Environment.parseDuration("-500ms")).isEqualTo(Duration.ofMillis(-500));
+	}
+
+	@Test
+	void shouldRejectMalformedDuration() {
+		assertThatIllegalArgumentException().isThrownBy(() -> Environment.parseDuration("ten seconds"));
+	}
+
+	@Test
+	void shouldRetainMillisecondsInTimeValue() {
+
+		assertThat(JmhSupport.toTimeValue(Duration.ofSeconds(2))).isEqualTo(TimeValue.seconds(2));
+		assertThat(JmhSupport.toTimeValue(Duration.ofMillis(1500))).isEqualTo(new TimeValue(1500, TimeUnit.MILLISECONDS));
+		assertThat(JmhSupport.toTimeValue(Duration.ofNanos(1500))).isEqualTo(new TimeValue(1500, TimeUnit.NANOSECONDS));
+	}
+}
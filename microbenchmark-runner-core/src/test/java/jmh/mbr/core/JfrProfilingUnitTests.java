@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jmh.mbr.core.model.BenchmarkResults;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+/**
+ * Unit tests for {@link JfrProfiling}.
+ */
+class JfrProfilingUnitTests {
+
+	static final String BENCHMARK = "jmh.mbr.core.JfrProfilingUnitTests.benchmark";
+
+	ByteArrayOutputStream console = new ByteArrayOutputStream();
+	OutputFormat output = OutputFormatFactory.createFormatInstance(new PrintStream(console), VerboseMode.NORMAL);
+
+	static volatile long sink;
+
+	@Test
+	void shouldBeDisabledByDefault() {
+		assertThat(JfrProfiling.from(BenchmarkConfiguration.defaultOptions())).isNull();
+	}
+
+	@Test
+	void shouldRejectUnsupportedProfile() {
+
+		assertThatIllegalArgumentException().isThrownBy(() -> JfrProfiling.from(configuration("async")))
+				.withMessageContaining("async");
+	}
+
+	@Test
+	void shouldEnableJfrProfile() {
+		assertThat(JfrProfiling.from(configuration("jfr"))).isNotNull();
+	}
+
+	@Test
+	void shouldFormatHotMethods() {
+
+		Map<String, Double> hotMethods = new LinkedHashMap<>();
+		hotMethods.put("a.B.hot", 0.4125);
+		hotMethods.put("a.B.caller", 0.2);
+
+		assertThat(JfrProfiling.formatHotMethods(hotMethods)).isEqualTo("a.B.hot 41.3%; a.B.caller 20.0%");
+	}
+
+	@Test
+	void shouldRetainResultsWithoutRecordings(@TempDir File directory) {
+
+		BenchmarkResults results = new BenchmarkResults(new MetaData("project", "1.0"), Collections.singletonList(result()));
+
+		BenchmarkResults attached = new JfrProfiling(directory, 10).attach(results, output);
+
+		assertThat(attached.getRawResults()).isEqualTo(results.getRawResults());
+		assertThat(attached.stream().findFirst().get().getMetaData().hasAdditionalMetadata()).isFalse();
+	}
+
+	@Test
+	void shouldAttachHotMethodsOfRecording(@TempDir File directory) throws Exception {
+
+		RunResult runResult = result();
+		BenchmarkParams params = runResult.getParams();
+
+		JfrProfiler profiler = new JfrProfiler(directory.getAbsolutePath());
+		profiler.beforeIteration(params, params.getMeasurement());
+
+		Thread worker = new Thread(JfrProfilingUnitTests::spin, "benchmark-jmh-worker-1");
+		worker.start();
+		worker.join();
+
+		profiler.afterIteration(params, params.getMeasurement(), null);
+
+		BenchmarkResults results = new BenchmarkResults(new MetaData("project", "1.0"), Collections.singletonList(runResult));
+		BenchmarkResults attached = new JfrProfiling(directory, 3).attach(results, output);
+
+		MetaData metaData = attached.stream().findFirst().get().getMetaData();
+
+		assertThat(metaData.getProject()).isEqualTo("project");
+		assertThat(metaData.getAdditionalParameters()).containsKeys(JfrProfiling.HOT_METHODS_KEY,
+				JfrProfiling.FLAMEGRAPH_KEY);
+		assertThat(metaData.getAdditionalParameters().get(JfrProfiling.HOT_METHODS_KEY).toString()).contains("spin");
+
+		File collapsedStacks = new File(metaData.getAdditionalParameters().get(JfrProfiling.FLAMEGRAPH_KEY).toString());
+		assertThat(Files.readAllLines(collapsedStacks.toPath())).anyMatch(it -> it.contains("JfrProfilingUnitTests.spin"));
+	}
+
+	private static void spin() {
+
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+		long value = 1;
+		while (System.nanoTime() < deadline) {
+
+			// xorshift keeps the samples in spin() itself rather than in callees
+			for (int i = 0; i < 100_000; i++) {
+				value ^= value << 13;
+				value ^= value >>> 7;
+				value ^= value << 17;
+			}
+		}
+		sink = value;
+	}
+
+	private BenchmarkConfiguration configuration(String profile) {
+
+		return (BenchmarkConfiguration) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { BenchmarkConfiguration.class },
+				(proxy, method, args) -> method.getName().equals("getProfile") ? profile
+						: method.invoke(BenchmarkConfiguration.defaultOptions(), args));
+	}
+
+	private static RunResult result() {
+		return RunResultGenerator.runResult(RunResultGenerator.params(BENCHMARK), 1);
+	}
+}
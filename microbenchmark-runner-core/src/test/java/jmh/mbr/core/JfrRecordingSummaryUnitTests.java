@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link JfrRecordingSummary}.
+ */
+class JfrRecordingSummaryUnitTests {
+
+	@Test
+	void shouldRankMethodsBySelfSamples() {
+
+		JfrRecordingSummary summary = new JfrRecordingSummary();
+		summary.add(Arrays.asList("a.B.hot", "a.B.caller", "a.B.run"));
+		summary.add(Arrays.asList("a.B.hot", "a.B.caller", "a.B.run"));
+		summary.add(Arrays.asList("a.B.hot", "a.B.run"));
+		summary.add(Arrays.asList("a.B.caller", "a.B.run"));
+
+		Map<String, Double> hotMethods = summary.getHotMethods(10);
+
+		assertThat(summary.getSamples()).isEqualTo(4);
+		assertThat(hotMethods.keySet()).containsExactly("a.B.hot", "a.B.caller");
+		assertThat(hotMethods.get("a.B.hot")).isEqualTo(0.75);
+		assertThat(hotMethods.get("a.B.caller")).isEqualTo(0.25);
+	}
+
+	@Test
+	void shouldLimitHotMethods() {
+
+		JfrRecordingSummary summary = new JfrRecordingSummary();
+		summary.add(Collections.singletonList("a.B.one"));
+		summary.add(Collections.singletonList("a.B.two"));
+		summary.add(Collections.singletonList("a.B.two"));
+
+		assertThat(summary.getHotMethods(1).keySet()).containsExactly("a.B.two");
+	}
+
+	@Test
+	void shouldRenderCollapsedStacksFromRootToLeaf() {
+
+		JfrRecordingSummary summary = new JfrRecordingSummary();
+		summary.add(Arrays.asList("a.B.hot", "a.B.caller", "a.B.run"));
+		summary.add(Arrays.asList("a.B.hot", "a.B.caller", "a.B.run"));
+		summary.add(Arrays.asList("a.B.hot", "a.B.run"));
+
+		assertThat(summary.getCollapsedStacks()).containsExactly("a.B.run;a.B.caller;a.B.hot 2", "a.B.run;a.B.hot 1");
+	}
+
+	@Test
+	void shouldIgnoreEmptyStacks() {
+
+		JfrRecordingSummary summary = new JfrRecordingSummary();
+		summary.add(Collections.emptyList());
+
+		assertThat(summary.getSamples()).isZero();
+		assertThat(summary.getHotMethods(10)).isEmpty();
+		assertThat(summary.getCollapsedStacks()).isEmpty();
+	}
+}
@@ -12,8 +12,10 @@ package jmh.mbr.core;
 import static org.assertj.core.api.Assertions.*;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import jmh.mbr.core.model.BenchmarkResults;
 import jmh.mbr.core.model.BenchmarkResults.MetaData;
@@ -68,6 +70,70 @@ class JmhSupportUnitTests {
 		assertThat(FooResultWriter.written).isTrue();
 	}
 
+	@Test
+	void shouldOpenFlushAndCloseWritersOncePerRun() {
+
+		LifecycleResultsWriter writer = new LifecycleResultsWriter();
+		TestResultsWriterFactory.REGISTRY.put("lifecycle", () -> writer);
+		System.setProperty("jmh.mbr.report.publishTo", "lifecycle");
+
+		try {
+			JmhSupport support = new JmhSupport(BenchmarkConfiguration.defaultOptions());
+			support.openResultsStream(SilentOutputFormat.INSTANCE);
+			support.publishResults(SilentOutputFormat.INSTANCE, new BenchmarkResults(MetaData.none(), Collections.emptyList()));
+			support.closeResultsWriters(SilentOutputFormat.INSTANCE);
+		} finally {
+			System.clearProperty("jmh.mbr.report.publishTo");
+			TestResultsWriterFactory.REGISTRY.remove("lifecycle");
+		}
+
+		assertThat(writer.events).containsExactly("open", "write", "flush", "close");
+	}
+
+	@Test
+	void shouldCloseWritersOfFailedRun() {
+
+		LifecycleResultsWriter writer = new LifecycleResultsWriter();
+		TestResultsWriterFactory.REGISTRY.put("lifecycle", () -> writer);
+		System.setProperty("jmh.mbr.report.publishTo", "lifecycle");
+
+		try {
+			JmhSupport support = new JmhSupport(BenchmarkConfiguration.defaultOptions());
+			support.openResultsStream(SilentOutputFormat.INSTANCE);
+			support.closeResultsWriters(SilentOutputFormat.INSTANCE);
+		} finally {
+			System.clearProperty("jmh.mbr.report.publishTo");
+			TestResultsWriterFactory.REGISTRY.remove("lifecycle");
+		}
+
+		assertThat(writer.events).containsExactly("open", "flush", "close");
+	}
+
+	static class LifecycleResultsWriter implements ResultsWriter {
+
+		final List<String> events = new ArrayList<>();
+
+		@Override
+		public void open(OutputFormat output) {
+			events.add("open");
+		}
+
+		@Override
+		public void write(OutputFormat output, BenchmarkResults results) {
+			events.add("write");
+		}
+
+		@Override
+		public void flush(OutputFormat output) {
+			events.add("flush");
+		}
+
+		@Override
+		public void close() {
+			events.add("close");
+		}
+	}
+
 	static class FooResultWriter implements ResultsWriter {
 
 		static boolean written = false;
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jmh.mbr.core.RegressionGate.Regression;
+import jmh.mbr.core.RegressionGate.Sample;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.BenchmarkResult;
+
+/**
+ * Unit tests for {@link RegressionGate}.
+ */
+class RegressionGateUnitTests {
+
+	static final String BENCHMARK = "com.example.Foo.bar";
+
+	@Test
+	void shouldComputeOneSidedMannWhitneyPValue() {
+
+		double[] low = { 1, 2, 3, 4, 5, 6, 7, 8 };
+		double[] high = { 9, 10, 11, 12, 13, 14, 15, 16 };
+
+		assertThat(RegressionGate.mannWhitneyPValue(low, high)).isLessThan(0.001);
+		assertThat(RegressionGate.mannWhitneyPValue(high, low)).isGreaterThan(0.999);
+		assertThat(RegressionGate.mannWhitneyPValue(low, low)).isBetween(0.4, 0.6);
+	}
+
+	@Test
+	void shouldApproximateNormalDistribution() {
+
+		assertThat(RegressionGate.normalCdf(0)).isCloseTo(0.5, within(1e-7));
+		assertThat(RegressionGate.normalCdf(1.959964)).isCloseTo(0.975, within(1e-6));
+		assertThat(RegressionGate.normalCdf(-2.326348)).isCloseTo(0.01, within(1e-6));
+	}
+
+	@Test
+	void shouldDetectSignificantSlowdown() {
+
+		RegressionGate gate = gate(baseline(Mode.AverageTime, 100, 101, 99, 100, 102, 98, 100, 101));
+
+		Regression regression = gate.verify(result(Mode.AverageTime, 130, 131, 129, 130, 132, 128, 130, 131));
+
+		assertThat(regression).isNotNull();
+		assertThat(regression.getSlowdown()).isCloseTo(0.3, within(0.01));
+		assertThat(regression.toError()).hasMessageContaining(BENCHMARK).hasMessageContaining("30.0%");
+	}
+
+	@Test
+	void shouldIgnoreSlowdownBelowThreshold() {
+
+		RegressionGate gate = gate(baseline(Mode.AverageTime, 100, 101, 99, 100, 102, 98, 100, 101));
+
+		assertThat(gate.verify(result(Mode.AverageTime, 105, 106, 104, 105, 107, 103, 105, 106))).isNull();
+	}
+
+	@Test
+	void shouldIgnoreInsignificantSlowdown() {
+
+		RegressionGate gate = gate(baseline(Mode.AverageTime, 100, 300, 50, 200));
+
+		assertThat(gate.verify(result(Mode.AverageTime, 150, 60, 400, 180))).isNull();
+	}
+
+	@Test
+	void shouldConsiderLowerThroughputAsRegression() {
+
+		RegressionGate gate = gate(baseline(Mode.Throughput, 100, 101, 99, 100, 102, 98, 100, 101));
+
+		assertThat(gate.verify(result(Mode.Throughput, 70, 71, 69, 70, 72, 68, 70, 71))).isNotNull();
+		assertThat(gate.verify(result(Mode.Throughput, 130, 131, 129, 130, 132, 128, 130, 131))).isNull();
+	}
+
+	@Test
+	void shouldRecordMissingBaseline(@TempDir Path directory) throws IOException {
+
+		File baselineFile = directory.resolve("baseline.properties").toFile();
+		RegressionGate gate = new RegressionGate(0.1, 0.01, false, baselineFile, Collections.emptyMap());
+
+		assertThat(gate.verify(result(Mode.AverageTime, 100, 101, 99, 100, 102, 98))).isNull();
+		gate.saveBaseline();
+
+		BenchmarkConfiguration configuration = (BenchmarkConfiguration) Proxy.newProxyInstance(
+				getClass().getClassLoader(), new Class<?>[] { BenchmarkConfiguration.class },
+				(proxy, method, args) -> method.getName().equals("getRegressionBaseline") ? baselineFile.getPath()
+						: method.invoke(BenchmarkConfiguration.defaultOptions(), args));
+
+		RegressionGate next = RegressionGate.from(configuration);
+
+		assertThat(next.verify(result(Mode.AverageTime, 150, 151, 149, 150, 152, 148))).isNotNull();
+	}
+
+	@Test
+	void shouldUseScoresRecordedBeforeRunAsBaseline() {
+
+		BenchmarkResult result = result(Mode.AverageTime, 130, 131, 129, 130, 132, 128, 130, 131);
+		String key = BenchmarkHistory.getKey(result.getParams(), false);
+
+		List<BenchmarkHistory.Record> records = new ArrayList<>();
+		records.add(new BenchmarkHistory.Record(key, BENCHMARK, 1000, "us/op", 100,
+				new double[] { 100, 101, 99, 100, 102, 98, 100, 101 }));
+		records.add(new BenchmarkHistory.Record(key, BENCHMARK, 2000, "us/op", 130,
+				new double[] { 130, 131, 129, 130, 132, 128, 130, 131 }));
+
+		BenchmarkHistory history = new BenchmarkHistory() {
+
+			@Override
+			public List<Record> getRecords(String requested, int limit) {
+				return requested.equals(key) ? records : Collections.emptyList();
+			}
+
+			@Override
+			public List<Record> getLatestRecords() {
+				return Collections.singletonList(records.get(records.size() - 1));
+			}
+		};
+
+		assertThat(new RegressionGate(0.1, 0.01, history, 1500).verify(result)).isNotNull();
+		assertThat(new RegressionGate(0.1, 0.01, history, 2500).verify(result)).isNull();
+		assertThat(new RegressionGate(0.1, 0.01, history, 500).verify(result)).isNull();
+	}
+
+	@Test
+	void shouldVerifySweptThreadCountsAgainstTheirOwnBaseline() {
+
+		Map<String, Sample> baseline = new HashMap<>();
+		baseline.put(BENCHMARK + "{threads=1}", new Sample("ops/us", new double[] { 100, 101, 99, 100, 102, 98, 100 }));
+		baseline.put(BENCHMARK + "{threads=4}", new Sample("ops/us", new double[] { 400, 401, 399, 400, 402, 398, 400 }));
+		RegressionGate gate = new RegressionGate(0.1, 0.01, false, new File("baseline.properties"), baseline, null, 0,
+				true);
+
+		BenchmarkResult single = RunResultGenerator.result(RunResultGenerator.params(BENCHMARK, Mode.Throughput, 1), 100,
+				101, 99, 100, 102, 98, 100, 101);
+		BenchmarkResult slowQuad = RunResultGenerator.result(RunResultGenerator.params(BENCHMARK, Mode.Throughput, 4),
+				200, 201, 199, 200, 202, 198, 200, 201);
+
+		assertThat(gate.verify(single)).isNull();
+		assertThat(gate.verify(slowQuad)).isNotNull();
+	}
+
+	private static RegressionGate gate(Map<String, Sample> baseline) {
+		return new RegressionGate(0.1, 0.01, false, new File("baseline.properties"), baseline);
+	}
+
+	private static Map<String, Sample> baseline(Mode mode, double... scores) {
+
+		Map<String, Sample> baseline = new HashMap<>();
+		baseline.put(BENCHMARK + "{}", new Sample(mode == Mode.Throughput ? "ops/us" : "us/op", scores));
+		return baseline;
+	}
+
+	private static BenchmarkResult result(Mode mode, double... scores) {
+		return RunResultGenerator.result(RunResultGenerator.params(BENCHMARK, mode), scores);
+	}
+}
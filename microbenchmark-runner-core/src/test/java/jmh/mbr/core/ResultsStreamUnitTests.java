@@ -0,0 +1,197 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.UnaryOperator;
+
+import jmh.mbr.core.model.BenchmarkResults;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+/**
+ * Unit tests for {@link ResultsStream}.
+ */
+class ResultsStreamUnitTests {
+
+
+	ByteArrayOutputStream console = new ByteArrayOutputStream();
+	OutputFormat output = OutputFormatFactory.createFormatInstance(new PrintStream(console), VerboseMode.NORMAL);
+
+	@Test
+	void shouldPublishResultsAsTheyFinish() {
+
+		RecordingWriter writer = new RecordingWriter();
+		ResultsStream stream = stream(writer, 4);
+
+		stream.publish(result("a"));
+		stream.publish(result("b"));
+		stream.close(null);
+
+		assertThat(writer.benchmarks).containsExactly("a", "b");
+		assertThat(writer.projects).containsOnly("project");
+	}
+
+	@Test
+	void shouldPublishRemainingResultsOnClose() {
+
+		RecordingWriter writer = new RecordingWriter();
+		ResultsStream stream = stream(writer, 4);
+
+		stream.publish(result("a"));
+		stream.close(results(result("a"), result("b")));
+
+		assertThat(writer.benchmarks).containsExactly("a", "b");
+	}
+
+	@Test
+	void shouldIgnoreResultsAfterClose() {
+
+		RecordingWriter writer = new RecordingWriter();
+		ResultsStream stream = stream(writer, 4);
+
+		stream.close(null);
+		stream.publish(result("a"));
+
+		assertThat(writer.benchmarks).isEmpty();
+	}
+
+	@Test
+	void shouldApplyPostProcessorToStreamedResults() {
+
+		RecordingWriter writer = new RecordingWriter();
+		ResultsStream stream = new ResultsStream(Collections.singletonList(writer), null, new MetaData("project", "1.0"), output,
+				4, results -> BenchmarkResults.merge(results.getMetaData(), Collections.singletonList(
+						new BenchmarkResults(new MetaData("processed", "1.0"), results.getRawResults()))));
+
+		stream.publish(result("a"));
+		stream.close(null);
+
+		assertThat(writer.projects).containsExactly("processed");
+	}
+
+	@Test
+	void shouldJournalPublishedResults(@TempDir File directory) throws Exception {
+
+		RunJournal journal = new RunJournal(new File(directory, "Stream.journal"), Collections.emptyMap());
+		ResultsStream stream = new ResultsStream(Collections.emptyList(), journal, new MetaData("project", "1.0"), output,
+				4, UnaryOperator.identity());
+
+		stream.publish(result("a"));
+		stream.publish(result("a"));
+		stream.close(null);
+
+		assertThat(RunJournal.read(journal.getFile(), false)).containsOnlyKeys("a");
+		assertThat(RunJournal.read(journal.getFile(), false).get("a")).hasSize(1);
+	}
+
+	@Test
+	void shouldIsolateFailingWriters() {
+
+		RecordingWriter writer = new RecordingWriter();
+		StreamingResultsWriter failing = (output, result) -> {
+			throw new IllegalStateException("Connection refused");
+		};
+
+		ResultsStream stream = new ResultsStream(Arrays.asList(failing, writer), null, new MetaData("project", "1.0"), output, 4,
+				UnaryOperator.identity());
+
+		stream.publish(result("a"));
+		stream.close(null);
+
+		assertThat(writer.benchmarks).containsExactly("a");
+		assertThat(console.toString()).contains("# WARNING: Cannot publish result of a").contains("Connection refused");
+	}
+
+	@Test
+	void shouldBlockWhenQueueIsFull() throws Exception {
+
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingWriter writer = new RecordingWriter() {
+
+			@Override
+			public void write(OutputFormat output, BenchmarkResults.BenchmarkResult result) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				super.write(output, result);
+			}
+		};
+
+		ResultsStream stream = stream(writer, 1);
+
+		CompletableFuture<Void> publishing = CompletableFuture.runAsync(() -> {
+			stream.publish(result("a"));
+			stream.publish(result("b"));
+			stream.publish(result("c"));
+		});
+
+		assertThatExceptionOfType(TimeoutException.class)
+				.isThrownBy(() -> publishing.get(200, TimeUnit.MILLISECONDS));
+
+		release.countDown();
+		publishing.get(5, TimeUnit.SECONDS);
+		stream.close(null);
+
+		assertThat(writer.benchmarks).containsExactly("a", "b", "c");
+	}
+
+	private ResultsStream stream(StreamingResultsWriter writer, int capacity) {
+		return new ResultsStream(Collections.singletonList(writer), null, new MetaData("project", "1.0"), output, capacity,
+				UnaryOperator.identity());
+	}
+
+	private static BenchmarkResults results(BenchmarkResult... results) {
+
+		List<RunResult> runResults = new ArrayList<>();
+		for (BenchmarkResult result : results) {
+			runResults.add(new RunResult(result.getParams(), Collections.singletonList(result)));
+		}
+
+		return new BenchmarkResults(new MetaData("project", "1.0"), runResults);
+	}
+
+	private static BenchmarkResult result(String benchmark) {
+		return RunResultGenerator.result(RunResultGenerator.params(benchmark), 1);
+	}
+
+	static class RecordingWriter implements StreamingResultsWriter {
+
+		final List<String> benchmarks = new CopyOnWriteArrayList<>();
+		final List<String> projects = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void write(OutputFormat output, BenchmarkResults.BenchmarkResult result) {
+			benchmarks.add(result.getParams().getBenchmark());
+			projects.add(result.getMetaData().getProject());
+		}
+	}
+}
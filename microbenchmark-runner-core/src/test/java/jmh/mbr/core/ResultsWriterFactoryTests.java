@@ -20,6 +20,12 @@ class ResultsWriterFactoryTests {
 		assertThat(ResultsWriter.forUri("urn:empty")).isNotNull();
 	}
 
+	@Test
+	void factoriesAreLoadedOnce() {
+		assertThat(ResultsWriterFactories.getFactories()).isSameAs(ResultsWriterFactories.getFactories())
+				.hasAtLeastOneElementOfType(TestResultsWriterFactory.class);
+	}
+
 	@Test
 	void nouri() {
 		assertThat(ResultsWriter.forUri("")).isNull();
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Unit tests for {@link RunJournal}.
+ */
+class RunJournalUnitTests {
+
+
+	@Test
+	void shouldRequireReportDirectoryToResume() {
+		assertThatIllegalArgumentException().isThrownBy(() -> RunJournal.from(configuration(null, true), "Journal"))
+				.withMessageContaining("jmh.mbr.report.dir");
+	}
+
+	@Test
+	void shouldNotJournalWithoutReportDirectory() {
+		assertThat(RunJournal.from(configuration(null, false), "Journal")).isNull();
+	}
+
+	@Test
+	void shouldRestoreJournaledResults(@TempDir File directory) throws Exception {
+
+		RunJournal journal = RunJournal.from(configuration(directory.getAbsolutePath(), false), "Journal");
+		journal.append(result("a", 2));
+		journal.append(result("b", 4));
+
+		RunJournal resumed = RunJournal.from(configuration(directory.getAbsolutePath(), true), "Journal");
+
+		assertThat(resumed.isResumed()).isTrue();
+		assertThat(resumed.contains("a")).isTrue();
+		assertThat(resumed.contains("c")).isFalse();
+
+		List<RunResult> results = resumed.getResults(Collections.singletonList("b"));
+		assertThat(results).hasSize(1);
+		assertThat(results.get(0).getParams().getBenchmark()).isEqualTo("b");
+		assertThat(results.get(0).getPrimaryResult().getScore()).isEqualTo(4);
+	}
+
+	@Test
+	void shouldDiscardTornRecord(@TempDir File directory) throws Exception {
+
+		RunJournal journal = RunJournal.from(configuration(directory.getAbsolutePath(), false), "Journal");
+		journal.append(result("a", 2));
+
+		long length = journal.getFile().length();
+		Files.write(journal.getFile().toPath(), ByteBuffer.allocate(16).putInt(1024).putLong(42).array(),
+				StandardOpenOption.APPEND);
+
+		RunJournal resumed = RunJournal.from(configuration(directory.getAbsolutePath(), true), "Journal");
+
+		assertThat(resumed.contains("a")).isTrue();
+		assertThat(resumed.getFile()).hasSize(length);
+
+		resumed.append(result("b", 4));
+
+		assertThat(RunJournal.read(resumed.getFile(), false)).containsOnlyKeys("a", "b");
+	}
+
+	@Test
+	void shouldRemoveJournalOfPreviousRun(@TempDir File directory) throws Exception {
+
+		RunJournal journal = RunJournal.from(configuration(directory.getAbsolutePath(), false), "Journal");
+		journal.append(result("a", 2));
+
+		RunJournal fresh = RunJournal.from(configuration(directory.getAbsolutePath(), false), "Journal");
+
+		assertThat(fresh.isResumed()).isFalse();
+		assertThat(fresh.getFile()).doesNotExist();
+	}
+
+	@Test
+	void shouldRemoveJournalOnCompletion(@TempDir File directory) throws Exception {
+
+		RunJournal journal = RunJournal.from(configuration(directory.getAbsolutePath(), false), "Journal");
+		journal.append(result("a", 2));
+		journal.complete();
+
+		assertThat(journal.getFile()).doesNotExist();
+	}
+
+	private static BenchmarkResult result(String benchmark, long score) {
+		return RunResultGenerator.result(RunResultGenerator.params(benchmark), score);
+	}
+
+	private BenchmarkConfiguration configuration(String reportDirectory, boolean resume) {
+
+		return (BenchmarkConfiguration) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { BenchmarkConfiguration.class }, (proxy, method, args) -> {
+
+					switch (method.getName()) {
+					case "getReportDirectory":
+						return reportDirectory;
+					case "isResume":
+						return resume;
+					default:
+						return method.invoke(BenchmarkConfiguration.defaultOptions(), args);
+					}
+				});
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.AverageTimeResult;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.ResultRole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.ThroughputResult;
+import org.openjdk.jmh.runner.IterationType;
+import org.openjdk.jmh.runner.WorkloadParams;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Creates JMH {@link BenchmarkParams} and results for unit tests. Benchmarks report in microseconds, so scores are
+ * {@code us/op} for {@link Mode#AverageTime} and {@code ops/us} for {@link Mode#Throughput}.
+ */
+public class RunResultGenerator {
+
+	public static final IterationParams WARMUP = new IterationParams(IterationType.WARMUP, 1, TimeValue.seconds(1), 1);
+
+	public static final IterationParams MEASUREMENT = new IterationParams(IterationType.MEASUREMENT, 1,
+			TimeValue.seconds(1), 1);
+
+	public static BenchmarkParams params(String benchmark) {
+		return params(benchmark, Mode.AverageTime);
+	}
+
+	/**
+	 * @param parameters alternating parameter names and values.
+	 */
+	public static BenchmarkParams params(String benchmark, Mode mode, String... parameters) {
+		return params(benchmark, mode, 1, parameters);
+	}
+
+	/**
+	 * @param parameters alternating parameter names and values.
+	 */
+	public static BenchmarkParams params(String benchmark, Mode mode, int threads, String... parameters) {
+
+		WorkloadParams workloadParams = new WorkloadParams();
+		for (int i = 0; i < parameters.length; i += 2) {
+			workloadParams.put(parameters[i], parameters[i + 1], i / 2);
+		}
+
+		return new BenchmarkParams(benchmark, benchmark + "_" + mode, false, threads, new int[] { threads },
+				Collections.emptyList(), 1, 0, WARMUP, MEASUREMENT, mode, workloadParams, TimeUnit.MICROSECONDS, 1, "java",
+				Collections.emptyList(), "1.8", "JDK", "1.8", "1.37", TimeValue.NONE);
+	}
+
+	/**
+	 * Create a measurement {@link IterationResult} with a primary result scoring {@code score}.
+	 */
+	public static IterationResult iteration(BenchmarkParams params, double score) {
+
+		String label = params.getBenchmark().substring(params.getBenchmark().lastIndexOf('.') + 1);
+		IterationResult iteration = new IterationResult(params, params.getMeasurement(), null);
+
+		if (params.getMode() == Mode.Throughput) {
+			iteration.addResult(new ThroughputResult(ResultRole.PRIMARY, label, score,
+					params.getTimeUnit().toNanos(1), params.getTimeUnit()));
+		} else {
+			iteration.addResult(new AverageTimeResult(ResultRole.PRIMARY, label, 1_000_000,
+					Math.round(score * params.getTimeUnit().toNanos(1) * 1_000_000), params.getTimeUnit()));
+		}
+
+		return iteration;
+	}
+
+	/**
+	 * Create a {@link BenchmarkResult} of a single fork with one iteration per score.
+	 */
+	public static BenchmarkResult result(BenchmarkParams params, double... scores) {
+
+		List<IterationResult> iterations = new ArrayList<>(scores.length);
+		for (double score : scores) {
+			iterations.add(iteration(params, score));
+		}
+
+		return new BenchmarkResult(params, iterations);
+	}
+
+	/**
+	 * Create a {@link RunResult} of a single fork with one iteration per score.
+	 */
+	public static RunResult runResult(BenchmarkParams params, double... scores) {
+		return new RunResult(params, Collections.singletonList(result(params, scores)));
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jmh.mbr.core.TimeBudget.Allocation;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TimeBudget}.
+ */
+class TimeBudgetUnitTests {
+
+	AtomicLong clock = new AtomicLong();
+
+	@Test
+	void shouldNotExceedRemainingBudget() {
+
+		TimeBudget budget = budget(Duration.ofMinutes(45), Collections.emptyMap());
+
+		Map<String, Integer> fixtureCounts = new LinkedHashMap<>();
+		fixtureCounts.put("A\\.foo$", 1);
+		fixtureCounts.put("A\\.bar$", 4);
+		fixtureCounts.put("B\\.baz$", 12);
+
+		Map<String, Allocation> allocations = budget.allocate(fixtureCounts);
+
+		Duration total = allocations.values().stream().map(Allocation::getDuration).reduce(Duration.ZERO, Duration::plus);
+
+		assertThat(total).isLessThanOrEqualTo(Duration.ofMinutes(45));
+		assertThat(total).isGreaterThan(Duration.ofMinutes(35));
+		assertThat(allocations.values()).allMatch(budget::fits);
+	}
+
+	@Test
+	void shouldAllocateEqualTimePerFixtureWithoutHistory() {
+
+		TimeBudget budget = budget(Duration.ofMinutes(10), Collections.emptyMap());
+
+		Map<String, Integer> fixtureCounts = new LinkedHashMap<>();
+		fixtureCounts.put("A\\.foo$", 1);
+		fixtureCounts.put("A\\.bar$", 3);
+
+		Map<String, Allocation> allocations = budget.allocate(fixtureCounts);
+
+		assertThat(allocations.get("A\\.foo$").getIterationTime())
+				.isEqualTo(allocations.get("A\\.bar$").getIterationTime());
+		assertThat(allocations.get("A\\.bar$").getDuration())
+				.isEqualTo(allocations.get("A\\.foo$").getDuration().multipliedBy(3));
+	}
+
+	@Test
+	void shouldFavorBenchmarksWithHigherVariance() {
+
+		Map<String, Double> history = new HashMap<>();
+		history.put("com.example.A.noisy", 0.2);
+		history.put("com.example.A.stable", 0.05);
+
+		TimeBudget budget = budget(Duration.ofMinutes(10), history);
+
+		Map<String, Integer> fixtureCounts = new LinkedHashMap<>();
+		fixtureCounts.put("A\\.noisy$", 1);
+		fixtureCounts.put("A\\.stable$", 1);
+
+		Map<String, Allocation> allocations = budget.allocate(fixtureCounts);
+
+		assertThat(allocations.get("A\\.noisy$").getDuration())
+				.isGreaterThan(allocations.get("A\\.stable$").getDuration().multipliedBy(3));
+	}
+
+	@Test
+	void shouldUseMillisecondIterationTimes() {
+
+		TimeBudget budget = budget(Duration.ofSeconds(30), Collections.emptyMap());
+
+		Allocation allocation = budget.allocate(Collections.singletonMap("A\\.foo$", 2)).get("A\\.foo$");
+
+		assertThat(allocation.getIterationTime().toMillis() % 1000).isNotZero();
+		assertThat(allocation.getWarmupIterations()).isEqualTo(5);
+		assertThat(allocation.getMeasurementIterations()).isEqualTo(5);
+	}
+
+	@Test
+	void shouldReduceIterationsForTightBudget() {
+
+		TimeBudget budget = budget(Duration.ofMillis(1800), Collections.emptyMap());
+
+		Allocation allocation = budget.allocate(Collections.singletonMap("A\\.foo$", 1)).get("A\\.foo$");
+
+		assertThat(allocation.getIterationTime()).isBetween(TimeBudget.MIN_ITERATION_TIME,
+				TimeBudget.MIN_ITERATION_TIME.multipliedBy(2));
+		assertThat(allocation.getWarmupIterations() + allocation.getMeasurementIterations()).isLessThan(10);
+		assertThat(allocation.getMeasurementIterations()).isPositive();
+		assertThat(budget.fits(allocation)).isTrue();
+	}
+
+	@Test
+	void shouldRejectAllocationOnceBudgetIsExhausted() {
+
+		TimeBudget budget = budget(Duration.ofMinutes(1), Collections.emptyMap());
+
+		clock.set(Duration.ofSeconds(59).toMillis());
+		Allocation allocation = budget.allocate(Collections.singletonMap("A\\.foo$", 1)).get("A\\.foo$");
+
+		assertThat(budget.getRemaining()).isEqualTo(Duration.ofSeconds(1));
+		assertThat(budget.fits(allocation)).isFalse();
+	}
+
+	private TimeBudget budget(Duration duration, Map<String, Double> history) {
+		return new TimeBudget(duration, 0, clock::get, 1, 5, 5, null, history);
+	}
+}
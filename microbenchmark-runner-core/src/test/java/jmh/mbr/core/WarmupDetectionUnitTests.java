@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static jmh.mbr.core.RunResultGenerator.*;
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Unit tests for {@link WarmupDetection}.
+ */
+class WarmupDetectionUnitTests {
+
+	@Test
+	void shouldDetectEndOfWarmup() {
+
+		double[] scores = { 500, 300, 180, 120, 100, 100, 99, 100, 101, 100, 99, 100, 100, 101, 99, 100 };
+
+		assertThat(WarmupDetection.detectSteadyState(scores)).isEqualTo(4);
+	}
+
+	@Test
+	void shouldNotRequireWarmupForSteadySeries() {
+
+		double[] scores = { 100, 101, 99, 100, 100, 101, 99, 100, 100, 101 };
+
+		assertThat(WarmupDetection.detectSteadyState(scores)).isZero();
+	}
+
+	@Test
+	void shouldReportFullLengthIfNotSettled() {
+
+		double[] scores = { 1000, 900, 800, 700, 600, 500, 400, 300, 200, 100 };
+
+		assertThat(WarmupDetection.detectSteadyState(scores)).isEqualTo(scores.length);
+	}
+
+	@Test
+	void shouldGroupPatternsByDetectedWarmup() {
+
+		WarmupDetection detection = new WarmupDetection(10);
+
+		record(detection, params("com.example.Foo.slow"), 500, 300, 150, 100, 100, 101, 99, 100, 100, 100);
+		record(detection, params("com.example.Foo.fast"), 100, 100, 101, 99, 100, 100, 101, 99, 100, 100);
+
+		Map<Integer, List<String>> groups = detection.groupByWarmupIterations(Arrays.asList(pattern("com.example.Foo", "slow"),
+				pattern("com.example.Foo", "fast"), pattern("com.example.Foo", "unknown")));
+
+		assertThat(groups).containsEntry(3, Collections.singletonList(pattern("com.example.Foo", "slow")))
+				.containsEntry(0, Collections.singletonList(pattern("com.example.Foo", "fast")))
+				.containsEntry(-1, Collections.singletonList(pattern("com.example.Foo", "unknown")));
+	}
+
+	private static void record(WarmupDetection detection, BenchmarkParams params, double... scores) {
+
+		for (double score : scores) {
+			detection.record(params, iteration(params, score));
+		}
+	}
+
+	private static String pattern(String className, String method) {
+		return Pattern.quote(className) + "\\." + Pattern.quote(method) + "$";
+	}
+}
@@ -11,6 +11,7 @@ package jmh.mbr.core.model;
 
 import static org.assertj.core.api.Assertions.*;
 
+import jmh.mbr.core.FixtureSampling;
 import jmh.mbr.core.model.BenchmarkDescriptorFactoryUnitTests.BenchmarkClass.OneParameter;
 import jmh.mbr.core.model.BenchmarkDescriptorFactoryUnitTests.BenchmarkClass.Three1;
 import jmh.mbr.core.model.BenchmarkDescriptorFactoryUnitTests.BenchmarkClass.Three2;
@@ -99,6 +100,58 @@ class BenchmarkDescriptorFactoryUnitTests {
 		assertThat(fixtures).hasSize(3);
 	}
 
+	@Test
+	void shouldSampleFixturesOfAnnotatedBenchmarkClass() {
+
+		BenchmarkDescriptorFactory factory = BenchmarkDescriptorFactory.create(SampledBenchmarkClass.class);
+		jmh.mbr.core.model.BenchmarkClass descriptor = factory.createDescriptor();
+
+		assertThat(descriptor.getChildren()).hasSize(1).first().isInstanceOfSatisfying(ParametrizedBenchmarkMethod.class,
+				it -> {
+					assertThat(it.getChildren()).hasSize(2);
+					assertThat(it.isSampled()).isTrue();
+				});
+	}
+
+	@Test
+	void shouldApplyGlobalFixtureSampler() {
+
+		BenchmarkDescriptorFactory factory = BenchmarkDescriptorFactory.create(ParametrizedBenchmarkClass.class,
+				FixtureSampler.of(FixtureSampling.Strategy.RANDOM, 2, 42));
+		BenchmarkMethod single = factory.getRequiredBenchmarkMethod("simple");
+
+		assertThat(factory.createFixtures(single)).hasSize(2);
+	}
+
+	@Test
+	void shouldSweepThreadCounts() {
+
+		BenchmarkDescriptorFactory factory = BenchmarkDescriptorFactory.create(BenchmarkClass.class,
+				FixtureSampler.full().withThreadSweep("1, 4"));
+		jmh.mbr.core.model.BenchmarkClass descriptor = factory.createDescriptor();
+
+		assertThat(descriptor.getChildren()).allMatch(ParametrizedBenchmarkMethod.class::isInstance);
+
+		List<BenchmarkFixture> simple = factory.createFixtures(factory.getRequiredBenchmarkMethod("simple"));
+		assertThat(simple).extracting(BenchmarkFixture::getDisplayName).containsExactly("[threads=1]", "[threads=4]");
+		assertThat(simple).extracting(BenchmarkFixture::getThreads).containsExactly(1, 4);
+
+		List<BenchmarkFixture> two = factory.createFixtures(factory.getRequiredBenchmarkMethod("single", TwoParameters.class));
+		assertThat(two).extracting(BenchmarkFixture::getDisplayName).containsExactly("[param2=1, threads=1]",
+				"[param2=1, threads=4]", "[param2=2, threads=1]", "[param2=2, threads=4]");
+	}
+
+	@Test
+	void shouldNotSweepThreadsOfBenchmarkDeclaringThreadsParameter() {
+
+		BenchmarkDescriptorFactory factory = BenchmarkDescriptorFactory.create(ThreadsParameterBenchmarkClass.class,
+				FixtureSampler.full().withThreadSweep(1, 2));
+
+		List<BenchmarkFixture> fixtures = factory.createFixtures(factory.getRequiredBenchmarkMethod("simple"));
+
+		assertThat(fixtures).hasSize(2).noneMatch(BenchmarkFixture::isThreadSwept);
+	}
+
 	static class BenchmarkClass {
 
 		@Benchmark
@@ -162,6 +215,30 @@ class BenchmarkDescriptorFactoryUnitTests {
 		}
 	}
 
+	@State(Scope.Benchmark)
+	@FixtureSampling(value = FixtureSampling.Strategy.RANDOM, size = 2)
+	static class SampledBenchmarkClass {
+
+		@Param({ "1", "2", "3" }) String foo;
+		@Param({ "a", "b" }) String bar;
+
+		@Benchmark
+		void simple() {
+
+		}
+	}
+
+	@State(Scope.Benchmark)
+	static class ThreadsParameterBenchmarkClass {
+
+		@Param({ "a", "b" }) String threads;
+
+		@Benchmark
+		void simple() {
+
+		}
+	}
+
 	@State(Scope.Benchmark)
 	static class EnumParametrizedBenchmarkClass {
 
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.runner.BenchmarkList;
+import org.openjdk.jmh.runner.BenchmarkListEntry;
+import org.openjdk.jmh.util.Optional;
+
+/**
+ * Unit tests for {@link BenchmarkIndex}.
+ */
+class BenchmarkIndexUnitTests {
+
+	@Test
+	void shouldResolveClassPathEntry() throws Exception {
+
+		assertThat(BenchmarkIndex.getLocation(new URL("file:/target/classes/META-INF/BenchmarkList")))
+				.isEqualTo("file:/target/classes/");
+		assertThat(BenchmarkIndex.getLocation(new URL("jar:file:/lib/benchmarks.jar!/META-INF/BenchmarkList")))
+				.isEqualTo("file:/lib/benchmarks.jar");
+		assertThat(BenchmarkIndex.getLocation(new URL("file:/target/classes/META-INF/Other"))).isNull();
+	}
+
+	@Test
+	void shouldUseQualifiedNameOfNestedClasses() {
+		assertThat(BenchmarkIndex.getQualifiedName(Listed.class))
+				.isEqualTo("jmh.mbr.core.model.BenchmarkIndexUnitTests.Listed");
+	}
+
+	@Test
+	void shouldLookUpListedClasses(@TempDir File directory) throws Exception {
+
+		copyClass(Listed.class, directory);
+		copyClass(Unlisted.class, directory);
+
+		File list = new File(directory, "META-INF/BenchmarkList");
+		list.getParentFile().mkdirs();
+
+		try (OutputStream out = new FileOutputStream(list)) {
+			BenchmarkList.writeBenchmarkList(out,
+					Arrays.asList(entry(Listed.class, "first"), entry(Listed.class, "second")));
+		}
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { directory.toURI().toURL() }, null)) {
+
+			BenchmarkIndex index = BenchmarkIndex.of(classLoader);
+
+			assertThat(BenchmarkIndex.of(classLoader)).isSameAs(index);
+			assertThat(index.getBenchmarkMethods(classLoader.loadClass(Listed.class.getName())))
+					.hasValueSatisfying(it -> assertThat(it).containsExactly("first", "second"));
+			assertThat(index.isBenchmarkClass(classLoader.loadClass(Unlisted.class.getName()))).contains(false);
+
+			// classes of other class path entries are not covered
+			assertThat(index.isBenchmarkClass(Listed.class)).isEmpty();
+		}
+	}
+
+	@Test
+	void shouldNotCoverClassesWithoutBenchmarkList() {
+		assertThat(BenchmarkIndex.of(getClass().getClassLoader()).isBenchmarkClass(Listed.class)).isEmpty();
+		assertThat(BenchmarkIndex.of(null).isBenchmarkClass(String.class)).isEmpty();
+	}
+
+	private static BenchmarkListEntry entry(Class<?> type, String method) {
+
+		String name = BenchmarkIndex.getQualifiedName(type);
+		return new BenchmarkListEntry(name, name + "_jmhTest", method, Mode.Throughput, Optional.none(), new int[] { 1 },
+				Optional.none(), Optional.none(), Optional.none(), Optional.none(), Optional.none(), Optional.none(),
+				Optional.none(), Optional.none(), Optional.none(), Optional.none(), Optional.none(), Optional.none(),
+				Optional.none(), Optional.none(), Optional.none(), Optional.none(), Optional.none());
+	}
+
+	private static void copyClass(Class<?> type, File directory) throws Exception {
+
+		String resource = type.getName().replace('.', '/') + ".class";
+		File target = new File(directory, resource);
+		target.getParentFile().mkdirs();
+
+		try (InputStream in = type.getClassLoader().getResourceAsStream(resource)) {
+			Files.copy(in, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	static class Listed {}
+
+	static class Unlisted {}
+}
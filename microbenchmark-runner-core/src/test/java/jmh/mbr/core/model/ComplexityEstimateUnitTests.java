@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import jmh.mbr.core.RunResultGenerator;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import jmh.mbr.core.model.ComplexityEstimate.ComplexityClass;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Unit tests for {@link ComplexityEstimate}.
+ */
+class ComplexityEstimateUnitTests {
+
+	static final double[] SIZES = { 10, 100, 1000, 10000, 100000 };
+
+	@Test
+	void shouldSelectComplexityClassOfModel() {
+
+		for (ComplexityClass complexityClass : ComplexityClass.values()) {
+
+			ComplexityEstimate estimate = ComplexityEstimate.fit("size", SIZES, model(complexityClass, 50, 2));
+
+			assertThat(estimate.getComplexityClass()).as(complexityClass.getLabel()).isEqualTo(complexityClass);
+			assertThat(estimate.getRSquared()).as(complexityClass.getLabel()).isCloseTo(1, within(1e-9));
+			assertThat(estimate.getRelativeError()).as(complexityClass.getLabel()).isCloseTo(0, within(1e-6));
+		}
+	}
+
+	@Test
+	void shouldRecoverCoefficients() {
+
+		ComplexityEstimate estimate = ComplexityEstimate.fit("size", SIZES, model(ComplexityClass.LINEAR, 50, 2));
+
+		assertThat(estimate.getParameter()).isEqualTo("size");
+		assertThat(estimate.getIntercept()).isCloseTo(50, within(1e-6));
+		assertThat(estimate.getSlope()).isCloseTo(2, within(1e-9));
+		assertThat(estimate.getCost(1_000_000)).isCloseTo(2_000_050, within(1e-3));
+		assertThat(estimate.getSizes()).containsExactly(SIZES);
+	}
+
+	@Test
+	void shouldTolerateNoise() {
+
+		double[] costs = model(ComplexityClass.QUADRATIC, 1000, 0.01);
+		for (int i = 0; i < costs.length; i++) {
+			costs[i] *= i % 2 == 0 ? 1.05 : 0.95;
+		}
+
+		ComplexityEstimate estimate = ComplexityEstimate.fit("size", SIZES, costs);
+
+		assertThat(estimate.getComplexityClass()).isEqualTo(ComplexityClass.QUADRATIC);
+		assertThat(estimate.getRSquared()).isGreaterThan(0.99);
+		assertThat(estimate.getRelativeError()).isPositive();
+	}
+
+	@Test
+	void shouldFallBackToConstantForDecreasingCost() {
+
+		ComplexityEstimate estimate = ComplexityEstimate.fit("size", new double[] { 1, 2, 3 },
+				new double[] { 30, 20, 10 });
+
+		assertThat(estimate.getComplexityClass()).isEqualTo(ComplexityClass.CONSTANT);
+		assertThat(estimate.getSlope()).isZero();
+		assertThat(estimate.getIntercept()).isCloseTo(20, within(1e-9));
+	}
+
+	@Test
+	void shouldRequireThreeDistinctSizes() {
+
+		assertThat(ComplexityEstimate.fit("size", new double[] { 10, 100, 100 }, new double[] { 1, 10, 11 })).isNull();
+		assertThat(ComplexityEstimate.fit("size", new double[] { 10, 100, 0 }, new double[] { 1, 10, 11 })).isNull();
+		assertThat(ComplexityEstimate.fit("size", new double[0], new double[0])).isNull();
+	}
+
+	@Test
+	void shouldResolveFirstDeclaredCandidate() {
+
+		BenchmarkParams params = RunResultGenerator.params("Foo.run", Mode.AverageTime, "n", "10", "mode", "fast");
+
+		assertThat(ComplexityEstimate.getParameter(metaData("size, n"), params)).isEqualTo("n");
+		assertThat(ComplexityEstimate.getParameter(metaData("size"), params)).isNull();
+		assertThat(ComplexityEstimate.getParameter(new MetaData("p", "1"), params)).isNull();
+		assertThat(ComplexityEstimate.getParameter(null, params)).isNull();
+	}
+
+	@Test
+	void shouldEstimateCurvesOfResults() {
+
+		double[] costs = model(ComplexityClass.LINEARITHMIC, 0.01, 0.0005);
+		List<RunResult> results = new ArrayList<>();
+
+		for (int i = 0; i < SIZES.length; i++) {
+
+			String size = Long.toString((long) SIZES[i]);
+			results.add(averageTimeResult("Foo.sort", costs[i], "size", size, "kind", "array"));
+			results.add(throughputResult("Foo.sort", 1 / costs[i], "size", size, "kind", "list"));
+		}
+		results.add(averageTimeResult("Foo.other", 1, "size", "10"));
+		results.add(averageTimeResult("Foo.text", 1, "size", "large"));
+
+		Map<RunResult, ComplexityEstimate> estimates = ComplexityEstimate
+				.fit(new BenchmarkResults(metaData("size"), results));
+
+		assertThat(estimates).hasSize(SIZES.length * 2);
+
+		ComplexityEstimate array = estimates.get(results.get(0));
+		ComplexityEstimate list = estimates.get(results.get(1));
+
+		assertThat(array).isNotSameAs(list).isSameAs(estimates.get(results.get(2)));
+		assertThat(array.getComplexityClass()).isEqualTo(ComplexityClass.LINEARITHMIC);
+		assertThat(list.getComplexityClass()).isEqualTo(ComplexityClass.LINEARITHMIC);
+		assertThat(list.getSlope()).isCloseTo(0.0005, within(1e-9));
+
+		assertThat(ComplexityEstimate.fit(new BenchmarkResults(new MetaData("p", "1"), results))).isEmpty();
+	}
+
+	private static double[] model(ComplexityClass complexityClass, double intercept, double slope) {
+
+		double[] costs = new double[SIZES.length];
+		for (int i = 0; i < SIZES.length; i++) {
+			costs[i] = intercept + slope * complexityClass.apply(SIZES[i]);
+		}
+		return costs;
+	}
+
+	private static MetaData metaData(String parameter) {
+		return new MetaData("p", "1").withAdditionalParameters(
+				Collections.singletonMap(ComplexityEstimate.PARAMETER_KEY, parameter));
+	}
+
+	private static RunResult throughputResult(String benchmark, double score, String... params) {
+		return RunResultGenerator.runResult(RunResultGenerator.params(benchmark, Mode.Throughput, params), score);
+	}
+
+	private static RunResult averageTimeResult(String benchmark, double score, String... params) {
+		return RunResultGenerator.runResult(RunResultGenerator.params(benchmark, Mode.AverageTime, params), score);
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Unit tests for {@link FixtureRestriction}.
+ */
+class FixtureRestrictionUnitTests {
+
+	@Test
+	void shouldRestrictSingleFixture() {
+
+		List<FixtureRestriction> restrictions = FixtureRestriction.from(Collections.singletonList(fixture("2", "b")));
+
+		assertThat(restrictions).hasSize(1);
+
+		Options options = restrictions.get(0).apply(new OptionsBuilder()).build();
+		assertThat(options.getParameter("size").get()).containsExactly("2");
+		assertThat(options.getParameter("mode").get()).containsExactly("b");
+	}
+
+	@Test
+	void shouldMergeFullProductIntoSingleRestriction() {
+
+		List<BenchmarkFixture> fixtures = product(Arrays.asList("1", "2", "3"), Arrays.asList("a", "b"));
+		List<FixtureRestriction> restrictions = FixtureRestriction.from(fixtures);
+
+		assertThat(restrictions).hasSize(1);
+		assertThat(restrictions.get(0).getParameters().get("size")).containsExactly("1", "2", "3");
+		assertThat(restrictions.get(0).getParameters().get("mode")).containsExactly("a", "b");
+		assertThat(restrictions.get(0).getFixtures()).containsExactlyInAnyOrderElementsOf(fixtures);
+	}
+
+	@Test
+	void shouldMergeSlice() {
+
+		List<FixtureRestriction> restrictions = FixtureRestriction
+				.from(product(Collections.singletonList("2"), Arrays.asList("a", "b", "c")));
+
+		assertThat(restrictions).hasSize(1);
+		assertThat(restrictions.get(0).getParameters().get("size")).containsExactly("2");
+		assertThat(restrictions.get(0).getParameters().get("mode")).containsExactly("a", "b", "c");
+	}
+
+	@Test
+	void shouldCoverNonProductSelectionExactly() {
+
+		// L-shaped selection: no single product covers it without including [3, b]
+		List<BenchmarkFixture> fixtures = Arrays.asList(fixture("1", "a"), fixture("2", "a"), fixture("3", "a"),
+				fixture("1", "b"), fixture("2", "b"));
+
+		List<FixtureRestriction> restrictions = FixtureRestriction.from(fixtures);
+
+		assertThat(restrictions).hasSizeLessThanOrEqualTo(2);
+
+		List<BenchmarkFixture> covered = new ArrayList<>();
+		for (FixtureRestriction restriction : restrictions) {
+
+			for (String size : restriction.getParameters().get("size")) {
+				for (String mode : restriction.getParameters().get("mode")) {
+					covered.add(fixture(size, mode));
+				}
+			}
+
+			assertThat(restriction.getFixtures()).hasSize(
+					restriction.getParameters().get("size").size() * restriction.getParameters().get("mode").size());
+		}
+
+		assertThat(covered).hasSameSizeAs(fixtures).containsExactlyInAnyOrderElementsOf(fixtures);
+		assertThat(new HashSet<>(covered)).hasSameSizeAs(covered);
+	}
+
+	@Test
+	void shouldRestrictThreadCountsSeparately() {
+
+		List<BenchmarkFixture> fixtures = new ArrayList<>();
+		for (BenchmarkFixture fixture : product(Arrays.asList("1", "2"), Collections.singletonList("a"))) {
+			fixtures.add(fixture.withThreads(1));
+			fixtures.add(fixture.withThreads(4));
+		}
+
+		List<FixtureRestriction> restrictions = FixtureRestriction.from(fixtures);
+
+		assertThat(restrictions).extracting(FixtureRestriction::getThreads).containsExactly(1, 4);
+
+		Options options = restrictions.get(1).apply(new OptionsBuilder()).build();
+		assertThat(options.getThreads().get()).isEqualTo(4);
+		assertThat(options.getParameter("size").get()).containsExactly("1", "2");
+		assertThat(options.getParameter(BenchmarkFixture.THREADS).hasValue()).isFalse();
+	}
+
+	@Test
+	void shouldRestrictThreadSweepWithoutParameters() {
+
+		List<FixtureRestriction> restrictions = FixtureRestriction
+				.from(Arrays.asList(BenchmarkFixture.threads(2), BenchmarkFixture.threads(8)));
+
+		assertThat(restrictions).hasSize(2);
+		assertThat(restrictions.get(0).getParameters()).isEmpty();
+		assertThat(restrictions.get(0).apply(new OptionsBuilder()).build().getThreads().get()).isEqualTo(2);
+	}
+
+	private static List<BenchmarkFixture> product(List<String> sizes, List<String> modes) {
+
+		List<BenchmarkFixture> fixtures = new ArrayList<>();
+		for (String size : sizes) {
+			for (String mode : modes) {
+				fixtures.add(fixture(size, mode));
+			}
+		}
+
+		return fixtures;
+	}
+
+	private static BenchmarkFixture fixture(String size, String mode) {
+		return BenchmarkFixture.create("size", size).enhance("mode", mode);
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import jmh.mbr.core.FixtureSampling;
+import jmh.mbr.core.FixtureSampling.Strategy;
+import jmh.mbr.core.model.BenchmarkParameters.BenchmarkArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link FixtureSampler}.
+ */
+class FixtureSamplerUnitTests {
+
+	@Test
+	void shouldCreateFullProduct() {
+
+		List<BenchmarkFixture> fixtures = FixtureSampler.full().sample(arguments(3, 3));
+
+		assertThat(fixtures).hasSize(9);
+		assertThat(fixtures.get(1).getFixture()).containsEntry("p0", "0").containsEntry("p1", "1");
+	}
+
+	@Test
+	void shouldCoverAllPairs() {
+
+		List<BenchmarkArgument> arguments = arguments(6, 6, 6, 6, 6);
+		List<BenchmarkFixture> fixtures = FixtureSampler.of(Strategy.PAIRWISE, -1, 0).sample(arguments);
+
+		assertThat(fixtures).hasSizeLessThan(60);
+
+		for (int i = 0; i < arguments.size(); i++) {
+			for (int j = i + 1; j < arguments.size(); j++) {
+
+				Set<String> pairs = new HashSet<>();
+				for (BenchmarkFixture fixture : fixtures) {
+					pairs.add(fixture.getFixture().get("p" + i) + ":" + fixture.getFixture().get("p" + j));
+				}
+
+				assertThat(pairs).hasSize(36);
+			}
+		}
+	}
+
+	@Test
+	void shouldSelectSeededRandomSubset() {
+
+		List<BenchmarkFixture> first = FixtureSampler.of(Strategy.RANDOM, 10, 42).sample(arguments(6, 6, 6));
+		List<BenchmarkFixture> second = FixtureSampler.of(Strategy.RANDOM, 10, 42).sample(arguments(6, 6, 6));
+
+		assertThat(first).hasSize(10).doesNotHaveDuplicates().isEqualTo(second);
+	}
+
+	@Test
+	void shouldFallBackToFullProductIfSampleExceedsProduct() {
+		assertThat(FixtureSampler.of(Strategy.RANDOM, 100, 42).sample(arguments(2, 2))).hasSize(4);
+	}
+
+	@Test
+	void shouldResolveStrategyByName() {
+
+		assertThat(FixtureSampler.of("pairwise", -1, 0).getStrategy()).isEqualTo(Strategy.PAIRWISE);
+		assertThat(FixtureSampler.of((String) null, -1, 0).getStrategy()).isEqualTo(Strategy.FULL);
+	}
+
+	@Test
+	void shouldSweepThreadCountsOfSampledFixtures() {
+
+		FixtureSampler sampler = FixtureSampler.of(Strategy.RANDOM, 2, 42).withThreadSweep("1,2,4");
+
+		assertThat(sampler.isThreadSweep()).isTrue();
+		assertThat(sampler.getStrategy()).isEqualTo(Strategy.RANDOM);
+
+		List<BenchmarkFixture> fixtures = sampler.sweep(sampler.sample(arguments(3, 3)));
+
+		assertThat(fixtures).hasSize(6).allMatch(BenchmarkFixture::isThreadSwept);
+		assertThat(fixtures).extracting(BenchmarkFixture::getThreads).containsExactly(1, 2, 4, 1, 2, 4);
+		assertThat(sampler.sweep(Collections.emptyList())).extracting(BenchmarkFixture::getFixture)
+				.extracting(it -> it.get(BenchmarkFixture.THREADS)).containsExactly("1", "2", "4");
+	}
+
+	@Test
+	void shouldRetainThreadSweepForAnnotatedClass() {
+
+		FixtureSampler sampler = FixtureSampler.full().withThreadSweep(1, 8).forClass(Annotated.class);
+
+		assertThat(sampler.getStrategy()).isEqualTo(Strategy.PAIRWISE);
+		assertThat(sampler.isThreadSweep()).isTrue();
+		assertThat(FixtureSampler.full().withThreadSweep((String) null).isThreadSweep()).isFalse();
+		assertThatIllegalArgumentException().isThrownBy(() -> FixtureSampler.full().withThreadSweep(0));
+	}
+
+	private static List<BenchmarkArgument> arguments(int... dimensions) {
+
+		List<BenchmarkArgument> arguments = new ArrayList<>();
+
+		for (int i = 0; i < dimensions.length; i++) {
+
+			BenchmarkArgument argument = new BenchmarkArgument("p" + i);
+			for (int value = 0; value < dimensions[i]; value++) {
+				argument.getParameters().add(Integer.toString(value));
+			}
+			arguments.add(argument);
+		}
+
+		return arguments;
+	}
+
+	@FixtureSampling(FixtureSampling.Strategy.PAIRWISE)
+	static class Annotated {}
+}
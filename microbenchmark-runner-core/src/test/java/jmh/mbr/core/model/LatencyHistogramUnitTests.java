@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import jmh.mbr.core.RunResultGenerator;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.ResultRole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.SampleTimeResult;
+import org.openjdk.jmh.util.SampleBuffer;
+
+/**
+ * Unit tests for {@link LatencyHistogram}.
+ */
+class LatencyHistogramUnitTests {
+
+	@Test
+	void shouldMapValuesToBucketsWithinPrecision() {
+
+		assertThat(LatencyHistogram.indexOf(0)).isZero();
+		assertThat(LatencyHistogram.indexOf(255)).isEqualTo(255);
+
+		Random random = new Random(42);
+		for (int i = 0; i < 10_000; i++) {
+
+			long value = random.nextLong() >>> 1 + random.nextInt(63);
+			int index = LatencyHistogram.indexOf(value);
+
+			assertThat(value).isBetween(LatencyHistogram.lowerBound(index), LatencyHistogram.upperBound(index));
+			assertThat((double) (LatencyHistogram.upperBound(index) - LatencyHistogram.lowerBound(index)))
+					.isLessThanOrEqualTo(value / 128d);
+		}
+
+		assertThat(LatencyHistogram.indexOf(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.indexOf(Long.MAX_VALUE - 1));
+	}
+
+	@Test
+	void shouldReportPercentilesWithinOnePercent() {
+
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1; value <= 1_000_000; value++) {
+			histogram.record(value);
+		}
+
+		assertThat(histogram.getTotalCount()).isEqualTo(1_000_000);
+		assertThat(histogram.getMin()).isEqualTo(1);
+		assertThat(histogram.getMax()).isEqualTo(1_000_000);
+		assertThat(histogram.getMean()).isEqualTo(500_000.5);
+		assertThat(histogram.getValueAtPercentile(0)).isEqualTo(1);
+		assertThat(histogram.getValueAtPercentile(50)).isCloseTo(500_000, withinPercentage(1));
+		assertThat(histogram.getValueAtPercentile(99)).isCloseTo(990_000, withinPercentage(1));
+		assertThat(histogram.getValueAtPercentile(99.99)).isCloseTo(999_900, withinPercentage(1));
+		assertThat(histogram.getValueAtPercentile(100)).isEqualTo(1_000_000);
+	}
+
+	@Test
+	void shouldMergeHistograms() {
+
+		LatencyHistogram all = new LatencyHistogram();
+		LatencyHistogram fast = new LatencyHistogram();
+		LatencyHistogram slow = new LatencyHistogram();
+
+		for (long value = 100; value < 200; value++) {
+			fast.record(value, 99);
+			all.record(value, 99);
+		}
+		slow.record(1_000_000, 100);
+		all.record(1_000_000, 100);
+
+		fast.add(slow);
+		fast.add(new LatencyHistogram());
+
+		assertThat(fast.getTotalCount()).isEqualTo(all.getTotalCount());
+		assertThat(fast.getMin()).isEqualTo(100);
+		assertThat(fast.getMax()).isEqualTo(1_000_000);
+		for (double percentile : new double[] { 0, 50, 90, 99, 99.9, 100 }) {
+			assertThat(fast.getValueAtPercentile(percentile)).isEqualTo(all.getValueAtPercentile(percentile));
+		}
+		assertThat(fast.getValueAtPercentile(99)).isEqualTo(199);
+		assertThat(fast.getValueAtPercentile(99.9)).isCloseTo(1_000_000, withinPercentage(1));
+	}
+
+	@Test
+	void shouldReadWrittenHistogram() throws Exception {
+
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(10, 5);
+		histogram.record(12_345_678, 2);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		histogram.write(new DataOutputStream(bytes));
+
+		LatencyHistogram read = LatencyHistogram.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+		assertThat(bytes.size()).isLessThan(32);
+		assertThat(read.getTotalCount()).isEqualTo(7);
+		assertThat(read.getMin()).isEqualTo(10);
+		assertThat(read.getMax()).isEqualTo(12_345_678);
+		assertThat(read.getMean()).isEqualTo(histogram.getMean());
+		assertThat(read.getValueAtPercentile(50)).isEqualTo(10);
+		assertThat(read.getValueAtPercentile(90)).isEqualTo(histogram.getValueAtPercentile(90));
+	}
+
+	@Test
+	void shouldCreateHistogramFromSampleTimeResult() {
+
+		BenchmarkParams params = RunResultGenerator.params("Foo.bar", Mode.SampleTime);
+
+		SampleBuffer buffer = new SampleBuffer();
+		for (int i = 0; i < 99; i++) {
+			buffer.add(1_000);
+		}
+		buffer.add(5_000_000);
+
+		IterationResult iteration = new IterationResult(params, params.getMeasurement(), null);
+		iteration.addResult(new SampleTimeResult(ResultRole.PRIMARY, "bar", buffer, TimeUnit.MICROSECONDS));
+		BenchmarkResult fork = new BenchmarkResult(params, Collections.singletonList(iteration));
+
+		LatencyHistogram histogram = LatencyHistogram
+				.from(new RunResult(params, Arrays.asList(fork, fork)));
+
+		assertThat(histogram.getTotalCount()).isEqualTo(200);
+		assertThat(histogram.getValueAtPercentile(50)).isCloseTo(1_000, withinPercentage(1));
+		assertThat(histogram.getMax()).isCloseTo(5_000_000, withinPercentage(1));
+		assertThat(LatencyHistogram.convert(histogram.getMax(), TimeUnit.MILLISECONDS)).isCloseTo(5, withinPercentage(1));
+		assertThat(LatencyHistogram.getLabel(99)).isEqualTo("p99");
+		assertThat(LatencyHistogram.getLabel(99.9)).isEqualTo("p99.9");
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import jmh.mbr.core.RunResultGenerator;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Unit tests for {@link UniversalScalabilityLaw}.
+ */
+class UniversalScalabilityLawUnitTests {
+
+	static final int[] THREADS = { 1, 2, 4, 8, 16, 32 };
+
+	@Test
+	void shouldRecoverCoefficients() {
+
+		UniversalScalabilityLaw usl = UniversalScalabilityLaw.fit(THREADS, model(1000, 0.05, 0.001));
+
+		assertThat(usl.getLambda()).isCloseTo(1000, within(1e-6));
+		assertThat(usl.getContention()).isCloseTo(0.05, within(1e-9));
+		assertThat(usl.getCoherency()).isCloseTo(0.001, within(1e-9));
+		assertThat(usl.getRSquared()).isCloseTo(1, within(1e-9));
+		assertThat(usl.getPeakThreads()).isCloseTo(Math.sqrt(0.95 / 0.001), within(1e-6));
+		assertThat(usl.getThreads()).containsExactly(THREADS);
+	}
+
+	@Test
+	void shouldConstrainCoefficientsToNonNegativeValues() {
+
+		// super-linear speedup would require negative contention
+		UniversalScalabilityLaw usl = UniversalScalabilityLaw.fit(new int[] { 1, 2, 4 }, new double[] { 100, 210, 440 });
+
+		assertThat(usl.getContention()).isZero();
+		assertThat(usl.getCoherency()).isZero();
+		assertThat(usl.getPeakThreads()).isInfinite();
+		assertThat(usl.getLambda()).isPositive();
+	}
+
+	@Test
+	void shouldDetermineContentionOnlyFromTwoThreadCounts() {
+
+		UniversalScalabilityLaw usl = UniversalScalabilityLaw.fit(new int[] { 4, 1 }, model(new int[] { 4, 1 }, 100, 0.1, 0));
+
+		assertThat(usl.getContention()).isCloseTo(0.1, within(1e-9));
+		assertThat(usl.getCoherency()).isZero();
+		assertThat(usl.getThreads()).containsExactly(1, 4);
+	}
+
+	@Test
+	void shouldNotFitSingleThreadCount() {
+
+		assertThat(UniversalScalabilityLaw.fit(new int[] { 4, 4 }, new double[] { 100, 110 })).isNull();
+		assertThat(UniversalScalabilityLaw.fit(new int[0], new double[0])).isNull();
+	}
+
+	@Test
+	void shouldFitCurvesOfRunResults() {
+
+		double[] throughput = model(500, 0.02, 0.0005);
+		List<RunResult> results = new ArrayList<>();
+
+		for (int i = 0; i < THREADS.length; i++) {
+
+			results.add(throughputResult("Foo.sweep", THREADS[i], throughput[i]));
+
+			// average time per operation and thread
+			results.add(averageTimeResult("Foo.sweep", THREADS[i], THREADS[i] / throughput[i]));
+		}
+		results.add(throughputResult("Foo.single", 1, 100));
+
+		Map<RunResult, UniversalScalabilityLaw> fits = UniversalScalabilityLaw.fit(results);
+
+		assertThat(fits).hasSize(THREADS.length * 2).doesNotContainKey(results.get(results.size() - 1));
+
+		UniversalScalabilityLaw throughputFit = fits.get(results.get(0));
+		UniversalScalabilityLaw timeFit = fits.get(results.get(1));
+
+		assertThat(throughputFit).isNotSameAs(timeFit);
+		assertThat(throughputFit.getContention()).isCloseTo(0.02, within(1e-6));
+		assertThat(timeFit.getContention()).isCloseTo(0.02, within(1e-6));
+		assertThat(timeFit.getCoherency()).isCloseTo(0.0005, within(1e-6));
+	}
+
+	private static double[] model(double lambda, double sigma, double kappa) {
+		return model(THREADS, lambda, sigma, kappa);
+	}
+
+	private static double[] model(int[] threads, double lambda, double sigma, double kappa) {
+
+		double[] throughput = new double[threads.length];
+		for (int i = 0; i < threads.length; i++) {
+			int n = threads[i];
+			throughput[i] = lambda * n / (1 + sigma * (n - 1) + kappa * n * (n - 1));
+		}
+		return throughput;
+	}
+
+	private static RunResult throughputResult(String benchmark, int threads, double score) {
+		return RunResultGenerator.runResult(RunResultGenerator.params(benchmark, Mode.Throughput, threads), score);
+	}
+
+	private static RunResult averageTimeResult(String benchmark, int threads, double score) {
+		return RunResultGenerator.runResult(RunResultGenerator.params(benchmark, Mode.AverageTime, threads), score);
+	}
+}
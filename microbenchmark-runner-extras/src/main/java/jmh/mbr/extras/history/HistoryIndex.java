@@ -0,0 +1,355 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+
+/**
+ * Memory-mapped hash index of a {@link HistoryStore}. Each slot holds the hash of a key, the segment containing its
+ * records and a ring with the offset, timestamp and primary score of its {@link #CAPACITY} most recent records. Slots
+ * are located through linear probing. The index is grown by rehashing its slots into a file of twice the size.
+ */
+class HistoryIndex {
+
+	/**
+	 * Number of most recent records tracked per key.
+	 */
+	static final int CAPACITY = 32;
+
+	static final int INITIAL_SLOTS = 256;
+
+	private static final int MAGIC = 0x4d425248;
+	private static final int VERSION = 1;
+	private static final double MAX_LOAD = 0.7;
+
+	// header: magic, version, slots, keys, segment bytes
+	private static final int HEADER_SIZE = 24;
+	private static final int SLOTS_OFFSET = 8;
+	private static final int KEYS_OFFSET = 12;
+	private static final int SEGMENT_BYTES_OFFSET = 16;
+
+	// slot: key hash, segment, record count, ring of (offset, timestamp, score)
+	private static final int ENTRY_SIZE = 24;
+	private static final int RING_OFFSET = 24;
+	private static final int SLOT_SIZE = RING_OFFSET + CAPACITY * ENTRY_SIZE;
+
+	private final File file;
+	private final boolean writable;
+	private MappedByteBuffer buffer;
+	private int slots;
+
+	private HistoryIndex(File file, boolean writable, MappedByteBuffer buffer) {
+		this.file = file;
+		this.writable = writable;
+		this.buffer = buffer;
+		this.slots = buffer.getInt(SLOTS_OFFSET);
+	}
+
+	/**
+	 * Create an empty index, replacing an existing index file.
+	 *
+	 * @param file the index file.
+	 * @param slots number of slots, must be a power of two.
+	 * @return the writable index.
+	 * @throws IOException if the index cannot be created.
+	 */
+	static HistoryIndex create(File file, int slots) throws IOException {
+
+		Files.deleteIfExists(file.toPath());
+		return new HistoryIndex(file, true, allocate(file, slots));
+	}
+
+	/**
+	 * Open an existing index.
+	 *
+	 * @param file the index file.
+	 * @param writable whether to map the index for writing.
+	 * @return the index or {@literal null} if the index file does not exist.
+	 * @throws IOException if the index cannot be mapped or is corrupt.
+	 */
+	static HistoryIndex open(File file, boolean writable) throws IOException {
+
+		if (!file.isFile()) {
+			return null;
+		}
+
+		MappedByteBuffer buffer = map(file, writable);
+
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			throw new IOException("Not a history index: " + file);
+		}
+
+		int slots = buffer.getInt(SLOTS_OFFSET);
+
+		if (Integer.bitCount(slots) != 1 || buffer.capacity() != HEADER_SIZE + (long) slots * SLOT_SIZE) {
+			throw new IOException("Corrupt history index: " + file);
+		}
+
+		return new HistoryIndex(file, writable, buffer);
+	}
+
+	/**
+	 * @return the combined length of all segments covered by the index.
+	 */
+	long getSegmentBytes() {
+		return buffer.getLong(SEGMENT_BYTES_OFFSET);
+	}
+
+	/**
+	 * @return the number of keys.
+	 */
+	int getKeys() {
+		return buffer.getInt(KEYS_OFFSET);
+	}
+
+	/**
+	 * Add a record.
+	 *
+	 * @param keyHash hash of the record key.
+	 * @param segment segment containing the record.
+	 * @param offset offset of the record within its segment.
+	 * @param timestamp the record timestamp.
+	 * @param score the primary score.
+	 * @param length the record length added to the {@link #getSegmentBytes() segment bytes}.
+	 * @throws IOException if the index must grow and cannot be grown.
+	 */
+	void add(long keyHash, long segment, long offset, long timestamp, double score, int length) throws IOException {
+
+		int slot = find(keyHash);
+
+		if (slot < 0) {
+
+			if (getKeys() + 1 > slots * MAX_LOAD) {
+				grow();
+			}
+
+			slot = insert(keyHash, segment);
+			buffer.putInt(KEYS_OFFSET, getKeys() + 1);
+		}
+
+		int position = position(slot);
+		long count = buffer.getLong(position + 16);
+		int entry = position + RING_OFFSET + (int) (count % CAPACITY) * ENTRY_SIZE;
+
+		buffer.putLong(entry, offset);
+		buffer.putLong(entry + 8, timestamp);
+		buffer.putDouble(entry + 16, score);
+		buffer.putLong(position + 16, count + 1);
+		buffer.putLong(SEGMENT_BYTES_OFFSET, getSegmentBytes() + length);
+	}
+
+	/**
+	 * @param keyHash hash of the record key.
+	 * @return the segment containing the records of the key or {@code 0} if the key is not indexed.
+	 */
+	long getSegment(long keyHash) {
+
+		int slot = find(keyHash);
+		return slot < 0 ? 0 : buffer.getLong(position(slot) + 8);
+	}
+
+	/**
+	 * @param keyHash hash of the record key.
+	 * @param limit maximum number of scores.
+	 * @return the primary scores of the most recent records of the key, oldest first.
+	 */
+	double[] getScores(long keyHash, int limit) {
+
+		int slot = find(keyHash);
+
+		if (slot < 0) {
+			return new double[0];
+		}
+
+		double[] scores = new double[available(slot, limit)];
+		for (int i = 0; i < scores.length; i++) {
+			scores[i] = buffer.getDouble(entry(slot, scores.length - i) + 16);
+		}
+
+		return scores;
+	}
+
+	/**
+	 * @param keyHash hash of the record key.
+	 * @param limit maximum number of offsets.
+	 * @return the offsets of the most recent records of the key, oldest first.
+	 */
+	long[] getOffsets(long keyHash, int limit) {
+
+		int slot = find(keyHash);
+
+		if (slot < 0) {
+			return new long[0];
+		}
+
+		long[] offsets = new long[available(slot, limit)];
+		for (int i = 0; i < offsets.length; i++) {
+			offsets[i] = buffer.getLong(entry(slot, offsets.length - i));
+		}
+
+		return offsets;
+	}
+
+	/**
+	 * Call {@code action} with segment and offset of the most recent record of each key.
+	 *
+	 * @param action the action to perform.
+	 */
+	void forEachLatest(BiConsumer<Long, Long> action) {
+
+		for (int slot = 0; slot < slots; slot++) {
+
+			int position = position(slot);
+			if (buffer.getLong(position) != 0 && buffer.getLong(position + 16) > 0) {
+				action.accept(buffer.getLong(position + 8), buffer.getLong(entry(slot, 1)));
+			}
+		}
+	}
+
+	/**
+	 * Write changes to the storage device.
+	 */
+	void force() {
+
+		if (writable) {
+			buffer.force();
+		}
+	}
+
+	private int available(int slot, int limit) {
+		return (int) Math.min(Math.min(limit, CAPACITY), buffer.getLong(position(slot) + 16));
+	}
+
+	/**
+	 * @param age {@code 1} for the most recent record, {@code 2} for the one before, etc.
+	 */
+	private int entry(int slot, int age) {
+
+		int position = position(slot);
+		long count = buffer.getLong(position + 16);
+		return position + RING_OFFSET + (int) ((count - age) % CAPACITY) * ENTRY_SIZE;
+	}
+
+	private int find(long keyHash) {
+
+		int mask = slots - 1;
+		for (int slot = (int) (mix(keyHash) & mask); ; slot = (slot + 1) & mask) {
+
+			long hash = buffer.getLong(position(slot));
+
+			if (hash == keyHash) {
+				return slot;
+			}
+
+			if (hash == 0) {
+				return -1;
+			}
+		}
+	}
+
+	private int insert(long keyHash, long segment) {
+
+		int mask = slots - 1;
+		int slot = (int) (mix(keyHash) & mask);
+
+		while (buffer.getLong(position(slot)) != 0) {
+			slot = (slot + 1) & mask;
+		}
+
+		int position = position(slot);
+		buffer.putLong(position, keyHash);
+		buffer.putLong(position + 8, segment);
+		buffer.putLong(position + 16, 0);
+
+		return slot;
+	}
+
+	private void grow() throws IOException {
+
+		File grown = new File(file.getParentFile(), file.getName() + ".tmp");
+		Files.deleteIfExists(grown.toPath());
+
+		HistoryIndex target = new HistoryIndex(grown, true, allocate(grown, slots * 2));
+
+		for (int slot = 0; slot < slots; slot++) {
+
+			int position = position(slot);
+			long keyHash = buffer.getLong(position);
+
+			if (keyHash == 0) {
+				continue;
+			}
+
+			int targetPosition = target.position(target.insert(keyHash, buffer.getLong(position + 8)));
+			for (int i = 8; i < SLOT_SIZE; i++) {
+				target.buffer.put(targetPosition + i, buffer.get(position + i));
+			}
+		}
+
+		target.buffer.putInt(KEYS_OFFSET, getKeys());
+		target.buffer.putLong(SEGMENT_BYTES_OFFSET, getSegmentBytes());
+		target.buffer.force();
+
+		Files.move(grown.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		this.buffer = target.buffer;
+		this.slots = target.slots;
+	}
+
+	private static int position(int slot) {
+		return HEADER_SIZE + slot * SLOT_SIZE;
+	}
+
+	/**
+	 * Spread the bits of the hash to reduce clustering of slots.
+	 */
+	private static long mix(long hash) {
+
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		return hash ^ hash >>> 33;
+	}
+
+	private static MappedByteBuffer allocate(File file, int slots) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+					HEADER_SIZE + (long) slots * SLOT_SIZE);
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+			buffer.putInt(SLOTS_OFFSET, slots);
+
+			return buffer;
+		}
+	}
+
+	private static MappedByteBuffer map(File file, boolean writable) throws IOException {
+
+		if (writable) {
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+					StandardOpenOption.WRITE)) {
+				return channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+			}
+		}
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+}
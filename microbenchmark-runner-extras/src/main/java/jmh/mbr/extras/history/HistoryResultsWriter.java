@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+
+import jmh.mbr.core.BenchmarkHistory;
+import jmh.mbr.core.BenchmarkSharding;
+import jmh.mbr.core.StreamingResultsWriter;
+import jmh.mbr.core.model.BenchmarkResults.BenchmarkResult;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * {@link StreamingResultsWriter} appending each result to a {@link HistoryStore}.
+ */
+class HistoryResultsWriter implements StreamingResultsWriter {
+
+	private final File directory;
+	private HistoryStore store;
+
+	HistoryResultsWriter(File directory) {
+		this.directory = directory;
+	}
+
+	@Override
+	public void open(OutputFormat output) {
+
+		try {
+			getStore();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot open benchmark history " + directory, e);
+		}
+	}
+
+	@Override
+	public void write(OutputFormat output, BenchmarkResult result) {
+
+		BenchmarkParams params = result.getParams();
+		Result<?> primary = result.getPrimaryResult();
+		Collection<IterationResult> iterations = result.getAggregatedResult().getIterationResults();
+
+		double[] scores = new double[iterations.size()];
+		int index = 0;
+		for (IterationResult iteration : iterations) {
+			scores[index++] = iteration.getPrimaryResult().getScore();
+		}
+
+		BenchmarkHistory.Record record = new BenchmarkHistory.Record(
+				BenchmarkHistory.getKey(params, BenchmarkSharding.isThreadSweep(result.getMetaData())),
+				params.getBenchmark(), System.currentTimeMillis(), primary.getScoreUnit(), primary.getScore(), scores,
+				result.getHistogram());
+
+		try {
+			getStore().append(record);
+		} catch (IOException | RuntimeException e) {
+			output.println(String.format("# WARNING: Cannot record result of %s in %s: %s", params.getBenchmark(),
+					directory, e));
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+
+		if (store == null) {
+			return;
+		}
+
+		try {
+			store.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			store = null;
+		}
+	}
+
+	private synchronized HistoryStore getStore() throws IOException {
+
+		if (store == null) {
+			store = HistoryStore.open(directory);
+		}
+
+		return store;
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.history;
+
+import java.io.File;
+
+import jmh.mbr.core.ResultsWriter;
+import jmh.mbr.core.ResultsWriterFactory;
+
+/**
+ * {@link ResultsWriterFactory} recording results in a {@link HistoryStore}. Activated with
+ * <code>-Djmh.mbr.report.publishTo=history:./path/to/directory</code>.
+ *
+ * @see HistoryStoreFactory
+ */
+public class HistoryResultsWriterFactory implements ResultsWriterFactory {
+
+	static final String SCHEME = "history:";
+
+	@Override
+	public ResultsWriter forUri(String uri) {
+
+		if (uri == null || !uri.startsWith(SCHEME)) {
+			return null;
+		}
+
+		return new HistoryResultsWriter(getDirectory(uri));
+	}
+
+	static File getDirectory(String uri) {
+		return new File(uri.substring(SCHEME.length())).getAbsoluteFile();
+	}
+}
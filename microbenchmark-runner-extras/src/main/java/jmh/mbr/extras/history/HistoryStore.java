@@ -0,0 +1,411 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.history;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import jmh.mbr.core.BenchmarkHistory;
+import jmh.mbr.core.model.LatencyHistogram;
+
+/**
+ * Append-only store of benchmark results. Records are appended to a log segment per benchmark ({@code fqcn.method})
+ * within the store directory. A memory-mapped {@link HistoryIndex} locates the most recent records of each
+ * {@link BenchmarkHistory#getKey(org.openjdk.jmh.infra.BenchmarkParams, boolean) key} and holds their primary scores
+ * so that {@link #getScores(String, int) recent scores} are looked up without reading the segments.
+ * <p>
+ * Records consist of the length and CRC32 checksum of their payload followed by the payload. The payload of sample time
+ * results ends with their {@link LatencyHistogram}. On opening a store for writing, records torn by a crash are
+ * discarded and the index is rebuilt from the segments if it does not cover them. A store supports a single writer;
+ * readers see records appended by the writer.
+ */
+public class HistoryStore implements BenchmarkHistory, Closeable {
+
+	static final String INDEX_FILE = "history.idx";
+
+	private static final String SEGMENT_PREFIX = "segment-";
+	private static final String SEGMENT_SUFFIX = ".log";
+	private static final int HEADER_LENGTH = Integer.BYTES + Long.BYTES;
+
+	private final File directory;
+	private final Map<Long, FileChannel> segments = new HashMap<>();
+	private HistoryIndex index;
+
+	private HistoryStore(File directory, HistoryIndex index) {
+		this.directory = directory;
+		this.index = index;
+	}
+
+	/**
+	 * Open the store in {@code directory} for appending records. The directory is created if it does not exist.
+	 *
+	 * @param directory the store directory.
+	 * @return the {@link HistoryStore}.
+	 * @throws IOException if the store cannot be opened.
+	 */
+	public static HistoryStore open(File directory) throws IOException {
+
+		directory.mkdirs();
+
+		if (!directory.isDirectory()) {
+			throw new IOException("Cannot create history directory " + directory);
+		}
+
+		long segmentBytes = 0;
+		for (File segment : listSegments(directory)) {
+			segmentBytes += recover(segment);
+		}
+
+		File indexFile = new File(directory, INDEX_FILE);
+		HistoryIndex index;
+
+		try {
+			index = HistoryIndex.open(indexFile, true);
+		} catch (IOException e) {
+			index = null;
+		}
+
+		if (index == null || index.getSegmentBytes() != segmentBytes) {
+			index = rebuild(directory, indexFile);
+		}
+
+		return new HistoryStore(directory, index);
+	}
+
+	/**
+	 * Open the store in {@code directory} for reading.
+	 *
+	 * @param directory the store directory.
+	 * @return the {@link HistoryStore}. An empty store if the directory does not exist.
+	 * @throws IOException if the store cannot be opened.
+	 */
+	public static HistoryStore openReadOnly(File directory) throws IOException {
+		return new HistoryStore(directory, HistoryIndex.open(new File(directory, INDEX_FILE), false));
+	}
+
+	/**
+	 * Append a record and sync its segment to disk.
+	 *
+	 * @param record the record to append.
+	 * @throws IOException if the record cannot be appended.
+	 * @throws IllegalStateException if the store is read-only or closed.
+	 */
+	public synchronized void append(Record record) throws IOException {
+
+		if (index == null) {
+			throw new IllegalStateException("History store " + directory + " is not open for writing");
+		}
+
+		byte[] bytes = serialize(record);
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + bytes.length);
+		buffer.putInt(bytes.length).putLong(checksum(bytes)).put(bytes);
+		// Buffer methods are covariant on Java 9+ only, cast to link against the Java 8 signatures
+		((Buffer) buffer).flip();
+
+		long segment = hash(record.getBenchmark());
+		FileChannel channel = segments.get(segment);
+
+		if (channel == null) {
+			channel = FileChannel.open(getSegmentFile(directory, segment).toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+			segments.put(segment, channel);
+		}
+
+		long offset = channel.size();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		channel.force(false);
+
+		index.add(hash(record.getKey()), segment, offset, record.getTimestamp(), record.getScore(), buffer.capacity());
+	}
+
+	/**
+	 * Return the primary scores of the most recent records of {@code key} from the index.
+	 *
+	 * @param key the {@link BenchmarkHistory#getKey(org.openjdk.jmh.infra.BenchmarkParams, boolean) key}.
+	 * @param limit maximum number of scores, at most {@link HistoryIndex#CAPACITY}.
+	 * @return the scores ordered from oldest to newest.
+	 */
+	public synchronized double[] getScores(String key, int limit) {
+		return index == null ? new double[0] : index.getScores(hash(key), limit);
+	}
+
+	@Override
+	public synchronized List<Record> getRecords(String key, int limit) {
+
+		List<Record> records = new ArrayList<>();
+
+		if (index == null) {
+			return records;
+		}
+
+		long keyHash = hash(key);
+		long segment = index.getSegment(keyHash);
+
+		for (long offset : index.getOffsets(keyHash, limit)) {
+
+			Record record = read(segment, offset);
+			if (record != null && record.getKey().equals(key)) {
+				records.add(record);
+			}
+		}
+
+		return records;
+	}
+
+	@Override
+	public synchronized List<Record> getLatestRecords() {
+
+		List<Record> records = new ArrayList<>();
+
+		if (index != null) {
+			index.forEachLatest((segment, offset) -> {
+
+				Record record = read(segment, offset);
+				if (record != null) {
+					records.add(record);
+				}
+			});
+		}
+
+		return records;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+
+		IOException failure = null;
+
+		for (FileChannel channel : segments.values()) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				failure = e;
+			}
+		}
+
+		segments.clear();
+
+		if (index != null) {
+			index.force();
+			index = null;
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return directory.toString();
+	}
+
+	private Record read(long segment, long offset) {
+
+		try (FileChannel channel = FileChannel.open(getSegmentFile(directory, segment).toPath(),
+				StandardOpenOption.READ)) {
+			return read(channel, offset);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot read history segment of " + directory, e);
+		}
+	}
+
+	/**
+	 * Read the record at {@code offset}.
+	 *
+	 * @return the record or {@literal null} if there is no intact record at {@code offset}.
+	 */
+	private static Record read(FileChannel channel, long offset) throws IOException {
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+		if (!readFully(channel, header, offset)) {
+			return null;
+		}
+
+		int length = header.getInt(0);
+		long checksum = header.getLong(Integer.BYTES);
+
+		if (length < 0 || length > channel.size() - offset - HEADER_LENGTH) {
+			return null;
+		}
+
+		ByteBuffer payload = ByteBuffer.allocate(length);
+		if (!readFully(channel, payload, offset + HEADER_LENGTH)) {
+			return null;
+		}
+
+		byte[] bytes = payload.array();
+		return checksum == checksum(bytes) ? deserialize(bytes) : null;
+	}
+
+	private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+
+		while (buffer.hasRemaining()) {
+
+			int read = channel.read(buffer, position + buffer.position());
+			if (read < 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Discard a trailing incomplete record of {@code segment}.
+	 *
+	 * @return the length of the intact records.
+	 */
+	private static long recover(File segment) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+
+			long position = 0;
+			for (Record record; (record = read(channel, position)) != null; ) {
+				position += HEADER_LENGTH + serialize(record).length;
+			}
+
+			if (position < channel.size()) {
+				channel.truncate(position);
+			}
+
+			return position;
+		}
+	}
+
+	private static HistoryIndex rebuild(File directory, File indexFile) throws IOException {
+
+		HistoryIndex index = HistoryIndex.create(indexFile, HistoryIndex.INITIAL_SLOTS);
+
+		for (File file : listSegments(directory)) {
+
+			String name = file.getName();
+			long segment = Long.parseUnsignedLong(
+					name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()), 16);
+
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+
+				long position = 0;
+				for (Record record; (record = read(channel, position)) != null; ) {
+
+					int length = HEADER_LENGTH + serialize(record).length;
+					index.add(hash(record.getKey()), segment, position, record.getTimestamp(), record.getScore(), length);
+					position += length;
+				}
+			}
+		}
+
+		return index;
+	}
+
+	private static List<File> listSegments(File directory) {
+
+		File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)
+				&& name.length() == SEGMENT_PREFIX.length() + 16 + SEGMENT_SUFFIX.length());
+
+		if (files == null) {
+			return new ArrayList<>();
+		}
+
+		Arrays.sort(files);
+		return Arrays.asList(files);
+	}
+
+	private static File getSegmentFile(File directory, long segment) {
+		return new File(directory, String.format("%s%016x%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+	}
+
+	/**
+	 * 64-bit FNV-1a hash. Never returns {@code 0} as it denotes an empty index slot.
+	 */
+	static long hash(String value) {
+
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b & 0xff;
+			hash *= 0x100000001b3L;
+		}
+
+		return hash == 0 ? 1 : hash;
+	}
+
+	private static long checksum(byte[] bytes) {
+
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length);
+		return crc.getValue();
+	}
+
+	private static byte[] serialize(Record record) throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+
+			out.writeLong(record.getTimestamp());
+			out.writeUTF(record.getKey());
+			out.writeUTF(record.getBenchmark());
+			out.writeUTF(record.getUnit());
+			out.writeDouble(record.getScore());
+			out.writeInt(record.getScores().length);
+			for (double score : record.getScores()) {
+				out.writeDouble(score);
+			}
+
+			// optional trailer, absent in records without histogram
+			if (record.getHistogram() != null) {
+				record.getHistogram().write(out);
+			}
+		}
+
+		return bytes.toByteArray();
+	}
+
+	private static Record deserialize(byte[] bytes) {
+
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+
+			long timestamp = in.readLong();
+			String key = in.readUTF();
+			String benchmark = in.readUTF();
+			String unit = in.readUTF();
+			double score = in.readDouble();
+			double[] scores = new double[in.readInt()];
+			for (int i = 0; i < scores.length; i++) {
+				scores[i] = in.readDouble();
+			}
+
+			LatencyHistogram histogram = in.available() > 0 ? LatencyHistogram.read(in) : null;
+
+			return new Record(key, benchmark, timestamp, unit, score, scores, histogram);
+		} catch (IOException | NegativeArraySizeException e) {
+			return null;
+		}
+	}
+}
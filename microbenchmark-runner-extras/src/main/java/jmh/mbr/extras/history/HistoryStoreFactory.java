@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.history;
+
+import java.io.File;
+import java.io.IOException;
+
+import jmh.mbr.core.BenchmarkHistory;
+import jmh.mbr.core.BenchmarkHistoryFactory;
+
+/**
+ * {@link BenchmarkHistoryFactory} reading a {@link HistoryStore}. Activated with
+ * <code>-Djmh.mbr.regression.baseline=history:./path/to/directory</code> or
+ * <code>-Djmh.mbr.budget.history=history:./path/to/directory</code>.
+ *
+ * @see HistoryResultsWriterFactory
+ */
+public class HistoryStoreFactory implements BenchmarkHistoryFactory {
+
+	@Override
+	public BenchmarkHistory forUri(String uri) {
+
+		if (uri == null || !uri.startsWith(HistoryResultsWriterFactory.SCHEME)) {
+			return null;
+		}
+
+		File directory = HistoryResultsWriterFactory.getDirectory(uri);
+
+		try {
+			return HistoryStore.openReadOnly(directory);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot open benchmark history " + directory, e);
+		}
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.merge;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import jmh.mbr.core.BenchmarkSharding;
+
+/**
+ * Merges the durations measured by benchmark shards into the durations file used to balance shards. Shards only read
+ * the durations file and write their measurements to {@link BenchmarkSharding#getShardDurationsFile() shard durations
+ * files}, so that all shards of a run compute the same partition. Run this merge once all shards completed and before
+ * the next run. Without explicit shard files, the shard durations files next to the durations file are merged.
+ * <p>
+ * Usage: {@code java jmh.mbr.extras.merge.ShardDurationsMerger <durations.properties> [<shard durations file>...]}
+ */
+public class ShardDurationsMerger {
+
+	public static void main(String[] args) throws IOException {
+
+		if (args.length < 1) {
+			System.err.println("Usage: ShardDurationsMerger <durations.properties> [<shard durations file>...]");
+			System.exit(1);
+		}
+
+		File durationsFile = new File(args[0]);
+		List<File> shardFiles = new ArrayList<>();
+
+		for (int i = 1; i < args.length; i++) {
+			shardFiles.add(new File(args[i]));
+		}
+
+		if (shardFiles.isEmpty()) {
+			shardFiles.addAll(BenchmarkSharding.findShardDurationsFiles(durationsFile));
+		}
+
+		BenchmarkSharding.mergeDurations(durationsFile, shardFiles);
+		System.out.println("Merged " + shardFiles.size() + " shard durations files into " + durationsFile);
+	}
+}
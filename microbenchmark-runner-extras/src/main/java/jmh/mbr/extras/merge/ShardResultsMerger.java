@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.merge;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import jmh.mbr.extras.writer.JsonReader;
+import jmh.mbr.extras.writer.JsonWriter;
+
+/**
+ * Merges JSON result files of benchmark shards into a single JSON report. Each input file contains either a JSON array
+ * of benchmark results or a single result object. Inputs are typically the per-shard files of the {@code json:} results
+ * writer, which receives the results of every run mode, or JMH reports written using {@code -rf json}. Results are
+ * ordered by benchmark method (or benchmark name for JMH reports) so that the merged report reads like the result of a
+ * single run. Results of the same benchmark retain their order within and across input files. Inputs are parsed with
+ * {@link JsonReader} and results are written back unchanged with {@link JsonWriter}, so each result keeps the metadata
+ * of the shard that produced it (date, project, version and environment including the shard index).
+ * <p>
+ * Usage: {@code java jmh.mbr.extras.merge.ShardResultsMerger <output.json> <input.json | directory>...}
+ */
+public class ShardResultsMerger {
+
+	public static void main(String[] args) throws IOException {
+
+		if (args.length < 2) {
+			System.err.println("Usage: ShardResultsMerger <output.json> <input.json | directory>...");
+			System.exit(1);
+		}
+
+		File output = new File(args[0]);
+		List<File> inputs = new ArrayList<>();
+
+		for (int i = 1; i < args.length; i++) {
+			inputs.addAll(resolve(new File(args[i]), output));
+		}
+
+		merge(inputs, output);
+		System.out.println("Merged " + inputs.size() + " result files into " + output);
+	}
+
+	/**
+	 * Merge JSON result files into {@code output}.
+	 *
+	 * @param inputs the JSON result files of the shards.
+	 * @param output the merged JSON report.
+	 * @throws IOException if files cannot be read or written.
+	 */
+	public static void merge(List<File> inputs, File output) throws IOException {
+
+		List<Object> results = new ArrayList<>();
+
+		for (File input : inputs) {
+			try {
+				results.addAll(read(new String(Files.readAllBytes(input.toPath()), StandardCharsets.UTF_8)));
+			}
+			catch (IllegalArgumentException e) {
+				throw new IOException("Cannot read " + input + ": " + e.getMessage(), e);
+			}
+		}
+
+		File parent = output.getAbsoluteFile().getParentFile();
+		if (parent != null) {
+			parent.mkdirs();
+		}
+
+		try (Writer out = Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8)) {
+
+			new JsonWriter(out, true).value(merge(results));
+			out.write('\n');
+		}
+	}
+
+	/**
+	 * Order JSON results by benchmark name.
+	 *
+	 * @param results JSON objects as read by {@link JsonReader}.
+	 * @return the ordered results.
+	 */
+	static List<Object> merge(List<Object> results) {
+
+		List<Object> sorted = new ArrayList<>(results);
+		sorted.sort(Comparator.comparing(ShardResultsMerger::getBenchmark));
+		return sorted;
+	}
+
+	/**
+	 * Read the results of a JSON document. A document that is not an array is returned as single result.
+	 *
+	 * @param json the JSON document.
+	 * @return the results.
+	 * @throws IllegalArgumentException if the document is malformed.
+	 */
+	static List<Object> read(String json) {
+
+		List<Object> results = new ArrayList<>();
+
+		if (json.trim().isEmpty()) {
+			return results;
+		}
+
+		Object document = JsonReader.read(json);
+
+		if (document instanceof List) {
+			results.addAll((List<?>) document);
+		}
+		else {
+			results.add(document);
+		}
+
+		return results;
+	}
+
+	private static String getBenchmark(Object result) {
+
+		if (!(result instanceof Map)) {
+			return "";
+		}
+
+		Map<?, ?> object = (Map<?, ?>) result;
+		Object name = object.containsKey("method") ? object.get("method") : object.get("benchmark");
+
+		return name instanceof String ? (String) name : "";
+	}
+
+	private static List<File> resolve(File input, File output) {
+
+		if (!input.isDirectory()) {
+			return Arrays.asList(input);
+		}
+
+		File[] files = input.listFiles((dir, name) -> name.endsWith(".json"));
+		if (files == null) {
+			return new ArrayList<>();
+		}
+
+		List<File> result = new ArrayList<>();
+		Arrays.sort(files);
+		for (File file : files) {
+			if (!file.getAbsoluteFile().equals(output.getAbsoluteFile())) {
+				result.add(file);
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jmh.mbr.core.Environment;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.rest.RestStatus;
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * Batches {@link IndexRequest}s into bulk requests. A batch is sent once it reaches {@link Options#batchSize} or when
+ * {@link Options#flushInterval} has elapsed. Batches are sent synchronously so that a slow cluster blocks the caller
+ * instead of accumulating results in memory. Requests that fail with an I/O error, {@code 429 Too Many Requests} or a
+ * server error are retried with exponential backoff; other failures are reported to the {@link OutputFormat}.
+ */
+class BulkIndexer implements Closeable {
+
+	private final RestHighLevelClient client;
+	private final Options options;
+	private final List<IndexRequest> pending = new ArrayList<>();
+	private final ScheduledExecutorService scheduler;
+
+	private OutputFormat output;
+
+	BulkIndexer(RestHighLevelClient client, Options options) {
+
+		this.client = client;
+		this.options = options;
+
+		if (options.flushInterval.isZero()) {
+			this.scheduler = null;
+		}
+		else {
+
+			long interval = options.flushInterval.toMillis();
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+
+				Thread thread = new Thread(runnable, "jmh-mbr-elasticsearch-flush");
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Add a request to the current batch and send the batch if it is full.
+	 *
+	 * @param request the request.
+	 * @param output the {@link OutputFormat} to report failures to.
+	 */
+	synchronized void add(IndexRequest request, OutputFormat output) {
+
+		this.output = output;
+		this.pending.add(request);
+
+		if (pending.size() >= options.batchSize) {
+			flush();
+		}
+	}
+
+	/**
+	 * Send pending requests.
+	 */
+	synchronized void flush() {
+
+		if (pending.isEmpty()) {
+			return;
+		}
+
+		BulkRequest request = new BulkRequest();
+		pending.forEach(request::add);
+		pending.clear();
+
+		send(request);
+	}
+
+	/**
+	 * Stop the flush timer and send pending requests.
+	 */
+	@Override
+	public void close() {
+
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+
+		flush();
+	}
+
+	private void send(BulkRequest request) {
+
+		for (int attempt = 1; ; attempt++) {
+
+			Exception failure;
+
+			try {
+
+				BulkResponse response = client.bulk(request, RequestOptions.DEFAULT);
+
+				if (!response.hasFailures()) {
+					return;
+				}
+
+				request = retain(request, response);
+
+				if (request.numberOfActions() == 0) {
+					return;
+				}
+
+				failure = new IOException(request.numberOfActions() + " results rejected");
+			}
+			catch (IOException e) {
+				failure = e;
+			}
+			catch (ElasticsearchStatusException e) {
+
+				if (!isRetryable(e.status())) {
+					report(request, attempt, e);
+					return;
+				}
+
+				failure = e;
+			}
+
+			if (attempt > options.maxRetries) {
+				report(request, attempt, failure);
+				return;
+			}
+
+			try {
+				Thread.sleep(options.retryBackoff.toMillis() << Math.min(attempt - 1, 16));
+			}
+			catch (InterruptedException e) {
+
+				Thread.currentThread().interrupt();
+				report(request, attempt, failure);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Retain the requests whose items failed with a retryable status and report all other failed items.
+	 */
+	private BulkRequest retain(BulkRequest request, BulkResponse response) {
+
+		BulkRequest retry = new BulkRequest();
+		List<DocWriteRequest<?>> requests = request.requests();
+
+		for (BulkItemResponse item : response.getItems()) {
+
+			if (!item.isFailed()) {
+				continue;
+			}
+
+			if (isRetryable(item.status())) {
+				retry.add(requests.get(item.getItemId()));
+			}
+			else {
+				output.println(String.format("# WARNING: Cannot index result into '%s': %s", item.getIndex(),
+						item.getFailureMessage()));
+			}
+		}
+
+		return retry;
+	}
+
+	private void report(BulkRequest request, int attempts, Exception e) {
+		output.println(String.format("# WARNING: Cannot index %d results into Elasticsearch after %d attempt(s): %s %s",
+				request.numberOfActions(), attempts, e, StackTraceCapture.from(e)));
+	}
+
+	private static boolean isRetryable(RestStatus status) {
+		return status == RestStatus.TOO_MANY_REQUESTS || status.getStatus() >= 500;
+	}
+
+	/**
+	 * Bulk options configured through the query of the {@code elasticsearch://} URI, e.g.
+	 * {@code elasticsearch://host:9200/?batchSize=500&flushInterval=10s&maxRetries=3&retryBackoff=200ms}.
+	 */
+	static class Options {
+
+		static final int DEFAULT_BATCH_SIZE = 100;
+		static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofSeconds(5);
+		static final int DEFAULT_MAX_RETRIES = 5;
+		static final Duration DEFAULT_RETRY_BACKOFF = Duration.ofMillis(100);
+
+		final int batchSize;
+		final Duration flushInterval;
+		final int maxRetries;
+		final Duration retryBackoff;
+
+		Options(int batchSize, Duration flushInterval, int maxRetries, Duration retryBackoff) {
+
+			this.batchSize = batchSize;
+			this.flushInterval = flushInterval;
+			this.maxRetries = maxRetries;
+			this.retryBackoff = retryBackoff;
+		}
+
+		static Options defaults() {
+			return new Options(DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL, DEFAULT_MAX_RETRIES, DEFAULT_RETRY_BACKOFF);
+		}
+
+		/**
+		 * Parse options from the query of {@code uri}. Options that are not present use their defaults.
+		 *
+		 * @param uri the {@code elasticsearch://} URI.
+		 * @return the parsed {@link Options}.
+		 * @throws IllegalArgumentException if the query contains an unknown or invalid option.
+		 */
+		static Options fromUri(String uri) {
+
+			int batchSize = DEFAULT_BATCH_SIZE;
+			Duration flushInterval = DEFAULT_FLUSH_INTERVAL;
+			int maxRetries = DEFAULT_MAX_RETRIES;
+			Duration retryBackoff = DEFAULT_RETRY_BACKOFF;
+
+			int query = uri.indexOf('?');
+
+			if (query == -1) {
+				return new Options(batchSize, flushInterval, maxRetries, retryBackoff);
+			}
+
+			for (String option : uri.substring(query + 1).split("&")) {
+
+				if (option.isEmpty()) {
+					continue;
+				}
+
+				int separator = option.indexOf('=');
+				String key = separator == -1 ? option : option.substring(0, separator);
+				String value = separator == -1 ? "" : option.substring(separator + 1);
+
+				switch (key) {
+					case "batchSize":
+						batchSize = Integer.parseInt(value);
+						break;
+					case "flushInterval":
+						flushInterval = Environment.parseDuration(value);
+						break;
+					case "maxRetries":
+						maxRetries = Integer.parseInt(value);
+						break;
+					case "retryBackoff":
+						retryBackoff = Environment.parseDuration(value);
+						break;
+					default:
+						throw new IllegalArgumentException(String.format(
+								"Unknown Elasticsearch option '%s', supported options: batchSize, flushInterval, maxRetries, retryBackoff",
+								key));
+				}
+			}
+
+			if (batchSize < 1 || maxRetries < 0 || flushInterval.isNegative() || retryBackoff.isNegative()) {
+				throw new IllegalArgumentException(String.format(
+						"Invalid Elasticsearch options batchSize=%d, flushInterval=%s, maxRetries=%d, retryBackoff=%s",
+						batchSize, flushInterval, maxRetries, retryBackoff));
+			}
+
+			return new Options(batchSize, flushInterval, maxRetries, retryBackoff);
+		}
+	}
+}
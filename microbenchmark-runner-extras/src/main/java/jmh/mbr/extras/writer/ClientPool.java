@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reference-counted pool of clients keyed by connection URI. Writers for the same URI share a client that is created on
+ * the first {@link #acquire(String) acquisition} and closed once the last writer has {@link #release(String) released}
+ * it.
+ *
+ * @param <T> the client type.
+ */
+class ClientPool<T extends Closeable> {
+
+	private final Function<String, T> clientFactory;
+	private final Map<String, PooledClient<T>> clients = new HashMap<>();
+
+	ClientPool(Function<String, T> clientFactory) {
+		this.clientFactory = clientFactory;
+	}
+
+	/**
+	 * Obtain the client for {@code uri}, creating it if no client for {@code uri} is in use.
+	 *
+	 * @param uri the connection URI.
+	 * @return the client.
+	 */
+	synchronized T acquire(String uri) {
+
+		PooledClient<T> pooled = clients.computeIfAbsent(uri, it -> new PooledClient<>(clientFactory.apply(it)));
+		pooled.references++;
+
+		return pooled.client;
+	}
+
+	/**
+	 * Release the client for {@code uri} and close it if it is no longer in use.
+	 *
+	 * @param uri the connection URI.
+	 * @throws IOException if the client cannot be closed.
+	 */
+	void release(String uri) throws IOException {
+
+		T client;
+		synchronized (this) {
+
+			PooledClient<T> pooled = clients.get(uri);
+
+			if (pooled == null || --pooled.references > 0) {
+				return;
+			}
+
+			clients.remove(uri);
+			client = pooled.client;
+		}
+
+		client.close();
+	}
+
+	private static class PooledClient<T> {
+
+		private final T client;
+		private int references;
+
+		PooledClient(T client) {
+			this.client = client;
+		}
+	}
+}
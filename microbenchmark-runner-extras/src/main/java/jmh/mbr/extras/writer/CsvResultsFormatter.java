@@ -10,9 +10,20 @@
 package jmh.mbr.extras.writer;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import jmh.mbr.core.AllocationGate;
+import jmh.mbr.core.JfrProfiling;
+import jmh.mbr.core.model.BenchmarkResults;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import jmh.mbr.core.model.ComplexityEstimate;
+import jmh.mbr.core.model.LatencyHistogram;
+import jmh.mbr.core.model.UniversalScalabilityLaw;
 import org.openjdk.jmh.results.Result;
 import org.openjdk.jmh.results.RunResult;
 import org.openjdk.jmh.util.ScoreFormatter;
@@ -23,6 +34,23 @@ import org.openjdk.jmh.util.Statistics;
  */
 class CsvResultsFormatter {
 
+	/**
+	 * Create a report in CSV format including profile summaries and complexity estimates of size parameters attached to
+	 * the {@link MetaData} of each result.
+	 *
+	 * @param results
+	 * @return
+	 */
+	static String createReport(BenchmarkResults results) {
+
+		Map<RunResult, MetaData> metaData = new IdentityHashMap<>();
+		for (BenchmarkResults.BenchmarkResult result : results) {
+			result.map((it, runResult) -> metaData.put(runResult, it));
+		}
+
+		return createReport(results.getRawResults(), metaData);
+	}
+
 	/**
 	 * Create a report in CSV format.
 	 *
@@ -30,16 +58,55 @@ class CsvResultsFormatter {
 	 * @return
 	 */
 	static String createReport(Collection<RunResult> results) {
+		return createReport(results, Collections.emptyMap());
+	}
+
+	private static String createReport(Collection<RunResult> results, Map<RunResult, MetaData> metaData) {
 
 		StringBuilder report = new StringBuilder(System.lineSeparator());
 		Map<String, Integer> params = detectParameters(results);
 		Map<String, Integer> auxes = detectAuxes(results);
+		boolean allocation = results.stream().anyMatch(it -> it.getAggregatedResult() != null
+				&& AllocationGate.getAllocation(it.getAggregatedResult().getSecondaryResults()) != null);
+		Map<RunResult, LatencyHistogram> histograms = new IdentityHashMap<>();
+		for (RunResult result : results) {
+			LatencyHistogram histogram = LatencyHistogram.from(result);
+			if (histogram != null) {
+				histograms.put(result, histogram);
+			}
+		}
+		boolean profiled = metaData.values().stream()
+				.anyMatch(it -> it.getAdditionalParameters().containsKey(JfrProfiling.HOT_METHODS_KEY));
+		Map<RunResult, UniversalScalabilityLaw> scalability = UniversalScalabilityLaw.fit(results);
+		Map<RunResult, ComplexityEstimate> complexity = ComplexityEstimate.fit(results,
+				it -> ComplexityEstimate.getParameter(metaData.get(it), it.getParams()));
 
 		StringBuilder header = new StringBuilder();
 		header.append("class, method, ");
 		params.forEach((key, value) -> header.append(key).append(", "));
+		if (!scalability.isEmpty()) {
+			header.append("threads, ");
+		}
 		auxes.forEach((key, value) -> header.append(propertyName(key)).append(", "));
 		header.append("median, mean, range");
+		if (!histograms.isEmpty()) {
+			for (double percentile : LatencyHistogram.REPORTED_PERCENTILES) {
+				header.append(", ").append(LatencyHistogram.getLabel(percentile));
+			}
+			header.append(", max");
+		}
+		if (!scalability.isEmpty()) {
+			header.append(", uslLambda, uslContention, uslCoherency, uslPeakThreads, uslRSquared");
+		}
+		if (!complexity.isEmpty()) {
+			header.append(", complexity, complexityRSquared, complexityError");
+		}
+		if (allocation) {
+			header.append(", bytesPerOp");
+		}
+		if (profiled) {
+			header.append(", hotMethods, flamegraph");
+		}
 		report.append(header.toString()).append(System.lineSeparator());
 
 		for (RunResult result : results) {
@@ -51,18 +118,15 @@ class CsvResultsFormatter {
 						: benchmark;
 				String mthd = benchmark.substring(benchmark.lastIndexOf(".") + 1);
 				builder.append(cls).append(", ").append(mthd).append(", ");
-				for (int i = 0; i < params.values().size(); i++) {
-					boolean found = false;
-					for (String param : result.getParams().getParamsKeys()) {
-						if (params.get(param) == i) {
-							builder.append(result.getParams().getParam(param))
-									.append(", ");
-							found = true;
-						}
-					}
-					if (!found) {
-						builder.append(", ");
+				for (String param : params.keySet()) {
+					String value = result.getParams().getParam(param);
+					if (value != null) {
+						builder.append(value);
 					}
+					builder.append(", ");
+				}
+				if (!scalability.isEmpty()) {
+					builder.append(result.getParams().getThreads()).append(", ");
 				}
 			}
 
@@ -70,19 +134,12 @@ class CsvResultsFormatter {
 
 				Map<String, Result> second = result.getAggregatedResult()
 						.getSecondaryResults();
-				for (int i = 0; i < auxes.values().size(); i++) {
-					boolean found = false;
-					for (String param : second.keySet()) {
-						if (auxes.get(param) == i) {
-							builder.append(ScoreFormatter.format(
-									second.get(param).getStatistics().getPercentile(0.5)))
-									.append(", ");
-							found = true;
-						}
-					}
-					if (!found) {
-						builder.append(", ");
+				for (String aux : auxes.keySet()) {
+					Result<?> value = second.get(aux);
+					if (value != null) {
+						builder.append(ScoreFormatter.format(value.getStatistics().getPercentile(0.5)));
 					}
+					builder.append(", ");
 				}
 				// primary result is derived from aggregate result
 				Statistics statistics = result.getPrimaryResult().getStatistics();
@@ -93,6 +150,59 @@ class CsvResultsFormatter {
 				double error = (statistics.getMax() - statistics.getMin()) / 2;
 				builder.append(ScoreFormatter.format(error));
 
+				if (!histograms.isEmpty()) {
+					LatencyHistogram histogram = histograms.get(result);
+					TimeUnit unit = result.getParams().getTimeUnit();
+					for (double percentile : LatencyHistogram.REPORTED_PERCENTILES) {
+						builder.append(", ").append(histogram != null
+								? ScoreFormatter.format(LatencyHistogram.convert(histogram.getValueAtPercentile(percentile), unit))
+								: "");
+					}
+					builder.append(", ").append(histogram != null
+							? ScoreFormatter.format(LatencyHistogram.convert(histogram.getMax(), unit))
+							: "");
+				}
+
+				if (!scalability.isEmpty()) {
+					UniversalScalabilityLaw usl = scalability.get(result);
+					if (usl != null) {
+						builder.append(", ").append(ScoreFormatter.format(usl.getLambda()));
+						builder.append(", ").append(formatCoefficient(usl.getContention()));
+						builder.append(", ").append(formatCoefficient(usl.getCoherency()));
+						builder.append(", ").append(Double.isInfinite(usl.getPeakThreads()) ? ""
+								: ScoreFormatter.format(usl.getPeakThreads()));
+						builder.append(", ").append(formatCoefficient(usl.getRSquared()));
+					}
+					else {
+						builder.append(", , , , , ");
+					}
+				}
+
+				if (!complexity.isEmpty()) {
+					ComplexityEstimate estimate = complexity.get(result);
+					if (estimate != null) {
+						builder.append(", ").append(estimate.getComplexityClass().getLabel());
+						builder.append(", ").append(formatCoefficient(estimate.getRSquared()));
+						builder.append(", ").append(formatCoefficient(estimate.getRelativeError()));
+					}
+					else {
+						builder.append(", , , ");
+					}
+				}
+
+				if (allocation) {
+					Result<?> bytesPerOp = AllocationGate.getAllocation(second);
+					builder.append(", ").append(bytesPerOp != null ? ScoreFormatter.format(bytesPerOp.getScore()) : "");
+				}
+
+				if (profiled) {
+					Map<String, Object> additional = metaData.containsKey(result)
+							? metaData.get(result).getAdditionalParameters()
+							: Collections.emptyMap();
+					builder.append(", ").append(additional.getOrDefault(JfrProfiling.HOT_METHODS_KEY, ""));
+					builder.append(", ").append(additional.getOrDefault(JfrProfiling.FLAMEGRAPH_KEY, ""));
+				}
+
 				report.append(builder.toString()).append(System.lineSeparator());
 			}
 		}
@@ -100,6 +210,13 @@ class CsvResultsFormatter {
 		return report.toString();
 	}
 
+	/**
+	 * Format scalability coefficients and goodness-of-fit with significant digits as they are typically small fractions.
+	 */
+	private static String formatCoefficient(double value) {
+		return String.format(Locale.ROOT, "%.4g", value);
+	}
+
 	private static Map<String, Integer> detectAuxes(Collection<RunResult> results) {
 		Map<String, Integer> auxes = new LinkedHashMap<>();
 		int auxPlaces = 0;
@@ -110,6 +227,9 @@ class CsvResultsFormatter {
 						.getSecondaryResults();
 				if (second != null) {
 					for (String aux : second.keySet()) {
+						if (AllocationGate.ALLOC_RATE_NORM.equals(aux)) {
+							continue;
+						}
 						int count = auxPlaces;
 						auxes.computeIfAbsent(aux, key -> count);
 						auxPlaces++;
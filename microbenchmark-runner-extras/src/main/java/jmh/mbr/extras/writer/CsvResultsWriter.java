@@ -33,7 +33,7 @@ class CsvResultsWriter implements ResultsWriter {
 		String report;
 
 		try {
-			report = CsvResultsFormatter.createReport(results.getRawResults());
+			report = CsvResultsFormatter.createReport(results);
 		}
 		catch (Exception e) {
 			output.println("Report creation failed: " + StackTraceCapture.from(e));
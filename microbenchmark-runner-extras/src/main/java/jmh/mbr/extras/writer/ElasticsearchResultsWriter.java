@@ -10,9 +10,11 @@
 package jmh.mbr.extras.writer;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Base64;
 
 import jmh.mbr.core.ResultsWriter;
+import jmh.mbr.core.StreamingResultsWriter;
 import jmh.mbr.core.model.BenchmarkResults;
 import jmh.mbr.core.model.BenchmarkResults.BenchmarkResult;
 import org.apache.http.Header;
@@ -20,7 +22,6 @@ import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
 import org.apache.http.message.BasicHeader;
 import org.elasticsearch.action.index.IndexRequest;
-import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
 import org.elasticsearch.client.RestHighLevelClient;
@@ -28,26 +29,38 @@ import org.elasticsearch.common.xcontent.XContentType;
 import org.openjdk.jmh.runner.format.OutputFormat;
 
 /**
- * {@link ResultsWriter} to write {@link BenchmarkResults} to Elasticserarch.
+ * {@link ResultsWriter} to write {@link BenchmarkResults} to Elasticserarch. Results are indexed as each benchmark
+ * finishes using the bulk API, batched and retried according to the {@link BulkIndexer.Options options} in the query of
+ * the URI. Writers for the same URI share a client between {@link #open(OutputFormat)} and {@link #close()}.
  */
-public class ElasticsearchResultsWriter implements ResultsWriter {
+public class ElasticsearchResultsWriter implements StreamingResultsWriter {
 
-	private final RestHighLevelClient client;
+	private static final ClientPool<RestHighLevelClient> CLIENTS = new ClientPool<>(
+			uri -> createClient(ConnectionString.fromUri(uri)));
+
+	private final String uri;
+	private final BulkIndexer.Options options;
+	private RestHighLevelClient client;
+	private BulkIndexer indexer;
 
 	public ElasticsearchResultsWriter(String uri) {
-		this(createClient(ConnectionString.fromUri(uri)));
+		this.uri = uri;
+		this.options = BulkIndexer.Options.fromUri(uri);
 	}
 
-	ElasticsearchResultsWriter(RestHighLevelClient client) {
+	ElasticsearchResultsWriter(RestHighLevelClient client, BulkIndexer.Options options) {
+		this.uri = null;
+		this.options = options;
 		this.client = client;
 	}
 
 	@Override
-	public void write(OutputFormat output, BenchmarkResults results) {
-		results.forEach(result -> formatAndPublish(output, result));
+	public void open(OutputFormat output) {
+		getIndexer();
 	}
 
-	private void formatAndPublish(OutputFormat output, BenchmarkResult result) {
+	@Override
+	public void write(OutputFormat output, BenchmarkResult result) {
 		publishJson(output, result.getMetaData().getProject(), result
 				.map(JsonResultsFormatter::format));
 	}
@@ -57,13 +70,67 @@ public class ElasticsearchResultsWriter implements ResultsWriter {
 		IndexRequest request = new IndexRequest(index);
 		request.source(json, XContentType.JSON);
 
+		getIndexer().add(request, output);
+	}
+
+	@Override
+	public void flush(OutputFormat output) {
+
+		BulkIndexer indexer;
+		synchronized (this) {
+			indexer = this.indexer;
+		}
+
+		if (indexer != null) {
+			indexer.flush();
+		}
+	}
+
+	@Override
+	public void close() {
+
+		BulkIndexer indexer;
+		synchronized (this) {
+			indexer = this.indexer;
+			this.indexer = null;
+		}
+
+		if (indexer != null) {
+			indexer.close();
+		}
+
+		synchronized (this) {
+			releaseClient();
+		}
+	}
+
+	private void releaseClient() {
+
+		if (uri == null || client == null) {
+			return;
+		}
+
+		client = null;
+
 		try {
-			client.index(request, RequestOptions.DEFAULT);
+			CLIENTS.release(uri);
 		}
 		catch (IOException e) {
-			output.println("Write failed: " + e
-					.getMessage() + " " + StackTraceCapture.from(e));
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private synchronized BulkIndexer getIndexer() {
+
+		if (client == null) {
+			client = CLIENTS.acquire(uri);
 		}
+
+		if (indexer == null) {
+			indexer = new BulkIndexer(client, options);
+		}
+
+		return indexer;
 	}
 
 	static RestHighLevelClient createClient(ConnectionString connectionString) {
@@ -81,7 +148,7 @@ public class ElasticsearchResultsWriter implements ResultsWriter {
 	}
 
 	/**
-	 * elasticsearch://[username]:[password]@[host]:[port]/
+	 * elasticsearch://[username]:[password]@[host]:[port]/[?options]
 	 */
 	static class ConnectionString {
 
@@ -109,6 +176,8 @@ public class ElasticsearchResultsWriter implements ResultsWriter {
 			}
 
 			String authority = uri.substring(uri.indexOf("://") + 3);
+			int end = indexOfAny(authority, authority.lastIndexOf('@') + 1, '/', '?');
+			authority = end == -1 ? authority : authority.substring(0, end);
 
 			UserPassword upw = UserPassword.from(authority);
 			HostPort hostPort = HostPort.from(authority);
@@ -116,6 +185,19 @@ public class ElasticsearchResultsWriter implements ResultsWriter {
 			return new ConnectionString(hostPort.host, hostPort.port, upw.username, upw.password, ssl);
 		}
 
+		private static int indexOfAny(String value, int fromIndex, char... candidates) {
+
+			for (int i = fromIndex; i < value.length(); i++) {
+				for (char candidate : candidates) {
+					if (value.charAt(i) == candidate) {
+						return i;
+					}
+				}
+			}
+
+			return -1;
+		}
+
 		HttpHost getHttpHost() {
 			return new HttpHost(this.host, this.port, this.ssl ? "https" : "http");
 		}
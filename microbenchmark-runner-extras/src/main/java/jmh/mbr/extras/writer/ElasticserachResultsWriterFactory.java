@@ -15,6 +15,7 @@ import jmh.mbr.core.ResultsWriterFactory;
 /**
  * {@link ResultsWriterFactory} for Elasticsearch.
  * Activated with <code>-Djmh.mbr.report.publishTo=elasticsearch://[username]:[password]@[host]:[port]/</code>. The index is derived from the project name ({@code jmh.mbr.project}).
+ * Bulk indexing is configured through the URI query, e.g. {@code ?batchSize=500&flushInterval=10s&maxRetries=3&retryBackoff=200ms}.
  *
  * @see ElasticsearchResultsWriter
  */
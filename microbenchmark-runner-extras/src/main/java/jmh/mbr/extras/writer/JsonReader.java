@@ -0,0 +1,280 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reader for RFC 8259 JSON documents. Objects are read as {@link Map} retaining the order of their members, arrays as
+ * {@link List}, strings as {@link String}, integral numbers as {@link Long} if they fit and other numbers as
+ * {@link Double}, {@code true}/{@code false} as {@link Boolean} and {@code null} as {@literal null}. Values read are
+ * written back unchanged by {@link JsonWriter#value(Object)}.
+ */
+public class JsonReader {
+
+	private final String json;
+	private int position;
+
+	private JsonReader(String json) {
+		this.json = json;
+	}
+
+	/**
+	 * Read a JSON document.
+	 *
+	 * @param json the JSON document.
+	 * @return the value of the document.
+	 * @throws IllegalArgumentException if the document is malformed.
+	 */
+	public static Object read(String json) {
+
+		JsonReader reader = new JsonReader(json);
+		Object value = reader.readValue();
+
+		reader.skipWhitespace();
+		if (reader.position != json.length()) {
+			throw reader.error("Unexpected trailing content");
+		}
+
+		return value;
+	}
+
+	private Object readValue() {
+
+		skipWhitespace();
+
+		if (position == json.length()) {
+			throw error("Unexpected end of document");
+		}
+
+		char c = json.charAt(position);
+
+		switch (c) {
+			case '{':
+				return readObject();
+			case '[':
+				return readArray();
+			case '"':
+				return readString();
+			case 't':
+				return readLiteral("true", Boolean.TRUE);
+			case 'f':
+				return readLiteral("false", Boolean.FALSE);
+			case 'n':
+				return readLiteral("null", null);
+			default:
+
+				if (c == '-' || (c >= '0' && c <= '9')) {
+					return readNumber();
+				}
+
+				throw error("Unexpected character '" + c + "'");
+		}
+	}
+
+	private Map<String, Object> readObject() {
+
+		Map<String, Object> object = new LinkedHashMap<>();
+		position++;
+
+		if (skipWhitespaceAndConsume('}')) {
+			return object;
+		}
+
+		do {
+
+			skipWhitespace();
+			if (position == json.length() || json.charAt(position) != '"') {
+				throw error("Expected member name");
+			}
+
+			String name = readString();
+			if (!skipWhitespaceAndConsume(':')) {
+				throw error("Expected ':'");
+			}
+
+			object.put(name, readValue());
+		} while (skipWhitespaceAndConsume(','));
+
+		if (!skipWhitespaceAndConsume('}')) {
+			throw error("Expected ',' or '}'");
+		}
+
+		return object;
+	}
+
+	private List<Object> readArray() {
+
+		List<Object> array = new ArrayList<>();
+		position++;
+
+		if (skipWhitespaceAndConsume(']')) {
+			return array;
+		}
+
+		do {
+			array.add(readValue());
+		} while (skipWhitespaceAndConsume(','));
+
+		if (!skipWhitespaceAndConsume(']')) {
+			throw error("Expected ',' or ']'");
+		}
+
+		return array;
+	}
+
+	private String readString() {
+
+		StringBuilder sb = new StringBuilder();
+		position++;
+
+		while (position < json.length()) {
+
+			char c = json.charAt(position++);
+
+			if (c == '"') {
+				return sb.toString();
+			}
+
+			if (c != '\\') {
+				sb.append(c);
+				continue;
+			}
+
+			if (position == json.length()) {
+				break;
+			}
+
+			char escaped = json.charAt(position++);
+
+			switch (escaped) {
+				case '"':
+				case '\\':
+				case '/':
+					sb.append(escaped);
+					break;
+				case 'b':
+					sb.append('\b');
+					break;
+				case 'f':
+					sb.append('\f');
+					break;
+				case 'n':
+					sb.append('\n');
+					break;
+				case 'r':
+					sb.append('\r');
+					break;
+				case 't':
+					sb.append('\t');
+					break;
+				case 'u':
+
+					if (position + 4 > json.length()) {
+						throw error("Malformed unicode escape");
+					}
+
+					try {
+						sb.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+					}
+					catch (NumberFormatException e) {
+						throw error("Malformed unicode escape");
+					}
+					position += 4;
+					break;
+				default:
+					throw error("Invalid escape '\\" + escaped + "'");
+			}
+		}
+
+		throw error("Unterminated string");
+	}
+
+	private Number readNumber() {
+
+		int start = position;
+		boolean integral = true;
+
+		while (position < json.length()) {
+
+			char c = json.charAt(position);
+
+			if (c == '.' || c == 'e' || c == 'E') {
+				integral = false;
+			}
+			else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+				break;
+			}
+
+			position++;
+		}
+
+		String number = json.substring(start, position);
+
+		try {
+
+			if (integral) {
+				try {
+					return Long.parseLong(number);
+				}
+				catch (NumberFormatException e) {
+					// exceeds the range of long
+				}
+			}
+
+			return Double.parseDouble(number);
+		}
+		catch (NumberFormatException e) {
+			throw error("Malformed number '" + number + "'");
+		}
+	}
+
+	private Object readLiteral(String literal, Object value) {
+
+		if (!json.startsWith(literal, position)) {
+			throw error("Expected '" + literal + "'");
+		}
+
+		position += literal.length();
+		return value;
+	}
+
+	private boolean skipWhitespaceAndConsume(char c) {
+
+		skipWhitespace();
+
+		if (position < json.length() && json.charAt(position) == c) {
+			position++;
+			return true;
+		}
+
+		return false;
+	}
+
+	private void skipWhitespace() {
+
+		while (position < json.length()) {
+
+			char c = json.charAt(position);
+			if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+				return;
+			}
+
+			position++;
+		}
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " at offset " + position);
+	}
+}
@@ -9,29 +9,53 @@
  */
 package jmh.mbr.extras.writer;
 
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.util.Arrays;
-import java.util.Collection;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Map.Entry;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
-import jmh.mbr.core.StringUtils;
+import jmh.mbr.core.AllocationGate;
 import jmh.mbr.core.model.BenchmarkResults;
 import jmh.mbr.core.model.BenchmarkResults.BenchmarkResult;
 import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import jmh.mbr.core.model.LatencyHistogram;
+import jmh.mbr.core.model.ComplexityEstimate;
+import jmh.mbr.core.model.UniversalScalabilityLaw;
+import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.IterationResult;
 import org.openjdk.jmh.results.Result;
 import org.openjdk.jmh.results.RunResult;
-
+import org.openjdk.jmh.util.Statistics;
+
+/**
+ * Formats a {@link BenchmarkResult} as JSON document: metadata, benchmark parameters, environment, the primary result
+ * and all secondary results. Results contain score, error, confidence interval, percentiles and the raw iteration
+ * scores of each fork. Sample time results contain the raw histogram of each iteration instead along with latency
+ * percentiles of the {@link LatencyHistogram} merged across forks. Results of a thread sweep contain the
+ * {@link UniversalScalabilityLaw} fit of their throughput curve, results of a size parameter the
+ * {@link ComplexityEstimate} of their cost curve.
+ */
 class JsonResultsFormatter {
 
+	static final double[] PERCENTILES = { 0, 50, 90, 95, 99, 99.9, 99.99, 99.999, 99.9999, 100 };
+
 	static List<String> createReport(BenchmarkResults results) {
-		return results.stream().map(JsonResultsFormatter::format)
-				.collect(Collectors.toList());
+
+		Map<RunResult, UniversalScalabilityLaw> scalability = UniversalScalabilityLaw.fit(results.getRawResults());
+		Map<RunResult, ComplexityEstimate> complexity = ComplexityEstimate.fit(results);
+
+		return results.stream().map(it -> {
+
+			RunResult runResult = it.map((metaData, raw) -> raw);
+			return format(it, scalability.get(runResult), complexity.get(runResult));
+		}).collect(Collectors.toList());
 	}
 
 	static String format(MetaData metaData, RunResult runResult) {
@@ -39,158 +63,250 @@ class JsonResultsFormatter {
 	}
 
 	static String format(BenchmarkResult result) {
-
-		StringBuilder sb = new StringBuilder();
-		sb.append("{\n");
-		sb.append(formatMetadata(result.getMetaData()));
-		sb.append(formatMainData(result.getParams()));
-		sb.append(formatEnvironmentData(result.getMetaData(), result.getParams()));
-		sb.append(formatResult("primary", result.getPrimaryResult()));
-		sb.append('}');
-		return sb.toString();
+		return format(result, null, null);
 	}
 
-	static String formatMetadata(MetaData metaData) {
+	static String format(BenchmarkResult result, UniversalScalabilityLaw scalability, ComplexityEstimate complexity) {
 
-		StringBuilder sb = new StringBuilder();
+		StringWriter buffer = new StringWriter();
 
-		sb.append("    \"date\" : \"" + metaData.getTime().toString() + "\",\n");
-		sb.append("    \"project\" : \"" + metaData.getProject() + "\",\n");
-		sb.append("    \"version\" : \"" + metaData.getVersion() + "\",\n");
+		try {
+			write(new JsonWriter(buffer, true), result, scalability, complexity);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 
-		return sb.toString();
+		return buffer.toString();
 	}
 
-	static String formatMainData(BenchmarkParams params) {
+	/**
+	 * Write {@link BenchmarkResult} as JSON object.
+	 *
+	 * @param json the {@link JsonWriter} to write to.
+	 * @param result the result to write.
+	 * @throws IOException if the underlying writer fails.
+	 */
+	static void write(JsonWriter json, BenchmarkResult result) throws IOException {
+		write(json, result, null, null);
+	}
 
-		StringBuilder sb = new StringBuilder();
-		sb.append("    \"group\" : \"" + extractClass(params.getBenchmark()) + "\",\n");
-		sb.append("    \"benchmark\" : \"" + extractBenchmarkName(params.getBenchmark()) + "\",\n");
-		sb.append("    \"method\" : \"" + params.getBenchmark() + "\",\n");
-		sb.append("    \"mode\" : \"" + params.getMode().shortLabel() + "\",\n");
+	/**
+	 * Write {@link BenchmarkResult} as JSON object.
+	 *
+	 * @param json the {@link JsonWriter} to write to.
+	 * @param result the result to write.
+	 * @param scalability the fit of the thread sweep the result is part of, can be {@literal null}.
+	 * @param complexity the estimate of the size curve the result is part of, can be {@literal null}.
+	 * @throws IOException if the underlying writer fails.
+	 */
+	static void write(JsonWriter json, BenchmarkResult result, UniversalScalabilityLaw scalability,
+			ComplexityEstimate complexity) throws IOException {
+
+		MetaData metaData = result.getMetaData();
+		BenchmarkParams params = result.getParams();
+
+		json.beginObject();
+		json.name("date").value(metaData.getTime().toString());
+		json.name("project").value(metaData.getProject());
+		json.name("version").value(metaData.getVersion());
+
+		json.name("group").value(extractClass(params.getBenchmark()));
+		json.name("benchmark").value(extractBenchmarkName(params.getBenchmark()));
+		json.name("method").value(params.getBenchmark());
+		json.name("mode").value(params.getMode().shortLabel());
+		json.name("threads").value(params.getThreads());
+		json.name("forks").value(params.getForks());
+		json.name("jmhVersion").value(params.getJmhVersion());
+
+		if (!params.getParamsKeys().isEmpty()) {
+
+			json.name("params").beginObject();
+			for (String key : params.getParamsKeys()) {
+				json.name(key).value(params.getParam(key));
+			}
+			json.endObject();
+		}
 
-		return sb.toString();
-	}
+		writeIterationParams(json.name("warmup"), params.getWarmup());
+		writeIterationParams(json.name("measurement"), params.getMeasurement());
 
-	static String formatEnvironmentData(MetaData metaData, BenchmarkParams params) {
+		json.name("env").beginObject();
+		json.name("jvm").value(params.getJvm());
+		json.name("jvmArgs").beginArray();
+		for (String jvmArg : params.getJvmArgs()) {
+			json.value(jvmArg);
+		}
+		json.endArray();
+		json.name("jdkVersion").value(params.getJdkVersion());
+		json.name("vmName").value(params.getVmName());
+		json.name("vmVersion").value(params.getVmVersion());
+		json.name("os").value(metaData.getOs());
+
+		if (metaData.hasAdditionalMetadata()) {
+			for (Entry<String, Object> entry : metaData.getAdditionalParameters().entrySet()) {
+				json.name(entry.getKey()).value(String.valueOf(entry.getValue()));
+			}
+		}
+		json.endObject();
 
-		StringBuilder sb = new StringBuilder();
-		sb.append("    \"env\" : {\n");
-		sb.append("        \"jvm\" : \"" + toJsonString(params.getJvm()) + "\",\n");
-		sb.append("        \"jvmArgs\" : " + toJsonArray(params.getJvmArgs()) + ",\n");
-		sb.append("        \"vmVersion\" : \"" + toJsonString(params.getVmVersion()) + "\",\n");
-		sb.append("        \"os\" : \"" + metaData.getOs() + "\"");
+		writeResult(json.name("primary"), result, null, result.getPrimaryResult());
 
-		if(metaData.hasAdditionalMetadata()) {
+		Map<String, Result> secondaries = result.getSecondaryResults();
+		Result<?> allocation = AllocationGate.getAllocation(secondaries);
 
-			for(Entry<String,Object> entry : metaData.getAdditionalParameters().entrySet()) {
-				sb.append(",\n");
-				sb.append("        \""+entry.getKey()+"\" : \"" + entry.getValue() + "\"");
-			}
+		if (allocation != null) {
+			writeResult(json.name("allocation"), result, AllocationGate.ALLOC_RATE_NORM, allocation);
 		}
-		sb.append("\n");
-		sb.append("    },\n");
-		return sb.toString();
-	}
 
-	static String formatResult(String name, Result result) {
+		if (scalability != null) {
+			writeScalability(json.name("scalability"), scalability);
+		}
 
-		StringBuilder sb = new StringBuilder();
-		sb.append("    \"" + name + "\" : {\n");
-		sb.append("        \"score\" : " + formatNumber(result.getScore()) + ",\n");
-		sb.append("        \"scoreError\" : " + formatNumber(result.getScoreError()) + ",\n");
-		{
+		if (complexity != null) {
+			writeComplexity(json.name("complexity"), complexity);
+		}
 
-			List<Double> scoreConfidence = Arrays.stream(result.getScoreConfidence()).boxed().collect(Collectors.toList());
-			sb.append("        \"scoreConfidence\" : " + toJsonArray(scoreConfidence, JsonResultsFormatter::formatNumber) + ",\n");
+		json.name("secondaries").beginObject();
+		for (Entry<String, Result> entry : secondaries.entrySet()) {
+			writeResult(json.name(entry.getKey()), result, entry.getKey(), entry.getValue());
 		}
-		sb.append("        \"scoreUnit\" : \"" + result.getScoreUnit() + "\"\n");
+		json.endObject();
 
-		sb.append("    }\n"); // primaryMetric end
-		return sb.toString();
+		json.endObject();
 	}
 
+	private static void writeIterationParams(JsonWriter json, IterationParams params) throws IOException {
 
-	static String toJsonString(String s) {
-		StringBuilder sb = new StringBuilder();
-		for (char c : s.toCharArray()) {
-			if (Character.isISOControl(c)) {
-				continue;
-			}
-			switch (c) {
-				// use & as escape character to escape the tidying
-				case '&':
-					sb.append("&&");
-					break;
-				// we cannot escape to \\\\ since this would create sequences interpreted by the tidying
-				case '\\':
-					sb.append("&/");
-					break;
-				case '"':
-					sb.append("&'");
-					break;
-				// escape spacial chars for the tidying formatting below that might appear in a string
-				case ',':
-					sb.append(";");
-					break;
-				case '[':
-					sb.append("<");
-					break;
-				case ']':
-					sb.append(">");
-					break;
-				case '<':
-					sb.append("&-");
-					break;
-				case '>':
-					sb.append("&=");
-					break;
-				case ';':
-					sb.append("&:");
-					break;
-				case '{':
-					sb.append("&(");
-					break;
-				case '}':
-					sb.append("&)");
-					break;
-				default:
-					sb.append(c);
+		json.beginObject();
+		json.name("iterations").value(params.getCount());
+		json.name("time").value(params.getTime().toString());
+		json.name("batchSize").value(params.getBatchSize());
+		json.endObject();
+	}
+
+	/**
+	 * Write an aggregated result along with the raw data of each fork.
+	 *
+	 * @param secondary name of the secondary result or {@literal null} for the primary result.
+	 */
+	private static void writeResult(JsonWriter json, BenchmarkResult result, String secondary, Result<?> aggregated)
+			throws IOException {
+
+		json.beginObject();
+		json.name("score").value(aggregated.getScore());
+		json.name("scoreError").value(aggregated.getScoreError());
+		json.name("scoreConfidence").beginArray();
+		for (double bound : aggregated.getScoreConfidence()) {
+			json.value(bound);
+		}
+		json.endArray();
+
+		Statistics statistics = aggregated.getStatistics();
+		json.name("scorePercentiles").beginObject();
+		for (double percentile : PERCENTILES) {
+			json.name(Double.toString(percentile)).value(statistics.getPercentile(percentile));
+		}
+		json.endObject();
+
+		json.name("scoreUnit").value(aggregated.getScoreUnit());
+
+		boolean histogram = secondary == null && result.getParams().getMode() == Mode.SampleTime;
+
+		if (histogram) {
+			writeLatency(json.name("latency"), result.getHistogram(), result.getParams().getTimeUnit());
+		}
+
+		json.name(histogram ? "rawDataHistogram" : "rawData").beginArray();
+
+		for (org.openjdk.jmh.results.BenchmarkResult fork : result.getBenchmarkResults()) {
+
+			json.beginArray();
+			for (IterationResult iteration : fork.getIterationResults()) {
+
+				Result<?> iterationResult = secondary == null ? iteration.getPrimaryResult()
+						: iteration.getSecondaryResults().get(secondary);
+
+				if (iterationResult == null) {
+					continue;
+				}
+
+				if (histogram) {
+					writeHistogram(json, iterationResult.getStatistics());
+				}
+				else {
+					json.value(iterationResult.getScore());
+				}
 			}
+			json.endArray();
 		}
-		return sb.toString();
-	}
 
-	private static String toJsonArray(Collection<String> col) {
-		return toJsonArray(col, JsonResultsFormatter::wrap);
+		json.endArray();
+		json.endObject();
 	}
 
+	private static void writeLatency(JsonWriter json, LatencyHistogram histogram, TimeUnit unit) throws IOException {
 
-	private static <T> String toJsonArray(Collection<T> col, Function<T, String> mapFunction) {
-		return "[" + StringUtils.collectionToDelimitedString(col.stream().map(mapFunction).collect(Collectors.toList()), ",") + "]";
+		json.beginObject();
+		json.name("count").value(histogram.getTotalCount());
+		for (double percentile : LatencyHistogram.REPORTED_PERCENTILES) {
+			json.name(LatencyHistogram.getLabel(percentile))
+					.value(LatencyHistogram.convert(histogram.getValueAtPercentile(percentile), unit));
+		}
+		json.name("max").value(LatencyHistogram.convert(histogram.getMax(), unit));
+		json.endObject();
 	}
 
-	private static String wrap(String source) {
-		return "\"" + source + "\"";
-	}
+	private static void writeScalability(JsonWriter json, UniversalScalabilityLaw scalability) throws IOException {
+
+		json.beginObject();
+		json.name("lambda").value(scalability.getLambda());
+		json.name("contention").value(scalability.getContention());
+		json.name("coherency").value(scalability.getCoherency());
+		json.name("peakThreads").value(scalability.getPeakThreads());
+		json.name("rSquared").value(scalability.getRSquared());
 
-	private static java.lang.String formatNumber(Number number) {
+		int[] threads = scalability.getThreads();
+		double[] throughput = scalability.getMeasuredThroughput();
 
-		if (number == null) {
-			return "NaN";
+		json.name("curve").beginArray();
+		for (int i = 0; i < threads.length; i++) {
+			json.beginArray().value(threads[i]).value(throughput[i]).endArray();
 		}
+		json.endArray();
+		json.endObject();
+	}
 
-		double value = number.doubleValue();
-		if (Double.isInfinite(value)) {
-			if (value == Double.POSITIVE_INFINITY) {
-				return "+INF";
-			}
-			return "-INF";
+	private static void writeComplexity(JsonWriter json, ComplexityEstimate complexity) throws IOException {
+
+		json.beginObject();
+		json.name("parameter").value(complexity.getParameter());
+		json.name("class").value(complexity.getComplexityClass().getLabel());
+		json.name("intercept").value(complexity.getIntercept());
+		json.name("slope").value(complexity.getSlope());
+		json.name("rSquared").value(complexity.getRSquared());
+		json.name("relativeError").value(complexity.getRelativeError());
+
+		double[] sizes = complexity.getSizes();
+		double[] costs = complexity.getMeasuredCosts();
+
+		json.name("curve").beginArray();
+		for (int i = 0; i < sizes.length; i++) {
+			json.beginArray().value(sizes[i]).value(costs[i]).endArray();
 		}
+		json.endArray();
+		json.endObject();
+	}
 
-		DecimalFormatSymbols symbols = new DecimalFormatSymbols(Locale.US);
-		symbols.setDecimalSeparator('.');
-		return new DecimalFormat("###.###", symbols).format(value);
+	private static void writeHistogram(JsonWriter json, Statistics statistics) throws IOException {
+
+		json.beginArray();
+		for (Iterator<Entry<Double, Long>> it = statistics.getRawData(); it.hasNext(); ) {
+
+			Entry<Double, Long> bucket = it.next();
+			json.beginArray().value(bucket.getKey()).value(bucket.getValue()).endArray();
+		}
+		json.endArray();
 	}
 
 	private static String extractClass(String source) {
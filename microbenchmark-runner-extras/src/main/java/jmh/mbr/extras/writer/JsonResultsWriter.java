@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jmh.mbr.core.BenchmarkConfigProperties;
+import jmh.mbr.core.BenchmarkSharding;
+import jmh.mbr.core.StreamingResultsWriter;
+import jmh.mbr.core.model.BenchmarkResults.BenchmarkResult;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import jmh.mbr.core.model.ComplexityEstimate;
+import jmh.mbr.core.model.UniversalScalabilityLaw;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * {@link StreamingResultsWriter} streaming results as JSON array to a file. Each result is
+ * {@link JsonResultsFormatter#write(JsonWriter, BenchmarkResult) formatted} straight into a buffered file writer as its
+ * benchmark finishes. The array is completed when the writer is closed.
+ * <p>
+ * Results of a thread sweep carry the {@link UniversalScalabilityLaw} fit of the thread counts of their curve written
+ * so far, so the last result of each curve carries the fit of the complete curve. Results of a size parameter carry the
+ * {@link ComplexityEstimate} of the sizes of their curve written so far likewise.
+ * <p>
+ * Results of a {@link BenchmarkSharding shard} are written to a per-shard file with a {@code _shard-<index>-of-<count>}
+ * suffix taken from the {@link MetaData} of the results so that shards sharing a directory do not overwrite each other.
+ * Shard files are combined using {@link jmh.mbr.extras.merge.ShardResultsMerger}.
+ */
+class JsonResultsWriter implements StreamingResultsWriter {
+
+	private final File file;
+	private final Map<String, List<double[]>> curves = new HashMap<>();
+	private final Map<String, List<double[]>> sizeCurves = new HashMap<>();
+	private JsonWriter json;
+	private boolean open;
+
+	JsonResultsWriter(String uri) {
+		this.file = new File(uri.substring("json:".length())).getAbsoluteFile();
+	}
+
+	@Override
+	public synchronized void open(OutputFormat output) {
+
+		File parent = file.getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+			throw new UncheckedIOException("Cannot open " + file, new IOException("Cannot create " + parent));
+		}
+
+		open = true;
+	}
+
+	@Override
+	public synchronized void write(OutputFormat output, BenchmarkResult result) {
+
+		try {
+			JsonResultsFormatter.write(getWriter(result.getMetaData()), result, fitCurve(result),
+					estimateComplexity(result));
+		}
+		catch (IOException e) {
+			output.println("Write failed: " + e.getMessage() + " " + StackTraceCapture.from(e));
+		}
+	}
+
+	@Override
+	public synchronized void flush(OutputFormat output) {
+
+		if (json == null) {
+			return;
+		}
+
+		try {
+			json.flush();
+		}
+		catch (IOException e) {
+			output.println("Write failed: " + e.getMessage() + " " + StackTraceCapture.from(e));
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+
+		if (json == null && !open) {
+			return;
+		}
+
+		open = false;
+
+		try (JsonWriter writer = getWriter(MetaData.none())) {
+			json = null;
+			writer.endArray();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Cannot write " + file, e);
+		}
+	}
+
+	private UniversalScalabilityLaw fitCurve(BenchmarkResult result) {
+
+		RunResult runResult = result.map((metaData, it) -> it);
+
+		if (runResult.getParams() == null || UniversalScalabilityLaw.getThroughput(runResult) <= 0) {
+			return null;
+		}
+
+		List<double[]> curve = curves.computeIfAbsent(UniversalScalabilityLaw.getCurveKey(runResult.getParams()),
+				it -> new ArrayList<>());
+		curve.add(new double[] { runResult.getParams().getThreads(), UniversalScalabilityLaw.getThroughput(runResult) });
+
+		int[] threads = new int[curve.size()];
+		double[] throughput = new double[curve.size()];
+		for (int i = 0; i < curve.size(); i++) {
+			threads[i] = (int) curve.get(i)[0];
+			throughput[i] = curve.get(i)[1];
+		}
+
+		return UniversalScalabilityLaw.fit(threads, throughput);
+	}
+
+	private ComplexityEstimate estimateComplexity(BenchmarkResult result) {
+
+		RunResult runResult = result.map((metaData, it) -> it);
+
+		if (runResult.getParams() == null || ComplexityEstimate.getCost(runResult) <= 0) {
+			return null;
+		}
+
+		String parameter = ComplexityEstimate.getParameter(result.getMetaData(), runResult.getParams());
+		double size = parameter != null ? ComplexityEstimate.getSize(runResult.getParams(), parameter) : Double.NaN;
+
+		if (Double.isNaN(size)) {
+			return null;
+		}
+
+		List<double[]> curve = sizeCurves.computeIfAbsent(
+				ComplexityEstimate.getCurveKey(runResult.getParams(), parameter), it -> new ArrayList<>());
+		curve.add(new double[] { size, ComplexityEstimate.getCost(runResult) });
+
+		double[] sizes = new double[curve.size()];
+		double[] costs = new double[curve.size()];
+		for (int i = 0; i < curve.size(); i++) {
+			sizes[i] = curve.get(i)[0];
+			costs[i] = curve.get(i)[1];
+		}
+
+		return ComplexityEstimate.fit(parameter, sizes, costs);
+	}
+
+	private synchronized JsonWriter getWriter(MetaData metaData) throws IOException {
+
+		if (json == null) {
+
+			File file = getFile(metaData);
+			File parent = file.getParentFile();
+			if (parent != null) {
+				parent.mkdirs();
+			}
+
+			json = new JsonWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8), false);
+			json.beginArray();
+		}
+
+		return json;
+	}
+
+	private File getFile(MetaData metaData) {
+
+		Map<String, Object> parameters = metaData.getAdditionalParameters();
+		Object index = parameters.get(BenchmarkConfigProperties.SHARD_INDEX.propertyName());
+		Object count = parameters.get(BenchmarkConfigProperties.SHARD_COUNT.propertyName());
+
+		try {
+			if (count != null && Integer.parseInt(count.toString().trim()) > 1) {
+				return BenchmarkSharding.getShardFile(file, index != null ? Integer.parseInt(index.toString().trim()) : 0,
+						Integer.parseInt(count.toString().trim()));
+			}
+		}
+		catch (NumberFormatException e) {
+			// invalid shard configuration is rejected by the runner
+		}
+
+		return file;
+	}
+}
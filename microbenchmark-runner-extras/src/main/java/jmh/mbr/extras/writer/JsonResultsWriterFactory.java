@@ -0,0 +1,30 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import jmh.mbr.core.ResultsWriter;
+import jmh.mbr.core.ResultsWriterFactory;
+
+/**
+ * A {@link ResultsWriterFactory} that streams results as JSON to a file. Activated with
+ * <code>-Djmh.mbr.report.publishTo=json:./path/to/file.json</code>. The file will be overwritten if it already exists.
+ */
+public class JsonResultsWriterFactory implements ResultsWriterFactory {
+
+	@Override
+	public ResultsWriter forUri(String uri) {
+
+		if (uri == null || !uri.startsWith("json:")) {
+			return null;
+		}
+
+		return new JsonResultsWriter(uri);
+	}
+}
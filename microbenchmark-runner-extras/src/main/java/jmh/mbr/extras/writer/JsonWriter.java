@@ -0,0 +1,297 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Streaming writer for RFC 8259 JSON. Strings are escaped as required by the RFC; unpaired surrogates are escaped to
+ * retain them. Non-finite numbers cannot be represented in JSON and are written as {@code null}. Output is either
+ * compact or pretty-printed with four spaces of indentation.
+ *
+ * @see JsonReader
+ */
+public class JsonWriter implements Flushable, Closeable {
+
+	private static final String INDENT = "    ";
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final Writer out;
+	private final boolean pretty;
+
+	// per nesting level: whether the container has no elements yet
+	private boolean[] empty = new boolean[16];
+	private int depth;
+	private boolean afterName;
+
+	public JsonWriter(Writer out, boolean pretty) {
+		this.out = out;
+		this.pretty = pretty;
+	}
+
+	public JsonWriter beginObject() throws IOException {
+		return open('{');
+	}
+
+	public JsonWriter endObject() throws IOException {
+		return close('}');
+	}
+
+	public JsonWriter beginArray() throws IOException {
+		return open('[');
+	}
+
+	public JsonWriter endArray() throws IOException {
+		return close(']');
+	}
+
+	/**
+	 * Write the name of the next object member.
+	 *
+	 * @param name the member name.
+	 * @return {@code this} writer.
+	 */
+	public JsonWriter name(String name) throws IOException {
+
+		separate();
+		string(name);
+		out.write(pretty ? " : " : ":");
+		afterName = true;
+
+		return this;
+	}
+
+	public JsonWriter value(String value) throws IOException {
+
+		if (value == null) {
+			return nullValue();
+		}
+
+		separate();
+		string(value);
+		return this;
+	}
+
+	public JsonWriter value(double value) throws IOException {
+
+		if (!Double.isFinite(value)) {
+			return nullValue();
+		}
+
+		separate();
+		out.write(value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value)
+				: Double.toString(value));
+		return this;
+	}
+
+	public JsonWriter value(long value) throws IOException {
+
+		separate();
+		out.write(Long.toString(value));
+		return this;
+	}
+
+	public JsonWriter value(boolean value) throws IOException {
+
+		separate();
+		out.write(value ? "true" : "false");
+		return this;
+	}
+
+	/**
+	 * Write a value as read by {@link JsonReader}: {@link Map maps} as objects, {@link Iterable iterables} as arrays,
+	 * strings, numbers, booleans and {@literal null}. Other values are written as their string representation.
+	 *
+	 * @param value the value, can be {@literal null}.
+	 * @return {@code this} writer.
+	 */
+	public JsonWriter value(Object value) throws IOException {
+
+		if (value == null) {
+			return nullValue();
+		}
+
+		if (value instanceof Map) {
+
+			beginObject();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				name(String.valueOf(entry.getKey())).value(entry.getValue());
+			}
+			return endObject();
+		}
+
+		if (value instanceof Iterable) {
+
+			beginArray();
+			for (Object element : (Iterable<?>) value) {
+				value(element);
+			}
+			return endArray();
+		}
+
+		if (value instanceof Long || value instanceof Integer) {
+			return value(((Number) value).longValue());
+		}
+
+		if (value instanceof Number) {
+			return value(((Number) value).doubleValue());
+		}
+
+		if (value instanceof Boolean) {
+			return value(((Boolean) value).booleanValue());
+		}
+
+		return value(value.toString());
+	}
+
+	public JsonWriter nullValue() throws IOException {
+
+		separate();
+		out.write("null");
+		return this;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	private JsonWriter open(char bracket) throws IOException {
+
+		separate();
+		out.write(bracket);
+
+		if (++depth == empty.length) {
+			empty = Arrays.copyOf(empty, depth * 2);
+		}
+		empty[depth] = true;
+
+		return this;
+	}
+
+	private JsonWriter close(char bracket) throws IOException {
+
+		if (depth == 0) {
+			throw new IllegalStateException("No open object or array");
+		}
+
+		if (pretty && !empty[depth]) {
+			newLine(depth - 1);
+		}
+
+		depth--;
+		out.write(bracket);
+
+		return this;
+	}
+
+	private void separate() throws IOException {
+
+		if (afterName) {
+			afterName = false;
+			return;
+		}
+
+		if (depth == 0) {
+			return;
+		}
+
+		if (!empty[depth]) {
+			out.write(',');
+		}
+		empty[depth] = false;
+
+		if (pretty) {
+			newLine(depth);
+		}
+	}
+
+	private void newLine(int indent) throws IOException {
+
+		out.write('\n');
+		for (int i = 0; i < indent; i++) {
+			out.write(INDENT);
+		}
+	}
+
+	private void string(String value) throws IOException {
+
+		out.write('"');
+
+		int length = value.length();
+		for (int i = 0; i < length; i++) {
+
+			char c = value.charAt(i);
+
+			switch (c) {
+				case '"':
+					out.write("\\\"");
+					break;
+				case '\\':
+					out.write("\\\\");
+					break;
+				case '\n':
+					out.write("\\n");
+					break;
+				case '\r':
+					out.write("\\r");
+					break;
+				case '\t':
+					out.write("\\t");
+					break;
+				case '\b':
+					out.write("\\b");
+					break;
+				case '\f':
+					out.write("\\f");
+					break;
+				default:
+
+					if (c < 0x20 || isUnpairedSurrogate(value, i)) {
+						out.write("\\u");
+						out.write(HEX[c >> 12 & 0xf]);
+						out.write(HEX[c >> 8 & 0xf]);
+						out.write(HEX[c >> 4 & 0xf]);
+						out.write(HEX[c & 0xf]);
+					}
+					else {
+						out.write(c);
+					}
+			}
+		}
+
+		out.write('"');
+	}
+
+	private static boolean isUnpairedSurrogate(String value, int index) {
+
+		char c = value.charAt(index);
+
+		if (Character.isHighSurrogate(c)) {
+			return index + 1 >= value.length() || !Character.isLowSurrogate(value.charAt(index + 1));
+		}
+
+		if (Character.isLowSurrogate(c)) {
+			return index == 0 || !Character.isHighSurrogate(value.charAt(index - 1));
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.GZIPOutputStream;
+
+import jmh.mbr.core.StreamingResultsWriter;
+import jmh.mbr.core.model.BenchmarkResults.BenchmarkResult;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * {@link StreamingResultsWriter} writing raw results as tidy CSV: one row per fork, iteration and metric. The primary
+ * result of sample time benchmarks is written as one row per distinct sample value along with its count. All rows share
+ * the fixed {@link #HEADER}; results derived from other results, such as sample time percentiles, are omitted.
+ * Benchmark parameters are combined into a single {@code params} column
+ * ({@code key=value;key=value}). Rows are streamed through a buffered {@link FileChannel} as each benchmark finishes. The
+ * output is compressed with gzip if the file name ends with {@code .gz}.
+ */
+class RawCsvResultsWriter implements StreamingResultsWriter {
+
+	static final String HEADER = "project,version,benchmark,mode,threads,params,fork,iteration,metric,value,count,unit";
+
+	static final String PRIMARY = "primary";
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final File file;
+	private Writer writer;
+
+	RawCsvResultsWriter(String uri) {
+		this.file = new File(uri.substring("csv-raw:".length())).getAbsoluteFile();
+	}
+
+	@Override
+	public void open(OutputFormat output) {
+
+		try {
+			getWriter();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Cannot open " + file, e);
+		}
+	}
+
+	@Override
+	public synchronized void write(OutputFormat output, BenchmarkResult result) {
+
+		try {
+			write(getWriter(), result);
+		}
+		catch (IOException e) {
+			output.println("Write failed: " + e.getMessage() + " " + StackTraceCapture.from(e));
+		}
+	}
+
+	@Override
+	public synchronized void flush(OutputFormat output) {
+
+		if (writer == null) {
+			return;
+		}
+
+		try {
+			writer.flush();
+		}
+		catch (IOException e) {
+			output.println("Write failed: " + e.getMessage() + " " + StackTraceCapture.from(e));
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+
+		if (writer == null) {
+			return;
+		}
+
+		Writer toClose = writer;
+		writer = null;
+
+		try {
+			toClose.close();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Cannot write " + file, e);
+		}
+	}
+
+	/**
+	 * Write the rows of a {@link BenchmarkResult}.
+	 *
+	 * @param out the writer to write to.
+	 * @param result the result to write.
+	 * @throws IOException if the underlying writer fails.
+	 */
+	static void write(Writer out, BenchmarkResult result) throws IOException {
+
+		MetaData metaData = result.getMetaData();
+		BenchmarkParams params = result.getParams();
+
+		// columns shared by all rows of the result, up to and including params
+		StringBuilder prefix = new StringBuilder();
+		appendField(prefix, metaData.getProject()).append(',');
+		appendField(prefix, metaData.getVersion()).append(',');
+		appendField(prefix, params.getBenchmark()).append(',');
+		appendField(prefix, params.getMode().shortLabel()).append(',');
+		prefix.append(params.getThreads()).append(',');
+
+		StringBuilder paramValues = new StringBuilder();
+		for (String key : params.getParamsKeys()) {
+			if (paramValues.length() != 0) {
+				paramValues.append(';');
+			}
+			paramValues.append(key).append('=').append(params.getParam(key));
+		}
+		appendField(prefix, paramValues.toString()).append(',');
+
+		boolean histogram = params.getMode() == Mode.SampleTime;
+		StringBuilder row = new StringBuilder();
+		int fork = 0;
+
+		for (org.openjdk.jmh.results.BenchmarkResult forkResult : result.getBenchmarkResults()) {
+
+			fork++;
+			int iteration = 0;
+
+			for (IterationResult iterationResult : forkResult.getIterationResults()) {
+
+				iteration++;
+				Result<?> primary = iterationResult.getPrimaryResult();
+				Collection<String> measured = iterationResult.getRawSecondaryResults().keys();
+
+				if (histogram) {
+
+					for (Iterator<Entry<Double, Long>> it = primary.getStatistics().getRawData(); it.hasNext(); ) {
+
+						Entry<Double, Long> sample = it.next();
+						writeRow(out, row, prefix, fork, iteration, PRIMARY, sample.getKey(), sample.getValue(),
+								primary.getScoreUnit());
+					}
+				}
+				else {
+					writeRow(out, row, prefix, fork, iteration, PRIMARY, primary.getScore(), primary.getSampleCount(),
+							primary.getScoreUnit());
+				}
+
+				for (Map.Entry<String, Result> secondary : iterationResult.getSecondaryResults().entrySet()) {
+
+					// skip results derived from other results such as sample time percentiles
+					if (!measured.contains(secondary.getKey())) {
+						continue;
+					}
+
+					Result<?> value = secondary.getValue();
+					writeRow(out, row, prefix, fork, iteration, secondary.getKey(), value.getScore(),
+							value.getSampleCount(), value.getScoreUnit());
+				}
+			}
+		}
+	}
+
+	private static void writeRow(Writer out, StringBuilder row, CharSequence prefix, int fork, int iteration,
+			String metric, double value, long count, String unit) throws IOException {
+
+		row.setLength(0);
+		row.append(prefix).append(fork).append(',').append(iteration).append(',');
+		appendField(row, metric).append(',');
+		row.append(value).append(',').append(count).append(',');
+		appendField(row, unit).append('\n');
+
+		out.append(row);
+	}
+
+	/**
+	 * Append a field, quoted as per RFC 4180 if it contains a separator, quote or line break.
+	 */
+	static StringBuilder appendField(StringBuilder builder, String value) {
+
+		if (value == null) {
+			return builder;
+		}
+
+		boolean quote = false;
+		for (int i = 0; i < value.length() && !quote; i++) {
+			char c = value.charAt(i);
+			quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+		}
+
+		if (!quote) {
+			return builder.append(value);
+		}
+
+		builder.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"') {
+				builder.append('"');
+			}
+			builder.append(c);
+		}
+		return builder.append('"');
+	}
+
+	private synchronized Writer getWriter() throws IOException {
+
+		if (writer == null) {
+
+			File parent = file.getParentFile();
+			if (parent != null) {
+				parent.mkdirs();
+			}
+
+			FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+			OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+
+			if (file.getName().endsWith(".gz")) {
+				stream = new GZIPOutputStream(stream, BUFFER_SIZE, true);
+			}
+
+			writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+			writer.write(HEADER);
+			writer.write('\n');
+		}
+
+		return writer;
+	}
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import jmh.mbr.core.ResultsWriter;
+import jmh.mbr.core.ResultsWriterFactory;
+
+/**
+ * A {@link ResultsWriterFactory} that streams raw per-iteration results as CSV to a file. Activated with
+ * <code>-Djmh.mbr.report.publishTo=csv-raw:./path/to/file.csv</code> or
+ * <code>-Djmh.mbr.report.publishTo=csv-raw:./path/to/file.csv.gz</code> for gzip-compressed output. The file will be
+ * overwritten if it already exists.
+ */
+public class RawCsvResultsWriterFactory implements ResultsWriterFactory {
+
+	@Override
+	public ResultsWriter forUri(String uri) {
+
+		if (uri == null || !uri.startsWith("csv-raw:")) {
+			return null;
+		}
+
+		return new RawCsvResultsWriter(uri);
+	}
+}
@@ -26,7 +26,7 @@ class SysoutCsvResultsWriter implements ResultsWriter {
 
 		try {
 
-			String report = CsvResultsFormatter.createReport(results.getRawResults());
+			String report = CsvResultsFormatter.createReport(results);
 			output.println(report);
 		} catch (Exception e) {
 			output.println("Report creation failed: " + StackTraceCapture.from(e));
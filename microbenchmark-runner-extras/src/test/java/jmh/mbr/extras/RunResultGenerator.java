@@ -21,6 +21,7 @@ import org.openjdk.jmh.infra.BenchmarkParams;
 import org.openjdk.jmh.infra.IterationParams;
 import org.openjdk.jmh.results.BenchmarkResult;
 import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
 import org.openjdk.jmh.results.ResultRole;
 import org.openjdk.jmh.results.RunResult;
 import org.openjdk.jmh.results.ThroughputResult;
@@ -77,6 +78,40 @@ public class RunResultGenerator {
 		return params;
 	}
 
+	/**
+	 * Create {@link BenchmarkParams} for a single-iteration run with {@code threads} threads.
+	 *
+	 * @param parameters alternating parameter names and values.
+	 */
+	public static BenchmarkParams params(String benchmark, Mode mode, TimeUnit timeUnit, int threads,
+			String... parameters) {
+
+		WorkloadParams workloadParams = new WorkloadParams();
+		for (int i = 0; i < parameters.length; i += 2) {
+			workloadParams.put(parameters[i], parameters[i + 1], i / 2);
+		}
+
+		return new BenchmarkParams(benchmark, benchmark + "_" + mode, false, threads, new int[] { threads },
+				Collections.<String>emptyList(), 1, 1, new IterationParams(IterationType.WARMUP, 1, TimeValue.seconds(1), 1),
+				new IterationParams(IterationType.MEASUREMENT, 1, TimeValue.seconds(1), 1), mode, workloadParams, timeUnit,
+				1, JVM_DUMMY, Collections.<String>emptyList(), JDK_VERSION_DUMMY, VM_NAME_DUMMY, VM_VERSION_DUMMY,
+				JMH_VERSION_DUMMY, TimeValue.days(1));
+	}
+
+	/**
+	 * Create a {@link RunResult} of a single fork with one measurement iteration reporting {@code results}.
+	 */
+	public static RunResult runResult(BenchmarkParams params, Result<?>... results) {
+
+		IterationResult iteration = new IterationResult(params, params.getMeasurement(), null);
+		for (Result<?> result : results) {
+			iteration.addResult(result);
+		}
+
+		return new RunResult(params,
+				Collections.singletonList(new BenchmarkResult(params, Collections.singletonList(iteration))));
+	}
+
 	public static Collection<BenchmarkResult> benchmarkResults(BenchmarkParams params, int iterations, Integer... ops) {
 
 		Collection<BenchmarkResult> benchmarkResults = new ArrayList<>();
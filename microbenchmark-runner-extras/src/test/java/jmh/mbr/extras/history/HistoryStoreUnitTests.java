@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.history;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import jmh.mbr.core.BenchmarkHistory;
+import jmh.mbr.core.BenchmarkHistory.Record;
+import jmh.mbr.core.ResultsWriter;
+import jmh.mbr.core.model.BenchmarkResults;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import jmh.mbr.core.model.LatencyHistogram;
+import jmh.mbr.extras.RunResultGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+/**
+ * Unit tests for {@link HistoryStore}.
+ */
+class HistoryStoreUnitTests {
+
+	@Test
+	void shouldLookUpMostRecentScores(@TempDir File directory) throws Exception {
+
+		try (HistoryStore store = HistoryStore.open(directory)) {
+
+			for (int i = 0; i < HistoryIndex.CAPACITY + 8; i++) {
+				store.append(record("com.example.Foo.bar{}", i));
+			}
+
+			double[] scores = store.getScores("com.example.Foo.bar{}", 100);
+			assertThat(scores).hasSize(HistoryIndex.CAPACITY);
+			assertThat(scores[0]).isEqualTo(8);
+			assertThat(scores[scores.length - 1]).isEqualTo(HistoryIndex.CAPACITY + 7);
+
+			List<Record> records = store.getRecords("com.example.Foo.bar{}", 2);
+			assertThat(records).extracting(Record::getScore).containsExactly(HistoryIndex.CAPACITY + 6d,
+					HistoryIndex.CAPACITY + 7d);
+			assertThat(records.get(1).getScores()).containsExactly(HistoryIndex.CAPACITY + 7d, 1d);
+			assertThat(store.getRecords("com.example.Foo.baz{}", 2)).isEmpty();
+		}
+	}
+
+	@Test
+	void shouldGrowIndexAndPersistRecords(@TempDir File directory) throws Exception {
+
+		int keys = HistoryIndex.INITIAL_SLOTS * 2;
+
+		try (HistoryStore store = HistoryStore.open(directory)) {
+			for (int i = 0; i < keys; i++) {
+				store.append(record("com.example.Foo.bar{size=" + i + "}", i));
+			}
+		}
+
+		try (HistoryStore store = HistoryStore.openReadOnly(directory)) {
+
+			assertThat(store.getLatestRecords()).hasSize(keys);
+			for (int i = 0; i < keys; i++) {
+				assertThat(store.getScores("com.example.Foo.bar{size=" + i + "}", 1)).containsExactly(i);
+			}
+		}
+	}
+
+	@Test
+	void shouldDiscardTornRecordAndRebuildIndex(@TempDir File directory) throws Exception {
+
+		try (HistoryStore store = HistoryStore.open(directory)) {
+			store.append(record("com.example.Foo.bar{}", 1));
+		}
+
+		File[] segments = directory.listFiles((dir, name) -> name.endsWith(".log"));
+		assertThat(segments).hasSize(1);
+
+		long length = segments[0].length();
+		Files.write(segments[0].toPath(), ByteBuffer.allocate(16).putInt(1024).putLong(42).array(),
+				StandardOpenOption.APPEND);
+		Files.delete(new File(directory, HistoryStore.INDEX_FILE).toPath());
+
+		try (HistoryStore store = HistoryStore.open(directory)) {
+
+			assertThat(segments[0]).hasSize(length);
+			store.append(record("com.example.Foo.bar{}", 2));
+
+			assertThat(store.getScores("com.example.Foo.bar{}", 10)).containsExactly(1, 2);
+		}
+	}
+
+	@Test
+	void shouldPersistHistograms(@TempDir File directory) throws Exception {
+
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(1_000, 99);
+		histogram.record(1_000_000);
+
+		try (HistoryStore store = HistoryStore.open(directory)) {
+			store.append(record("com.example.Foo.bar{}", 1));
+			store.append(new Record("com.example.Foo.bar{}", "com.example.Foo.bar", System.currentTimeMillis(), "us/op",
+					2, new double[] { 2 }, histogram));
+		}
+
+		try (HistoryStore store = HistoryStore.open(directory)) {
+
+			List<Record> records = store.getRecords("com.example.Foo.bar{}", 2);
+
+			assertThat(records).hasSize(2);
+			assertThat(records.get(0).getHistogram()).isNull();
+			assertThat(records.get(1).getHistogram().getTotalCount()).isEqualTo(100);
+			assertThat(records.get(1).getHistogram().getMax()).isEqualTo(1_000_000);
+			assertThat(records.get(1).getScores()).containsExactly(2);
+		}
+	}
+
+	@Test
+	void shouldReadEmptyHistory(@TempDir File directory) throws Exception {
+
+		try (HistoryStore store = HistoryStore.openReadOnly(new File(directory, "missing"))) {
+
+			assertThat(store.getRecords("com.example.Foo.bar{}", 1)).isEmpty();
+			assertThat(store.getLatestRecords()).isEmpty();
+		}
+	}
+
+	@Test
+	void shouldRecordResultsThroughWriter(@TempDir File directory) throws Exception {
+
+		String uri = "history:" + directory.getAbsolutePath();
+		OutputFormat output = OutputFormatFactory.createFormatInstance(new PrintStream(new ByteArrayOutputStream()),
+				VerboseMode.SILENT);
+		List<RunResult> runResults = new ArrayList<>(RunResultGenerator.generate("com.example.Foo"));
+
+		ResultsWriter writer = new HistoryResultsWriterFactory().forUri(uri);
+		writer.open(output);
+		writer.write(output, new BenchmarkResults(MetaData.none(), runResults));
+		writer.close();
+
+		BenchmarkHistory history = new HistoryStoreFactory().forUri(uri);
+		List<Record> records = history
+				.getRecords(BenchmarkHistory.getKey(runResults.get(0).getParams(), false), HistoryIndex.CAPACITY);
+
+		assertThat(records).hasSize(1);
+		assertThat(records.get(0).getBenchmark()).isEqualTo(runResults.get(0).getParams().getBenchmark());
+		assertThat(records.get(0).getScore()).isEqualTo(runResults.get(0).getPrimaryResult().getScore());
+		assertThat(records.get(0).getScores()).isNotEmpty();
+		assertThat(new HistoryStoreFactory().forUri("/some/file.properties")).isNull();
+	}
+
+	private static Record record(String key, double score) {
+		return new Record(key, "com.example.Foo.bar", System.currentTimeMillis(), "ops/s", score,
+				new double[] { score, 1 });
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.merge;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link ShardResultsMerger}.
+ */
+class ShardResultsMergerUnitTests {
+
+	@Test
+	void shouldReadTopLevelArrayElements() {
+
+		String json = "[ {\"benchmark\" : \"a\", \"params\" : {\"x\" : \"[1,2]\"}, \"raw\" : [[1,2],[3]]},\n {\"benchmark\" : \"b\"} ]";
+
+		assertThat(getNames(ShardResultsMerger.read(json), "benchmark")).containsExactly("a", "b");
+	}
+
+	@Test
+	void shouldTreatObjectAsSingleElement() {
+		assertThat(getNames(ShardResultsMerger.read(" {\"benchmark\" : \"a\"} "), "benchmark")).containsExactly("a");
+	}
+
+	@Test
+	void shouldReadEmptyArray() {
+		assertThat(ShardResultsMerger.read("[ ]")).isEmpty();
+	}
+
+	@Test
+	void shouldMergeShardsOrderedByBenchmark(@TempDir Path directory) throws IOException {
+
+		File shard0 = write(directory.resolve("shard-0.json"), "[{\"benchmark\" : \"com.example.B\"}, {\"benchmark\" : \"com.example.D\"}]");
+		File shard1 = write(directory.resolve("shard-1.json"), "[{\"benchmark\" : \"com.example.C\"}, {\"benchmark\" : \"com.example.A\"}]");
+		File output = directory.resolve("merged.json").toFile();
+
+		ShardResultsMerger.merge(Arrays.asList(shard0, shard1), output);
+
+		assertThat(getNames(read(output), "benchmark")).containsExactly("com.example.A", "com.example.B",
+				"com.example.C", "com.example.D");
+	}
+
+	@Test
+	void shouldMergeResultsWriterShardsOrderedByMethod(@TempDir Path directory) throws IOException {
+
+		File shard0 = write(directory.resolve("results_shard-0-of-2.json"),
+				"[{\"group\":\"com.example.Foo\",\"benchmark\":\"b\",\"method\":\"com.example.Foo.b\"}]");
+		File shard1 = write(directory.resolve("results_shard-1-of-2.json"),
+				"[{\"group\":\"com.example.Bar\",\"benchmark\":\"z\",\"method\":\"com.example.Bar.z\"},"
+						+ "{\"group\":\"com.example.Foo\",\"benchmark\":\"a\",\"method\":\"com.example.Foo.a\"}]");
+		File output = directory.resolve("merged.json").toFile();
+
+		ShardResultsMerger.merge(Arrays.asList(shard0, shard1), output);
+
+		assertThat(getNames(read(output), "method")).containsExactly("com.example.Bar.z", "com.example.Foo.a",
+				"com.example.Foo.b");
+	}
+
+	@Test
+	void shouldRetainBracketsAndEscapesInStrings(@TempDir Path directory) throws IOException {
+
+		File shard0 = write(directory.resolve("shard-0.json"),
+				"[{\"method\":\"com.example.Foo.b\",\"params\":{\"p\":\"]},{\\\"method\\\":\\\"com.example.A\\\"\"}}]");
+		File shard1 = write(directory.resolve("shard-1.json"),
+				"[{\"method\":\"com.example.Foo.a\",\"params\":{\"p\":\"[\\\\\\\"x\\\\\\\", {y}]\"}}]");
+		File output = directory.resolve("merged.json").toFile();
+
+		ShardResultsMerger.merge(Arrays.asList(shard0, shard1), output);
+
+		List<Object> merged = read(output);
+		assertThat(getNames(merged, "method")).containsExactly("com.example.Foo.a", "com.example.Foo.b");
+		assertThat(getParam(merged.get(0))).isEqualTo("[\\\"x\\\", {y}]");
+		assertThat(getParam(merged.get(1))).isEqualTo("]},{\"method\":\"com.example.A\"");
+	}
+
+	@Test
+	void shouldRetainMetadataOfEachShard(@TempDir Path directory) throws IOException {
+
+		File shard0 = write(directory.resolve("results_shard-0-of-2.json"), "[{\"date\":\"2020-01-01T00:00\","
+				+ "\"project\":\"p\",\"method\":\"com.example.Foo.b\",\"env\":{\"os\":\"linux\",\"shard.index\":\"0\"}}]");
+		File shard1 = write(directory.resolve("results_shard-1-of-2.json"), "[{\"date\":\"2020-01-02T00:00\","
+				+ "\"project\":\"p\",\"method\":\"com.example.Foo.a\",\"env\":{\"os\":\"mac\",\"shard.index\":\"1\"}}]");
+		File output = directory.resolve("merged.json").toFile();
+
+		ShardResultsMerger.merge(Arrays.asList(shard0, shard1), output);
+
+		List<Object> merged = read(output);
+		assertThat(merged).containsExactly(ShardResultsMerger.read(contentOf(shard1)).get(0),
+				ShardResultsMerger.read(contentOf(shard0)).get(0));
+	}
+
+	@Test
+	void shouldRejectMalformedShard(@TempDir Path directory) throws IOException {
+
+		File shard = write(directory.resolve("shard-0.json"), "[{\"method\":\"com.example.Foo.a\"");
+
+		assertThatIOException().isThrownBy(
+				() -> ShardResultsMerger.merge(Arrays.asList(shard), directory.resolve("merged.json").toFile()))
+				.withMessageContaining("shard-0.json");
+	}
+
+	private static List<Object> read(File file) throws IOException {
+		return ShardResultsMerger.read(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+	}
+
+	private static List<Object> getNames(List<Object> results, String key) {
+		return results.stream().map(it -> ((Map<?, ?>) it).get(key)).collect(Collectors.toList());
+	}
+
+	private static Object getParam(Object result) {
+		return ((Map<?, ?>) ((Map<?, ?>) result).get("params")).get("p");
+	}
+
+	private static File write(Path path, String content) throws IOException {
+		return Files.write(path, content.getBytes(StandardCharsets.UTF_8)).toFile();
+	}
+}
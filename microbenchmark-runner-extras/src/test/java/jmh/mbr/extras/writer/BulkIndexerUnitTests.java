@@ -0,0 +1,223 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpHost;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+/**
+ * Unit tests for {@link BulkIndexer} against a stub Elasticsearch HTTP server.
+ */
+class BulkIndexerUnitTests {
+
+	ByteArrayOutputStream console = new ByteArrayOutputStream();
+	OutputFormat output = OutputFormatFactory.createFormatInstance(new PrintStream(console), VerboseMode.NORMAL);
+
+	HttpServer server;
+	RestHighLevelClient client;
+	List<String> requests = new CopyOnWriteArrayList<>();
+	Deque<Integer> statuses = new ArrayDeque<>();
+
+	@BeforeEach
+	void setUp() throws IOException {
+
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/_bulk", exchange -> {
+
+			String body = read(exchange.getRequestBody());
+			requests.add(body);
+
+			Integer status;
+			synchronized (statuses) {
+				status = statuses.poll();
+			}
+
+			byte[] response = (status == null || status == 200 ? bulkResponse(body)
+					: "{\"error\":{\"type\":\"es_rejected_execution_exception\",\"reason\":\"rejected\"},\"status\":" + status
+							+ "}").getBytes(StandardCharsets.UTF_8);
+
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status == null ? 200 : status, response.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(response);
+			}
+		});
+		server.start();
+
+		client = new RestHighLevelClient(RestClient.builder(new HttpHost("localhost", server.getAddress().getPort())));
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+
+		client.close();
+		server.stop(0);
+	}
+
+	@Test
+	void shouldBatchRequests() {
+
+		BulkIndexer indexer = new BulkIndexer(client, new BulkIndexer.Options(2, Duration.ZERO, 0, Duration.ZERO));
+
+		indexer.add(request("a"), output);
+		indexer.add(request("b"), output);
+		indexer.add(request("c"), output);
+
+		assertThat(requests).hasSize(1);
+
+		indexer.close();
+
+		assertThat(requests).hasSize(2);
+		assertThat(requests.get(0)).contains("\"benchmark\":\"a\"", "\"benchmark\":\"b\"");
+		assertThat(requests.get(1)).contains("\"benchmark\":\"c\"");
+		assertThat(console.toString()).doesNotContain("WARNING");
+	}
+
+	@Test
+	void shouldFlushAfterInterval() throws InterruptedException {
+
+		BulkIndexer indexer = new BulkIndexer(client, new BulkIndexer.Options(100, Duration.ofMillis(50), 0, Duration.ZERO));
+
+		indexer.add(request("a"), output);
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (requests.isEmpty() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+
+		indexer.close();
+
+		assertThat(requests).hasSize(1);
+	}
+
+	@Test
+	void shouldRetryRejectedBatch() {
+
+		statuses.add(429);
+		statuses.add(503);
+
+		BulkIndexer indexer = new BulkIndexer(client, new BulkIndexer.Options(1, Duration.ZERO, 3, Duration.ofMillis(1)));
+
+		indexer.add(request("a"), output);
+		indexer.close();
+
+		assertThat(requests).hasSize(3);
+		assertThat(console.toString()).doesNotContain("WARNING");
+	}
+
+	@Test
+	void shouldReportBatchAfterRetriesAreExhausted() {
+
+		statuses.add(503);
+		statuses.add(503);
+
+		BulkIndexer indexer = new BulkIndexer(client, new BulkIndexer.Options(1, Duration.ZERO, 1, Duration.ofMillis(1)));
+
+		indexer.add(request("a"), output);
+		indexer.close();
+
+		assertThat(requests).hasSize(2);
+		assertThat(console.toString()).contains("# WARNING: Cannot index 1 results into Elasticsearch after 2 attempt(s)");
+	}
+
+	@Test
+	void shouldNotRetryClientErrors() {
+
+		statuses.add(400);
+
+		BulkIndexer indexer = new BulkIndexer(client, new BulkIndexer.Options(1, Duration.ZERO, 3, Duration.ofMillis(1)));
+
+		indexer.add(request("a"), output);
+		indexer.close();
+
+		assertThat(requests).hasSize(1);
+		assertThat(console.toString()).contains("# WARNING: Cannot index 1 results into Elasticsearch after 1 attempt(s)");
+	}
+
+	@Test
+	void shouldParseOptionsFromUri() {
+
+		BulkIndexer.Options options = BulkIndexer.Options
+				.fromUri("elasticsearch://es-host:9200/?batchSize=500&flushInterval=10s&maxRetries=3&retryBackoff=200ms");
+
+		assertThat(options.batchSize).isEqualTo(500);
+		assertThat(options.flushInterval).isEqualTo(Duration.ofSeconds(10));
+		assertThat(options.maxRetries).isEqualTo(3);
+		assertThat(options.retryBackoff).isEqualTo(Duration.ofMillis(200));
+	}
+
+	@Test
+	void shouldRejectUnknownOption() {
+		assertThatIllegalArgumentException().isThrownBy(() -> BulkIndexer.Options.fromUri("elasticsearch://es-host:9200/?size=1"))
+				.withMessageContaining("size");
+	}
+
+	private static IndexRequest request(String benchmark) {
+		return new IndexRequest("project").source("{\"benchmark\":\"" + benchmark + "\"}", XContentType.JSON);
+	}
+
+	private static String bulkResponse(String body) {
+
+		StringBuilder items = new StringBuilder();
+		for (String line : body.split("\n")) {
+
+			if (!line.startsWith("{\"index\"")) {
+				continue;
+			}
+
+			if (items.length() > 0) {
+				items.append(',');
+			}
+
+			items.append(
+					"{\"index\":{\"_index\":\"project\",\"_type\":\"_doc\",\"_id\":\"1\",\"_version\":1,\"result\":\"created\",")
+					.append("\"_shards\":{\"total\":1,\"successful\":1,\"failed\":0},\"_seq_no\":0,\"_primary_term\":1,\"status\":201}}");
+		}
+
+		return "{\"took\":1,\"errors\":false,\"items\":[" + items + "]}";
+	}
+
+	private static String read(InputStream in) throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		for (int read; (read = in.read(buffer)) != -1; ) {
+			bytes.write(buffer, 0, read);
+		}
+
+		return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
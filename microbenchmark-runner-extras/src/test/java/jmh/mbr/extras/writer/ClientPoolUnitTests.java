@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ClientPool}.
+ */
+class ClientPoolUnitTests {
+
+	List<TestClient> created = new ArrayList<>();
+	ClientPool<TestClient> pool = new ClientPool<>(uri -> {
+		TestClient client = new TestClient(uri);
+		created.add(client);
+		return client;
+	});
+
+	@Test
+	void shouldShareClientPerUri() {
+
+		TestClient first = pool.acquire("elasticsearch://a");
+		TestClient second = pool.acquire("elasticsearch://a");
+		TestClient other = pool.acquire("elasticsearch://b");
+
+		assertThat(first).isSameAs(second).isNotSameAs(other);
+		assertThat(created).hasSize(2);
+	}
+
+	@Test
+	void shouldCloseClientAfterLastRelease() throws Exception {
+
+		TestClient client = pool.acquire("elasticsearch://a");
+		pool.acquire("elasticsearch://a");
+
+		pool.release("elasticsearch://a");
+		assertThat(client.closed).isFalse();
+
+		pool.release("elasticsearch://a");
+		assertThat(client.closed).isTrue();
+
+		assertThat(pool.acquire("elasticsearch://a")).isNotSameAs(client);
+	}
+
+	@Test
+	void shouldIgnoreUnknownRelease() throws Exception {
+
+		pool.release("elasticsearch://a");
+
+		assertThat(created).isEmpty();
+	}
+
+	static class TestClient implements Closeable {
+
+		final String uri;
+		boolean closed;
+
+		TestClient(String uri) {
+			this.uri = uri;
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+}
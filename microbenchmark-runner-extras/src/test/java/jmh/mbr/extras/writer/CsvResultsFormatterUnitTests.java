@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jmh.mbr.core.AllocationGate;
+import jmh.mbr.core.JfrProfiling;
+import jmh.mbr.core.model.BenchmarkResults;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import jmh.mbr.core.model.ComplexityEstimate;
+import jmh.mbr.extras.RunResultGenerator;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.ResultRole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.ScalarResult;
+import org.openjdk.jmh.results.ThroughputResult;
+
+/**
+ * Unit tests for {@link CsvResultsFormatter}.
+ */
+class CsvResultsFormatterUnitTests {
+
+	@Test
+	void shouldOmitProfileColumnsWithoutProfile() {
+
+		BenchmarkResults results = new BenchmarkResults(new MetaData("project", "1.0"),
+				RunResultGenerator.generate("UnitTest"));
+
+		String report = CsvResultsFormatter.createReport(results);
+
+		assertThat(report).contains("median, mean, range").doesNotContain("hotMethods");
+	}
+
+	@Test
+	void shouldRenderProfileColumns() {
+
+		Map<String, Object> profile = new LinkedHashMap<>();
+		profile.put(JfrProfiling.HOT_METHODS_KEY, "a.B.hot 75.0%; a.B.caller 25.0%");
+		profile.put(JfrProfiling.FLAMEGRAPH_KEY, "/tmp/collapsed-stacks.txt");
+
+		MetaData metaData = new MetaData("project", "1.0");
+		BenchmarkResults results = BenchmarkResults.merge(metaData, Collections.singletonList(new BenchmarkResults(
+				metaData.withAdditionalParameters(profile), RunResultGenerator.generate("UnitTest"))));
+
+		String report = CsvResultsFormatter.createReport(results);
+
+		assertThat(report).contains("median, mean, range, hotMethods, flamegraph")
+				.contains(", a.B.hot 75.0%; a.B.caller 25.0%, /tmp/collapsed-stacks.txt");
+	}
+
+	@Test
+	void shouldRenderAllocationColumn() {
+
+		String report = CsvResultsFormatter.createReport(Collections.singletonList(allocatingResult()));
+
+		assertThat(report).contains("gc.count, median, mean, range, bytesPerOp")
+				.doesNotContain(AllocationGate.ALLOC_RATE_NORM).contains(", 24.000");
+	}
+
+	@Test
+	void shouldReportLatencyPercentilesOfSampleTimeResults() {
+
+		String report = CsvResultsFormatter.createReport(
+				Arrays.asList(RunResultGenerator.generate("UnitTest").iterator().next(),
+						RawCsvResultsWriterUnitTests.sampleTimeResult(1000, 1000, 2000, 1_000_000)));
+
+		assertThat(report).contains("median, mean, range, p50, p90, p99, p99.9, p99.99, max")
+				.contains("0, , , , , , " + System.lineSeparator())
+				.contains(", 1.001, 999.424, 999.424, 999.424, 999.424, 999.424");
+	}
+
+	@Test
+	void shouldReportScalabilityOfThreadSweep() {
+
+		String report = CsvResultsFormatter.createReport(Arrays.asList(sweepResult(1, 100), sweepResult(2, 180),
+				sweepResult(4, 300), RunResultGenerator.generate("Other").iterator().next()));
+
+		assertThat(report)
+				.contains("class, method, threads, median, mean, range, uslLambda, uslContention, uslCoherency, "
+						+ "uslPeakThreads, uslRSquared")
+				.contains("UnitTest, sweep, 4, 300.000, 300.000, \u2248 0, 100.000, 0.1111, 0.000, , 1.000")
+				.contains("Other, log, 1, ").contains(", , , , , " + System.lineSeparator());
+	}
+
+	@Test
+	void shouldReportComplexityOfSizeParameter() {
+
+		MetaData metaData = new MetaData("project", "1.0").withAdditionalParameters(
+				Collections.singletonMap(ComplexityEstimate.PARAMETER_KEY, "size"));
+
+		String report = CsvResultsFormatter.createReport(new BenchmarkResults(metaData, Arrays.asList(sizeResult(10, 1),
+				sizeResult(100, 0.1), sizeResult(1000, 0.01), RunResultGenerator.generate("Other").iterator().next())));
+
+		assertThat(report).contains("class, method, size, median, mean, range, complexity, complexityRSquared, "
+				+ "complexityError")
+				.contains("UnitTest, sized, 1000, 0.010, 0.010, \u2248 0, O(n), 1.000, ")
+				.contains("Other, log, , ").contains(", , , " + System.lineSeparator());
+	}
+
+	/**
+	 * Throughput result of a benchmark with a {@code size} parameter.
+	 */
+	static RunResult sizeResult(int size, double score) {
+
+		BenchmarkParams params = RunResultGenerator.params("UnitTest.sized", Mode.Throughput, TimeUnit.SECONDS, 1,
+				"size", Integer.toString(size));
+
+		return RunResultGenerator.runResult(params,
+				new ThroughputResult(ResultRole.PRIMARY, "sized", score, 1_000_000_000L, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Throughput result of a thread sweep run with {@code threads} threads.
+	 */
+	static RunResult sweepResult(int threads, double score) {
+
+		BenchmarkParams params = RunResultGenerator.params("UnitTest.sweep", Mode.Throughput, TimeUnit.SECONDS, threads);
+
+		return RunResultGenerator.runResult(params,
+				new ThroughputResult(ResultRole.PRIMARY, "sweep", score, 1_000_000_000L, TimeUnit.SECONDS));
+	}
+
+	static RunResult allocatingResult() {
+
+		return RunResultGenerator.runResult(RunResultGenerator.params("UnitTest"),
+				new ThroughputResult(ResultRole.PRIMARY, "log", 1000, 1000 * 1000, TimeUnit.MILLISECONDS),
+				new ScalarResult("gc.count", 2, "counts", AggregationPolicy.SUM),
+				new ScalarResult(AllocationGate.ALLOC_RATE_NORM, 24, "B/op", AggregationPolicy.AVG));
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link JsonReader}.
+ */
+class JsonReaderUnitTests {
+
+	@Test
+	void shouldReadDocument() {
+
+		Object document = JsonReader.read(" {\"a\" : [1, -2.5, 1.0E20, true, false, null], \"b\" : {}, \"c\" : []} ");
+
+		Map<String, Object> expected = new LinkedHashMap<>();
+		expected.put("a", Arrays.asList(1L, -2.5, 1.0E20, true, false, null));
+		expected.put("b", Collections.emptyMap());
+		expected.put("c", Collections.emptyList());
+
+		assertThat(document).isEqualTo(expected);
+	}
+
+	@Test
+	void shouldUnescapeStrings() {
+
+		assertThat(JsonReader.read("\"a\\\"b\\\\c\\/d\\n\\r\\t\\b\\f\\u0001\\ud83d\\ude00 ]}\""))
+				.isEqualTo("a\"b\\c/d\n\r\t\b\f\u0001\ud83d\ude00 ]}");
+	}
+
+	@Test
+	void shouldReadLargeIntegersAsDouble() {
+		assertThat(JsonReader.read("[9223372036854775807, 9223372036854775808]"))
+				.isEqualTo(Arrays.asList(Long.MAX_VALUE, 9.223372036854775808E18));
+	}
+
+	@Test
+	void shouldRejectMalformedDocuments() {
+
+		assertThatIllegalArgumentException().isThrownBy(() -> JsonReader.read("[1, 2")).withMessageContaining("offset");
+		assertThatIllegalArgumentException().isThrownBy(() -> JsonReader.read("{\"a\" 1}"));
+		assertThatIllegalArgumentException().isThrownBy(() -> JsonReader.read("\"unterminated"));
+		assertThatIllegalArgumentException().isThrownBy(() -> JsonReader.read("[1] 2"));
+		assertThatIllegalArgumentException().isThrownBy(() -> JsonReader.read("[tru]"));
+	}
+
+	@Test
+	void shouldRoundTripThroughWriter() throws IOException {
+
+		String json = "{\"a\":\"x \\\"[1,2]\\\" y\",\"b\":[1,-0.5,null,true,{\"c\":\"\\\\\"}]}";
+
+		StringWriter buffer = new StringWriter();
+		new JsonWriter(buffer, false).value(JsonReader.read(json));
+
+		assertThat(buffer.toString()).isEqualTo(json);
+	}
+}
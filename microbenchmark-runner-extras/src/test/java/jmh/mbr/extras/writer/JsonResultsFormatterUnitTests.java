@@ -15,12 +15,15 @@ import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import jmh.mbr.core.model.BenchmarkResults;
 import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import jmh.mbr.core.model.ComplexityEstimate;
 import jmh.mbr.extras.RunResultGenerator;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Disabled;
@@ -90,4 +93,107 @@ class JsonResultsFormatterUnitTests {
 					.contains("\"jmh.mbr.marker-2\" : \"2-marker\"");
 		});
 	}
+
+	@Test
+	void escapesMetadataValues() {
+
+		Map<String, Object> raw = new LinkedHashMap<>();
+		raw.put("jmh.mbr.profile.hotMethods", "Foo.run 80.0%; \"Bar\".run 20.0%");
+		raw.put("jmh.mbr.marker", "C:\\bench\n");
+
+		BenchmarkResults results = new BenchmarkResults(MetaData.from(raw), RunResultGenerator.generate("UnitTest"));
+
+		Assertions.assertThat(JsonResultsFormatter.createReport(results).get(0))
+				.contains("\"jmh.mbr.profile.hotMethods\" : \"Foo.run 80.0%; \\\"Bar\\\".run 20.0%\"")
+				.contains("\"jmh.mbr.marker\" : \"C:\\\\bench\\n\"");
+	}
+
+	@Test
+	void allocation() {
+
+		BenchmarkResults results = new BenchmarkResults(new MetaData("test-project", "1.0.0.SNAPSHOT"),
+				Collections.singletonList(CsvResultsFormatterUnitTests.allocatingResult()));
+
+		String json = JsonResultsFormatter.createReport(results).get(0);
+
+		Assertions.assertThat(json).contains("    },\n    \"allocation\" : {\n        \"score\" : 24,")
+				.contains("\"scoreUnit\" : \"B/op\"");
+	}
+
+	@Test
+	void secondariesAndRawData() {
+
+		BenchmarkResults results = new BenchmarkResults(new MetaData("test-project", "1.0.0.SNAPSHOT"),
+				Collections.singletonList(CsvResultsFormatterUnitTests.allocatingResult()));
+
+		String json = JsonResultsFormatter.createReport(results).get(0);
+
+		Assertions.assertThat(json).contains("\"rawData\" : [\n            [\n                1000\n            ]\n        ]")
+				.contains("\"secondaries\" : {\n        \"gc.alloc.rate.norm\" : {")
+				.contains("        \"gc.count\" : {\n            \"score\" : 2,")
+				.contains("\"scorePercentiles\" : {\n            \"0.0\" : 24,")
+				.contains("\"99.9999\" : 24,");
+	}
+
+	@Test
+	void latency() {
+
+		BenchmarkResults results = new BenchmarkResults(new MetaData("test-project", "1.0.0.SNAPSHOT"),
+				Collections.singletonList(RawCsvResultsWriterUnitTests.sampleTimeResult(1000, 1000, 2000, 1_000_000)));
+
+		String json = JsonResultsFormatter.createReport(results).get(0);
+
+		Assertions.assertThat(json).contains("\"scoreUnit\" : \"us/op\",\n        \"latency\" : {\n"
+				+ "            \"count\" : 4,\n            \"p50\" : 1.001,\n            \"p90\" : 999.424,\n"
+				+ "            \"p99\" : 999.424,\n            \"p99.9\" : 999.424,\n            \"p99.99\" : 999.424,\n"
+				+ "            \"max\" : 999.424\n        },\n        \"rawDataHistogram\" : [");
+	}
+
+	@Test
+	void scalability() {
+
+		BenchmarkResults results = new BenchmarkResults(new MetaData("test-project", "1.0.0.SNAPSHOT"),
+				Arrays.asList(CsvResultsFormatterUnitTests.sweepResult(1, 100),
+						CsvResultsFormatterUnitTests.sweepResult(2, 150)));
+
+		List<String> json = JsonResultsFormatter.createReport(results);
+
+		Assertions.assertThat(json.get(1)).contains("\"threads\" : 2,");
+		Assertions.assertThat(json).hasSize(2).allSatisfy(it -> Assertions.assertThat(it)
+				.contains("    \"scalability\" : {\n        \"lambda\" : 100,\n        \"contention\" : 0.33")
+				.contains("\"coherency\" : 0,\n        \"peakThreads\" : null,\n        \"rSquared\" : 1,\n"
+						+ "        \"curve\" : [\n            [\n                1,\n                100\n            ],"));
+	}
+
+	@Test
+	void complexity() {
+
+		MetaData metaData = new MetaData("test-project", "1.0.0.SNAPSHOT").withAdditionalParameters(
+				Collections.singletonMap(ComplexityEstimate.PARAMETER_KEY, "n,size"));
+		BenchmarkResults results = new BenchmarkResults(metaData,
+				Arrays.asList(CsvResultsFormatterUnitTests.sizeResult(10, 1),
+						CsvResultsFormatterUnitTests.sizeResult(100, 0.1),
+						CsvResultsFormatterUnitTests.sizeResult(1000, 0.01)));
+
+		List<String> json = JsonResultsFormatter.createReport(results);
+
+		Assertions.assertThat(json).hasSize(3).allSatisfy(it -> Assertions.assertThat(it)
+				.contains("    \"complexity\" : {\n        \"parameter\" : \"size\",\n        \"class\" : \"O(n)\",")
+				.contains("\"rSquared\" : 1,")
+				.contains("\"curve\" : [\n            [\n                10,\n                1\n            ],"));
+	}
+
+	@Test
+	void escaping() {
+
+		Map<String, Object> raw = new LinkedHashMap<>();
+		raw.put("jmh.mbr.project", "test-\"project\"");
+		raw.put("jmh.mbr.marker", "C:\\bench\n");
+
+		BenchmarkResults results = new BenchmarkResults(MetaData.from(raw), RunResultGenerator.generate("UnitTest"));
+
+		Assertions.assertThat(JsonResultsFormatter.createReport(results).get(0))
+				.contains("\"project\" : \"test-\\\"project\\\"\"")
+				.contains("\"jmh.mbr.marker\" : \"C:\\\\bench\\n\"");
+	}
 }
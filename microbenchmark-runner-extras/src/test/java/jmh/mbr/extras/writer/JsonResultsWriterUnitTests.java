@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jmh.mbr.core.ResultsWriter;
+import jmh.mbr.core.model.BenchmarkResults;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import jmh.mbr.extras.RunResultGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+/**
+ * Unit tests for {@link JsonResultsWriter}.
+ */
+class JsonResultsWriterUnitTests {
+
+	@Test
+	void shouldStreamResultsAsArray(@TempDir File directory) throws Exception {
+
+		File file = new File(directory, "nested/results.json");
+		ByteArrayOutputStream console = new ByteArrayOutputStream();
+		OutputFormat output = OutputFormatFactory.createFormatInstance(new PrintStream(console), VerboseMode.NORMAL);
+
+		ResultsWriter writer = new JsonResultsWriterFactory().forUri("json:" + file.getPath());
+		writer.open(output);
+		writer.write(output, new BenchmarkResults(new MetaData("test-project", "1.0.0.SNAPSHOT"),
+				RunResultGenerator.generate("UnitTest")));
+		writer.flush(output);
+		writer.write(output, new BenchmarkResults(new MetaData("test-project", "1.0.0.SNAPSHOT"),
+				RunResultGenerator.generate("OtherTest")));
+		writer.close();
+
+		String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+
+		assertThat(console.toString()).isEmpty();
+		assertThat(json).startsWith("[{\"date\":").endsWith("}]").doesNotContain("\n")
+				.contains("\"group\":\"UnitTest\"").contains("},{\"date\":").contains("\"group\":\"OtherTest\"");
+	}
+
+	@Test
+	void shouldWriteEmptyArrayWithoutResults(@TempDir File directory) throws Exception {
+
+		File file = new File(directory, "results.json");
+		OutputFormat output = OutputFormatFactory.createFormatInstance(new PrintStream(new ByteArrayOutputStream()),
+				VerboseMode.NORMAL);
+
+		ResultsWriter writer = new JsonResultsWriterFactory().forUri("json:" + file.getPath());
+		writer.open(output);
+		writer.close();
+
+		assertThat(file).hasContent("[]");
+		assertThat(new JsonResultsWriterFactory().forUri("csv:" + file.getPath())).isNull();
+	}
+
+	@Test
+	void shouldWriteShardResultsToShardFile(@TempDir File directory) throws Exception {
+
+		File file = new File(directory, "results.json");
+		OutputFormat output = OutputFormatFactory.createFormatInstance(new PrintStream(new ByteArrayOutputStream()),
+				VerboseMode.NORMAL);
+
+		Map<String, Object> metaData = new LinkedHashMap<>();
+		metaData.put("jmh.mbr.shard.index", "1");
+		metaData.put("jmh.mbr.shard.count", 2);
+
+		ResultsWriter writer = new JsonResultsWriterFactory().forUri("json:" + file.getPath());
+		writer.open(output);
+		writer.write(output, new BenchmarkResults(MetaData.from(metaData), RunResultGenerator.generate("UnitTest")));
+		writer.close();
+		writer.close();
+
+		String json = new String(Files.readAllBytes(new File(directory, "results_shard-1-of-2.json").toPath()),
+				StandardCharsets.UTF_8);
+
+		assertThat(file).doesNotExist();
+		assertThat(json).startsWith("[{\"date\":").endsWith("}]").contains("\"group\":\"UnitTest\"");
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link JsonWriter}.
+ */
+class JsonWriterUnitTests {
+
+	@Test
+	void shouldEscapeStrings() throws IOException {
+
+		StringWriter buffer = new StringWriter();
+		new JsonWriter(buffer, false).beginArray().value("a\"b\\c/d\n\r\t\b\f\u0001\u001f").value("😀")
+				.value("\ud83d|\ude00").endArray();
+
+		assertThat(buffer.toString()).isEqualTo(
+				"[\"a\\\"b\\\\c/d\\n\\r\\t\\b\\f\\u0001\\u001f\",\"😀\",\"\\ud83d|\\ude00\"]");
+	}
+
+	@Test
+	void shouldWriteNumbers() throws IOException {
+
+		StringWriter buffer = new StringWriter();
+		new JsonWriter(buffer, false).beginArray().value(24d).value(-0.5).value(1.0E20).value(Double.NaN)
+				.value(Double.POSITIVE_INFINITY).value(Long.MAX_VALUE).value(true).nullValue().value((String) null)
+				.endArray();
+
+		assertThat(buffer.toString()).isEqualTo("[24,-0.5,1.0E20,null,null,9223372036854775807,true,null,null]");
+	}
+
+	@Test
+	void shouldWriteCompactDocument() throws IOException {
+
+		StringWriter buffer = new StringWriter();
+		new JsonWriter(buffer, false).beginObject().name("a").value(1L).name("b").beginArray().endArray().name("c")
+				.beginObject().name("d").beginArray().value("e").endArray().endObject().endObject();
+
+		assertThat(buffer.toString()).isEqualTo("{\"a\":1,\"b\":[],\"c\":{\"d\":[\"e\"]}}");
+	}
+
+	@Test
+	void shouldWritePrettyDocument() throws IOException {
+
+		StringWriter buffer = new StringWriter();
+		new JsonWriter(buffer, true).beginObject().name("a").value(1L).name("b").beginArray().endArray().name("c")
+				.beginArray().value("d").value("e").endArray().endObject();
+
+		assertThat(buffer.toString())
+				.isEqualTo("{\n    \"a\" : 1,\n    \"b\" : [],\n    \"c\" : [\n        \"d\",\n        \"e\"\n    ]\n}");
+	}
+
+	@Test
+	void shouldRejectUnbalancedClose() {
+
+		assertThatIllegalStateException().isThrownBy(() -> new JsonWriter(new StringWriter(), false).endObject());
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import jmh.mbr.core.ResultsWriter;
+import jmh.mbr.core.model.BenchmarkResults;
+import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import jmh.mbr.extras.RunResultGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.ResultRole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.SampleTimeResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.openjdk.jmh.util.SampleBuffer;
+
+/**
+ * Unit tests for {@link RawCsvResultsWriter}.
+ */
+class RawCsvResultsWriterUnitTests {
+
+	@Test
+	void shouldWriteRowPerForkIterationAndMetric(@TempDir File directory) throws Exception {
+
+		File file = new File(directory, "raw.csv");
+
+		List<RunResult> results = new ArrayList<>(RunResultGenerator.generate("UnitTest"));
+		results.add(CsvResultsFormatterUnitTests.allocatingResult());
+
+		write(file, results);
+
+		List<String> lines = read(file, false);
+
+		assertThat(lines).hasSize(7).first().isEqualTo(RawCsvResultsWriter.HEADER);
+		assertThat(lines.subList(1, 4)).extracting(it -> it.substring(0, it.indexOf(",primary,")))
+				.containsExactly("test-project,1.0.0,UnitTest.log,thrpt,1,,1,1", "test-project,1.0.0,UnitTest.log,thrpt,1,,1,2",
+						"test-project,1.0.0,UnitTest.log,thrpt,1,,1,3");
+		assertThat(lines.subList(4, 7)).containsExactlyInAnyOrder(
+				"test-project,1.0.0,UnitTest.log,thrpt,1,,1,1,primary,1000.0,1,ops/ms",
+				"test-project,1.0.0,UnitTest.log,thrpt,1,,1,1,gc.count,2.0,1,counts",
+				"test-project,1.0.0,UnitTest.log,thrpt,1,,1,1,gc.alloc.rate.norm,24.0,1,B/op");
+	}
+
+	@Test
+	void shouldWriteSampleTimeHistogramCompressed(@TempDir File directory) throws Exception {
+
+		File file = new File(directory, "raw.csv.gz");
+
+		write(file, Collections.singletonList(sampleTimeResult(1000, 1000, 2000, 1_000_000)));
+
+		List<String> lines = read(file, true);
+
+		assertThat(lines).first().isEqualTo(RawCsvResultsWriter.HEADER);
+		assertThat(lines.subList(1, lines.size())).hasSize(3)
+				.allMatch(it -> it.startsWith("test-project,1.0.0,UnitTest.sample,sample,1,\"name=a,b;size=10\",1,1,primary,"))
+				.allMatch(it -> it.endsWith(",us/op"));
+		assertThat(lines.subList(1, lines.size()).stream()
+				.mapToLong(it -> Long.parseLong(it.split(",")[it.split(",").length - 2])).sum()).isEqualTo(4);
+	}
+
+	@Test
+	void shouldQuoteFields() {
+
+		assertThat(RawCsvResultsWriter.appendField(new StringBuilder(), "plain")).hasToString("plain");
+		assertThat(RawCsvResultsWriter.appendField(new StringBuilder(), "a,\"b\"\n")).hasToString("\"a,\"\"b\"\"\n\"");
+		assertThat(RawCsvResultsWriter.appendField(new StringBuilder(), null)).hasToString("");
+	}
+
+	private static void write(File file, Iterable<RunResult> results) {
+
+		ByteArrayOutputStream console = new ByteArrayOutputStream();
+		OutputFormat output = OutputFormatFactory.createFormatInstance(new PrintStream(console), VerboseMode.NORMAL);
+		MetaData metaData = new MetaData("test-project", "1.0.0");
+
+		ResultsWriter writer = new RawCsvResultsWriterFactory().forUri("csv-raw:" + file.getPath());
+		writer.open(output);
+		for (RunResult result : results) {
+			writer.write(output, new BenchmarkResults(metaData, Collections.singletonList(result)));
+		}
+		writer.close();
+
+		assertThat(console.toString()).isEmpty();
+	}
+
+	private static List<String> read(File file, boolean gzip) throws Exception {
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				gzip ? new GZIPInputStream(new FileInputStream(file)) : new FileInputStream(file),
+				StandardCharsets.UTF_8))) {
+			return reader.lines().collect(Collectors.toList());
+		}
+	}
+
+	static RunResult sampleTimeResult(long... samples) {
+
+		BenchmarkParams params = RunResultGenerator.params("UnitTest.sample", Mode.SampleTime, TimeUnit.MICROSECONDS, 1,
+				"size", "10", "name", "a,b");
+
+		SampleBuffer buffer = new SampleBuffer();
+		for (long sample : samples) {
+			buffer.add(sample);
+		}
+
+		return RunResultGenerator.runResult(params,
+				new SampleTimeResult(ResultRole.PRIMARY, "sample", buffer, TimeUnit.MICROSECONDS));
+	}
+}
@@ -9,20 +9,19 @@
  */
 package jmh.mbr.junit4;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.PrintStream;
-import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -31,10 +30,18 @@ import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import jmh.mbr.core.AllocationGate;
 import jmh.mbr.core.Environment;
 import jmh.mbr.core.BenchmarkConfiguration;
+import jmh.mbr.core.BenchmarkIncludes;
+import jmh.mbr.core.BenchmarkOverrides;
+import jmh.mbr.core.BenchmarkSharding;
 import jmh.mbr.core.JmhSupport;
+import jmh.mbr.core.RegressionGate;
+import jmh.mbr.core.ResultsStream;
+import jmh.mbr.core.RunJournal;
 import jmh.mbr.core.StringUtils;
+import jmh.mbr.core.TimeBudget;
 import jmh.mbr.core.model.BenchmarkClass;
 import jmh.mbr.core.model.BenchmarkDescriptor;
 import jmh.mbr.core.model.BenchmarkDescriptorFactory;
@@ -42,7 +49,9 @@ import jmh.mbr.core.model.BenchmarkFixture;
 import jmh.mbr.core.model.BenchmarkMethod;
 import jmh.mbr.core.model.BenchmarkResults;
 import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import jmh.mbr.core.model.FixtureRestriction;
 import jmh.mbr.core.model.HierarchicalBenchmarkDescriptor;
+import jmh.mbr.core.model.ParametrizedBenchmarkMethod;
 import org.junit.runner.Description;
 import org.junit.runner.manipulation.Filter;
 import org.junit.runner.manipulation.Filterable;
@@ -60,15 +69,12 @@ import org.openjdk.jmh.infra.IterationParams;
 import org.openjdk.jmh.results.BenchmarkResult;
 import org.openjdk.jmh.results.IterationResult;
 import org.openjdk.jmh.results.RunResult;
-import org.openjdk.jmh.runner.Defaults;
 import org.openjdk.jmh.runner.NoBenchmarksException;
 import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.format.OutputFormat;
-import org.openjdk.jmh.runner.format.OutputFormatFactory;
 import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
 import org.openjdk.jmh.runner.options.Options;
-import org.openjdk.jmh.util.UnCloseablePrintStream;
-import org.openjdk.jmh.util.Utils;
 
 /**
  * JMH Microbenchmark runner that turns methods annotated with {@link Benchmark} into runnable methods allowing
@@ -86,6 +92,7 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 	private final BenchmarkClass benchmarkClass;
 
 	private Collection<BenchmarkDescriptor> filteredChildren;
+	private final Map<BenchmarkDescriptor, List<BenchmarkFixture>> filteredFixtures = new HashMap<>();
 
 	/**
 	 * Creates a {@link Microbenchmark} to run {@link Class test class}.
@@ -239,10 +246,41 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 				throw new NoTestsRemainException();
 			}
 
+			for (BenchmarkDescriptor descriptor : filtered) {
+				if (descriptor instanceof ParametrizedBenchmarkMethod) {
+					filterFixtures(filter, (ParametrizedBenchmarkMethod) descriptor);
+				}
+			}
+
 			filteredChildren = filtered;
 		}
 	}
 
+	/**
+	 * Retain the fixtures of {@code parametrized} that match {@code filter}. A fixture is described by its fixture suite
+	 * containing the benchmark method. Filters that do not match any individual fixture retain all fixtures.
+	 *
+	 * @param filter
+	 * @param parametrized
+	 */
+	private void filterFixtures(Filter filter, ParametrizedBenchmarkMethod parametrized) {
+
+		getDescription();
+
+		String methodName = parametrized.getMethod().getName();
+		List<BenchmarkFixture> fixtures = filteredFixtures.getOrDefault(parametrized, parametrized.getChildren());
+		List<BenchmarkFixture> filtered = fixtures.stream().filter(fixture -> {
+
+			Description description = Description.createSuiteDescription(fixture.getDisplayName());
+			description.addChild(fixtureMethodDescriptions.get(fixture.getDisplayName() + "-" + methodName));
+			return filter.shouldRun(description);
+		}).collect(Collectors.toList());
+
+		if (!filtered.isEmpty() && filtered.size() < fixtures.size()) {
+			filteredFixtures.put(parametrized, filtered);
+		}
+	}
+
 	@Override
 	public void sort(Sorter sorter) {
 
@@ -298,33 +336,531 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 	void doRun(RunNotifier notifier, Collection<BenchmarkDescriptor> methods, CacheFunction cache) throws Exception {
 
 		Class<?> jmhTestClass = getTestClass().getJavaClass();
-		List<String> includes = includes(jmhTestClass, methods);
+		List<String> includes = new ArrayList<>(includes(jmhTestClass, methods));
 
 		if (includes.isEmpty()) {
 			throw new NoTestsRemainException();
 		}
 
-		ChainedOptionsBuilder optionsBuilder = jmhRunner.options(jmhTestClass);
-
 		if (!jmhRunner.isEnabled()) {
 			notifier.fireTestIgnored(getDescription());
 			return;
 		}
 
-		includes.forEach(optionsBuilder::include);
+		Map<String, List<BenchmarkFixture>> fixtureRuns = getSampledFixtures(methods, includes);
+		includes.removeAll(fixtureRuns.keySet());
+		selectFixtures(methods, includes, fixtureRuns);
+
+		BenchmarkOverrides overrides = BenchmarkOverrides.from(BenchmarkConfiguration.defaultOptions());
+		splitOverriddenFixtures(overrides, methods, includes, fixtureRuns);
+
+		BenchmarkSharding sharding = BenchmarkSharding.from(BenchmarkConfiguration.defaultOptions());
+		if (sharding != null) {
+			shard(sharding, methods, includes, fixtureRuns).forEach(notifier::fireTestIgnored);
+		}
+
+		RunJournal journal = jmhRunner.openJournal(jmhTestClass.getName());
+		List<ShardUnit> resumed = journal != null && journal.isResumed()
+				? resume(journal, methods, includes, fixtureRuns)
+				: Collections.emptyList();
+
+		List<Method> benchmarkMethods = methods.stream().map(it -> getBenchmarkMethod(it).getMethod())
+				.collect(Collectors.toList());
+		AllocationGate allocationGate = AllocationGate.from(benchmarkMethods);
+		if (allocationGate != null) {
+			jmhRunner.enableGcProfiler();
+		}
+		jmhRunner.estimateComplexity(benchmarkMethods);
+
+		prepareClassDataSharing(methods, includes, fixtureRuns);
+
+		// benchmarks with different effective options require their own run
+		ChainedOptionsBuilder optionsBuilder = jmhRunner.options(jmhTestClass);
+		Map<BenchmarkOverrides.Options, List<String>> groups = groupByOptions(overrides, methods, includes);
+		List<String> defaultIncludes = groups.getOrDefault(BenchmarkOverrides.Options.NONE, Collections.emptyList());
+		BenchmarkIncludes.include(optionsBuilder, defaultIncludes);
 
 		Options options = optionsBuilder.build();
+		OutputFormat outputFormat = jmhRunner.createOutputFormat(options);
+		RegressionGate regressionGate = RegressionGate.from(BenchmarkConfiguration.defaultOptions());
+		ResultsStream resultsStream = jmhRunner.openResultsStream(outputFormat);
 		NotifyingOutputFormat notifyingOutputFormat = new NotifyingOutputFormat(notifier, cache,
-				createOutputFormat(options));
+				sharding != null ? sharding.decorate(outputFormat) : outputFormat, regressionGate, allocationGate,
+				resultsStream);
+
+		try {
+
+			List<RunResult> results = new ArrayList<>();
+			for (ShardUnit unit : resumed) {
+
+				List<RunResult> restored = journal.getResults(Collections.singletonList(unit.key));
+				notifyingOutputFormat.restored(unit.description, restored);
+				results.addAll(restored);
+			}
+
+			TimeBudget timeBudget = TimeBudget.from(BenchmarkConfiguration.defaultOptions());
+
+			if (timeBudget != null) {
+
+				if (overrides.isConfigured(benchmarkMethods)) {
+					notifyingOutputFormat.println("# WARNING: Benchmark overrides are not applied to time budget runs");
+				}
+
+				results.addAll(runBudgeted(notifier, timeBudget, methods, includes, fixtureRuns, notifyingOutputFormat));
+			} else {
+
+				if (!defaultIncludes.isEmpty()) {
+					results.addAll(new Runner(options, notifyingOutputFormat).run());
+				}
+
+				for (Entry<BenchmarkOverrides.Options, List<String>> group : groups.entrySet()) {
+
+					if (group.getKey().isEmpty()) {
+						continue;
+					}
+
+					ChainedOptionsBuilder groupOptions = BenchmarkIncludes.include(group.getKey().apply(jmhRunner.options()),
+							group.getValue());
+
+					notifyingOutputFormat.println(String.format("# Options: %s for %s", group.getKey(), group.getValue()));
+					results.addAll(new Runner(groupOptions.build(), notifyingOutputFormat).run());
+				}
+
+				// JMH runs the cartesian product of param() values so fixtures run in restricted runs per effective options
+				for (Entry<String, List<BenchmarkFixture>> entry : fixtureRuns.entrySet()) {
+
+					Method method = getMethod(methods, entry.getKey());
+					Map<BenchmarkOverrides.Options, List<BenchmarkFixture>> fixtureGroups = new LinkedHashMap<>();
+
+					for (BenchmarkFixture fixture : entry.getValue()) {
+						BenchmarkOverrides.Options fixtureOverrides = method != null ? overrides.forFixture(method, fixture)
+								: BenchmarkOverrides.Options.NONE;
+						fixtureGroups.computeIfAbsent(fixtureOverrides, it -> new ArrayList<>()).add(fixture);
+					}
+
+					for (Entry<BenchmarkOverrides.Options, List<BenchmarkFixture>> group : fixtureGroups.entrySet()) {
+						for (FixtureRestriction restriction : FixtureRestriction.from(group.getValue())) {
+
+							ChainedOptionsBuilder fixtureOptions = group.getKey().apply(jmhRunner.options(restriction));
+							results.addAll(
+									new Runner(fixtureOptions.include(entry.getKey()).build(), notifyingOutputFormat).run());
+						}
+					}
+				}
+			}
+
+			if (sharding != null) {
+				try {
+					sharding.saveDurations();
+				} catch (IOException e) {
+					notifyingOutputFormat.println("# WARNING: Cannot save benchmark durations: " + e);
+				}
+			}
+
+			if (regressionGate != null) {
+				try {
+					regressionGate.saveBaseline();
+				} catch (IOException e) {
+					notifyingOutputFormat.println("# WARNING: Cannot save benchmark baseline: " + e);
+				}
+			}
+
+			jmhRunner.reportClassDataSharing(notifyingOutputFormat);
+			jmhRunner.publishResults(notifyingOutputFormat, new BenchmarkResults(MetaData.from(Environment.jmhConfigProperties()), results));
+		} finally {
+			// no-op once results are published
+			jmhRunner.closeResultsWriters(notifyingOutputFormat);
+		}
+	}
+
+	/**
+	 * Group {@code includes} by the effective {@link BenchmarkOverrides.Options} of their benchmark method. Includes
+	 * that do not correspond to a single benchmark method use the global configuration.
+	 *
+	 * @param overrides
+	 * @param methods
+	 * @param includes
+	 * @return includes grouped by options.
+	 */
+	private static Map<BenchmarkOverrides.Options, List<String>> groupByOptions(BenchmarkOverrides overrides,
+			Collection<BenchmarkDescriptor> methods, List<String> includes) {
+
+		Map<BenchmarkOverrides.Options, List<String>> groups = new LinkedHashMap<>();
+
+		for (String include : includes) {
+
+			Method method = getMethod(methods, include);
+			BenchmarkOverrides.Options options = method != null ? overrides.forMethod(method)
+					: BenchmarkOverrides.Options.NONE;
+			groups.computeIfAbsent(options, it -> new ArrayList<>()).add(include);
+		}
 
-		jmhRunner.publishResults(notifyingOutputFormat, new BenchmarkResults(MetaData.from(Environment.jmhConfigProperties()), new Runner(options, notifyingOutputFormat).run()));
+		return groups;
 	}
 
 	/**
-	 * Get the regex for all benchmarks to be included in the run. By default every benchmark within classes matching the
-	 * fqcn. <br />
+	 * Move parametrized benchmark methods whose fixtures resolve to different {@link BenchmarkOverrides.Options} than
+	 * the method itself from {@code includes} to {@code fixtureRuns}.
+	 *
+	 * @param overrides
+	 * @param methods
+	 * @param includes
+	 * @param fixtureRuns
+	 */
+	private static void splitOverriddenFixtures(BenchmarkOverrides overrides, Collection<BenchmarkDescriptor> methods,
+			List<String> includes, Map<String, List<BenchmarkFixture>> fixtureRuns) {
+
+		for (BenchmarkDescriptor descriptor : methods) {
+
+			if (!(descriptor instanceof ParametrizedBenchmarkMethod)) {
+				continue;
+			}
+
+			ParametrizedBenchmarkMethod parametrized = (ParametrizedBenchmarkMethod) descriptor;
+			String include = getIncludePattern(parametrized.getMethod());
+
+			if (!includes.contains(include)) {
+				continue;
+			}
+
+			BenchmarkOverrides.Options methodOptions = overrides.forMethod(parametrized.getMethod());
+
+			if (parametrized.getChildren().stream()
+					.anyMatch(it -> !overrides.forFixture(parametrized.getMethod(), it).equals(methodOptions))) {
+				includes.remove(include);
+				fixtureRuns.put(include, parametrized.getChildren());
+			}
+		}
+	}
+
+	/**
+	 * Prepare the class data sharing archive using the first benchmark to run as training benchmark. Parametrized
+	 * benchmarks train with their first fixture only.
+	 *
+	 * @param methods
+	 * @param includes
+	 * @param fixtureRuns
+	 */
+	private void prepareClassDataSharing(Collection<BenchmarkDescriptor> methods, List<String> includes,
+			Map<String, List<BenchmarkFixture>> fixtureRuns) {
+
+		if (!includes.isEmpty()) {
+
+			String include = includes.get(0);
+			BenchmarkFixture fixture = null;
+
+			for (BenchmarkDescriptor descriptor : methods) {
+
+				if (descriptor instanceof ParametrizedBenchmarkMethod
+						&& getIncludePattern(((ParametrizedBenchmarkMethod) descriptor).getMethod()).equals(include)) {
+
+					List<BenchmarkFixture> fixtures = ((ParametrizedBenchmarkMethod) descriptor).getChildren();
+					fixture = fixtures.isEmpty() ? null : fixtures.get(0);
+				}
+			}
+
+			jmhRunner.prepareClassDataSharing(include, fixture);
+		} else if (!fixtureRuns.isEmpty()) {
+
+			Entry<String, List<BenchmarkFixture>> first = fixtureRuns.entrySet().iterator().next();
+			jmhRunner.prepareClassDataSharing(first.getKey(), first.getValue().isEmpty() ? null : first.getValue().get(0));
+		}
+	}
+
+	private static Method getMethod(Collection<BenchmarkDescriptor> methods, String include) {
+
+		for (BenchmarkDescriptor descriptor : methods) {
+
+			Method method = getBenchmarkMethod(descriptor).getMethod();
+			if (getIncludePattern(method).equals(include)) {
+				return method;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Run benchmarks within a {@link TimeBudget}. Each include (and each of its fixtures, if listed in
+	 * {@code fixtureRuns}) runs in its own invocation with iteration settings allocated from the remaining budget.
+	 * Benchmarks whose allocation does not fit into the remaining budget are reported as ignored.
+	 *
+	 * @param notifier
+	 * @param timeBudget
+	 * @param methods
+	 * @param includes
+	 * @param fixtureRuns
+	 * @param output
+	 * @return the run results.
+	 * @throws RunnerException
+	 */
+	private List<RunResult> runBudgeted(RunNotifier notifier, TimeBudget timeBudget,
+			Collection<BenchmarkDescriptor> methods, List<String> includes,
+			Map<String, List<BenchmarkFixture>> fixtureRuns, OutputFormat output) throws RunnerException {
+
+		Map<String, Integer> pending = new LinkedHashMap<>();
+		includes.forEach(it -> pending.put(it, getDescriptions(methods, it, null).size()));
+		fixtureRuns.forEach((it, fixtures) -> pending.put(it, fixtures.size()));
+
+		List<RunResult> results = new ArrayList<>();
+
+		while (!pending.isEmpty()) {
+
+			String include = pending.keySet().iterator().next();
+			TimeBudget.Allocation allocation = timeBudget.allocate(pending).get(include);
+			pending.remove(include);
+
+			List<BenchmarkFixture> fixtures = fixtureRuns.get(include);
+
+			if (!timeBudget.fits(allocation)) {
+				getDescriptions(methods, include, fixtures).forEach(notifier::fireTestIgnored);
+				continue;
+			}
+
+			output.println(String.format("# Budget: %s for %s", allocation, include));
+
+			List<RunResult> runResults = new ArrayList<>();
+			if (fixtures != null) {
+				for (FixtureRestriction restriction : FixtureRestriction.from(fixtures)) {
+					runResults.addAll(
+							new Runner(allocation.apply(jmhRunner.options(restriction)).include(include).build(), output).run());
+				}
+			} else {
+				runResults.addAll(new Runner(allocation.apply(jmhRunner.options()).include(include).build(), output).run());
+			}
+
+			timeBudget.record(runResults);
+			results.addAll(runResults);
+		}
+
+		try {
+			timeBudget.saveHistory();
+		} catch (IOException e) {
+			output.println("# WARNING: Cannot save benchmark history: " + e);
+		}
+
+		return results;
+	}
+
+	/**
+	 * Resolve the {@link Description descriptions} of benchmark methods and fixtures matching {@code include},
+	 * optionally restricted to {@code fixtures}.
+	 *
+	 * @param methods
+	 * @param include
+	 * @param fixtures
+	 * @return never {@literal null}.
+	 */
+	private List<Description> getDescriptions(Collection<BenchmarkDescriptor> methods, String include,
+			List<BenchmarkFixture> fixtures) {
+
+		Pattern pattern = Pattern.compile(include);
+		List<Description> descriptions = new ArrayList<>();
+
+		for (BenchmarkDescriptor descriptor : methods) {
+
+			if (!pattern.matcher(getBenchmarkName(descriptor).replace('$', '.')).find()) {
+				continue;
+			}
+
+			if (!(descriptor instanceof HierarchicalBenchmarkDescriptor)) {
+				descriptions.add(describeChild(descriptor));
+				continue;
+			}
+
+			BenchmarkMethod method = getBenchmarkMethod(descriptor);
+			for (BenchmarkDescriptor child : ((HierarchicalBenchmarkDescriptor) descriptor).getChildren()) {
+
+				BenchmarkFixture fixture = (BenchmarkFixture) child;
+				if (fixtures == null || fixtures.contains(fixture)) {
+					descriptions.add(fixtureMethodDescriptions.get(fixture.getDisplayName() + "-" + method.getName()));
+				}
+			}
+		}
+
+		return descriptions;
+	}
+
+	/**
+	 * Restrict {@code includes} and {@code fixtureRuns} to the benchmark methods and fixtures assigned to the
+	 * {@link BenchmarkSharding shard}. Methods whose fixtures are only partially assigned to the shard are moved to
+	 * {@code fixtureRuns}. Each test class is partitioned on its own, so units are
+	 * {@link BenchmarkSharding#select(String, List, Function) selected within the scope} of the test class to spread
+	 * classes across shards.
+	 *
+	 * @param sharding
+	 * @param methods
+	 * @param includes
+	 * @param fixtureRuns
+	 * @return {@link Description descriptions} of benchmarks assigned to other shards.
+	 */
+	private List<Description> shard(BenchmarkSharding sharding, Collection<BenchmarkDescriptor> methods,
+			List<String> includes, Map<String, List<BenchmarkFixture>> fixtureRuns) {
+
+		return restrict(methods, includes, fixtureRuns,
+				units -> sharding.select(getTestClass().getName(), units, it -> it.key)).stream()
+				.map(it -> it.description).collect(Collectors.toList());
+	}
+
+	/**
+	 * Restrict {@code includes} and {@code fixtureRuns} to the benchmark methods and fixtures without a result in the
+	 * {@link RunJournal}.
+	 *
+	 * @param journal
+	 * @param methods
+	 * @param includes
+	 * @param fixtureRuns
+	 * @return the units whose results are restored from the journal.
+	 */
+	private List<ShardUnit> resume(RunJournal journal, Collection<BenchmarkDescriptor> methods, List<String> includes,
+			Map<String, List<BenchmarkFixture>> fixtureRuns) {
+
+		return restrict(methods, includes, fixtureRuns,
+				units -> units.stream().filter(it -> !journal.contains(it.key)).collect(Collectors.toList()));
+	}
+
+	/**
+	 * Restrict {@code includes} and {@code fixtureRuns} to the benchmark methods and fixtures retained by
+	 * {@code selector}. Methods whose fixtures are only partially retained are moved to {@code fixtureRuns}.
+	 *
+	 * @param methods
+	 * @param includes
+	 * @param fixtureRuns
+	 * @param selector
+	 * @return the units that are not retained.
+	 */
+	private List<ShardUnit> restrict(Collection<BenchmarkDescriptor> methods, List<String> includes,
+			Map<String, List<BenchmarkFixture>> fixtureRuns, Function<List<ShardUnit>, List<ShardUnit>> selector) {
+
+		Map<String, List<ShardUnit>> units = new LinkedHashMap<>();
+
+		for (BenchmarkDescriptor descriptor : methods) {
+
+			BenchmarkMethod method = getBenchmarkMethod(descriptor);
+			String include = getIncludePattern(method.getMethod());
+
+			if (!includes.contains(include) && !fixtureRuns.containsKey(include)) {
+				continue;
+			}
+
+			String benchmark = getBenchmarkName(descriptor).replace('$', '.');
+			List<ShardUnit> methodUnits = units.computeIfAbsent(include, it -> new ArrayList<>());
+
+			if (descriptor instanceof HierarchicalBenchmarkDescriptor) {
+
+				List<BenchmarkFixture> runnable = fixtureRuns.get(include);
+
+				for (BenchmarkDescriptor child : ((HierarchicalBenchmarkDescriptor) descriptor).getChildren()) {
+
+					BenchmarkFixture fixture = (BenchmarkFixture) child;
+					if (runnable != null && !runnable.contains(fixture)) {
+						continue;
+					}
+
+					Description description = fixtureMethodDescriptions.get(fixture.getDisplayName() + "-" + method.getName());
+					methodUnits.add(new ShardUnit(description, fixture, BenchmarkSharding.getKey(benchmark, fixture)));
+				}
+			} else {
+				methodUnits.add(new ShardUnit(describeChild(descriptor), null, BenchmarkSharding.getKey(benchmark)));
+			}
+		}
+
+		List<ShardUnit> allUnits = units.values().stream().flatMap(List::stream).collect(Collectors.toList());
+		Set<ShardUnit> selected = new HashSet<>(selector.apply(allUnits));
+		List<ShardUnit> rejected = new ArrayList<>();
+
+		units.forEach((include, methodUnits) -> {
+
+			List<BenchmarkFixture> fixtures = new ArrayList<>();
+			for (ShardUnit unit : methodUnits) {
+				if (!selected.contains(unit)) {
+					rejected.add(unit);
+				} else if (unit.fixture != null) {
+					fixtures.add(unit.fixture);
+				}
+			}
+
+			if (methodUnits.stream().noneMatch(selected::contains)) {
+				includes.remove(include);
+				fixtureRuns.remove(include);
+			} else if (fixtureRuns.containsKey(include) || fixtures.size() < methodUnits.size()) {
+				includes.remove(include);
+				fixtureRuns.put(include, fixtures);
+			}
+		});
+
+		return rejected;
+	}
+
+	/**
+	 * Move parametrized benchmark methods of which only some fixtures passed the {@link #filter(Filter) filter} from
+	 * {@code includes} to {@code fixtureRuns} so that only the selected fixtures are run.
+	 *
+	 * @param methods
+	 * @param includes
+	 * @param fixtureRuns
+	 */
+	private void selectFixtures(Collection<BenchmarkDescriptor> methods, List<String> includes,
+			Map<String, List<BenchmarkFixture>> fixtureRuns) {
+
+		synchronized (childrenLock) {
+
+			for (BenchmarkDescriptor descriptor : methods) {
+
+				List<BenchmarkFixture> selected = filteredFixtures.get(descriptor);
+
+				if (selected == null) {
+					continue;
+				}
+
+				String include = getIncludePattern(((ParametrizedBenchmarkMethod) descriptor).getMethod());
+
+				if (includes.remove(include)) {
+					fixtureRuns.put(include, selected);
+				} else if (fixtureRuns.containsKey(include)) {
+					fixtureRuns.put(include, fixtureRuns.get(include).stream().filter(selected::contains)
+							.collect(Collectors.toList()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Collect the fixtures of included benchmark methods whose fixtures are {@link ParametrizedBenchmarkMethod#isSampled()
+	 * sampled} or {@link ParametrizedBenchmarkMethod#isThreadSwept() sweep thread counts}, keyed by include pattern.
+	 *
+	 * @param methods
+	 * @param includes
+	 * @return never {@literal null}.
+	 */
+	private static Map<String, List<BenchmarkFixture>> getSampledFixtures(Collection<BenchmarkDescriptor> methods,
+			List<String> includes) {
+
+		Map<String, List<BenchmarkFixture>> sampledFixtures = new LinkedHashMap<>();
+
+		for (BenchmarkDescriptor descriptor : methods) {
+
+			if (!(descriptor instanceof ParametrizedBenchmarkMethod)) {
+				continue;
+			}
+
+			ParametrizedBenchmarkMethod parametrized = (ParametrizedBenchmarkMethod) descriptor;
+			String include = getIncludePattern(parametrized.getMethod());
+
+			if ((parametrized.isSampled() || parametrized.isThreadSwept()) && includes.contains(include)) {
+				sampledFixtures.put(include, parametrized.getChildren());
+			}
+		}
+
+		return sampledFixtures;
+	}
+
+	/**
+	 * Get the exact include patterns of all benchmarks to be included in the run. By default every benchmark method of
+	 * the test class. <br />
 	 * The {@literal benchmark} command line argument allows overriding the defaults using {@code #} as class / method
-	 * name separator.
+	 * name separator. It is matched against the benchmark methods of the test class and mapped to their exact include
+	 * patterns so that sharding and resuming from the run journal apply to the selected benchmarks.
 	 *
 	 * @param testClass
 	 * @param methods
@@ -337,20 +873,26 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 		if (!StringUtils.hasText(tests)) {
 
 			return methods.stream().map(Microbenchmark::getBenchmarkMethod)
-					.map(it -> Pattern.quote(it.getDeclaringClass().getName()) + "\\." + Pattern.quote(it.getName()) + "$")
+					.map(it -> getIncludePattern(it.getMethod()))
 					.collect(Collectors.toList());
 		}
 
-		if (tests.contains(testClass.getName()) || tests.contains(testClass.getSimpleName())) {
-			if (!tests.contains("#")) {
-				return Collections.singletonList(".*" + tests + ".*");
-			}
-
-			String[] args = tests.split("#");
-			return Collections.singletonList(".*" + args[0] + "." + args[1]);
+		if (!tests.contains(testClass.getName()) && !tests.contains(testClass.getSimpleName())) {
+			return Collections.emptyList();
 		}
 
-		return Collections.emptyList();
+		String[] args = tests.split("#");
+		Pattern filter = Pattern.compile(tests.contains("#") ? ".*" + args[0] + "." + (args.length > 1 ? args[1] : "")
+				: ".*" + tests + ".*");
+
+		return methods.stream().map(it -> getBenchmarkMethod(it).getMethod())
+				.filter(it -> filter.matcher(BenchmarkIncludes.getBenchmarkName(it)).find())
+				.map(Microbenchmark::getIncludePattern)
+				.collect(Collectors.toList());
+	}
+
+	private static String getIncludePattern(Method method) {
+		return BenchmarkIncludes.getIncludePattern(method);
 	}
 
 	private Collection<BenchmarkDescriptor> getFilteredChildren() {
@@ -365,33 +907,6 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 		return filteredChildren;
 	}
 
-	private static OutputFormat createOutputFormat(Options options) {
-
-		// sadly required here as the check cannot be made before calling this method in
-		// constructor
-		if (options == null) {
-			throw new IllegalArgumentException("Options not allowed to be null.");
-		}
-
-		PrintStream out;
-		if (options.getOutput().hasValue()) {
-			try {
-				out = new PrintStream(options.getOutput().get());
-			} catch (FileNotFoundException ex) {
-				throw new IllegalStateException(ex);
-			}
-		} else {
-			// Protect the System.out from accidental closing
-			try {
-				out = new UnCloseablePrintStream(System.out, Utils.guessConsoleEncoding());
-			} catch (UnsupportedEncodingException ex) {
-				throw new IllegalStateException(ex);
-			}
-		}
-
-		return OutputFormatFactory.createFormatInstance(out, options.verbosity().orElse(Defaults.VERBOSITY));
-	}
-
 	private static String getBenchmarkName(BenchmarkDescriptor descriptor) {
 
 		BenchmarkMethod benchmarkMethod = getBenchmarkMethod(descriptor);
@@ -425,15 +940,32 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 		private final RunNotifier notifier;
 		private final CacheFunction descriptionResolver;
 		private final OutputFormat delegate;
+		private final RegressionGate regressionGate;
+		private final AllocationGate allocationGate;
+		private final ResultsStream resultsStream;
 		private final List<String> log = new CopyOnWriteArrayList<>();
 
 		private volatile BenchmarkParams lastKnownBenchmark;
 		private volatile boolean recordOutput;
 
 		NotifyingOutputFormat(RunNotifier notifier, CacheFunction methods, OutputFormat delegate) {
+			this(notifier, methods, delegate, null, null, null);
+		}
+
+		/**
+		 * Create a new {@link NotifyingOutputFormat}. If {@link RegressionGate} is given, benchmarks that regressed
+		 * against their baseline are reported as failed. If {@link AllocationGate} is given, benchmarks that exceed their
+		 * allocation limit are reported as failed. If {@link ResultsStream} is given, results of finished benchmarks are
+		 * published right away.
+		 */
+		NotifyingOutputFormat(RunNotifier notifier, CacheFunction methods, OutputFormat delegate,
+				RegressionGate regressionGate, AllocationGate allocationGate, ResultsStream resultsStream) {
 			this.notifier = notifier;
 			this.descriptionResolver = methods;
 			this.delegate = delegate;
+			this.regressionGate = regressionGate;
+			this.allocationGate = allocationGate;
+			this.resultsStream = resultsStream;
 		}
 
 		@Override
@@ -465,7 +997,15 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 			recordOutput = false;
 			BenchmarkParams lastKnownBenchmark = this.lastKnownBenchmark;
 			if (result != null) {
-				notifier.fireTestFinished(descriptionResolver.apply(result.getParams()));
+
+				Description description = descriptionResolver.apply(result.getParams());
+				verify(description, result).forEach(notifier::fireTestFailure);
+
+				if (resultsStream != null) {
+					resultsStream.publish(result);
+				}
+
+				notifier.fireTestFinished(description);
 			} else if (lastKnownBenchmark != null) {
 
 				String output = StringUtils.collectionToDelimitedString(log, System.getProperty("line.separator"));
@@ -477,6 +1017,55 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 			delegate.endBenchmark(result);
 		}
 
+		/**
+		 * Report a benchmark whose results were restored from the {@link RunJournal} of a previous run. Restored results
+		 * are verified like results of finished benchmarks, so a benchmark that failed verification is reported as failed
+		 * again. Otherwise it is reported as ignored as it did not run.
+		 */
+		void restored(Description description, List<RunResult> results) {
+
+			List<Failure> failures = new ArrayList<>();
+			for (RunResult result : results) {
+				for (BenchmarkResult benchmarkResult : result.getBenchmarkResults()) {
+					failures.addAll(verify(description, benchmarkResult));
+				}
+			}
+
+			if (failures.isEmpty()) {
+				notifier.fireTestIgnored(description);
+				return;
+			}
+
+			notifier.fireTestStarted(description);
+			failures.forEach(notifier::fireTestFailure);
+			notifier.fireTestFinished(description);
+		}
+
+		/**
+		 * Verify {@link BenchmarkResult} against the {@link RegressionGate} and {@link AllocationGate}.
+		 *
+		 * @return the failures, empty if the benchmark passed.
+		 */
+		private List<Failure> verify(Description description, BenchmarkResult result) {
+
+			List<Failure> failures = new ArrayList<>(2);
+			RegressionGate.Regression regression = regressionGate != null ? regressionGate.verify(result) : null;
+
+			if (regression != null) {
+				delegate.println("# REGRESSION: " + regression);
+				failures.add(new Failure(description, regression.toError()));
+			}
+
+			AllocationGate.Violation violation = allocationGate != null ? allocationGate.verify(result) : null;
+
+			if (violation != null) {
+				delegate.println("# ALLOCATION: " + violation);
+				failures.add(new Failure(description, violation.toError()));
+			}
+
+			return failures;
+		}
+
 		@Override
 		public void startRun() {
 			delegate.startRun();
@@ -532,6 +1121,23 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 		}
 	}
 
+	/**
+	 * Unit of work assigned to a {@link BenchmarkSharding shard} or restored from a {@link RunJournal}: either a benchmark
+	 * method or a benchmark fixture.
+	 */
+	private static class ShardUnit {
+
+		private final Description description;
+		private final BenchmarkFixture fixture;
+		private final String key;
+
+		ShardUnit(Description description, BenchmarkFixture fixture, String key) {
+			this.description = description;
+			this.fixture = fixture;
+			this.key = key;
+		}
+	}
+
 	/**
 	 * Exception proxy without stack trace.
 	 */
@@ -579,17 +1185,12 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 
 			if (descriptor instanceof HierarchicalBenchmarkDescriptor) {
 
-				Map<String, String> lookup = new HashMap<>();
-				for (String key : benchmark.getParamsKeys()) {
-					lookup.put(key, benchmark.getParam(key));
-				}
-
 				for (BenchmarkDescriptor child : ((HierarchicalBenchmarkDescriptor) descriptor).getChildren()) {
 
 					if (child instanceof BenchmarkFixture) {
 						BenchmarkFixture fixture = (BenchmarkFixture) child;
 
-						if (fixture.getFixture().equals(lookup)) {
+						if (fixture.matches(benchmark)) {
 							return describeParametrizedMethodFunction.apply(getBenchmarkMethod(descriptor), fixture);
 						}
 					}
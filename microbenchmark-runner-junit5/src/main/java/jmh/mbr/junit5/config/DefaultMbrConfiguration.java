@@ -18,6 +18,7 @@ import org.junit.platform.engine.support.store.NamespacedHierarchicalStore;
 
 public class DefaultMbrConfiguration extends DefaultJupiterConfiguration implements MbrConfiguration {
 
+	private final ConfigurationParameters configurationParameters;
 	private final NamespacedHierarchicalStore<Namespace> store;
 
 	public DefaultMbrConfiguration(ExecutionRequest executionRequest) {
@@ -26,9 +27,15 @@ public class DefaultMbrConfiguration extends DefaultJupiterConfiguration impleme
 
 	public DefaultMbrConfiguration(ConfigurationParameters configurationParameters, OutputDirectoryProvider outputDirectoryProvider, NamespacedHierarchicalStore<Namespace> store) {
 		super(configurationParameters, outputDirectoryProvider);
+		this.configurationParameters = configurationParameters;
 		this.store = store;
 	}
 
+	@Override
+	public ConfigurationParameters getConfigurationParameters() {
+		return configurationParameters;
+	}
+
 	@Override
 	public NamespacedHierarchicalStore<Namespace> getStore() {
 		return store;
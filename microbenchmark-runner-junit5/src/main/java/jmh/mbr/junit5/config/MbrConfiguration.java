@@ -10,10 +10,16 @@
 package jmh.mbr.junit5.config;
 
 import org.junit.jupiter.engine.config.JupiterConfiguration;
+import org.junit.platform.engine.ConfigurationParameters;
 import org.junit.platform.engine.support.store.Namespace;
 import org.junit.platform.engine.support.store.NamespacedHierarchicalStore;
 
 public interface MbrConfiguration extends JupiterConfiguration {
 
 	NamespacedHierarchicalStore<Namespace> getStore();
+
+	/**
+	 * @return the {@link ConfigurationParameters} this configuration was created from.
+	 */
+	ConfigurationParameters getConfigurationParameters();
 }
@@ -9,7 +9,13 @@
  */
 package jmh.mbr.junit5.descriptor;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
 import jmh.mbr.core.model.BenchmarkClass;
+import jmh.mbr.core.model.BenchmarkDescriptor;
+import jmh.mbr.core.model.MethodAware;
 import jmh.mbr.junit5.config.MbrConfiguration;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.engine.extension.ExtensionRegistry;
@@ -24,11 +30,18 @@ import org.junit.platform.engine.support.descriptor.ClassSource;
 public class BenchmarkClassDescriptor extends AbstractBenchmarkDescriptor {
 
 	private final BenchmarkClass benchmarkClass;
+	private final Map<String, BenchmarkDescriptor> methodIds = new HashMap<>();
 
 	public BenchmarkClassDescriptor(UniqueId uniqueId, BenchmarkClass benchmarkClass) {
 
 		super(uniqueId, benchmarkClass.getJavaClass().getName(), ClassSource.from(benchmarkClass.getJavaClass()));
 		this.benchmarkClass = benchmarkClass;
+
+		for (BenchmarkDescriptor child : benchmarkClass.getChildren()) {
+			if (child instanceof MethodAware) {
+				methodIds.putIfAbsent(BenchmarkMethodDescriptor.describeMethodId(((MethodAware) child).getMethod()), child);
+			}
+		}
 	}
 
 	@Override
@@ -40,6 +53,17 @@ public class BenchmarkClassDescriptor extends AbstractBenchmarkDescriptor {
 		return benchmarkClass;
 	}
 
+	/**
+	 * Look up a child of the {@link BenchmarkClass} by its {@link BenchmarkMethodDescriptor#describeMethodId(java.lang.reflect.Method)
+	 * method id}.
+	 *
+	 * @param methodId the method id, e.g. {@code benchmark(java.lang.String)}.
+	 * @return the {@link MethodAware} child or {@link Optional#empty()} if there is no such benchmark method.
+	 */
+	public Optional<BenchmarkDescriptor> findBenchmarkDescriptor(String methodId) {
+		return Optional.ofNullable(methodIds.get(methodId));
+	}
+
 	public Class<?> getJavaClass() {
 		return benchmarkClass.getJavaClass();
 	}
@@ -15,14 +15,14 @@ import static org.junit.platform.engine.support.discovery.SelectorResolver.Resol
 
 import jmh.mbr.core.model.BenchmarkClass;
 import jmh.mbr.core.model.BenchmarkDescriptorFactory;
+import jmh.mbr.core.model.FixtureSampler;
+import jmh.mbr.core.model.MethodAware;
 import jmh.mbr.junit5.descriptor.BenchmarkClassDescriptor;
 import jmh.mbr.junit5.discovery.predicates.IsBenchmarkClass;
-import jmh.mbr.junit5.discovery.predicates.IsBenchmarkMethod;
 
 import java.util.Optional;
 import java.util.function.Predicate;
 
-import org.junit.platform.commons.support.HierarchyTraversalMode;
 import org.junit.platform.commons.support.ReflectionSupport;
 import org.junit.platform.engine.TestDescriptor;
 import org.junit.platform.engine.UniqueId;
@@ -41,9 +41,11 @@ class BenchmarkContainerResolver implements SelectorResolver {
 	private static final String SEGMENT_TYPE = "class";
 
 	private final Predicate<String> classNameFilter;
+	private final FixtureSampler fixtureSampler;
 
-	BenchmarkContainerResolver(Predicate<String> classNameFilter) {
+	BenchmarkContainerResolver(Predicate<String> classNameFilter, FixtureSampler fixtureSampler) {
 		this.classNameFilter = classNameFilter;
+		this.fixtureSampler = fixtureSampler;
 	}
 
 	@Override
@@ -71,17 +73,16 @@ class BenchmarkContainerResolver implements SelectorResolver {
 		if (IsBenchmarkClass.INSTANCE.test(testClass)) {
 			return context.addToParent(parent -> createClassDescriptor(testClass, parent))
 					.map(descriptor -> Resolution.match(Match.exact(descriptor,
-							() -> ReflectionSupport
-									.streamMethods(testClass, IsBenchmarkMethod.INSTANCE, HierarchyTraversalMode.TOP_DOWN)
-									.map(m -> selectMethod(testClass, m)).collect(toSet())))) //
+							() -> descriptor.getBenchmarkClass().getChildren().stream() //
+									.map(it -> selectMethod(testClass, ((MethodAware) it).getMethod())).collect(toSet())))) //
 					.orElse(unresolved());
 		}
 		return unresolved();
 	}
 
-	private static Optional<BenchmarkClassDescriptor> createClassDescriptor(Class<?> testClass, TestDescriptor parent) {
+	private Optional<BenchmarkClassDescriptor> createClassDescriptor(Class<?> testClass, TestDescriptor parent) {
 		UniqueId uniqueId = parent.getUniqueId().append(BenchmarkContainerResolver.SEGMENT_TYPE, testClass.getName());
-		BenchmarkClass descriptor = BenchmarkDescriptorFactory.create(testClass).createDescriptor();
+		BenchmarkClass descriptor = BenchmarkDescriptorFactory.create(testClass, fixtureSampler).createDescriptor();
 		return Optional.of(new BenchmarkClassDescriptor(uniqueId, descriptor));
 	}
 
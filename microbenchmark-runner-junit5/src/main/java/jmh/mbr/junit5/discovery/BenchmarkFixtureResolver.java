@@ -19,8 +19,6 @@ import jmh.mbr.junit5.descriptor.AbstractBenchmarkDescriptor;
 import jmh.mbr.junit5.descriptor.BenchmarkFixtureDescriptor;
 import jmh.mbr.junit5.descriptor.ParametrizedBenchmarkMethodDescriptor;
 
-import java.util.Optional;
-
 import org.junit.platform.engine.TestDescriptor;
 import org.junit.platform.engine.UniqueId;
 import org.junit.platform.engine.discovery.UniqueIdSelector;
@@ -44,11 +42,8 @@ class BenchmarkFixtureResolver implements SelectorResolver {
 					.<AbstractBenchmarkDescriptor> addToParent(() -> selectUniqueId(uniqueId.removeLastSegment()), parent -> {
 						ParametrizedBenchmarkMethodDescriptor methodDescriptor = (ParametrizedBenchmarkMethodDescriptor) parent;
 						ParametrizedBenchmarkMethod parametrizedMethod = methodDescriptor.getParametrizedMethod();
-						return parametrizedMethod.getChildren().stream() //
-								.filter(fixture -> fixture.getDisplayName().equals(lastSegment.getValue())) //
-								.findFirst() //
-								.flatMap(fixture -> Optional
-										.of(createFixtureDescriptor(parent, parametrizedMethod.getDescriptor(), fixture)));
+						return parametrizedMethod.getFixture(lastSegment.getValue()) //
+								.map(fixture -> createFixtureDescriptor(parent, parametrizedMethod.getDescriptor(), fixture));
 					}).map(descriptor -> Resolution.match(Match.exact(descriptor))).orElse(unresolved());
 		}
 
@@ -15,7 +15,6 @@ import static org.junit.platform.engine.support.discovery.SelectorResolver.Resol
 
 import jmh.mbr.core.model.BenchmarkDescriptor;
 import jmh.mbr.core.model.BenchmarkMethod;
-import jmh.mbr.core.model.MethodAware;
 import jmh.mbr.core.model.ParametrizedBenchmarkMethod;
 import jmh.mbr.junit5.descriptor.AbstractBenchmarkDescriptor;
 import jmh.mbr.junit5.descriptor.BenchmarkClassDescriptor;
@@ -61,8 +60,8 @@ class BenchmarkMethodResolver implements SelectorResolver {
 			return context //
 					.addToParent(() -> selectUniqueId(uniqueId.removeLastSegment()), parent -> {
 						BenchmarkClassDescriptor classDescriptor = (BenchmarkClassDescriptor) parent;
-						return findBenchmarkDescriptor(classDescriptor, lastSegment) //
-								.flatMap(it -> createMethodDescriptor(classDescriptor, ((MethodAware) it).getMethod()));
+						return classDescriptor.findBenchmarkDescriptor(lastSegment.getValue()) //
+								.map(it -> toMethodDescriptor(classDescriptor, it));
 					}) //
 					.map(BenchmarkMethodResolver::toResolution) //
 					.orElse(unresolved());
@@ -71,20 +70,6 @@ class BenchmarkMethodResolver implements SelectorResolver {
 		return unresolved();
 	}
 
-	private static Optional<? extends BenchmarkDescriptor> findBenchmarkDescriptor(
-			BenchmarkClassDescriptor classDescriptor, UniqueId.Segment lastSegment) {
-		return classDescriptor.getBenchmarkClass().getChildren().stream() //
-				.filter(MethodAware.class::isInstance) //
-				.filter(benchmarkDescriptor -> {
-
-					Method method = ((MethodAware) benchmarkDescriptor).getMethod();
-					String id = BenchmarkMethodDescriptor.describeMethodId(method);
-
-					return lastSegment.getValue().equals(id);
-				}) //
-				.findFirst();
-	}
-
 	private static Resolution toResolution(TestDescriptor descriptor) {
 		if (descriptor instanceof ParametrizedBenchmarkMethodDescriptor) {
 			ParametrizedBenchmarkMethodDescriptor parametrizedMethodDescriptor = (ParametrizedBenchmarkMethodDescriptor) descriptor;
@@ -98,10 +83,7 @@ class BenchmarkMethodResolver implements SelectorResolver {
 	}
 
 	private static Optional<TestDescriptor> createMethodDescriptor(BenchmarkClassDescriptor parent, Method method) {
-		return parent.getBenchmarkClass().getChildren().stream() //
-				.filter(MethodAware.class::isInstance)
-				.filter(benchmarkDescriptor -> ((MethodAware) benchmarkDescriptor).isUnderlyingMethod(method)) //
-				.findFirst() //
+		return parent.getBenchmarkClass().getChild(method) //
 				.map(benchmarkDescriptor -> toMethodDescriptor(parent, benchmarkDescriptor));
 	}
 
@@ -9,8 +9,11 @@
  */
 package jmh.mbr.junit5.discovery;
 
+import jmh.mbr.core.BenchmarkConfigProperties;
+import jmh.mbr.core.model.FixtureSampler;
 import jmh.mbr.junit5.discovery.predicates.IsBenchmarkClass;
 
+import org.junit.platform.engine.ConfigurationParameters;
 import org.junit.platform.engine.EngineDiscoveryRequest;
 import org.junit.platform.engine.TestDescriptor;
 import org.junit.platform.engine.support.discovery.EngineDiscoveryRequestResolver;
@@ -24,7 +27,8 @@ public class DiscoverySelectorResolver {
 	private static final EngineDiscoveryRequestResolver<TestDescriptor> resolver = EngineDiscoveryRequestResolver
 			.builder() //
 			.addClassContainerSelectorResolver(IsBenchmarkClass.INSTANCE)
-			.addSelectorResolver(ctx -> new BenchmarkContainerResolver(ctx.getClassNameFilter())) //
+			.addSelectorResolver(ctx -> new BenchmarkContainerResolver(ctx.getClassNameFilter(),
+					getFixtureSampler(ctx.getDiscoveryRequest().getConfigurationParameters()))) //
 			.addSelectorResolver(new BenchmarkMethodResolver()) //
 			.addSelectorResolver(new BenchmarkFixtureResolver()) //
 			.build();
@@ -33,4 +37,19 @@ public class DiscoverySelectorResolver {
 		resolver.resolve(request, engineDescriptor);
 	}
 
+	private static FixtureSampler getFixtureSampler(ConfigurationParameters parameters) {
+
+		String strategy = parameters.get(BenchmarkConfigProperties.FIXTURE_SAMPLING.propertyName())
+				.orElse(BenchmarkConfigProperties.FIXTURE_SAMPLING.defaultValue());
+		int size = parameters.get(BenchmarkConfigProperties.FIXTURE_SAMPLE_SIZE.propertyName(), Integer::parseInt)
+				.orElse(BenchmarkConfigProperties.FIXTURE_SAMPLE_SIZE.defaultValue());
+		long seed = parameters.get(BenchmarkConfigProperties.FIXTURE_SAMPLING_SEED.propertyName(), Long::parseLong)
+				.orElse(BenchmarkConfigProperties.FIXTURE_SAMPLING_SEED.defaultValue());
+
+		String threads = parameters.get(BenchmarkConfigProperties.THREAD_SWEEP.propertyName())
+				.orElse(BenchmarkConfigProperties.THREAD_SWEEP.defaultValue());
+
+		return FixtureSampler.of(strategy, size, seed).withThreadSweep(threads);
+	}
+
 }
@@ -13,8 +13,11 @@ import java.util.Arrays;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
+import jmh.mbr.core.model.BenchmarkIndex;
+
 /**
- * {@link Predicate} to check whether a {@link Class} contains {@code @Benchmark} methods.
+ * {@link Predicate} to check whether a {@link Class} contains {@code @Benchmark} methods. Classes covered by the
+ * {@link BenchmarkIndex} are looked up in the index, other classes are introspected.
  *
  * @see IsBenchmarkMethod
  */
@@ -24,7 +27,8 @@ public enum IsBenchmarkClass implements Predicate<Class<?>> {
 
 	@Override
 	public boolean test(Class<?> theClass) {
-		return Stream.concat(Arrays.stream(theClass.getDeclaredMethods()), Arrays.stream(theClass.getMethods()))
-				.anyMatch(IsBenchmarkMethod.INSTANCE);
+		return BenchmarkIndex.of(theClass.getClassLoader()).isBenchmarkClass(theClass)
+				.orElseGet(() -> Stream.concat(Arrays.stream(theClass.getDeclaredMethods()), Arrays.stream(theClass.getMethods()))
+						.anyMatch(IsBenchmarkMethod.INSTANCE));
 	}
 }
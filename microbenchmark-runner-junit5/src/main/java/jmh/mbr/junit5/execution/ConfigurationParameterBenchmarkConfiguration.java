@@ -12,14 +12,15 @@ package jmh.mbr.junit5.execution;
 import jmh.mbr.core.BenchmarkConfigProperties;
 import jmh.mbr.core.BenchmarkConfigProperties.ConfigProperty;
 import jmh.mbr.core.BenchmarkConfiguration;
+import jmh.mbr.core.BenchmarkOverrides;
 import jmh.mbr.core.Environment;
+import jmh.mbr.junit5.config.MbrConfiguration;
 
 import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 
-import org.junit.jupiter.engine.config.JupiterConfiguration;
 import org.junit.platform.engine.ConfigurationParameters;
 
 /**
@@ -27,9 +28,9 @@ import org.junit.platform.engine.ConfigurationParameters;
  */
 class ConfigurationParameterBenchmarkConfiguration implements BenchmarkConfiguration {
 
-	private final JupiterConfiguration configuration;
+	private final MbrConfiguration configuration;
 
-	public ConfigurationParameterBenchmarkConfiguration(JupiterConfiguration configuration) {
+	public ConfigurationParameterBenchmarkConfiguration(MbrConfiguration configuration) {
 		this.configuration = configuration;
 	}
 
@@ -45,8 +46,7 @@ class ConfigurationParameterBenchmarkConfiguration implements BenchmarkConfigura
 
 	@Override
 	public Duration getWarmupTime() {
-		return getConfigParameterOrDefault(BenchmarkConfigProperties.WARMUP_TIME, it -> Duration
-				.ofSeconds(Long.parseLong(it)));
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.WARMUP_TIME, Environment::parseDuration);
 	}
 
 	@Override
@@ -60,6 +60,15 @@ class ConfigurationParameterBenchmarkConfiguration implements BenchmarkConfigura
 				properties.put(it.propertyName(), value);
 			}
 		});
+
+		// pattern overrides are not known upfront
+		ConfigurationParameters parameters = configuration.getConfigurationParameters();
+		for (String key : parameters.keySet()) {
+			if (key.startsWith(BenchmarkOverrides.PREFIX)) {
+				parameters.get(key).ifPresent(value -> properties.put(key, value));
+			}
+		}
+
 		return properties;
 	}
 
@@ -73,6 +82,16 @@ class ConfigurationParameterBenchmarkConfiguration implements BenchmarkConfigura
 		return getConfigParameterOrDefault(BenchmarkConfigProperties.WARMUP_MODE, it -> it);
 	}
 
+	@Override
+	public boolean isWarmupAuto() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.WARMUP_AUTO, Boolean::parseBoolean);
+	}
+
+	@Override
+	public int getWarmupMaxIterations() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.WARMUP_MAX_ITERATIONS, Integer::parseInt);
+	}
+
 	@Override
 	public int getMeasurementIterations() {
 		return getConfigParameterOrDefault(BenchmarkConfigProperties.MEASUREMENT_ITERATIONS, Integer::parseInt);
@@ -85,8 +104,127 @@ class ConfigurationParameterBenchmarkConfiguration implements BenchmarkConfigura
 
 	@Override
 	public Duration getMeasurementTime() {
-		return getConfigParameterOrDefault(BenchmarkConfigProperties.MEASUREMENT_TIME, it -> Duration
-				.ofSeconds(Long.parseLong(it)));
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.MEASUREMENT_TIME, Environment::parseDuration);
+	}
+
+	@Override
+	public double getMeasurementTargetError() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.MEASUREMENT_TARGET_ERROR, Double::parseDouble);
+	}
+
+	@Override
+	public int getMeasurementMaxIterations() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.MEASUREMENT_MAX_ITERATIONS, Integer::parseInt);
+	}
+
+	@Override
+	public String getFixtureSampling() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.FIXTURE_SAMPLING, it -> it);
+	}
+
+	@Override
+	public int getFixtureSampleSize() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.FIXTURE_SAMPLE_SIZE, Integer::parseInt);
+	}
+
+	@Override
+	public long getFixtureSamplingSeed() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.FIXTURE_SAMPLING_SEED, Long::parseLong);
+	}
+
+	@Override
+	public String getThreadSweep() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.THREAD_SWEEP, it -> it);
+	}
+
+	@Override
+	public String getComplexityParameter() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.COMPLEXITY_PARAMETER, it -> it);
+	}
+
+	@Override
+	public int getShardIndex() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.SHARD_INDEX, Integer::parseInt);
+	}
+
+	@Override
+	public int getShardCount() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.SHARD_COUNT, Integer::parseInt);
+	}
+
+	@Override
+	public String getShardDurations() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.SHARD_DURATIONS, it -> it);
+	}
+
+	@Override
+	public Duration getBudget() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.BUDGET, Environment::parseDuration);
+	}
+
+	@Override
+	public String getBudgetHistory() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.BUDGET_HISTORY, it -> it);
+	}
+
+	@Override
+	public String getRegressionBaseline() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.REGRESSION_BASELINE, it -> it);
+	}
+
+	@Override
+	public double getRegressionThreshold() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.REGRESSION_THRESHOLD, Double::parseDouble);
+	}
+
+	@Override
+	public double getRegressionAlpha() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.REGRESSION_ALPHA, Double::parseDouble);
+	}
+
+	@Override
+	public boolean isRegressionUpdateBaseline() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.REGRESSION_UPDATE_BASELINE, Boolean::parseBoolean);
+	}
+
+	@Override
+	public boolean isCdsEnabled() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.CDS_ENABLED, Boolean::parseBoolean);
+	}
+
+	@Override
+	public String getCdsDirectory() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.CDS_DIRECTORY, it -> it);
+	}
+
+	@Override
+	public String getProfile() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.PROFILE, it -> it);
+	}
+
+	@Override
+	public String getProfileDirectory() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.PROFILE_DIRECTORY, it -> it);
+	}
+
+	@Override
+	public int getProfileTopMethods() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.PROFILE_TOP_METHODS, Integer::parseInt);
+	}
+
+	@Override
+	public boolean isProfileGc() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.PROFILE_GC, Boolean::parseBoolean);
+	}
+
+	@Override
+	public boolean isResume() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.RESUME, Boolean::parseBoolean);
+	}
+
+	@Override
+	public String getReportDirectory() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.BENCHMARK_REPORT_DIR, it -> it);
 	}
 
 	@Override
@@ -96,8 +234,7 @@ class ConfigurationParameterBenchmarkConfiguration implements BenchmarkConfigura
 
 	@Override
 	public Duration getTimeout() {
-		return getConfigParameterOrDefault(BenchmarkConfigProperties.TIMEOUT, it -> Duration
-				.ofSeconds(Long.parseLong(it)));
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.TIMEOUT, Environment::parseDuration);
 	}
 
 	@Override
@@ -105,11 +242,21 @@ class ConfigurationParameterBenchmarkConfiguration implements BenchmarkConfigura
 		return getConfigParameterOrDefault(BenchmarkConfigProperties.FORKS, Integer::parseInt);
 	}
 
+	@Override
+	public int getParallelism() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.PARALLELISM, Integer::parseInt);
+	}
+
 	@Override
 	public String publishUri() {
 		return getConfigParameterOrDefault(BenchmarkConfigProperties.PUBLISH_URI, it -> it);
 	}
 
+	@Override
+	public Duration getPublishTimeout() {
+		return getConfigParameterOrDefault(BenchmarkConfigProperties.PUBLISH_TIMEOUT, Environment::parseDuration);
+	}
+
 	private <T> T getConfigParameterOrDefault(ConfigProperty<T> property, Function<String, T> mapFunction) {
 
 		for (String propertyName : property.propertyNames()) {
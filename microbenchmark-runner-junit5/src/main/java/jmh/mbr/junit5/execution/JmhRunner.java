@@ -13,25 +13,46 @@ import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import jmh.mbr.core.AdaptiveMeasurement;
+import jmh.mbr.core.AllocationGate;
 import jmh.mbr.core.BenchmarkConfiguration;
+import jmh.mbr.core.BenchmarkIncludes;
+import jmh.mbr.core.BenchmarkOverrides;
+import jmh.mbr.core.BenchmarkSharding;
+import jmh.mbr.core.CpuSet;
 import jmh.mbr.core.JmhSupport;
+import jmh.mbr.core.RegressionGate;
+import jmh.mbr.core.ResultsStream;
+import jmh.mbr.core.RunJournal;
 import jmh.mbr.core.StringUtils;
+import jmh.mbr.core.TimeBudget;
+import jmh.mbr.core.WarmupDetection;
+import jmh.mbr.core.model.BenchmarkFixture;
 import jmh.mbr.core.model.BenchmarkResults;
 import jmh.mbr.core.model.BenchmarkResults.MetaData;
+import jmh.mbr.core.model.FixtureRestriction;
 import jmh.mbr.core.model.MethodAware;
+import jmh.mbr.core.model.ParametrizedBenchmarkMethod;
+import jmh.mbr.junit5.MicrobenchmarkEngine;
 import jmh.mbr.junit5.config.MbrConfiguration;
 import jmh.mbr.junit5.descriptor.AbstractBenchmarkDescriptor;
 import jmh.mbr.junit5.descriptor.BenchmarkClassDescriptor;
@@ -46,6 +67,7 @@ import org.junit.platform.engine.EngineExecutionListener;
 import org.junit.platform.engine.TestDescriptor;
 import org.junit.platform.engine.TestExecutionResult;
 import org.junit.platform.engine.support.hierarchical.Node.SkipResult;
+import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.infra.BenchmarkParams;
 import org.openjdk.jmh.infra.IterationParams;
 import org.openjdk.jmh.results.BenchmarkResult;
@@ -64,6 +86,8 @@ public class JmhRunner {
 
 	private static final ConditionEvaluator evaluator = new ConditionEvaluator();
 
+	private static final String JMH_IGNORE_LOCK = "jmh.ignoreLock";
+
 	private final MbrConfiguration configuration;
 	private final MutableExtensionRegistry extensionRegistry;
 
@@ -77,8 +101,6 @@ public class JmhRunner {
 		BenchmarkConfiguration jmhOptions = new ConfigurationParameterBenchmarkConfiguration(configuration);
 		JmhSupport support = initJmhSupport(jmhOptions);
 
-		ChainedOptionsBuilder optionsBuilder = support.options();
-
 		List<AbstractBenchmarkDescriptor> methods = collectBenchmarkMethods(testDescriptor);
 		List<AbstractBenchmarkDescriptor> includes = getIncludes(testDescriptor);
 
@@ -93,12 +115,50 @@ public class JmhRunner {
 			return;
 		}
 
-		includePatterns.forEach(optionsBuilder::include);
+		Map<String, List<BenchmarkFixture>> fixtureRuns = getSampledFixtures(methods, includePatterns);
+		includePatterns.removeAll(fixtureRuns.keySet());
+		selectFixtures(methods, includePatterns, fixtureRuns);
+
+		BenchmarkOverrides overrides = BenchmarkOverrides.from(jmhOptions);
+		splitOverriddenFixtures(overrides, methods, includePatterns, fixtureRuns);
+
+		BenchmarkSharding sharding = BenchmarkSharding.from(jmhOptions);
+		List<TestDescriptor> otherShards = new ArrayList<>();
+		if (sharding != null) {
+			shard(sharding, methods, includePatterns, fixtureRuns, otherShards);
+		}
+
+		RunJournal journal = support.openJournal(MicrobenchmarkEngine.ENGINE_ID);
+		List<ShardUnit> resumed = journal != null && journal.isResumed()
+				? resume(journal, methods, includePatterns, fixtureRuns)
+				: Collections.emptyList();
+
+		List<Method> benchmarkMethods = methods.stream().map(it -> ((MethodAware) it).getMethod())
+				.collect(Collectors.toList());
+		AllocationGate allocationGate = AllocationGate.from(benchmarkMethods);
+		if (allocationGate != null) {
+			support.enableGcProfiler();
+		}
+		support.estimateComplexity(benchmarkMethods);
+
+		prepareClassDataSharing(support, methods, includePatterns, fixtureRuns);
+
+		ChainedOptionsBuilder optionsBuilder = BenchmarkIncludes.include(support.options(), includePatterns);
 
 		CacheFunction cache = new CacheFunction(methods);
 		Options runOptions = optionsBuilder.build();
-		NotifyingOutputFormat notifyingOutputFormat = new NotifyingOutputFormat(listener, cache,
-				support.createOutputFormat(runOptions));
+		AdaptiveMeasurement adaptiveMeasurement = AdaptiveMeasurement.from(jmhOptions);
+		WarmupDetection warmupDetection = WarmupDetection.from(jmhOptions);
+		TimeBudget timeBudget = TimeBudget.from(jmhOptions);
+		RegressionGate regressionGate = RegressionGate.from(jmhOptions);
+		Map<TestDescriptor, AtomicInteger> expectedContainerCount = new ConcurrentHashMap<>();
+		OutputFormat outputFormat = createOutputFormat(support, runOptions, sharding);
+		boolean adaptive = warmupDetection == null && adaptiveMeasurement != null;
+		// adaptive rounds complete benchmarks with partial results, combined results are published after the run
+		ResultsStream resultsStream = adaptive ? null : support.openResultsStream(outputFormat);
+		NotifyingOutputFormat notifyingOutputFormat = new NotifyingOutputFormat(listener, cache, outputFormat,
+				expectedContainerCount, adaptive ? adaptiveMeasurement : null, regressionGate, allocationGate,
+				resultsStream);
 
 		try {
 			listener.executionStarted(testDescriptor);
@@ -106,12 +166,77 @@ public class JmhRunner {
 				listener.executionStarted(child);
 			}
 
-			support.publishResults(notifyingOutputFormat, new BenchmarkResults(MetaData
-					.from(jmhOptions
-							.asMap()), runBenchmarks(runOptions, notifyingOutputFormat)));
+			for (TestDescriptor descriptor : otherShards) {
+				notifyingOutputFormat.skipped(descriptor, "Benchmark assigned to another shard than " + sharding);
+			}
+
+			if (adaptive && jmhOptions.isResume()) {
+				notifyingOutputFormat.println("# WARNING: Adaptive measurement runs are not journaled and cannot be resumed");
+			}
+
+			List<RunResult> restored = new ArrayList<>();
+			for (ShardUnit unit : resumed) {
+
+				List<RunResult> unitResults = journal.getResults(Collections.singletonList(unit.key));
+				notifyingOutputFormat.restored(unit.descriptor, unitResults, "Benchmark result restored from " + journal);
+				restored.addAll(unitResults);
+			}
+
+			List<BenchmarkResults> results = new ArrayList<>(3);
+			if (!restored.isEmpty()) {
+				results.add(new BenchmarkResults(MetaData.from(jmhOptions.asMap()), restored));
+			}
+
+			if (timeBudget != null) {
+				warnIgnoredOverrides(overrides, benchmarkMethods, "time budget", notifyingOutputFormat);
+				results.add(runBudgeted(support, jmhOptions, methods, includePatterns, fixtureRuns, timeBudget,
+						notifyingOutputFormat));
+			} else {
+
+				if (!includePatterns.isEmpty()) {
+
+					if (warmupDetection != null) {
+						warnIgnoredOverrides(overrides, benchmarkMethods, "warmup detection", notifyingOutputFormat);
+						results.add(runCalibrated(support, jmhOptions, includePatterns, warmupDetection, notifyingOutputFormat));
+					} else if (adaptiveMeasurement != null) {
+						warnIgnoredOverrides(overrides, benchmarkMethods, "adaptive measurement", notifyingOutputFormat);
+						results.add(runAdaptive(support, jmhOptions, includePatterns, adaptiveMeasurement, notifyingOutputFormat));
+					} else if (jmhOptions.getParallelism() > 1 && includePatterns.size() > 1
+							&& canPartition(runOptions, methods, includePatterns, notifyingOutputFormat)) {
+						warnIgnoredOverrides(overrides, benchmarkMethods, "partitioned", notifyingOutputFormat);
+						results.add(runPartitioned(support, jmhOptions, includePatterns, sharding, cache, listener,
+								expectedContainerCount, regressionGate, allocationGate, resultsStream, notifyingOutputFormat));
+					} else {
+						results.add(runGrouped(support, jmhOptions, overrides, methods, includePatterns, runOptions,
+								notifyingOutputFormat));
+					}
+				}
+
+				if (!fixtureRuns.isEmpty()) {
+
+					NotifyingOutputFormat fixtureOutputFormat = new NotifyingOutputFormat(listener, cache,
+							createOutputFormat(support, runOptions, sharding), expectedContainerCount, null, regressionGate,
+							allocationGate, resultsStream);
+					results.add(runFixtures(support, jmhOptions, overrides, methods, fixtureRuns, fixtureOutputFormat));
+				}
+			}
+
+			if (sharding != null) {
+				saveDurations(sharding, notifyingOutputFormat);
+			}
+
+			if (regressionGate != null) {
+				saveBaseline(regressionGate, notifyingOutputFormat);
+			}
+
+			support.reportClassDataSharing(notifyingOutputFormat);
+			support.publishResults(notifyingOutputFormat, results.size() == 1 ? results.get(0)
+					: BenchmarkResults.merge(MetaData.from(jmhOptions.asMap()), results));
 			listener.executionFinished(testDescriptor, TestExecutionResult.successful());
 		} catch (RuntimeException | RunnerException e) {
 
+			support.closeResultsWriters(notifyingOutputFormat);
+
 			listener.executionFinished(testDescriptor, TestExecutionResult.failed(e));
 			for (TestDescriptor child : testDescriptor.getChildren()) {
 				listener.executionFinished(child, TestExecutionResult.failed(e));
@@ -119,6 +244,578 @@ public class JmhRunner {
 		}
 	}
 
+	/**
+	 * Report that overrides do not apply to benchmark methods run in {@code mode}. Fixture runs still apply overrides.
+	 */
+	private static void warnIgnoredOverrides(BenchmarkOverrides overrides, List<Method> methods, String mode,
+			OutputFormat output) {
+
+		if (overrides.isConfigured(methods)) {
+			output.println("# WARNING: Benchmark overrides are not applied to " + mode + " runs");
+		}
+	}
+
+	/**
+	 * Run individual benchmark fixtures, either because fixtures are {@link ParametrizedBenchmarkMethod#isSampled()
+	 * sampled}, because only some fixtures were selected or because only some fixtures of a method belong to the current
+	 * {@link BenchmarkSharding shard}. JMH runs the cartesian product of all {@code param()} values, so fixtures are
+	 * partitioned into {@link FixtureRestriction restrictions} per effective {@link BenchmarkOverrides.Options} and each
+	 * restriction is run in its own invocation.
+	 */
+	private BenchmarkResults runFixtures(JmhSupport support, BenchmarkConfiguration jmhOptions,
+			BenchmarkOverrides overrides, List<AbstractBenchmarkDescriptor> methods,
+			Map<String, List<BenchmarkFixture>> fixtureRuns, OutputFormat output) throws RunnerException {
+
+		List<RunResult> runResults = new ArrayList<>();
+
+		for (Map.Entry<String, List<BenchmarkFixture>> entry : fixtureRuns.entrySet()) {
+
+			Method method = getMethod(methods, entry.getKey());
+			Map<BenchmarkOverrides.Options, List<BenchmarkFixture>> groups = new LinkedHashMap<>();
+
+			for (BenchmarkFixture fixture : entry.getValue()) {
+
+				BenchmarkOverrides.Options options = method != null ? overrides.forFixture(method, fixture)
+						: BenchmarkOverrides.Options.NONE;
+				groups.computeIfAbsent(options, it -> new ArrayList<>()).add(fixture);
+			}
+
+			for (Map.Entry<BenchmarkOverrides.Options, List<BenchmarkFixture>> group : groups.entrySet()) {
+				for (FixtureRestriction restriction : FixtureRestriction.from(group.getValue())) {
+
+					ChainedOptionsBuilder optionsBuilder = group.getKey().apply(support.options(restriction));
+					runResults.addAll(runBenchmarks(optionsBuilder.include(entry.getKey()).build(), output));
+				}
+			}
+		}
+
+		return new BenchmarkResults(MetaData.from(jmhOptions.asMap()), runResults);
+	}
+
+	/**
+	 * Run benchmarks grouped by their effective {@link BenchmarkOverrides.Options}. Each group runs in its own JMH
+	 * invocation with its options applied on top of the global configuration.
+	 */
+	private BenchmarkResults runGrouped(JmhSupport support, BenchmarkConfiguration jmhOptions,
+			BenchmarkOverrides overrides, List<AbstractBenchmarkDescriptor> methods, List<String> includePatterns,
+			Options runOptions, OutputFormat output) throws RunnerException {
+
+		Map<BenchmarkOverrides.Options, List<String>> groups = new LinkedHashMap<>();
+
+		for (String includePattern : includePatterns) {
+
+			Method method = getMethod(methods, includePattern);
+			BenchmarkOverrides.Options options = method != null ? overrides.forMethod(method)
+					: BenchmarkOverrides.Options.NONE;
+			groups.computeIfAbsent(options, it -> new ArrayList<>()).add(includePattern);
+		}
+
+		if (groups.size() == 1 && groups.containsKey(BenchmarkOverrides.Options.NONE)) {
+			return new BenchmarkResults(MetaData.from(jmhOptions.asMap()), runBenchmarks(runOptions, output));
+		}
+
+		List<RunResult> runResults = new ArrayList<>();
+
+		for (Map.Entry<BenchmarkOverrides.Options, List<String>> group : groups.entrySet()) {
+
+			ChainedOptionsBuilder optionsBuilder = BenchmarkIncludes.include(group.getKey().apply(support.options()),
+					group.getValue());
+
+			output.println(String.format("# Options: %s for %s", group.getKey(), group.getValue()));
+			runResults.addAll(runBenchmarks(optionsBuilder.build(), output));
+		}
+
+		return new BenchmarkResults(MetaData.from(jmhOptions.asMap()), runResults);
+	}
+
+	/**
+	 * Move parametrized benchmark methods whose fixtures resolve to different {@link BenchmarkOverrides.Options} than
+	 * the method itself from {@code includePatterns} to {@code fixtureRuns} so each fixture runs with its own options.
+	 */
+	private static void splitOverriddenFixtures(BenchmarkOverrides overrides,
+			List<AbstractBenchmarkDescriptor> methods, List<String> includePatterns,
+			Map<String, List<BenchmarkFixture>> fixtureRuns) {
+
+		for (AbstractBenchmarkDescriptor method : methods) {
+
+			if (!(method instanceof ParametrizedBenchmarkMethodDescriptor)) {
+				continue;
+			}
+
+			ParametrizedBenchmarkMethod parametrized = ((ParametrizedBenchmarkMethodDescriptor) method)
+					.getParametrizedMethod();
+			String includePattern = getIncludePattern(parametrized.getMethod());
+
+			if (!includePatterns.contains(includePattern)) {
+				continue;
+			}
+
+			BenchmarkOverrides.Options methodOptions = overrides.forMethod(parametrized.getMethod());
+
+			if (parametrized.getChildren().stream()
+					.anyMatch(it -> !overrides.forFixture(parametrized.getMethod(), it).equals(methodOptions))) {
+				includePatterns.remove(includePattern);
+				fixtureRuns.put(includePattern, parametrized.getChildren());
+			}
+		}
+	}
+
+	/**
+	 * Prepare the class data sharing archive using the first benchmark to run as training benchmark. Parametrized
+	 * benchmarks train with their first fixture only.
+	 */
+	private static void prepareClassDataSharing(JmhSupport support, List<AbstractBenchmarkDescriptor> methods,
+			List<String> includePatterns, Map<String, List<BenchmarkFixture>> fixtureRuns) {
+
+		if (!includePatterns.isEmpty()) {
+
+			String includePattern = includePatterns.get(0);
+			BenchmarkFixture fixture = null;
+
+			for (AbstractBenchmarkDescriptor method : methods) {
+
+				if (method instanceof ParametrizedBenchmarkMethodDescriptor
+						&& getIncludePattern(((MethodAware) method).getMethod()).equals(includePattern)) {
+
+					List<BenchmarkFixture> fixtures = ((ParametrizedBenchmarkMethodDescriptor) method)
+							.getParametrizedMethod().getChildren();
+					fixture = fixtures.isEmpty() ? null : fixtures.get(0);
+				}
+			}
+
+			support.prepareClassDataSharing(includePattern, fixture);
+		} else if (!fixtureRuns.isEmpty()) {
+
+			Map.Entry<String, List<BenchmarkFixture>> first = fixtureRuns.entrySet().iterator().next();
+			support.prepareClassDataSharing(first.getKey(), first.getValue().isEmpty() ? null : first.getValue().get(0));
+		}
+	}
+
+	private static Method getMethod(List<AbstractBenchmarkDescriptor> methods, String includePattern) {
+
+		for (AbstractBenchmarkDescriptor descriptor : methods) {
+
+			Method method = ((MethodAware) descriptor).getMethod();
+			if (getIncludePattern(method).equals(includePattern)) {
+				return method;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Run benchmarks within a {@link TimeBudget}. Each include pattern (and each of its fixtures, if listed in
+	 * {@code fixtureRuns}) runs in its own invocation with iteration settings allocated from the remaining budget.
+	 * Allocations are recomputed before each run so that deviations from the estimated duration are compensated by
+	 * subsequent benchmarks. Benchmarks whose allocation does not fit into the remaining budget are reported as skipped.
+	 */
+	private BenchmarkResults runBudgeted(JmhSupport support, BenchmarkConfiguration jmhOptions,
+			List<AbstractBenchmarkDescriptor> methods, List<String> includePatterns,
+			Map<String, List<BenchmarkFixture>> fixtureRuns, TimeBudget timeBudget, NotifyingOutputFormat output)
+			throws RunnerException {
+
+		Map<String, Integer> pending = new LinkedHashMap<>();
+		includePatterns.forEach(it -> pending.put(it, getLeafDescriptors(methods, it, null).size()));
+		fixtureRuns.forEach((it, fixtures) -> pending.put(it, fixtures.size()));
+
+		List<BenchmarkResults> results = new ArrayList<>();
+
+		while (!pending.isEmpty()) {
+
+			String includePattern = pending.keySet().iterator().next();
+			TimeBudget.Allocation allocation = timeBudget.allocate(pending).get(includePattern);
+			pending.remove(includePattern);
+
+			List<BenchmarkFixture> fixtures = fixtureRuns.get(includePattern);
+
+			if (!timeBudget.fits(allocation)) {
+
+				String reason = String.format("Benchmark requires %d ms exceeding the remaining time budget of %d ms",
+						allocation.getDuration().toMillis(), timeBudget.getRemaining().toMillis());
+				getLeafDescriptors(methods, includePattern, fixtures).forEach(it -> output.skipped(it, reason));
+				continue;
+			}
+
+			output.println(String.format("# Budget: %s for %s", allocation, includePattern));
+
+			List<RunResult> runResults = new ArrayList<>();
+			if (fixtures != null) {
+				for (FixtureRestriction restriction : FixtureRestriction.from(fixtures)) {
+					runResults.addAll(runBenchmarks(allocation.apply(support.options(restriction)).include(includePattern)
+							.build(), output));
+				}
+			} else {
+				runResults.addAll(runBenchmarks(allocation.apply(support.options()).include(includePattern).build(), output));
+			}
+
+			timeBudget.record(runResults);
+
+			Map<String, Object> metadata = new LinkedHashMap<>(jmhOptions.asMap());
+			metadata.put(TimeBudget.METADATA_KEY, allocation.toString());
+			results.add(new BenchmarkResults(MetaData.from(metadata), runResults));
+		}
+
+		try {
+			timeBudget.saveHistory();
+		} catch (IOException e) {
+			output.println("# WARNING: Cannot save benchmark history: " + e);
+		}
+
+		return BenchmarkResults.merge(MetaData.from(jmhOptions.asMap()), results);
+	}
+
+	/**
+	 * Resolve the benchmark method and fixture descriptors reported for an include pattern, optionally restricted to
+	 * {@code fixtures}.
+	 */
+	private static List<TestDescriptor> getLeafDescriptors(List<AbstractBenchmarkDescriptor> methods,
+			String includePattern, List<BenchmarkFixture> fixtures) {
+
+		List<TestDescriptor> descriptors = new ArrayList<>();
+
+		for (AbstractBenchmarkDescriptor method : methods) {
+
+			if (!getIncludePattern(((MethodAware) method).getMethod()).equals(includePattern)) {
+				continue;
+			}
+
+			if (!(method instanceof ParametrizedBenchmarkMethodDescriptor)) {
+				descriptors.add(method);
+				continue;
+			}
+
+			for (TestDescriptor child : method.getChildren()) {
+				if (child instanceof BenchmarkFixtureDescriptor && (fixtures == null
+						|| fixtures.contains(((BenchmarkFixtureDescriptor) child).getFixture()))) {
+					descriptors.add(child);
+				}
+			}
+		}
+
+		return descriptors;
+	}
+
+	/**
+	 * Restrict {@code includePatterns} and {@code fixtureRuns} to the benchmark methods and fixtures assigned to the
+	 * {@link BenchmarkSharding shard}. Methods whose fixtures are only partially assigned to the shard are moved to
+	 * {@code fixtureRuns}. Descriptors assigned to other shards are collected in {@code otherShards}.
+	 */
+	private static void shard(BenchmarkSharding sharding, List<AbstractBenchmarkDescriptor> methods,
+			List<String> includePatterns, Map<String, List<BenchmarkFixture>> fixtureRuns,
+			List<TestDescriptor> otherShards) {
+
+		restrict(methods, includePatterns, fixtureRuns, units -> sharding.select(units, it -> it.key))
+				.forEach(it -> otherShards.add(it.descriptor));
+	}
+
+	/**
+	 * Restrict {@code includePatterns} and {@code fixtureRuns} to the benchmark methods and fixtures without a result in
+	 * the {@link RunJournal}.
+	 *
+	 * @return the units whose results are restored from the journal.
+	 */
+	private static List<ShardUnit> resume(RunJournal journal, List<AbstractBenchmarkDescriptor> methods,
+			List<String> includePatterns, Map<String, List<BenchmarkFixture>> fixtureRuns) {
+
+		return restrict(methods, includePatterns, fixtureRuns,
+				units -> units.stream().filter(it -> !journal.contains(it.key)).collect(Collectors.toList()));
+	}
+
+	/**
+	 * Restrict {@code includePatterns} and {@code fixtureRuns} to the benchmark methods and fixtures retained by
+	 * {@code selector}. Methods whose fixtures are only partially retained are moved to {@code fixtureRuns}.
+	 *
+	 * @return the units that are not retained.
+	 */
+	private static List<ShardUnit> restrict(List<AbstractBenchmarkDescriptor> methods, List<String> includePatterns,
+			Map<String, List<BenchmarkFixture>> fixtureRuns, Function<List<ShardUnit>, List<ShardUnit>> selector) {
+
+		Map<String, List<ShardUnit>> units = new LinkedHashMap<>();
+
+		for (AbstractBenchmarkDescriptor method : methods) {
+
+			String includePattern = getIncludePattern(((MethodAware) method).getMethod());
+
+			if (!includePatterns.contains(includePattern) && !fixtureRuns.containsKey(includePattern)) {
+				continue;
+			}
+
+			String benchmark = CacheFunction.getBenchmarkName(method);
+			List<ShardUnit> methodUnits = units.computeIfAbsent(includePattern, it -> new ArrayList<>());
+
+			if (method instanceof ParametrizedBenchmarkMethodDescriptor) {
+
+				for (TestDescriptor child : method.getChildren()) {
+					if (child instanceof BenchmarkFixtureDescriptor) {
+
+						BenchmarkFixture fixture = ((BenchmarkFixtureDescriptor) child).getFixture();
+						methodUnits.add(new ShardUnit(child, fixture, BenchmarkSharding.getKey(benchmark, fixture)));
+					}
+				}
+			} else {
+				methodUnits.add(new ShardUnit(method, null, BenchmarkSharding.getKey(benchmark)));
+			}
+		}
+
+		List<ShardUnit> allUnits = units.values().stream().flatMap(List::stream).collect(Collectors.toList());
+		Set<ShardUnit> selected = new HashSet<>(selector.apply(allUnits));
+		List<ShardUnit> rejected = new ArrayList<>();
+
+		units.forEach((includePattern, methodUnits) -> {
+
+			List<BenchmarkFixture> fixtures = new ArrayList<>();
+			for (ShardUnit unit : methodUnits) {
+				if (!selected.contains(unit)) {
+					rejected.add(unit);
+				} else if (unit.fixture != null) {
+					fixtures.add(unit.fixture);
+				}
+			}
+
+			boolean methodSelected = methodUnits.stream().anyMatch(selected::contains);
+
+			if (!methodSelected) {
+				includePatterns.remove(includePattern);
+				fixtureRuns.remove(includePattern);
+			} else if (fixtureRuns.containsKey(includePattern) || fixtures.size() < methodUnits.size()) {
+				includePatterns.remove(includePattern);
+				fixtureRuns.put(includePattern, fixtures);
+			}
+		});
+
+		return rejected;
+	}
+
+	private static OutputFormat createOutputFormat(JmhSupport support, Options options, BenchmarkSharding sharding) {
+
+		OutputFormat outputFormat = support.createOutputFormat(options);
+		return sharding != null ? sharding.decorate(outputFormat) : outputFormat;
+	}
+
+	private static void saveBaseline(RegressionGate regressionGate, OutputFormat output) {
+
+		try {
+			regressionGate.saveBaseline();
+		} catch (IOException e) {
+			output.println("# WARNING: Cannot save benchmark baseline: " + e);
+		}
+	}
+
+	private static void saveDurations(BenchmarkSharding sharding, OutputFormat output) {
+
+		try {
+			sharding.saveDurations();
+		} catch (IOException e) {
+			output.println("# WARNING: Cannot save benchmark durations: " + e);
+		}
+	}
+
+	/**
+	 * Run benchmarks using {@link WarmupDetection}. A calibration run executes a single unwarmed fork per benchmark whose
+	 * iterations are recorded to detect the steady state. Benchmarks are then run grouped by their detected warmup length
+	 * and the warmup length is recorded in the {@link MetaData} of each result.
+	 */
+	private BenchmarkResults runCalibrated(JmhSupport support, BenchmarkConfiguration jmhOptions,
+			List<String> includePatterns, WarmupDetection warmupDetection, OutputFormat output) throws RunnerException {
+
+		ChainedOptionsBuilder calibration = support.options().forks(1).warmupIterations(0)
+				.measurementIterations(warmupDetection.getMaxIterations());
+		BenchmarkIncludes.include(calibration, includePatterns);
+
+		Options calibrationOptions = calibration.build();
+		runBenchmarks(calibrationOptions, warmupDetection.decorate(support.createOutputFormat(calibrationOptions)));
+
+		List<BenchmarkResults> results = new ArrayList<>();
+
+		for (Map.Entry<Integer, List<String>> group : warmupDetection.groupByWarmupIterations(includePatterns)
+				.entrySet()) {
+
+			int warmupIterations = group.getKey();
+			ChainedOptionsBuilder optionsBuilder = BenchmarkIncludes.include(support.options(), group.getValue());
+
+			Map<String, Object> metadata = new LinkedHashMap<>(jmhOptions.asMap());
+
+			if (warmupIterations >= 0) {
+				optionsBuilder.warmupIterations(warmupIterations);
+				metadata.put(WarmupDetection.METADATA_KEY, warmupIterations);
+				output.println(String.format("# Detected warmup: %d iterations for %s", warmupIterations, group.getValue()));
+			}
+
+			results.add(new BenchmarkResults(MetaData.from(metadata), runBenchmarks(optionsBuilder.build(), output)));
+		}
+
+		return BenchmarkResults.merge(MetaData.from(jmhOptions.asMap()), results);
+	}
+
+	/**
+	 * Run benchmarks using {@link AdaptiveMeasurement}. Each round runs a single fork per benchmark while
+	 * {@link NotifyingOutputFormat} feeds measurement iterations into {@link AdaptiveMeasurement}. Fixtures whose
+	 * confidence interval has converged (or that reached the iteration cap) are excluded from subsequent rounds by
+	 * {@link FixtureRestriction restricting} each benchmark to its incomplete fixtures. Forks of all rounds are combined
+	 * into a single {@link RunResult} per benchmark fixture.
+	 */
+	private BenchmarkResults runAdaptive(JmhSupport support, BenchmarkConfiguration jmhOptions,
+			List<String> includePatterns, AdaptiveMeasurement adaptiveMeasurement, NotifyingOutputFormat output)
+			throws RunnerException {
+
+		ChainedOptionsBuilder optionsBuilder = BenchmarkIncludes.include(support.options().forks(1), includePatterns);
+		adaptiveMeasurement.collect(runBenchmarks(optionsBuilder.build(), output));
+
+		Map<String, List<BenchmarkFixture>> round = adaptiveMeasurement.getIncomplete();
+
+		while (!round.isEmpty()) {
+
+			for (Map.Entry<String, List<BenchmarkFixture>> entry : round.entrySet()) {
+				for (FixtureRestriction restriction : FixtureRestriction.from(entry.getValue())) {
+
+					ChainedOptionsBuilder restricted = support.options(restriction).forks(1)
+							.include(BenchmarkIncludes.getIncludePattern(entry.getKey()));
+					adaptiveMeasurement.collect(runBenchmarks(restricted.build(), output));
+				}
+			}
+
+			round = adaptiveMeasurement.getIncomplete();
+		}
+
+		output.finished(adaptiveMeasurement.getBenchmarkResults());
+
+		return new BenchmarkResults(MetaData.from(jmhOptions.asMap()), adaptiveMeasurement.getRunResults());
+	}
+
+	/**
+	 * Check whether benchmarks can run in {@link #runPartitioned concurrent partitions}. Partitions are isolated by
+	 * pinning their forks to disjoint {@link CpuSet CPU sets}, so benchmarks that run in the runner JVM ({@code forks=0})
+	 * or systems without {@link CpuSet#isPinningSupported() CPU pinning} run grouped instead. The reason is reported to
+	 * {@code output}.
+	 */
+	private static boolean canPartition(Options runOptions, List<AbstractBenchmarkDescriptor> methods,
+			List<String> includePatterns, OutputFormat output) {
+
+		String reason = null;
+
+		if (isUnforked(runOptions, methods, includePatterns)) {
+			reason = "benchmarks are not forked";
+		} else if (!CpuSet.isPinningSupported()) {
+			reason = "CPU pinning is not supported on this system";
+		}
+
+		if (reason != null) {
+			output.println("# WARNING: Not running benchmarks in concurrent partitions, " + reason);
+		}
+
+		return reason == null;
+	}
+
+	/**
+	 * @return {@literal true} if any of the benchmarks runs in the runner JVM, either through the configured fork count
+	 *         or through its {@link Fork} annotation.
+	 */
+	private static boolean isUnforked(Options runOptions, List<AbstractBenchmarkDescriptor> methods,
+			List<String> includePatterns) {
+
+		if (runOptions.getForkCount().hasValue()) {
+			return runOptions.getForkCount().get() == 0;
+		}
+
+		for (String includePattern : includePatterns) {
+
+			Method method = getMethod(methods, includePattern);
+			Fork fork = method == null ? null
+					: method.isAnnotationPresent(Fork.class) ? method.getAnnotation(Fork.class)
+							: method.getDeclaringClass().getAnnotation(Fork.class);
+
+			if (fork != null && fork.value() == 0) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Run benchmarks in {@link BenchmarkConfiguration#getParallelism() concurrent partitions}. Include patterns are
+	 * {@link BenchmarkSharding#partition(BenchmarkConfiguration, List, Function, int) distributed} across partitions by
+	 * their historical duration and each partition runs its forks on a disjoint {@link CpuSet}. Concurrent JMH runs
+	 * require the JMH lock to be disabled ({@code jmh.ignoreLock}) before the JMH {@link Runner} is initialized. The lock
+	 * setting is restored once all partitions completed. CPU sets are taken from the CPUs this process
+	 * {@link CpuSet#getAllowedCpus() may run on}.
+	 */
+	private BenchmarkResults runPartitioned(JmhSupport support, BenchmarkConfiguration jmhOptions,
+			List<String> includePatterns, BenchmarkSharding sharding, CacheFunction cache, EngineExecutionListener listener,
+			Map<TestDescriptor, AtomicInteger> expectedContainerCount, RegressionGate regressionGate,
+			AllocationGate allocationGate, ResultsStream resultsStream, OutputFormat output) throws RunnerException {
+
+		List<CpuSet> cpuSets = CpuSet.partition(CpuSet.getAllowedCpus(),
+				Math.min(jmhOptions.getParallelism(), includePatterns.size()));
+		List<List<String>> partitionedPatterns = BenchmarkSharding.partition(jmhOptions, includePatterns,
+				it -> Optional.ofNullable(BenchmarkIncludes.getBenchmarkName(it)).orElse(it), cpuSets.size());
+
+		String ignoreLock = System.getProperty(JMH_IGNORE_LOCK);
+		if (ignoreLock == null) {
+			System.setProperty(JMH_IGNORE_LOCK, "true");
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(cpuSets.size());
+
+		try {
+
+			List<Future<BenchmarkResults>> partitions = new ArrayList<>(cpuSets.size());
+
+			for (int i = 0; i < cpuSets.size(); i++) {
+
+				CpuSet cpuSet = cpuSets.get(i);
+				List<String> partition = partitionedPatterns.get(i);
+
+				if (partition.isEmpty()) {
+					continue;
+				}
+
+				ChainedOptionsBuilder optionsBuilder = BenchmarkIncludes.include(support.options(), partition);
+
+				Options options = cpuSet.pin(optionsBuilder.build());
+				NotifyingOutputFormat outputFormat = new NotifyingOutputFormat(listener, cache,
+						createOutputFormat(support, options, sharding), expectedContainerCount, null, regressionGate,
+						allocationGate, resultsStream);
+
+				Map<String, Object> metadata = new LinkedHashMap<>(jmhOptions.asMap());
+				metadata.put(CpuSet.METADATA_KEY, cpuSet.toString());
+
+				partitions.add(executor.submit(() -> new BenchmarkResults(MetaData.from(metadata),
+						runBenchmarks(options, outputFormat))));
+			}
+
+			List<BenchmarkResults> results = new ArrayList<>(partitions.size());
+			for (Future<BenchmarkResults> partition : partitions) {
+				results.add(partition.get());
+			}
+
+			return BenchmarkResults.merge(MetaData.from(jmhOptions.asMap()), results);
+		} catch (IOException e) {
+			throw new RunnerException("Cannot pin benchmark forks to CPU set", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RunnerException("Interrupted while waiting for benchmark partitions", e);
+		} catch (ExecutionException e) {
+
+			if (e.getCause() instanceof RunnerException) {
+				throw (RunnerException) e.getCause();
+			}
+
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+
+			throw new RunnerException("Benchmark partition failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+
+			if (ignoreLock == null) {
+				System.clearProperty(JMH_IGNORE_LOCK);
+			}
+		}
+	}
+
 	protected Collection<RunResult> runBenchmarks(Options options, OutputFormat outputFormat) throws RunnerException {
 		return new Runner(options, outputFormat).run();
 	}
@@ -141,6 +838,80 @@ public class JmhRunner {
 		return methods;
 	}
 
+	/**
+	 * Move parametrized benchmark methods of which only some fixtures were selected for discovery, e.g. through a
+	 * {@code fixture} {@link org.junit.platform.engine.UniqueId}, from {@code includePatterns} to {@code fixtureRuns} so
+	 * that only the selected fixtures are run.
+	 */
+	private static void selectFixtures(List<AbstractBenchmarkDescriptor> methods, List<String> includePatterns,
+			Map<String, List<BenchmarkFixture>> fixtureRuns) {
+
+		for (AbstractBenchmarkDescriptor method : methods) {
+
+			if (!(method instanceof ParametrizedBenchmarkMethodDescriptor)) {
+				continue;
+			}
+
+			ParametrizedBenchmarkMethod parametrized = ((ParametrizedBenchmarkMethodDescriptor) method)
+					.getParametrizedMethod();
+			String includePattern = getIncludePattern(parametrized.getMethod());
+			List<BenchmarkFixture> candidates = fixtureRuns.get(includePattern);
+
+			if (candidates == null && !includePatterns.contains(includePattern)) {
+				continue;
+			}
+
+			Set<BenchmarkFixture> selected = method.getChildren().stream() //
+					.filter(BenchmarkFixtureDescriptor.class::isInstance) //
+					.map(it -> ((BenchmarkFixtureDescriptor) it).getFixture()) //
+					.collect(Collectors.toSet());
+
+			if (selected.isEmpty()) {
+				continue;
+			}
+
+			List<BenchmarkFixture> fixtures = (candidates != null ? candidates : parametrized.getChildren()).stream() //
+					.filter(selected::contains) //
+					.collect(Collectors.toList());
+
+			if (candidates != null || fixtures.size() < parametrized.getChildren().size()) {
+				includePatterns.remove(includePattern);
+				fixtureRuns.put(includePattern, fixtures);
+			}
+		}
+	}
+
+	/**
+	 * Collect the fixtures of included benchmark methods whose fixtures are {@link ParametrizedBenchmarkMethod#isSampled()
+	 * sampled} or {@link ParametrizedBenchmarkMethod#isThreadSwept() sweep thread counts}, keyed by include pattern.
+	 */
+	private static Map<String, List<BenchmarkFixture>> getSampledFixtures(List<AbstractBenchmarkDescriptor> methods,
+			List<String> includePatterns) {
+
+		Map<String, List<BenchmarkFixture>> sampledFixtures = new LinkedHashMap<>();
+
+		for (AbstractBenchmarkDescriptor method : methods) {
+
+			if (!(method instanceof ParametrizedBenchmarkMethodDescriptor)) {
+				continue;
+			}
+
+			ParametrizedBenchmarkMethod parametrized = ((ParametrizedBenchmarkMethodDescriptor) method)
+					.getParametrizedMethod();
+			String includePattern = getIncludePattern(parametrized.getMethod());
+
+			if ((parametrized.isSampled() || parametrized.isThreadSwept()) && includePatterns.contains(includePattern)) {
+				sampledFixtures.put(includePattern, parametrized.getChildren());
+			}
+		}
+
+		return sampledFixtures;
+	}
+
+	private static String getIncludePattern(Method method) {
+		return BenchmarkIncludes.getIncludePattern(method);
+	}
+
 	private boolean shouldRun(List<?> methods) {
 		return !methods.isEmpty();
 	}
@@ -265,8 +1036,7 @@ public class JmhRunner {
 
 		public void includeIfEnabled(List<String> includePatterns) {
 			if (!skipResult.isSkipped()) {
-				Method method = methodAware.getMethod();
-				includePatterns.add(Pattern.quote(method.getDeclaringClass().getName().replace('$', '.')) + "\\." + Pattern.quote(method.getName()) + "$");
+				includePatterns.add(getIncludePattern(methodAware.getMethod()));
 			}
 		}
 	}
@@ -281,15 +1051,41 @@ public class JmhRunner {
 		private final CacheFunction descriptionResolver;
 		private final OutputFormat delegate;
 		private final List<String> log = new CopyOnWriteArrayList<>();
-		private final Map<TestDescriptor, AtomicInteger> expectedContainerCount = new ConcurrentHashMap<>();
+		private final Map<TestDescriptor, AtomicInteger> expectedContainerCount;
+		private final AdaptiveMeasurement adaptiveMeasurement;
+		private final RegressionGate regressionGate;
+		private final AllocationGate allocationGate;
+		private final ResultsStream resultsStream;
+		private final Set<TestDescriptor> started = ConcurrentHashMap.newKeySet();
+		private final Set<TestDescriptor> finished = ConcurrentHashMap.newKeySet();
 
 		private volatile BenchmarkParams lastKnownBenchmark;
 		private volatile boolean recordOutput;
 
 		NotifyingOutputFormat(EngineExecutionListener listener, CacheFunction methods, OutputFormat delegate) {
+			this(listener, methods, delegate, new ConcurrentHashMap<>(), null, null, null, null);
+		}
+
+		/**
+		 * Create a new {@link NotifyingOutputFormat} that shares container bookkeeping with other instances so containers
+		 * are reported finished only once all of their benchmarks have completed across concurrent runs. If
+		 * {@link AdaptiveMeasurement} is given, measurement iterations are recorded and benchmarks are reported
+		 * {@link #finished(List) finished} only once all rounds completed. If {@link RegressionGate} is given, completed benchmarks that regressed
+		 * against their baseline are reported as failed. If {@link AllocationGate} is given, completed benchmarks that
+		 * exceed their allocation limit are reported as failed. If {@link ResultsStream} is given, results of completed
+		 * benchmarks are published right away.
+		 */
+		NotifyingOutputFormat(EngineExecutionListener listener, CacheFunction methods, OutputFormat delegate,
+				Map<TestDescriptor, AtomicInteger> expectedContainerCount, AdaptiveMeasurement adaptiveMeasurement,
+				RegressionGate regressionGate, AllocationGate allocationGate, ResultsStream resultsStream) {
 			this.listener = listener;
 			this.descriptionResolver = methods;
 			this.delegate = delegate;
+			this.expectedContainerCount = expectedContainerCount;
+			this.adaptiveMeasurement = adaptiveMeasurement;
+			this.regressionGate = regressionGate;
+			this.allocationGate = allocationGate;
+			this.resultsStream = resultsStream;
 		}
 
 		@Override
@@ -300,6 +1096,11 @@ public class JmhRunner {
 		@Override
 		public void iterationResult(BenchmarkParams benchParams, IterationParams params, int iteration,
 									IterationResult data) {
+
+			if (adaptiveMeasurement != null) {
+				adaptiveMeasurement.record(benchParams, params, data);
+			}
+
 			delegate.iterationResult(benchParams, params, iteration, data);
 		}
 
@@ -312,7 +1113,9 @@ public class JmhRunner {
 
 			TestDescriptor descriptor = descriptionResolver.apply(benchParams);
 
-			listener.executionStarted(descriptor);
+			if (started.add(descriptor)) {
+				listener.executionStarted(descriptor);
+			}
 
 			delegate.startBenchmark(benchParams);
 		}
@@ -323,17 +1126,113 @@ public class JmhRunner {
 			recordOutput = false;
 
 			BenchmarkParams lastKnownBenchmark = this.lastKnownBenchmark;
-			TestExecutionResult executionResult = getResult(result, lastKnownBenchmark);
 			TestDescriptor descriptor = getDescriptor(result, lastKnownBenchmark);
 
-			listener.executionFinished(descriptor, executionResult);
+			if (isComplete(result, lastKnownBenchmark) && finished.add(descriptor)) {
+
+				TestExecutionResult executionResult = getResult(result, lastKnownBenchmark);
+
+				if (result != null && resultsStream != null) {
+					resultsStream.publish(result);
+				}
+
+				listener.executionFinished(descriptor, executionResult);
 
-			notifyFinishedRecursively(descriptor, it -> listener.executionFinished(it, executionResult));
+				notifyFinishedRecursively(descriptor, it -> listener.executionFinished(it, executionResult));
+			}
 
 			log.clear();
 			delegate.endBenchmark(result);
 		}
 
+		/**
+		 * Report a benchmark that is not run as skipped and finish its containers once all of their benchmarks have
+		 * completed.
+		 */
+		void skipped(TestDescriptor descriptor, String reason) {
+
+			if (finished.add(descriptor)) {
+
+				listener.executionSkipped(descriptor, reason);
+				notifyFinishedRecursively(descriptor, it -> listener.executionFinished(it, TestExecutionResult.successful()));
+			}
+		}
+
+		/**
+		 * Report a benchmark whose results were restored from the {@link RunJournal} of a previous run. Restored results
+		 * are verified like results of completed benchmarks, so a benchmark that failed verification is reported as
+		 * failed again. Otherwise it is reported as skipped as it did not run.
+		 */
+		void restored(TestDescriptor descriptor, List<RunResult> results, String reason) {
+
+			if (!finished.add(descriptor)) {
+				return;
+			}
+
+			TestExecutionResult executionResult = TestExecutionResult.successful();
+			for (RunResult result : results) {
+				for (BenchmarkResult benchmarkResult : result.getBenchmarkResults()) {
+
+					TestExecutionResult verified = getResult(benchmarkResult, benchmarkResult.getParams());
+					if (executionResult.getStatus() == TestExecutionResult.Status.SUCCESSFUL) {
+						executionResult = verified;
+					}
+				}
+			}
+
+			if (executionResult.getStatus() == TestExecutionResult.Status.SUCCESSFUL) {
+
+				listener.executionSkipped(descriptor, reason);
+				notifyFinishedRecursively(descriptor, it -> listener.executionFinished(it, TestExecutionResult.successful()));
+				return;
+			}
+
+			TestExecutionResult failed = executionResult;
+			listener.executionStarted(descriptor);
+			listener.executionFinished(descriptor, failed);
+			notifyFinishedRecursively(descriptor, it -> listener.executionFinished(it, failed));
+		}
+
+		/**
+		 * Report benchmarks measured in {@link AdaptiveMeasurement adaptive} rounds as finished once all rounds completed.
+		 * Results are verified with the iterations of all rounds.
+		 *
+		 * @param results the combined results of all rounds.
+		 */
+		void finished(List<BenchmarkResult> results) {
+
+			for (BenchmarkResult result : results) {
+
+				TestDescriptor descriptor = descriptionResolver.apply(result.getParams());
+
+				if (finished.add(descriptor)) {
+
+					TestExecutionResult executionResult = getResult(result, result.getParams());
+
+					listener.executionFinished(descriptor, executionResult);
+					notifyFinishedRecursively(descriptor, it -> listener.executionFinished(it, executionResult));
+				}
+			}
+		}
+
+		private boolean isComplete(BenchmarkResult result, BenchmarkParams lastKnownBenchmark) {
+
+			if (adaptiveMeasurement == null) {
+				return true;
+			}
+
+			if (result == null) {
+
+				if (lastKnownBenchmark != null) {
+					adaptiveMeasurement.markFailed(lastKnownBenchmark);
+				}
+				return true;
+			}
+
+			// a round holds only part of the iterations, see finished(List)
+			return false;
+		}
+
 		private void notifyFinishedRecursively(TestDescriptor descriptor, Consumer<TestDescriptor> visitor) {
 
 			Optional<TestDescriptor> parent = descriptor.getParent();
@@ -364,6 +1263,21 @@ public class JmhRunner {
 		private TestExecutionResult getResult(BenchmarkResult result, BenchmarkParams lastKnownBenchmark) {
 
 			if (result != null) {
+
+				RegressionGate.Regression regression = regressionGate != null ? regressionGate.verify(result) : null;
+
+				if (regression != null) {
+					delegate.println("# REGRESSION: " + regression);
+					return TestExecutionResult.failed(regression.toError());
+				}
+
+				AllocationGate.Violation violation = allocationGate != null ? allocationGate.verify(result) : null;
+
+				if (violation != null) {
+					delegate.println("# ALLOCATION: " + violation);
+					return TestExecutionResult.failed(violation.toError());
+				}
+
 				return TestExecutionResult.successful();
 			}
 
@@ -444,6 +1358,23 @@ public class JmhRunner {
 		}
 	}
 
+	/**
+	 * Unit of work assigned to a {@link BenchmarkSharding shard} or restored from a {@link RunJournal}: either a benchmark
+	 * method or a benchmark fixture.
+	 */
+	private static class ShardUnit {
+
+		private final TestDescriptor descriptor;
+		private final BenchmarkFixture fixture;
+		private final String key;
+
+		ShardUnit(TestDescriptor descriptor, BenchmarkFixture fixture, String key) {
+			this.descriptor = descriptor;
+			this.fixture = fixture;
+			this.key = key;
+		}
+	}
+
 	/**
 	 * Exception proxy without stack trace.
 	 */
@@ -487,17 +1418,13 @@ public class JmhRunner {
 			if (descriptor instanceof ParametrizedBenchmarkMethodDescriptor) {
 
 				ParametrizedBenchmarkMethodDescriptor parametrized = (ParametrizedBenchmarkMethodDescriptor) descriptor;
-				Map<String, String> lookup = new HashMap<>();
-				for (String key : benchmark.getParamsKeys()) {
-					lookup.put(key, benchmark.getParam(key));
-				}
 
 				for (TestDescriptor child : parametrized.getChildren()) {
 
 					if (child instanceof BenchmarkFixtureDescriptor) {
 						BenchmarkFixtureDescriptor fixture = (BenchmarkFixtureDescriptor) child;
 
-						if (fixture.getFixture().getFixture().equals(lookup)) {
+						if (fixture.getFixture().matches(benchmark)) {
 							return fixture;
 						}
 					}
@@ -518,7 +1445,7 @@ public class JmhRunner {
 			});
 		}
 
-		private String getBenchmarkName(TestDescriptor descriptor) {
+		static String getBenchmarkName(TestDescriptor descriptor) {
 
 			MethodAware methodAware = (MethodAware) descriptor;
 			return methodAware.getMethod().getDeclaringClass().getName().replace('$', '.') + "." + methodAware.getMethod().getName();
@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.BiFunction;
 
 import jmh.mbr.core.BenchmarkConfiguration;
 import jmh.mbr.core.JmhSupport;
@@ -41,8 +42,8 @@ import org.openjdk.jmh.runner.options.Options;
  */
 public class JmhRunnerStub extends JmhRunner {
 
-	List<RunData> runData = new ArrayList<>();
-	List<Collection<RunResult>> stubResults = new ArrayList<>();
+	List<RunData> runData = Collections.synchronizedList(new ArrayList<>());
+	List<BiFunction<Options, OutputFormat, Collection<RunResult>>> stubResults = new ArrayList<>();
 	JmhSupportStub supportStub;
 
 	public JmhRunnerStub(MbrConfiguration configuration, MutableExtensionRegistry extensionRegistry) {
@@ -60,18 +61,26 @@ public class JmhRunnerStub extends JmhRunner {
 	@Override
 	protected Collection<RunResult> runBenchmarks(Options options, OutputFormat outputFormat) throws RunnerException {
 
-		this.runData.add(new RunData(options, outputFormat));
+		int index;
+		synchronized (runData) {
+			index = runData.size();
+			runData.add(new RunData(options, outputFormat));
+		}
 
 		if (stubResults.isEmpty()) {
 			return super.runBenchmarks(options, outputFormat);
 		}
-		return getNextResults();
+		return getNextResults(index, options, outputFormat);
 	}
 
 
 	public JmhRunnerStub onRunReturn(Collection<RunResult> results) {
+		return onRun((options, outputFormat) -> results);
+	}
+
+	public JmhRunnerStub onRun(BiFunction<Options, OutputFormat, Collection<RunResult>> run) {
 
-		stubResults.add(results);
+		stubResults.add(run);
 		return this;
 	}
 
@@ -98,6 +107,20 @@ public class JmhRunnerStub extends JmhRunner {
 		return runData.get(runData.size() - 1);
 	}
 
+	public Options getRunOptions() {
+
+		RunData runData = getRunData();
+		return runData != null ? runData.options : null;
+	}
+
+	public Options getRunOptions(int run) {
+		return getRunData(run).options;
+	}
+
+	public int getRunCount() {
+		return runData.size();
+	}
+
 	public BenchmarkConfiguration getJmhInitOptions() {
 		return supportStub != null ? supportStub.getInitOptions() : null;
 	}
@@ -127,11 +150,10 @@ public class JmhRunnerStub extends JmhRunner {
 		return descriptor;
 	}
 
-	private Collection<RunResult> getNextResults() {
+	private Collection<RunResult> getNextResults(int index, Options options, OutputFormat outputFormat) {
 
-		int index = runData.size() - 1;
-		if (stubResults.size() >= index) {
-			return stubResults.get(index);
+		if (index < stubResults.size()) {
+			return stubResults.get(index).apply(options, outputFormat);
 		}
 		return Collections.emptyList();
 	}
@@ -10,30 +10,41 @@
 package jmh.mbr.junit5.execution;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
-import java.util.regex.Pattern;
 
+import jmh.mbr.core.BenchmarkIncludes;
 import jmh.mbr.core.model.BenchmarkClass;
 import jmh.mbr.core.model.BenchmarkDescriptor;
 import jmh.mbr.core.model.BenchmarkDescriptorFactory;
+import jmh.mbr.core.model.BenchmarkFixture;
 import jmh.mbr.core.model.BenchmarkMethod;
 import jmh.mbr.core.model.BenchmarkResults;
+import jmh.mbr.core.model.FixtureSampler;
+import jmh.mbr.core.model.ParametrizedBenchmarkMethod;
 import jmh.mbr.junit5.JmhRunnerStub;
 import jmh.mbr.junit5.config.DefaultMbrConfiguration;
 import jmh.mbr.junit5.config.MbrConfiguration;
 import jmh.mbr.junit5.descriptor.AbstractBenchmarkDescriptor;
 import jmh.mbr.junit5.descriptor.BenchmarkClassDescriptor;
+import jmh.mbr.junit5.descriptor.BenchmarkFixtureDescriptor;
 import jmh.mbr.junit5.descriptor.BenchmarkMethodDescriptor;
+import jmh.mbr.junit5.descriptor.ParametrizedBenchmarkMethodDescriptor;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.engine.extension.MutableExtensionRegistry;
 import org.junit.platform.engine.ConfigurationParameters;
 import org.junit.platform.engine.EngineExecutionListener;
@@ -42,8 +53,25 @@ import org.junit.platform.engine.TestExecutionResult;
 import org.junit.platform.engine.UniqueId;
 import org.junit.platform.engine.reporting.OutputDirectoryProvider;
 import org.junit.platform.engine.reporting.ReportEntry;
+import org.junit.platform.engine.support.descriptor.EngineDescriptor;
 import org.junit.platform.engine.support.store.NamespacedHierarchicalStore;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.AverageTimeResult;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.ResultRole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.IterationType;
+import org.openjdk.jmh.runner.WorkloadParams;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.options.TimeValue;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -70,10 +98,8 @@ public class JmhRunnerUnitTests {
 		List<String> includePatterns = runner
 				.evaluateBenchmarksToRun(descriptors, EmptyEngineExecutionListener.INSTANCE);
 
-		assertThat(includePatterns).hasSize(1).contains(Pattern
-				.quote(SimpleBenchmarkClass.class.getName()
-						.replace('$', '.')) + "\\." + Pattern
-				.quote("justOne") + "$");
+		assertThat(includePatterns).hasSize(1).contains(
+				"^\\Qjmh.mbr.junit5.execution.JmhRunnerUnitTests.SimpleBenchmarkClass.justOne\\E$");
 	}
 
 	@Test
@@ -87,10 +113,8 @@ public class JmhRunnerUnitTests {
 		List<String> includePatterns = runner
 				.evaluateBenchmarksToRun(descriptors, EmptyEngineExecutionListener.INSTANCE);
 
-		assertThat(includePatterns).hasSize(1).contains(Pattern
-				.quote(SimpleBenchmarkClass.class.getName()
-						.replace('$', '.')) + "\\." + Pattern
-				.quote("justOne") + "$");
+		assertThat(includePatterns).hasSize(1).contains(
+				"^\\Qjmh.mbr.junit5.execution.JmhRunnerUnitTests.SimpleBenchmarkClass.justOne\\E$");
 	}
 
 	@Test
@@ -102,10 +126,8 @@ public class JmhRunnerUnitTests {
 		List<String> includePatterns = runner
 				.evaluateBenchmarksToRun(descriptors, EmptyEngineExecutionListener.INSTANCE);
 
-		assertThat(includePatterns).hasSize(1).contains(Pattern
-				.quote(ConditionalMethods.class.getName()
-						.replace('$', '.')) + "\\." + Pattern
-				.quote("enabled") + "$");
+		assertThat(includePatterns).hasSize(1).contains(
+				"^\\Qjmh.mbr.junit5.execution.JmhRunnerUnitTests.ConditionalMethods.enabled\\E$");
 	}
 
 	@Test
@@ -140,6 +162,292 @@ public class JmhRunnerUnitTests {
 		assertThat(results.getMetaData().getProject()).isEqualTo("my beloved one!");
 	}
 
+	@Test
+	void shouldRestrictRunToSelectedFixtures() {
+
+		BenchmarkClass benchmarkClass = BenchmarkDescriptorFactory.create(ParametrizedBenchmarkClass.class)
+				.createDescriptor();
+		BenchmarkClassDescriptor descriptor = new BenchmarkClassDescriptor(UniqueId.root("root", "root"), benchmarkClass);
+
+		ParametrizedBenchmarkMethod parametrized = (ParametrizedBenchmarkMethod) benchmarkClass.getChildren().get(0);
+		ParametrizedBenchmarkMethodDescriptor methodDescriptor = new ParametrizedBenchmarkMethodDescriptor(
+				descriptor.getUniqueId().append("method", "run"), parametrized);
+		descriptor.addChild(methodDescriptor);
+
+		for (BenchmarkFixture fixture : parametrized.getChildren()) {
+			if (!"3".equals(fixture.getFixture().get("size"))) {
+				methodDescriptor.addChild(new BenchmarkFixtureDescriptor(
+						methodDescriptor.getUniqueId().append("fixture", fixture.getDisplayName()),
+						parametrized.getDescriptor(), fixture));
+			}
+		}
+
+		runner.onRunReturnEmptyResult();
+		runner.execute(descriptor, EmptyEngineExecutionListener.INSTANCE);
+
+		assertThat(runner.getRunOptions().getParameter("size").get()).containsExactly("1", "2");
+		assertThat(runner.getRunOptions().getParameter("mode").get()).containsExactly("a", "b");
+	}
+
+	@Test
+	void shouldRunThreadSweepPerThreadCount() {
+
+		BenchmarkClass benchmarkClass = BenchmarkDescriptorFactory
+				.create(SimpleBenchmarkClass.class, FixtureSampler.full().withThreadSweep(1, 2)).createDescriptor();
+		BenchmarkClassDescriptor descriptor = new BenchmarkClassDescriptor(UniqueId.root("root", "root"), benchmarkClass);
+
+		ParametrizedBenchmarkMethod parametrized = (ParametrizedBenchmarkMethod) benchmarkClass.getChildren().get(0);
+		ParametrizedBenchmarkMethodDescriptor methodDescriptor = new ParametrizedBenchmarkMethodDescriptor(
+				descriptor.getUniqueId().append("method", "justOne"), parametrized);
+		descriptor.addChild(methodDescriptor);
+
+		for (BenchmarkFixture fixture : parametrized.getChildren()) {
+			methodDescriptor.addChild(new BenchmarkFixtureDescriptor(
+					methodDescriptor.getUniqueId().append("fixture", fixture.getDisplayName()),
+					parametrized.getDescriptor(), fixture));
+		}
+
+		runner.onRunReturnEmptyResult();
+		runner.execute(descriptor, EmptyEngineExecutionListener.INSTANCE);
+
+		assertThat(runner.getRunCount()).isEqualTo(2);
+		assertThat(runner.getRunOptions(0).getThreads().get()).isEqualTo(1);
+		assertThat(runner.getRunOptions(1).getThreads().get()).isEqualTo(2);
+		assertThat(runner.getRunOptions(1).getParameter(BenchmarkFixture.THREADS).hasValue()).isFalse();
+	}
+
+	@Test
+	void shouldRestoreJmhLockAfterPartitionedRun() {
+
+		CapturingConfigurationParameters parameters = new CapturingConfigurationParameters(
+				Collections.singletonMap("jmh.mbr.parallelism", "2"));
+
+		MbrConfiguration configuration = new DefaultMbrConfiguration(parameters, EmptyOutputDirectoryProvider.INSTANCE,
+				new NamespacedHierarchicalStore(null).newChild());
+		JmhRunnerStub runner = new JmhRunnerStub(configuration,
+				MutableExtensionRegistry.createRegistryWithDefaultExtensions(configuration)) {
+		};
+
+		assertThat(System.getProperty("jmh.ignoreLock")).isNull();
+
+		EngineDescriptor engine = new EngineDescriptor(UniqueId.forEngine("engine"), "engine");
+		engine.addChild(createDescriptor(SimpleBenchmarkClass.class));
+		engine.addChild(createDescriptor(TwoBenchmarks.class));
+
+		runner.onRunReturnEmptyResult();
+		runner.onRunReturnEmptyResult();
+		runner.execute(engine, EmptyEngineExecutionListener.INSTANCE);
+
+		// one partition per allowed CPU
+		assertThat(runner.getRunCount()).isBetween(1, 2);
+		assertThat(System.getProperty("jmh.ignoreLock")).isNull();
+	}
+
+	@Test
+	void shouldNotPartitionUnforkedRun() {
+
+		JmhRunnerStub runner = createRunner(new CapturingConfigurationParameters(
+				Collections.singletonMap("jmh.mbr.parallelism", "2")));
+		runner.onRunReturnEmptyResult();
+
+		runner.execute(UnforkedBenchmarks.class);
+
+		assertThat(runner.getRunCount()).isEqualTo(1);
+		assertThat(System.getProperty("jmh.ignoreLock")).isNull();
+	}
+
+	@Test
+	void shouldApplyOverridesFromConfigurationParameters() {
+
+		Map<String, String> configuration = new HashMap<>();
+		configuration.put("jmh.mbr.override.SimpleBenchmarkClass.forks", "3");
+		JmhRunnerStub runner = createRunner(new CapturingConfigurationParameters(configuration));
+		runner.onRunReturnEmptyResult();
+
+		runner.execute(SimpleBenchmarkClass.class);
+
+		assertThat(runner.getRunCount()).isEqualTo(1);
+		assertThat(runner.getRunOptions().getForkCount().get()).isEqualTo(3);
+	}
+
+	@Test
+	void shouldRestrictAdaptiveRoundsToIncompleteFixtures() throws Exception {
+
+		Map<String, String> configuration = new HashMap<>();
+		configuration.put("jmh.mbr.measurement.targetError", "0.01");
+		configuration.put("jmh.mbr.measurement.maxIterations", "6");
+		JmhRunnerStub runner = createRunner(new CapturingConfigurationParameters(configuration));
+
+		String benchmark = BenchmarkIncludes
+				.getBenchmarkName(ParametrizedBenchmarkClass.class.getMethod("run"));
+
+		runner.onRun((options, output) -> {
+
+			for (String size : new String[] { "1", "2", "3" }) {
+				for (String mode : new String[] { "a", "b" }) {
+
+					boolean noisy = size.equals("2") && mode.equals("b");
+					iterations(output, params(benchmark, "size", size, "mode", mode), noisy ? new double[] { 10, 100, 50 }
+							: new double[] { 100, 100, 100 });
+				}
+			}
+
+			return Collections.emptyList();
+		});
+		runner.onRun((options, output) -> {
+
+			iterations(output, params(benchmark, "size", "2", "mode", "b"), 20, 200, 70);
+			return Collections.emptyList();
+		});
+
+		BenchmarkClass benchmarkClass = BenchmarkDescriptorFactory.create(ParametrizedBenchmarkClass.class)
+				.createDescriptor();
+		BenchmarkClassDescriptor descriptor = new BenchmarkClassDescriptor(UniqueId.root("root", "root"), benchmarkClass);
+
+		ParametrizedBenchmarkMethod parametrized = (ParametrizedBenchmarkMethod) benchmarkClass.getChildren().get(0);
+		ParametrizedBenchmarkMethodDescriptor methodDescriptor = new ParametrizedBenchmarkMethodDescriptor(
+				descriptor.getUniqueId().append("method", "run"), parametrized);
+		descriptor.addChild(methodDescriptor);
+
+		for (BenchmarkFixture fixture : parametrized.getChildren()) {
+			methodDescriptor.addChild(new BenchmarkFixtureDescriptor(
+					methodDescriptor.getUniqueId().append("fixture", fixture.getDisplayName()),
+					parametrized.getDescriptor(), fixture));
+		}
+
+		runner.execute(descriptor, EmptyEngineExecutionListener.INSTANCE);
+
+		assertThat(runner.getRunCount()).isEqualTo(2);
+		assertThat(runner.getRunOptions(1).getIncludes()).containsExactly(BenchmarkIncludes.getIncludePattern(benchmark));
+		assertThat(runner.getRunOptions(1).getParameter("size").get()).containsExactly("2");
+		assertThat(runner.getRunOptions(1).getParameter("mode").get()).containsExactly("b");
+		assertThat(runner.getRunOptions(1).getForkCount().get()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldVerifyAdaptiveRoundsAgainstRegressionBaseline(@TempDir Path directory) throws Exception {
+
+		Path baseline = directory.resolve("baseline.properties");
+		String benchmark = BenchmarkIncludes.getBenchmarkName(SimpleBenchmarkClass.class.getMethod("justOne"));
+		Files.write(baseline, (benchmark + "{}=ns/op;10000,10100,9900,10000,10200,9800\n")
+				.getBytes(StandardCharsets.ISO_8859_1));
+
+		Map<String, String> configuration = new HashMap<>();
+		configuration.put("jmh.mbr.measurement.targetError", "0.01");
+		configuration.put("jmh.mbr.measurement.maxIterations", "6");
+		configuration.put("jmh.mbr.regression.baseline", baseline.toString());
+		JmhRunnerStub runner = createRunner(new CapturingConfigurationParameters(configuration));
+
+		// the last round alone is within the threshold, all rounds combined regressed
+		runner.onRun((options, output) -> round(output, params(benchmark), 50, 40, 60));
+		runner.onRun((options, output) -> round(output, params(benchmark), 10.5, 10.6, 10.4));
+
+		Map<TestDescriptor, TestExecutionResult> results = new HashMap<>();
+		runner.execute(createDescriptor(SimpleBenchmarkClass.class), new EngineExecutionListener() {
+
+			@Override
+			public void executionFinished(TestDescriptor testDescriptor, TestExecutionResult testExecutionResult) {
+				results.put(testDescriptor, testExecutionResult);
+			}
+		});
+
+		assertThat(runner.getRunCount()).isEqualTo(2);
+		assertThat(results).hasEntrySatisfying(getOnlyMethod(results.keySet()),
+				it -> assertThat(it.getStatus()).isEqualTo(TestExecutionResult.Status.FAILED));
+	}
+
+	@Test
+	void shouldReportRestoredRegressionAsFailed(@TempDir Path directory) throws Exception {
+
+		Path baseline = directory.resolve("baseline.properties");
+		String benchmark = BenchmarkIncludes.getBenchmarkName(SimpleBenchmarkClass.class.getMethod("justOne"));
+		Files.write(baseline, (benchmark + "{}=ns/op;10000,10100,9900,10000,10200,9800\n")
+				.getBytes(StandardCharsets.ISO_8859_1));
+
+		Map<String, String> configuration = new HashMap<>();
+		configuration.put("jmh.mbr.report.dir", directory.resolve("reports").toString());
+		configuration.put("jmh.mbr.regression.baseline", baseline.toString());
+
+		// the run is interrupted after the regressed benchmark was journaled
+		JmhRunnerStub interrupted = createRunner(new CapturingConfigurationParameters(configuration));
+		interrupted.onRun((options, output) -> {
+			round(output, params(benchmark), 50, 40, 60, 50, 40, 60);
+			throw new IllegalStateException("interrupted");
+		});
+		interrupted.execute(createDescriptor(SimpleBenchmarkClass.class), new EngineExecutionListener() {});
+
+		configuration.put("jmh.mbr.resume", "true");
+		JmhRunnerStub resumed = createRunner(new CapturingConfigurationParameters(configuration));
+
+		Map<TestDescriptor, TestExecutionResult> results = new HashMap<>();
+		resumed.execute(createDescriptor(SimpleBenchmarkClass.class), new EngineExecutionListener() {
+
+			@Override
+			public void executionFinished(TestDescriptor testDescriptor, TestExecutionResult testExecutionResult) {
+				results.put(testDescriptor, testExecutionResult);
+			}
+		});
+
+		assertThat(resumed.getRunCount()).isZero();
+		assertThat(results).hasEntrySatisfying(getOnlyMethod(results.keySet()),
+				it -> assertThat(it.getStatus()).isEqualTo(TestExecutionResult.Status.FAILED));
+	}
+
+	private static TestDescriptor getOnlyMethod(Set<TestDescriptor> descriptors) {
+		return descriptors.stream().filter(BenchmarkMethodDescriptor.class::isInstance).findFirst().get();
+	}
+
+	private static Collection<RunResult> round(OutputFormat output, BenchmarkParams params, double... scores) {
+
+		output.startBenchmark(params);
+		BenchmarkResult result = new BenchmarkResult(params, iterations(output, params, scores));
+		output.endBenchmark(result);
+
+		return Collections.singletonList(new RunResult(params, Collections.singletonList(result)));
+	}
+
+	private static JmhRunnerStub createRunner(ConfigurationParameters parameters) {
+
+		MbrConfiguration configuration = new DefaultMbrConfiguration(parameters, EmptyOutputDirectoryProvider.INSTANCE,
+				new NamespacedHierarchicalStore(null).newChild());
+		return new JmhRunnerStub(configuration, MutableExtensionRegistry.createRegistryWithDefaultExtensions(configuration)) {
+		};
+	}
+
+	private static List<IterationResult> iterations(OutputFormat output, BenchmarkParams params, double... scores) {
+
+		IterationParams iteration = params.getMeasurement();
+		List<IterationResult> results = new ArrayList<>(scores.length);
+
+		for (int i = 0; i < scores.length; i++) {
+
+			IterationResult result = new IterationResult(params, iteration, null);
+			result.addResult(new AverageTimeResult(ResultRole.PRIMARY, "score", 1, (long) (scores[i] * 1000),
+					TimeUnit.NANOSECONDS));
+			output.iterationResult(params, iteration, i + 1, result);
+			results.add(result);
+		}
+
+		return results;
+	}
+
+	/**
+	 * @param parameters alternating parameter names and values.
+	 */
+	private static BenchmarkParams params(String benchmark, String... parameters) {
+
+		IterationParams warmup = new IterationParams(IterationType.WARMUP, 1, TimeValue.seconds(1), 1);
+		IterationParams measurement = new IterationParams(IterationType.MEASUREMENT, 1, TimeValue.seconds(1), 1);
+
+		WorkloadParams workloadParams = new WorkloadParams();
+		for (int i = 0; i < parameters.length; i += 2) {
+			workloadParams.put(parameters[i], parameters[i + 1], i / 2);
+		}
+
+		return new BenchmarkParams(benchmark, benchmark, false, 1, new int[] { 1 }, Collections.emptyList(), 1, 0,
+				warmup, measurement, Mode.AverageTime, workloadParams, TimeUnit.MICROSECONDS, 1, "java",
+				Collections.emptyList(), "1.8", "JDK", "1.8", "1.37", TimeValue.NONE);
+	}
 
 	private BenchmarkClassDescriptor createDescriptor(Class<?> javaClass) {
 
@@ -162,6 +470,17 @@ public class JmhRunnerUnitTests {
 		return descriptor;
 	}
 
+	@State(Scope.Benchmark)
+	public static class ParametrizedBenchmarkClass {
+
+		@Param({ "1", "2", "3" }) int size;
+		@Param({ "a", "b" }) String mode;
+
+		@Benchmark
+		public void run() {
+		}
+	}
+
 	public static class SimpleBenchmarkClass {
 
 		@Benchmark
@@ -169,6 +488,29 @@ public class JmhRunnerUnitTests {
 		}
 	}
 
+	public static class TwoBenchmarks {
+
+		@Benchmark
+		public void first() {
+		}
+
+		@Benchmark
+		public void second() {
+		}
+	}
+
+	@Fork(0)
+	public static class UnforkedBenchmarks {
+
+		@Benchmark
+		public void first() {
+		}
+
+		@Benchmark
+		public void second() {
+		}
+	}
+
 	@Disabled
 	public static class DisabledBenchmark {
 
@@ -192,10 +534,12 @@ public class JmhRunnerUnitTests {
 	static class CapturingConfigurationParameters implements ConfigurationParameters {
 
 		List<String> capturedKeys = new ArrayList<>();
+		private Set<String> keys = Collections.emptySet();
 		private Function<String, String> callback;
 
 		public CapturingConfigurationParameters(Map<String, String> map) {
 			this(map::get);
+			this.keys = map.keySet();
 		}
 
 		public CapturingConfigurationParameters(Function<String, String> callback) {
@@ -210,7 +554,10 @@ public class JmhRunnerUnitTests {
 
 		@Override
 		public Set<String> keySet() {
-			return new LinkedHashSet<>(capturedKeys);
+
+			Set<String> keySet = new LinkedHashSet<>(keys);
+			keySet.addAll(capturedKeys);
+			return keySet;
 		}
 
 		@Override